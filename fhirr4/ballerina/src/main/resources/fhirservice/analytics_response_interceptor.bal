@@ -17,9 +17,7 @@
 import ballerina/http;
 import ballerina/jwt;
 import ballerina/log;
-import ballerina/time;
 import ballerinax/health.fhir.r4;
-import ballerina/file;
 
 configurable AnalyticsConfig analytics = {
     enabled: false,
@@ -79,7 +77,8 @@ isolated service class AnalyticsResponseInterceptor {
                     }
                 }
             }
-            // Initialize the file rotator
+            // Initialize the analytics flush task and the file rotator
+            initAnalyticsFlushTask();
             initFileRotator();
         }
     }
@@ -92,8 +91,7 @@ isolated service class AnalyticsResponseInterceptor {
         }
 
         //check excluded APIs from config and skip analytics writing
-        boolean|error? isApiAllowedResult = isApiAllowed(getApiPath(req.rawPath, analytics.fhirServerContext), 
-                                                        analytics.allowedApiContexts, analytics.excludedApiContexts);
+        boolean|error? isApiAllowedResult = isAnalyticsApiAllowed(req, ctx);
         if isApiAllowedResult is boolean {
             if isApiAllowedResult == false {
                 return ctx.next();
@@ -120,15 +118,44 @@ isolated service class AnalyticsResponseInterceptor {
         }
 
         if dataToWrite is AnalyticsDataRecord {
-            // Write analytics data asynchronously
-            log:printDebug("[AnalyticsResponseInterceptor] Writing analytics data using the analytics writer.");
-            future<error?> _ = start writeAnalyticsDataToFile(dataToWrite);
+            // Buffer the analytics data, it is written to the file in batches by the analytics writer
+            if !analyticsWriter.enqueue(dataToWrite) {
+                log:printDebug("[AnalyticsResponseInterceptor] Skipped writing analytics data. Analytics buffer is full.");
+            }
             return ctx.next();
         }
         return;
     }
 }
 
+# Checks whether analytics data should be written for the request. The decision is kept in the request context, so
+# it is only computed once per request.
+#
+# + req - The HTTP request
+# + ctx - The HTTP request context
+# + return - Whether the API is allowed for analytics or an error if the configured API contexts are invalid
+isolated function isAnalyticsApiAllowed(http:Request req, http:RequestContext ctx) returns boolean|error? {
+    if ctx.hasKey(ANALYTICS_API_ALLOWED) {
+        return ctx.get(ANALYTICS_API_ALLOWED) is true;
+    }
+    boolean|error? isApiAllowedResult = isApiAllowed(getApiPath(req.rawPath, analytics.fhirServerContext),
+            analytics.allowedApiContexts, analytics.excludedApiContexts);
+    if isApiAllowedResult is boolean {
+        ctx.set(ANALYTICS_API_ALLOWED, isApiAllowedResult);
+    }
+    return isApiAllowedResult;
+}
+
+# Prepares the analytics data of the request that does not depend on the response.
+#
+# + req - The HTTP request
+# + ctx - The HTTP request context
+isolated function prepareAnalyticsContext(http:Request req, http:RequestContext ctx) {
+    if analytics.enabled {
+        boolean|error? _ = isAnalyticsApiAllowed(req, ctx);
+    }
+}
+
 # Constructs the analytics data record from the HTTP request and response.
 # 
 # + ctx - The HTTP request context
@@ -143,8 +170,13 @@ isolated function constructAnalyticsDataRecord(http:RequestContext ctx, http:Req
     string requestPath  = req.rawPath;
     string httpMethod = req.method;
 
+    // Get prior auth analytics event and the decoded JWT if exist in the context
+    r4:FHIRContext|error fhirContext = r4:getFHIRContext(ctx);
+
     (json|http:ClientError) & readonly requestPayload = req.getJsonPayload().cloneReadOnly();
-    (json|http:ClientError) & readonly responsePayload = res.getJsonPayload().cloneReadOnly();
+    // The payload of a streamed Bundle is not read, since that would consume the stream before it is sent
+    (json|http:ClientError) & readonly responsePayload = fhirContext is r4:FHIRContext && isStreamedResponse(fhirContext)
+        ? () : res.getJsonPayload().cloneReadOnly();
 
     if requestPayload is http:ClientError {
         // This means a payload is not present
@@ -154,10 +186,9 @@ isolated function constructAnalyticsDataRecord(http:RequestContext ctx, http:Req
         // This means a payload is not present
         responsePayload = ();
     }
-
-    // Get prior auth analytics event if exist in the context
-    r4:FHIRContext|error fhirContext = r4:getFHIRContext(ctx);
+    (readonly & jwt:Payload)? jwtPayload = ();
     if fhirContext is r4:FHIRContext {
+        jwtPayload = fhirContext.getFHIRSecurity()?.jwt?.payload;
         anydata event = fhirContext.getProperty(r4:PRIOR_AUTH_ANALYTICS_EVENT);
         if event !is () {
             map<json> mapOfEvent = check event.ensureType();
@@ -173,6 +204,7 @@ isolated function constructAnalyticsDataRecord(http:RequestContext ctx, http:Req
             };
             AnalyticsDataRecord dataRecord =  {
                 requestHeaders: requestHeaders,
+                jwtPayload: jwtPayload,
                 responseHeaders: responseHeaders,
                 statusCode: statusCode,
                 requestPath: requestPath,
@@ -186,6 +218,7 @@ isolated function constructAnalyticsDataRecord(http:RequestContext ctx, http:Req
     }
     AnalyticsDataRecord dataRecord =  {
         requestHeaders: requestHeaders,
+        jwtPayload: jwtPayload,
         responseHeaders: responseHeaders,
         statusCode: statusCode,
         requestPath: requestPath,
@@ -196,70 +229,83 @@ isolated function constructAnalyticsDataRecord(http:RequestContext ctx, http:Req
     return dataRecord;
 }
 
-# Writes the analytics data to a file.
-# 
-# + analyticsDataRecord - The analytics data record to write
-# + return - An error if writing fails
-isolated function writeAnalyticsDataToFile(AnalyticsDataRecord analyticsDataRecord) returns error? {
-
-    lock {
-        string jwt = analyticsDataRecord.requestHeaders.get(X_JWT_HEADER);
-    
-        [jwt:Header, jwt:Payload]|error decodedJWT = decodeJWT(jwt);
-        if decodedJWT is error {
-            log:printError("[AnalyticsResponseInterceptor] Error decoding JWT token.", decodedJWT);
-            return;
-        }
-        [jwt:Header, jwt:Payload] [_, payload] = decodedJWT;
-
-        map<string> cmsAnalyticsData = extractAnalyticsDataFromJWT(analytics.jwtAttributes, payload);
-        json requestHeadersJson = convertMapToJson(analyticsDataRecord.requestHeaders);
-        json responseHeadersJson = convertMapToJson(analyticsDataRecord.responseHeaders);
-        string? fhirUser = extractFhirUserFromJWT(payload);
-
-        // Enrich payload is only available if the payload publishing is enabled.
-        if analytics.shouldPublishPayloads == true {
-            // If analytics data enrichment is enabled, fetch and add to analytics data
-            if analytics.enrichPayload is AnalyticsPayloadEnrich && analytics.enrichPayload?.enabled == true {
-                enrichAnalyticsData(cmsAnalyticsData, dataEnrichHttpClient);
-            }
+# Creates the analytics log lines of a batch of analytics data records.
+#
+# + batch - The analytics data records
+# + return - The log lines, records that cannot be converted are skipped
+isolated function createAnalyticsLogLines(AnalyticsDataRecord[] batch) returns string {
+    (http:Client|http:ClientError)? enrichHttpClient = ();
+    // Enrich payload is only available if the payload publishing is enabled.
+    if analytics.shouldPublishPayloads == true && analytics.enrichPayload is AnalyticsPayloadEnrich
+            && analytics.enrichPayload?.enabled == true {
+        lock {
+            enrichHttpClient = dataEnrichHttpClient;
         }
+    }
 
-        // Construct the analytics data record
-        Request request = {
-            time: time:utcToString(time:utcNow()),
-            uri: analyticsDataRecord.requestPath,
-            verb: analyticsDataRecord.httpMethod,
-            headers: requestHeadersJson
-        };
-
-        Response response = {
-            time: time:utcToString(time:utcNow()),
-            headers: responseHeadersJson,
-            status: analyticsDataRecord.statusCode
-        };
-        request.body = analyticsDataRecord?.requestPayload;
-        response.body = analyticsDataRecord?.responsePayload;
-
-        AnalyticsData analyticsData = {request: request, response: response};
-        if analyticsDataRecord?.priorAuthData is () {
-            analyticsData.metadata = {"cms-patient-access": cmsAnalyticsData};
-        } else {
-            analyticsData.metadata = {"cms-patient-access": cmsAnalyticsData, "cms-prior-auth": analyticsDataRecord?.priorAuthData.toJson()};
-        }
-        
-        if fhirUser is string {
-            analyticsData.user_id = fhirUser;
+    string[] logLines = [];
+    foreach AnalyticsDataRecord analyticsDataRecord in batch {
+        string? logLine = createAnalyticsLogLine(analyticsDataRecord, enrichHttpClient);
+        if logLine is string {
+            logLines.push(logLine);
         }
+    }
+    return "".'join(...logLines);
+}
 
-        // Convert analytics data to JSON string
-        json analyticsJson = analyticsData.toJson();
-        string logLine = analyticsJson.toJsonString() + "\n";
-        string logFilePath = string `${getFilePathBasedOnConfiguration()}${file:pathSeparator}${getFileNameBasedOnConfiguration()}${LOG_FILE_EXTENSION}`;
-
-        // Flow won't come to this point if we don't have a file to write to. Hence no checking required.
-        check writeDataToFile(logFilePath, logLine);
-        log:printDebug(string `Successfully wrote the analytics data to file: ${getFileNameBasedOnConfiguration().concat(LOG_FILE_EXTENSION)}`);
+# Creates the analytics log line of an analytics data record.
+#
+# + analyticsDataRecord - The analytics data record
+# + enrichHttpClient - The HTTP client used to enrich the analytics data, if enrichment is enabled
+# + return - The log line, or nil if the JWT of the request cannot be decoded
+isolated function createAnalyticsLogLine(AnalyticsDataRecord analyticsDataRecord,
+        (http:Client|http:ClientError)? enrichHttpClient) returns string? {
+    // Reuse the JWT decoded by the FHIR preprocessor if available
+    jwt:Payload|error payload = analyticsDataRecord.jwtPayload
+        ?: getJwtPayload(analyticsDataRecord.requestHeaders.get(X_JWT_HEADER));
+    if payload is error {
+        log:printError("[AnalyticsResponseInterceptor] Error decoding JWT token.", payload);
         return;
     }
+
+    map<string> cmsAnalyticsData = extractAnalyticsDataFromJWT(analytics.jwtAttributes, payload);
+    json requestHeadersJson = convertMapToJson(analyticsDataRecord.requestHeaders);
+    json responseHeadersJson = convertMapToJson(analyticsDataRecord.responseHeaders);
+    string? fhirUser = extractFhirUserFromJWT(payload);
+
+    // If analytics data enrichment is enabled, fetch and add to analytics data
+    if enrichHttpClient !is () {
+        enrichAnalyticsData(cmsAnalyticsData, enrichHttpClient);
+    }
+
+    // Construct the analytics data record
+    Request request = {
+        time: analyticsDataRecord.time,
+        uri: analyticsDataRecord.requestPath,
+        verb: analyticsDataRecord.httpMethod,
+        headers: requestHeadersJson
+    };
+
+    Response response = {
+        time: analyticsDataRecord.time,
+        headers: responseHeadersJson,
+        status: analyticsDataRecord.statusCode
+    };
+    request.body = analyticsDataRecord?.requestPayload;
+    response.body = analyticsDataRecord?.responsePayload;
+
+    AnalyticsData analyticsData = {request: request, response: response};
+    if analyticsDataRecord?.priorAuthData is () {
+        analyticsData.metadata = {"cms-patient-access": cmsAnalyticsData};
+    } else {
+        analyticsData.metadata = {"cms-patient-access": cmsAnalyticsData, "cms-prior-auth": analyticsDataRecord?.priorAuthData.toJson()};
+    }
+
+    if fhirUser is string {
+        analyticsData.user_id = fhirUser;
+    }
+
+    // Convert analytics data to JSON string
+    json analyticsJson = analyticsData.toJson();
+    return analyticsJson.toJsonString() + "\n";
 }
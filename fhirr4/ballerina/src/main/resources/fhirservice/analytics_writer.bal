@@ -0,0 +1,203 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/file;
+import ballerina/io;
+import ballerina/log;
+import ballerina/task;
+
+final AnalyticsFileSink analyticsFileSink = new (getAnalyticsLogFilePath());
+final AnalyticsWriter analyticsWriter = new (analyticsFileSink, analytics.bufferSize, analytics.batchSize);
+
+// Flag to track if the analytics flush task is already started
+isolated boolean analyticsFlushTaskStarted = false;
+
+// Analytics flush job implementation
+class AnalyticsFlushJob {
+    *task:Job;
+
+    public function execute() {
+        analyticsWriter.flush();
+    }
+}
+
+# Buffers the analytics records of the responses and writes them to the analytics log file in batches.
+# Records are kept in a bounded batch buffer, so responses never wait for the log file. A batch is written when
+# `batchSize` records are buffered or when the flush task runs, and only one flush runs at a time. Records are dropped
+# and counted when the buffer is full.
+isolated class AnalyticsWriter {
+
+    private final AnalyticsFileSink sink;
+    private final BatchBuffer buffer;
+
+    isolated function init(AnalyticsFileSink sink, int bufferSize, int batchSize) {
+        self.sink = sink;
+        self.buffer = new (bufferSize > 0 ? bufferSize : DEFAULT_ANALYTICS_BUFFER_SIZE,
+            batchSize > 0 ? batchSize : DEFAULT_ANALYTICS_BATCH_SIZE);
+    }
+
+    # Adds an analytics record to the buffer and starts a flush if a batch is ready.
+    #
+    # + analyticsDataRecord - The analytics data record to write
+    # + return - `false` if the record is dropped since the buffer is full
+    isolated function enqueue(AnalyticsDataRecord analyticsDataRecord) returns boolean {
+        BufferAddResult result = self.buffer.add(analyticsDataRecord);
+        if result == BATCH_READY {
+            future<()> _ = start self.writeBufferedRecords();
+        }
+        return result != RECORD_DROPPED;
+    }
+
+    # Writes the buffered records to the log file, unless a flush is already in progress.
+    isolated function flush() {
+        if self.buffer.startFlush() {
+            self.writeBufferedRecords();
+        }
+    }
+
+    # Removes the next batch of records from the buffer. The flush is marked as completed once the buffer is empty.
+    #
+    # + return - The records of the batch, or an empty array if the buffer is empty
+    isolated function take() returns AnalyticsDataRecord[] & readonly {
+        AnalyticsDataRecord[] batch = from BufferedRecord bufferedRecord in self.buffer.take()
+            where bufferedRecord is AnalyticsDataRecord
+            select bufferedRecord;
+        return batch.cloneReadOnly();
+    }
+
+    # Returns the number of records dropped since the last call and resets the counter.
+    #
+    # + return - The number of dropped records
+    isolated function takeDroppedCount() returns int {
+        return self.buffer.takeUnreportedDrops();
+    }
+
+    private isolated function writeBufferedRecords() {
+        while true {
+            AnalyticsDataRecord[] & readonly batch = self.take();
+            if batch.length() == 0 {
+                break;
+            }
+            string data = createAnalyticsLogLines(batch);
+            if data == "" {
+                continue;
+            }
+            error? writeResult = self.sink.write(data);
+            if writeResult is error {
+                log:printError("[AnalyticsResponseInterceptor] Failed to write analytics data to the log file.",
+                        writeResult);
+            } else {
+                log:printDebug(string `Successfully wrote ${batch.length()} analytics records to file: ${
+                    getFileNameBasedOnConfiguration().concat(LOG_FILE_EXTENSION)}`);
+            }
+        }
+        int dropped = self.takeDroppedCount();
+        if dropped > 0 {
+            log:printWarn(string `[AnalyticsResponseInterceptor] Dropped ${dropped} analytics records since the ` +
+                    "analytics buffer is full. Increase the bufferSize of the analytics configuration if this persists.");
+        }
+    }
+}
+
+# Appends analytics data to the analytics log file. The file is opened on the first write and kept open, so a batch
+# is written with a single append instead of opening the file for every record.
+isolated class AnalyticsFileSink {
+
+    private final string filePath;
+    private io:WritableByteChannel? channel = ();
+
+    isolated function init(string filePath) {
+        self.filePath = filePath;
+    }
+
+    # Appends the data to the log file.
+    #
+    # + data - The data to write
+    # + return - An error if writing fails
+    isolated function write(string data) returns error? {
+        lock {
+            io:WritableByteChannel? current = self.channel;
+            io:WritableByteChannel channel;
+            if current is io:WritableByteChannel {
+                channel = current;
+            } else {
+                channel = check io:openWritableFile(self.filePath, io:APPEND);
+                self.channel = channel;
+            }
+            byte[] bytes = data.toBytes();
+            int offset = 0;
+            while offset < bytes.length() {
+                int|io:Error written = channel.write(bytes, offset);
+                if written is io:Error {
+                    // Reopen the file on the next write.
+                    self.closeChannel();
+                    return written;
+                }
+                offset += written;
+            }
+        }
+    }
+
+    # Renames the log file and creates a new one. The open channel is closed first, so nothing is written to the
+    # renamed file after the rotation.
+    #
+    # + rotatedFilePath - The path of the renamed log file
+    # + return - An error if the rotation fails
+    isolated function rotate(string rotatedFilePath) returns error? {
+        lock {
+            self.closeChannel();
+            check file:rename(self.filePath, rotatedFilePath);
+            check file:create(self.filePath);
+        }
+    }
+
+    # Returns the path of the log file.
+    #
+    # + return - The path of the log file
+    isolated function getFilePath() returns string {
+        return self.filePath;
+    }
+
+    private isolated function closeChannel() {
+        lock {
+            io:WritableByteChannel? channel = self.channel;
+            if channel is io:WritableByteChannel {
+                io:Error? closeResult = channel.close();
+                if closeResult is io:Error {
+                    log:printDebug("[AnalyticsResponseInterceptor] Failed to close the analytics log file.", closeResult);
+                }
+            }
+            self.channel = ();
+        }
+    }
+}
+
+# Initializes the task that writes the buffered analytics records at the configured interval.
+isolated function initAnalyticsFlushTask() {
+    lock {
+        if analyticsFlushTaskStarted {
+            log:printDebug("Analytics flush task is already started. Skipping initialization.");
+            return;
+        }
+        decimal interval = analytics.flushInterval > 0d ? analytics.flushInterval : DEFAULT_ANALYTICS_FLUSH_INTERVAL;
+        task:JobId|task:Error result = task:scheduleJobRecurByFrequency(new AnalyticsFlushJob(), interval);
+        if result is task:Error {
+            log:printError("Failed to schedule analytics flush task", err = result.toBalString());
+        } else {
+            analyticsFlushTaskStarted = true;
+        }
+    }
+}
@@ -0,0 +1,572 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/crypto;
+import ballerina/file;
+import ballerina/http;
+import ballerina/io;
+import ballerina/log;
+import ballerina/task;
+import ballerina/time;
+import ballerinax/health.fhir.r4;
+import ballerinax/health.fhir.r4.international401;
+
+const AUDIT_EVENTS_PATH = "/audits";
+const AUDIT_EVENT_RESOURCE_TYPE = "AuditEvent";
+const AUDIT_EVENT_TYPE_SYSTEM = "http://terminology.hl7.org/CodeSystem/audit-event-type";
+const AUDIT_EVENT_SUB_TYPE_SYSTEM = "http://hl7.org/fhir/restful-interaction";
+const AUDIT_SOURCE_TYPE_SYSTEM = "http://terminology.hl7.org/CodeSystem/security-source-type";
+const AUDIT_ENTITY_TYPE_SYSTEM = "http://terminology.hl7.org/CodeSystem/audit-entity-type";
+const AUDIT_OBJECT_ROLE_SYSTEM = "http://terminology.hl7.org/CodeSystem/object-role";
+const AUDIT_SPILL_FILE_PREFIX = "audit-events-";
+const AUDIT_SPILL_FILE_EXTENSION = ".spill";
+const AUDIT_SPILL_OFFSET_FILE_EXTENSION = ".offset";
+const DEFAULT_AUDIT_QUEUE_SIZE = 10000;
+const decimal DEFAULT_AUDIT_FLUSH_INTERVAL = 1;
+
+// Audit event publishers, keyed by the audit service url
+isolated map<AuditEventPublisher> auditEventPublishers = {};
+
+// Flag to track if the audit flush task is already started
+isolated boolean auditFlushTaskStarted = false;
+
+// Audit flush job implementation
+class AuditFlushJob {
+    *task:Job;
+
+    public function execute() {
+        flushAuditEvents();
+    }
+}
+
+# Queue depth, latency and drop metrics of an audit event publisher.
+#
+# + auditServiceUrl - url of the audit service
+# + queueDepth - number of audit events waiting to be sent
+# + spilledEvents - number of spilled audit events waiting to be replayed
+# + sentEvents - number of audit events sent to the audit service
+# + droppedEvents - number of audit events dropped since the queue was full
+# + lastBatchLatency - time in seconds taken to send the last batch
+public type AuditPublisherMetrics record {|
+    string auditServiceUrl;
+    int queueDepth;
+    int spilledEvents;
+    int sentEvents;
+    int droppedEvents;
+    decimal lastBatchLatency;
+|};
+
+# Sends the audit events of the responses to the audit service in batches.
+# Events are kept in a bounded batch buffer, so responses never wait for the audit service. A batch is sent when
+# `batchSize` events are queued or when the flush task runs, and only one flush runs at a time. Batches that cannot be
+# sent are spilled, and the spilled events are replayed in order before any newer event is sent.
+isolated class AuditEventPublisher {
+
+    private final string auditServiceUrl;
+    private final http:Client auditClient;
+    private final AuditSpillFile spillFile;
+    private final BatchBuffer queue;
+    private final int batchSize;
+    private int sent = 0;
+    private decimal lastBatchLatency = 0;
+
+    isolated function init(string auditServiceUrl, http:Client auditClient, AuditSpillFile spillFile, int queueSize,
+            int batchSize) {
+        self.auditServiceUrl = auditServiceUrl;
+        self.auditClient = auditClient;
+        self.spillFile = spillFile;
+        self.batchSize = batchSize > 0 ? batchSize : 1;
+        self.queue = new (queueSize > 0 ? queueSize : DEFAULT_AUDIT_QUEUE_SIZE, self.batchSize);
+    }
+
+    # Adds an audit event to the queue and starts a flush if a batch is ready.
+    #
+    # + auditEvent - The audit event to send
+    # + return - `false` if the audit event is dropped since the queue is full
+    isolated function enqueue(r4:InternalAuditEvent auditEvent) returns boolean {
+        BufferAddResult result = self.queue.add(auditEvent.cloneReadOnly());
+        if result == BATCH_READY {
+            future<()> _ = start self.sendQueuedEvents();
+        }
+        return result != RECORD_DROPPED;
+    }
+
+    # Sends the queued and spilled audit events, unless a flush is already in progress.
+    isolated function flush() {
+        if self.queue.startFlush(!self.spillFile.isEmpty()) {
+            self.sendQueuedEvents();
+        }
+    }
+
+    # Removes the next batch of audit events from the queue. The flush is marked as completed once the queue is empty.
+    #
+    # + return - The audit events of the batch, or an empty array if the queue is empty
+    isolated function take() returns r4:InternalAuditEvent[] & readonly {
+        r4:InternalAuditEvent[] batch = from BufferedRecord bufferedRecord in self.queue.take()
+            where bufferedRecord is r4:InternalAuditEvent
+            select bufferedRecord;
+        return batch.cloneReadOnly();
+    }
+
+    # Returns the metrics of the publisher.
+    #
+    # + return - The metrics of the publisher
+    isolated function getMetrics() returns AuditPublisherMetrics & readonly {
+        lock {
+            return {
+                auditServiceUrl: self.auditServiceUrl,
+                queueDepth: self.queue.size(),
+                spilledEvents: self.spillFile.size(),
+                sentEvents: self.sent,
+                droppedEvents: self.queue.getDroppedCount(),
+                lastBatchLatency: self.lastBatchLatency
+            };
+        }
+    }
+
+    private isolated function sendQueuedEvents() {
+        // Newer events are spilled as long as older ones are waiting in the spill file, so the order is kept.
+        boolean spill = !self.replaySpilledEvents();
+        int spilledBefore = self.spillFile.size();
+        while true {
+            r4:InternalAuditEvent[] & readonly batch = self.take();
+            if batch.length() == 0 {
+                break;
+            }
+            if !spill {
+                error? sendResult = self.send(batch);
+                if sendResult is () {
+                    continue;
+                }
+                log:printError("[Audit Event Sender] Error while sending audit events. Spilling them to " +
+                        self.spillFile.getFilePath(), sendResult);
+                spill = true;
+            }
+            error? spillResult = self.spillFile.append(batch);
+            if spillResult is error {
+                log:printError(string `[Audit Event Sender] Error while spilling ${batch.length()} audit events.`,
+                        spillResult);
+            }
+        }
+        int spilled = self.spillFile.size() - spilledBefore;
+        if spilled > 0 {
+            log:printWarn(string `[Audit Event Sender] Spilled ${spilled} audit events since the audit service is ` +
+                    "unreachable.");
+        }
+        int dropped = self.queue.takeUnreportedDrops();
+        if dropped > 0 {
+            log:printWarn(string `[Audit Event Sender] Dropped ${dropped} audit events since the audit event queue ` +
+                    "is full. Increase the queueSize of the audit configuration if this persists.");
+        }
+    }
+
+    # Sends the spilled audit events in order. The spill file is read once per replay, starting at the replay offset,
+    # and the offset is persisted after each sent batch.
+    #
+    # + return - `true` if there are no spilled audit events left
+    private isolated function replaySpilledEvents() returns boolean {
+        if self.spillFile.isEmpty() {
+            return true;
+        }
+        stream<string, io:Error?>|io:Error lines = self.spillFile.readPending();
+        if lines is io:Error {
+            log:printError("[Audit Event Sender] Error while reading spilled audit events.", lines);
+            return false;
+        }
+        int replayed = 0;
+        r4:InternalAuditEvent[] batch = [];
+        while true {
+            record {|string value;|}|io:Error? line = lines.next();
+            if line is io:Error {
+                log:printError("[Audit Event Sender] Error while reading spilled audit events.", line);
+                break;
+            }
+            if line is record {|string value;|} {
+                r4:InternalAuditEvent|error auditEvent = line.value.fromJsonStringWithType();
+                if auditEvent is error {
+                    log:printError("[Audit Event Sender] Invalid audit event in the audit spill file.", auditEvent);
+                    break;
+                }
+                batch.push(auditEvent);
+                if batch.length() < self.batchSize {
+                    continue;
+                }
+            }
+            if batch.length() == 0 || self.send(batch.cloneReadOnly()) is error {
+                break;
+            }
+            error? markResult = self.spillFile.markReplayed(batch.length());
+            if markResult is error {
+                log:printError("[Audit Event Sender] Error while saving the audit spill file replay offset.",
+                        markResult);
+            }
+            replayed += batch.length();
+            batch = [];
+            if line is () {
+                break;
+            }
+        }
+        io:Error? closeResult = lines.close();
+        if closeResult is io:Error {
+            log:printDebug("[Audit Event Sender] Failed to close the audit spill file.", closeResult);
+        }
+        error? clearResult = self.spillFile.clearReplayed();
+        if clearResult is error {
+            log:printError("[Audit Event Sender] Error while removing the replayed audit spill file.", clearResult);
+        }
+        if replayed > 0 {
+            log:printDebug(string `[Audit Event Sender] Replayed ${replayed} spilled audit events.`);
+        }
+        return self.spillFile.isEmpty();
+    }
+
+    private isolated function send(r4:InternalAuditEvent[] & readonly batch) returns error? {
+        decimal startTime = time:monotonicNow();
+        if self.batchSize == 1 {
+            foreach r4:InternalAuditEvent auditEvent in batch {
+                json _ = check self.auditClient->post(AUDIT_EVENTS_PATH, auditEvent);
+            }
+        } else {
+            json _ = check self.auditClient->post("/", createAuditEventBundle(batch));
+        }
+        decimal latency = time:monotonicNow() - startTime;
+        lock {
+            self.sent += batch.length();
+            self.lastBatchLatency = latency;
+        }
+    }
+}
+
+# Audit events that could not be sent, one JSON event per line. Spilled events are appended to a single file, and the
+# number of events already replayed is kept in an offset file next to it (`<spill file>.offset`), so a replay resumes
+# after the sent events, also after a restart. Both files are removed once all the events are replayed.
+isolated class AuditSpillFile {
+
+    private final string filePath;
+    private final string offsetFilePath;
+    private int replayed = 0;
+    private int size = 0;
+
+    isolated function init(string filePath) {
+        self.filePath = filePath;
+        self.offsetFilePath = filePath + AUDIT_SPILL_OFFSET_FILE_EXTENSION;
+        // Events spilled before a restart are replayed as well.
+        int spilled = countAuditSpillEvents(filePath);
+        int replayed = readAuditSpillOffset(self.offsetFilePath);
+        if spilled > replayed {
+            self.replayed = replayed;
+            self.size = spilled - replayed;
+            return;
+        }
+        foreach string path in [self.offsetFilePath, filePath] {
+            file:Error? removeResult = removeAuditSpillFile(path);
+            if removeResult is file:Error {
+                log:printDebug("[Audit Event Sender] Failed to remove the replayed audit spill file " + path,
+                        removeResult);
+            }
+        }
+    }
+
+    # Appends audit events to the spill file.
+    #
+    # + auditEvents - The audit events to spill
+    # + return - An error if writing fails
+    isolated function append(r4:InternalAuditEvent[] & readonly auditEvents) returns error? {
+        lock {
+            string[] lines = from r4:InternalAuditEvent auditEvent in auditEvents
+                select auditEvent.toJsonString();
+            check io:fileWriteLines(self.filePath, lines, io:APPEND);
+            self.size += lines.length();
+        }
+    }
+
+    # Returns the lines of the audit events that are not replayed yet, in the order they are spilled. The replayed
+    # lines are skipped without being parsed.
+    #
+    # + return - A stream of the spilled audit events as JSON, or an error if reading fails
+    isolated function readPending() returns stream<string, io:Error?>|io:Error {
+        int replayed;
+        lock {
+            replayed = self.replayed;
+        }
+        stream<string, io:Error?> lines = check io:fileReadLinesAsStream(self.filePath);
+        int skipped = 0;
+        while skipped < replayed {
+            record {|string value;|}? line = check lines.next();
+            if line is () {
+                break;
+            }
+            if line.value.trim() != "" {
+                skipped += 1;
+            }
+        }
+        return stream from string line in lines
+            where line.trim() != ""
+            select line;
+    }
+
+    # Marks the given number of audit events as replayed and saves the replay offset.
+    #
+    # + count - The number of replayed audit events
+    # + return - An error if saving the replay offset fails
+    isolated function markReplayed(int count) returns error? {
+        lock {
+            int replayed = int:min(count, self.size);
+            self.replayed += replayed;
+            self.size -= replayed;
+            check io:fileWriteString(self.offsetFilePath, self.replayed.toString());
+        }
+    }
+
+    # Removes the spill file and its offset file if all the spilled events are replayed. The offset file is removed
+    # first, so the events are at most sent again if removing the spill file fails.
+    #
+    # + return - An error if removing the files fails
+    isolated function clearReplayed() returns error? {
+        lock {
+            if self.size > 0 || self.replayed == 0 {
+                return;
+            }
+            check removeAuditSpillFile(self.offsetFilePath);
+            check removeAuditSpillFile(self.filePath);
+            self.replayed = 0;
+        }
+    }
+
+    # Returns whether the spill file has no audit events.
+    #
+    # + return - `true` if there are no spilled audit events
+    isolated function isEmpty() returns boolean {
+        lock {
+            return self.size == 0;
+        }
+    }
+
+    # Returns the number of audit events in the spill file.
+    #
+    # + return - The number of spilled audit events
+    isolated function size() returns int {
+        lock {
+            return self.size;
+        }
+    }
+
+    # Returns the path of the spill file.
+    #
+    # + return - The path of the spill file
+    isolated function getFilePath() returns string {
+        return self.filePath;
+    }
+}
+
+# Counts the audit events of a spill file that is left from an earlier run.
+#
+# + filePath - The path of the spill file
+# + return - The number of audit events in the spill file
+isolated function countAuditSpillEvents(string filePath) returns int {
+    boolean|file:Error exists = file:test(filePath, file:EXISTS);
+    if exists is file:Error || !exists {
+        return 0;
+    }
+    stream<string, io:Error?>|io:Error lines = io:fileReadLinesAsStream(filePath);
+    if lines is io:Error {
+        log:printError("[Audit Event Sender] Error while reading the audit spill file " + filePath, lines);
+        return 0;
+    }
+    int count = 0;
+    while true {
+        record {|string value;|}|io:Error? line = lines.next();
+        if line is io:Error {
+            log:printError("[Audit Event Sender] Error while reading the audit spill file " + filePath, line);
+            return 0;
+        }
+        if line is () {
+            break;
+        }
+        if line.value.trim() != "" {
+            count += 1;
+        }
+    }
+    return count;
+}
+
+# Reads the number of replayed audit events saved next to a spill file.
+#
+# + offsetFilePath - The path of the offset file
+# + return - The number of replayed audit events, or 0 if the offset file does not exist or is invalid
+isolated function readAuditSpillOffset(string offsetFilePath) returns int {
+    boolean|file:Error exists = file:test(offsetFilePath, file:EXISTS);
+    if exists is file:Error || !exists {
+        return 0;
+    }
+    string|io:Error offset = io:fileReadString(offsetFilePath);
+    if offset is io:Error {
+        log:printError("[Audit Event Sender] Error while reading the audit spill file offset " + offsetFilePath,
+                offset);
+        return 0;
+    }
+    int|error replayed = int:fromString(offset.trim());
+    return replayed is int && replayed > 0 ? replayed : 0;
+}
+
+isolated function removeAuditSpillFile(string path) returns file:Error? {
+    if check file:test(path, file:EXISTS) {
+        check file:remove(path);
+    }
+}
+
+# Returns the publisher of the given audit service, creating it on first use. Services sharing an audit service url
+# share the publisher, so their events are sent in the same batches.
+#
+# + auditConfig - The audit configuration of the API
+# + return - The audit event publisher, or an error if the audit service client cannot be created
+isolated function getAuditEventPublisher(r4:AuditConfig & readonly auditConfig) returns AuditEventPublisher|http:ClientError {
+    string auditServiceUrl = auditConfig.auditServiceUrl;
+    lock {
+        AuditEventPublisher? publisher = auditEventPublishers[auditServiceUrl];
+        if publisher != () {
+            return publisher;
+        }
+    }
+    http:Client auditClient = check new (auditServiceUrl, retryConfig = {
+        interval: 5,
+        count: 3,
+        backOffFactor: 2.0,
+        maxWaitInterval: 30
+    });
+    AuditSpillFile spillFile = new (auditConfig.spillFilePath ?: getAuditSpillFilePath(auditServiceUrl));
+    AuditEventPublisher publisher = new (auditServiceUrl, auditClient, spillFile, auditConfig.queueSize,
+            auditConfig.batchSize);
+    lock {
+        AuditEventPublisher? existing = auditEventPublishers[auditServiceUrl];
+        if existing != () {
+            return existing;
+        }
+        auditEventPublishers[auditServiceUrl] = publisher;
+    }
+    initAuditFlushTask(auditConfig.flushInterval);
+    return publisher;
+}
+
+# Returns the queue depth, latency and drop metrics of the audit event publishers.
+#
+# + return - The metrics of each audit service
+public isolated function getAuditPublisherMetrics() returns AuditPublisherMetrics[] {
+    AuditPublisherMetrics[] metrics = [];
+    foreach AuditEventPublisher publisher in getAuditEventPublishers() {
+        metrics.push(publisher.getMetrics());
+    }
+    return metrics;
+}
+
+# Sends the queued audit events of all the audit event publishers.
+isolated function flushAuditEvents() {
+    foreach AuditEventPublisher publisher in getAuditEventPublishers() {
+        publisher.flush();
+    }
+}
+
+isolated function getAuditEventPublishers() returns AuditEventPublisher[] {
+    string[] & readonly auditServiceUrls;
+    lock {
+        auditServiceUrls = auditEventPublishers.keys().cloneReadOnly();
+    }
+    AuditEventPublisher[] publishers = [];
+    foreach string auditServiceUrl in auditServiceUrls {
+        AuditEventPublisher? publisher;
+        lock {
+            publisher = auditEventPublishers[auditServiceUrl];
+        }
+        if publisher != () {
+            publishers.push(publisher);
+        }
+    }
+    return publishers;
+}
+
+# Creates the FHIR batch Bundle of the given audit events. Each entry creates an AuditEvent resource.
+#
+# + auditEvents - The audit events of the batch
+# + return - The batch Bundle
+isolated function createAuditEventBundle(r4:InternalAuditEvent[] auditEvents) returns r4:Bundle {
+    r4:BundleEntry[] entries = from r4:InternalAuditEvent auditEvent in auditEvents
+        select {
+            'resource: createFHIRAuditEvent(auditEvent),
+            request: {method: r4:POST, url: AUDIT_EVENT_RESOURCE_TYPE}
+        };
+    return {'type: r4:BUNDLE_TYPE_BATCH, entry: entries};
+}
+
+# Creates the FHIR AuditEvent resource of the given audit event.
+#
+# + auditEvent - The audit event
+# + return - The AuditEvent resource
+isolated function createFHIRAuditEvent(r4:InternalAuditEvent auditEvent) returns international401:AuditEvent {
+    international401:AuditEventAgent agent = {
+        requestor: auditEvent.agentIsRequestor,
+        who: {display: auditEvent.agentName}
+    };
+    if auditEvent.agentType != "" {
+        agent.'type = {coding: [{code: auditEvent.agentType}]};
+    }
+    r4:Reference observer = {};
+    if auditEvent.sourceObserverName != "" {
+        observer.display = auditEvent.sourceObserverName;
+    }
+    return {
+        'type: {system: AUDIT_EVENT_TYPE_SYSTEM, code: auditEvent.typeCode},
+        // The interaction names are the upper case codes of the restful-interaction code system.
+        subtype: [{system: AUDIT_EVENT_SUB_TYPE_SYSTEM, code: auditEvent.subTypeCode.toLowerAscii()}],
+        action: auditEvent.actionCode,
+        outcome: auditEvent.outcomeCode,
+        recorded: auditEvent.recordedTime,
+        agent: [agent],
+        'source: {
+            observer,
+            'type: [{system: AUDIT_SOURCE_TYPE_SYSTEM, code: auditEvent.sourceObserverType}]
+        },
+        entity: [
+            {
+                what: {reference: auditEvent.entityWhatReference},
+                'type: {system: AUDIT_ENTITY_TYPE_SYSTEM, code: auditEvent.entityType},
+                role: {system: AUDIT_OBJECT_ROLE_SYSTEM, code: auditEvent.entityRole}
+            }
+        ]
+    };
+}
+
+isolated function getAuditSpillFilePath(string auditServiceUrl) returns string {
+    string urlHash = crypto:hashSha256(auditServiceUrl.toBytes()).toBase16().substring(0, 16);
+    return string `${AUDIT_SPILL_FILE_PREFIX}${urlHash}${AUDIT_SPILL_FILE_EXTENSION}`;
+}
+
+# Initializes the task that sends the queued audit events at the given interval.
+#
+# + interval - The flush interval in seconds
+isolated function initAuditFlushTask(decimal interval) {
+    lock {
+        if auditFlushTaskStarted {
+            return;
+        }
+        decimal flushInterval = interval > 0d ? interval : DEFAULT_AUDIT_FLUSH_INTERVAL;
+        task:JobId|task:Error result = task:scheduleJobRecurByFrequency(new AuditFlushJob(), flushInterval);
+        if result is task:Error {
+            log:printError("Failed to schedule audit flush task", err = result.toBalString());
+        } else {
+            auditFlushTaskStarted = true;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/health.fhir.r4;
+
+# Records kept in a batch buffer.
+type BufferedRecord r4:InternalAuditEvent & readonly|AnalyticsDataRecord;
+
+# Outcome of adding a record to a batch buffer.
+enum BufferAddResult {
+    # The record is dropped since the buffer is full
+    RECORD_DROPPED,
+    # The record is buffered
+    RECORD_BUFFERED,
+    # The record is buffered and a batch is ready, so the caller has to start a flush
+    BATCH_READY
+}
+
+# Bounded ring buffer of records that are handed out in batches. Once the buffer is full, new records are dropped and
+# counted. Only one flush runs at a time: the buffer tells the caller when to start a flush, and the flush is marked
+# as completed when `take` finds the buffer empty.
+isolated class BatchBuffer {
+
+    private final BufferedRecord?[] buffer = [];
+    private final int batchSize;
+    private int head = 0;
+    private int count = 0;
+    private int dropped = 0;
+    private int unreportedDrops = 0;
+    private boolean flushing = false;
+
+    isolated function init(int capacity, int batchSize) {
+        self.buffer.setLength(capacity > 0 ? capacity : 1);
+        self.batchSize = batchSize > 0 ? batchSize : 1;
+    }
+
+    # Adds a record to the buffer.
+    #
+    # + bufferedRecord - The record to add
+    # + return - `BATCH_READY` if a batch is ready and no flush is in progress, in which case the caller starts one
+    isolated function add(BufferedRecord bufferedRecord) returns BufferAddResult {
+        lock {
+            int capacity = self.buffer.length();
+            if self.count == capacity {
+                self.dropped += 1;
+                self.unreportedDrops += 1;
+                return RECORD_DROPPED;
+            }
+            self.buffer[(self.head + self.count) % capacity] = bufferedRecord;
+            self.count += 1;
+            if self.count >= self.batchSize && !self.flushing {
+                self.flushing = true;
+                return BATCH_READY;
+            }
+            return RECORD_BUFFERED;
+        }
+    }
+
+    # Marks a flush as started, unless one is already in progress or there is nothing to flush.
+    #
+    # + force - Whether to start the flush even if the buffer is empty
+    # + return - `true` if the caller has to run the flush
+    isolated function startFlush(boolean force = false) returns boolean {
+        lock {
+            if self.flushing || (self.count == 0 && !force) {
+                return false;
+            }
+            self.flushing = true;
+            return true;
+        }
+    }
+
+    # Removes the next batch of records from the buffer. The flush is marked as completed once the buffer is empty.
+    #
+    # + return - The records of the batch, or an empty array if the buffer is empty
+    isolated function take() returns BufferedRecord[] & readonly {
+        lock {
+            if self.count == 0 {
+                self.flushing = false;
+                return [];
+            }
+            int capacity = self.buffer.length();
+            BufferedRecord[] batch = [];
+            while self.count > 0 && batch.length() < self.batchSize {
+                BufferedRecord? bufferedRecord = self.buffer[self.head];
+                if bufferedRecord != () {
+                    batch.push(bufferedRecord);
+                }
+                self.buffer[self.head] = ();
+                self.head = (self.head + 1) % capacity;
+                self.count -= 1;
+            }
+            return batch.cloneReadOnly();
+        }
+    }
+
+    # Returns the number of buffered records.
+    #
+    # + return - The number of buffered records
+    isolated function size() returns int {
+        lock {
+            return self.count;
+        }
+    }
+
+    # Returns the number of records dropped since the buffer is created.
+    #
+    # + return - The number of dropped records
+    isolated function getDroppedCount() returns int {
+        lock {
+            return self.dropped;
+        }
+    }
+
+    # Returns the number of records dropped since the last call and resets the counter.
+    #
+    # + return - The number of dropped records
+    isolated function takeUnreportedDrops() returns int {
+        lock {
+            int unreportedDrops = self.unreportedDrops;
+            self.unreportedDrops = 0;
+            return unreportedDrops;
+        }
+    }
+}
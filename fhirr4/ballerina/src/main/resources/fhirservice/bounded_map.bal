@@ -0,0 +1,108 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+# Values kept in a bounded map. The values are shared with the callers, so they are either immutable or isolated
+# objects.
+type BoundedMapValue readonly|isolated object {};
+
+# Value of a bounded map with the slot of its key in the insertion order.
+#
+# + value - The value
+# + slot - Index of the key in the insertion order ring
+type BoundedMapEntry record {|
+    BoundedMapValue value;
+    int slot;
+|};
+
+# Map with a maximum number of keys. Once the map is full, the oldest key is evicted first. The insertion order is
+# kept in a ring of keys, so adding a key does not need to look at the other keys.
+isolated class BoundedMap {
+
+    private final int capacity;
+    private final map<BoundedMapEntry> entries = {};
+    private final string[] ring = [];
+    private int next = 0;
+
+    isolated function init(int capacity) {
+        self.capacity = capacity < 1 ? 1 : capacity;
+    }
+
+    # Returns the value of the given key.
+    #
+    # + key - The key
+    # + return - The value, or nil if the key is not in the map
+    isolated function get(string key) returns BoundedMapValue? {
+        lock {
+            return self.entries[key]?.value;
+        }
+    }
+
+    # Adds or replaces the value of the given key, evicting the oldest key if the map is full.
+    #
+    # + key - The key
+    # + value - The value
+    isolated function put(string key, BoundedMapValue value) {
+        lock {
+            BoundedMapEntry? existing = self.entries[key];
+            if existing != () {
+                existing.value = value;
+                return;
+            }
+            int slot;
+            if self.ring.length() < self.capacity {
+                slot = self.ring.length();
+                self.ring.push(key);
+            } else {
+                slot = self.next;
+                string eldestKey = self.ring[slot];
+                // The slot is stale if its key was removed, and possibly added again in another slot.
+                if self.entries[eldestKey]?.slot == slot {
+                    _ = self.entries.remove(eldestKey);
+                }
+                self.ring[slot] = key;
+                self.next = (slot + 1) % self.capacity;
+            }
+            self.entries[key] = {value, slot};
+        }
+    }
+
+    # Removes the value of the given key. The slot of the key is reused once it is the oldest.
+    #
+    # + key - The key
+    isolated function remove(string key) {
+        lock {
+            _ = self.entries.removeIfHasKey(key);
+        }
+    }
+
+    # Returns the keys, oldest first.
+    #
+    # + return - The keys
+    isolated function keys() returns string[] & readonly {
+        lock {
+            return self.entries.keys().cloneReadOnly();
+        }
+    }
+
+    # Removes all the keys.
+    isolated function removeAll() {
+        lock {
+            self.entries.removeAll();
+            self.ring.removeAll();
+            self.next = 0;
+        }
+    }
+}
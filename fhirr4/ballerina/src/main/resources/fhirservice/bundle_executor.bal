@@ -0,0 +1,610 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/log;
+import ballerinax/health.fhir.r4;
+
+# Maximum number of entries of a batch Bundle executed concurrently. Set to 1 to execute the entries one by one.
+configurable int batchEntryParallelism = 8;
+
+const URN_UUID_PREFIX = "urn:uuid:";
+
+# Request of an entry of a batch or transaction Bundle.
+#
+# + method - HTTP method of the entry
+# + resourceType - The FHIR resource type targeted by the entry URL
+# + paths - Path segments of the entry URL, prefixed with the path segments of the Bundle request
+# + queryParams - Query parameters of the entry URL
+# + fullUrl - Full URL of the entry
+# + resourceText - Resource of the entry, serialized as JSON
+# + ifMatch - The `If-Match` condition of the entry
+# + conditional - Whether the entry is a conditional interaction
+type BundleEntryRequestContext readonly & record {|
+    string method;
+    string resourceType;
+    string[] paths;
+    map<string[]> queryParams;
+    string? fullUrl;
+    string? resourceText;
+    string? ifMatch;
+    boolean conditional;
+|};
+
+# Details of a batch or transaction Bundle request, shared by the entries of the Bundle.
+#
+# + fhirSecurity - Security details of the Bundle request
+# + headers - Headers of the Bundle request
+type BundleExecutionContext readonly & record {|
+    r4:FHIRSecurity fhirSecurity;
+    map<string[]> headers;
+|};
+
+# Checks whether a payload is a batch or transaction Bundle.
+#
+# + payload - The request payload
+# + return - `true` if the payload is a batch or transaction Bundle
+isolated function isBatchOrTransactionBundle(json payload) returns boolean {
+    if payload !is map<json> || payload[RESOURCE_TYPE] != r4:RESOURCE_NAME_BUNDLE {
+        return false;
+    }
+    json bundleType = payload["type"];
+    return bundleType == r4:BUNDLE_TYPE_BATCH || bundleType == r4:BUNDLE_TYPE_TRANSACTION;
+}
+
+isolated function isTransactionBundle(json payload) returns boolean
+    => payload is map<json> && payload["type"] == r4:BUNDLE_TYPE_TRANSACTION;
+
+# Executes the entries of a batch or transaction Bundle through the FHIR services attached to the listeners of this
+# module, without sending the entries back to the server over HTTP.
+#
+# The entries of a batch are independent of each other, so up to `batchEntryParallelism` entries are executed
+# concurrently, and a failed entry only fails its own response entry. The entries of a transaction are executed one by
+# one in the FHIR processing order (deletes, creates, updates and patches, then reads), creates are ordered so that
+# resources are created before the entries referencing them, and `urn:uuid` references to the resources created by
+# the transaction are replaced with the references to the created resources. The transaction stops at the first failed
+# entry. Entries executed before the failure are not rolled back, since the FHIR services own their persistence, so
+# transactions are only executed if the API configs of their services enable them, and a failed transaction reports
+# the entries committed before the failure.
+#
+# Each entry is pre-processed and post-processed like the corresponding interaction received over HTTP, and its audit
+# event is queued if the audit service is enabled for its service.
+#
+# + bundle - The batch or transaction Bundle
+# + basePaths - The path segments of the Bundle request, on which the relative entry URLs are resolved
+# + fhirContext - The FHIR context of the Bundle request
+# + return - The batch-response or transaction-response Bundle, or an error if the transaction failed
+isolated function executeBundle(json bundle, string[] basePaths, r4:FHIRContext fhirContext)
+        returns r4:Bundle|r4:FHIRError {
+    r4:FHIRSecurity fhirSecurity = fhirContext.getFHIRSecurity() ?: {securedAPICall: false, fhirUser: (), jwt: ()};
+    BundleExecutionContext executionCtx = {
+        fhirSecurity: fhirSecurity.cloneReadOnly(),
+        headers: fhirContext.getHTTPHeaders()
+    };
+
+    json entries = bundle is map<json> ? bundle["entry"] : ();
+    (BundleEntryRequestContext|r4:FHIRError)[] entryRequests = [];
+    if entries is json[] {
+        foreach int index in 0 ..< entries.length() {
+            entryRequests.push(getBundleEntryRequest(index, entries[index], basePaths));
+        }
+    }
+
+    if isTransactionBundle(bundle) {
+        log:printDebug(string `Executing transaction Bundle with ${entryRequests.length()} entries`);
+        r4:BundleEntry[] responseEntries = check executeTransaction(executionCtx, entryRequests);
+        return {'type: r4:BUNDLE_TYPE_TRANSACTION_RESPONSE, entry: responseEntries};
+    }
+    log:printDebug(string `Executing batch Bundle with ${entryRequests.length()} entries`);
+    return {'type: r4:BUNDLE_TYPE_BATCH_RESPONSE, entry: executeBatch(executionCtx, entryRequests)};
+}
+
+# Executes the entries of a batch Bundle, up to `batchEntryParallelism` entries at a time.
+#
+# + executionCtx - The details of the Bundle request
+# + entryRequests - The requests of the entries
+# + return - The response entries, in the order of the entries
+isolated function executeBatch(BundleExecutionContext executionCtx,
+        (BundleEntryRequestContext|r4:FHIRError)[] entryRequests) returns r4:BundleEntry[] {
+    int parallelism = batchEntryParallelism < 1 ? 1 : batchEntryParallelism;
+    future<r4:BundleEntry>[] executions = [];
+    r4:BundleEntry[] responseEntries = [];
+    foreach int index in 0 ..< entryRequests.length() {
+        if index >= parallelism {
+            // Wait for the oldest execution before starting another one
+            responseEntries.push(wait executions[index - parallelism]);
+        }
+        BundleEntryRequestContext|r4:FHIRError entryRequest = entryRequests[index];
+        executions.push(start executeBatchEntry(executionCtx, entryRequest));
+    }
+    foreach int index in responseEntries.length() ..< executions.length() {
+        responseEntries.push(wait executions[index]);
+    }
+    return responseEntries;
+}
+
+isolated function executeBatchEntry(BundleExecutionContext executionCtx,
+        BundleEntryRequestContext|r4:FHIRError entryRequest) returns r4:BundleEntry {
+    if entryRequest is r4:FHIRError {
+        return createErrorEntry(entryRequest);
+    }
+    any|error result = executeBundleEntryRequest(executionCtx, entryRequest);
+    return result is error ? createErrorEntry(result) : createResponseEntry(entryRequest, result);
+}
+
+# Executes the entries of a transaction Bundle one by one, in dependency order.
+#
+# + executionCtx - The details of the Bundle request
+# + entryRequests - The requests of the entries
+# + return - The response entries, in the order of the entries, or an error if an entry failed
+isolated function executeTransaction(BundleExecutionContext executionCtx,
+        (BundleEntryRequestContext|r4:FHIRError)[] entryRequests) returns r4:BundleEntry[]|r4:FHIRError {
+    BundleEntryRequestContext[] requests = [];
+    foreach BundleEntryRequestContext|r4:FHIRError entryRequest in entryRequests {
+        if entryRequest is r4:FHIRError {
+            return entryRequest;
+        }
+        requests.push(entryRequest);
+    }
+    foreach BundleEntryRequestContext entryRequest in requests {
+        InProcessService? inProcessService = getInProcessService(entryRequest.resourceType);
+        if inProcessService is InProcessService && !inProcessService.getPreprocessor().apiConfig.transactionsEnabled {
+            return r4:createFHIRError(
+                    string `Transaction Bundles are not supported for resource type: ${entryRequest.resourceType}`,
+                    r4:ERROR, r4:PROCESSING_NOT_SUPPORTED,
+                    diagnostic = "The entries of a transaction are not rolled back when a later entry fails. Submit the " +
+                        "entries as a batch Bundle, or enable transactions in the API config of the service.",
+                    httpStatusCode = http:STATUS_NOT_IMPLEMENTED);
+        }
+    }
+
+    // References to the resources of the transaction, keyed by the `urn:uuid` full URL of their entries. The resources
+    // updated by the transaction have their id in the entry URL, the created resources are added once created.
+    map<string> references = {};
+    foreach BundleEntryRequestContext entryRequest in requests {
+        string? fullUrl = entryRequest.fullUrl;
+        if fullUrl is string && fullUrl.startsWith(URN_UUID_PREFIX) && entryRequest.method == http:HTTP_PUT
+                && !entryRequest.conditional {
+            string[] paths = entryRequest.paths;
+            references[fullUrl] = string `${entryRequest.resourceType}/${paths[paths.length() - 1]}`;
+        }
+    }
+
+    r4:BundleEntry[] responseEntries = [];
+    // Entries that changed a resource, reported if a later entry fails since they are not rolled back
+    string[] committedEntries = [];
+    foreach int index in check getTransactionOrder(requests) {
+        BundleEntryRequestContext entryRequest = resolveBundleReferences(requests[index], references);
+        any|error result = executeBundleEntryRequest(executionCtx, entryRequest);
+        r4:BundleEntry responseEntry = result is error ? createErrorEntry(result)
+            : createResponseEntry(entryRequest, result);
+        int statusCode = getEntryStatusCode(responseEntry);
+        if statusCode >= 400 {
+            string message = result is error ? result.message() : string `status ${statusCode}`;
+            string diagnostic = committedEntries.length() == 0 ? "No entry of the transaction was committed."
+                : string `Entries committed before the failure, which are not rolled back: ${
+                    string:'join(", ", ...committedEntries)}`;
+            return r4:createFHIRError(string `Transaction failed at Bundle entry ${index}: ${message}`, r4:ERROR,
+                    r4:PROCESSING, diagnostic = diagnostic, cause = result is error ? result : (),
+                    httpStatusCode = statusCode);
+        }
+        if entryRequest.method != http:HTTP_GET {
+            string? committedLocation = responseEntry.response?.location;
+            committedEntries.push(string `entry ${index} (${entryRequest.method} ${committedLocation ?:
+                string:'join("/", ...entryRequest.paths)})`);
+        }
+
+        string? fullUrl = entryRequest.fullUrl;
+        string? location = responseEntry.response?.location;
+        if fullUrl is string && fullUrl.startsWith(URN_UUID_PREFIX) && location is string {
+            int? historyIndex = location.indexOf("/_history");
+            references[fullUrl] = historyIndex is int ? location.substring(0, historyIndex) : location;
+        }
+        responseEntries[index] = responseEntry;
+    }
+    return responseEntries;
+}
+
+# Orders the entries of a transaction in the FHIR processing order: deletes, creates, updates and patches, then
+# reads. Creates are ordered so that the resources referenced by an entry, through the `urn:uuid` full URL of another
+# create entry, are created before the entry, and keep the order of the Bundle otherwise.
+#
+# + requests - The requests of the entries
+# + return - The indexes of the entries in execution order, or an error if creates reference each other in a cycle
+isolated function getTransactionOrder(BundleEntryRequestContext[] requests) returns int[]|r4:FHIRError {
+    int[] deletes = [];
+    int[] creates = [];
+    int[] updates = [];
+    int[] reads = [];
+    map<int> createdBy = {};
+    foreach int index in 0 ..< requests.length() {
+        BundleEntryRequestContext entryRequest = requests[index];
+        if entryRequest.method == http:HTTP_DELETE {
+            deletes.push(index);
+        } else if entryRequest.method == http:HTTP_POST {
+            creates.push(index);
+            string? fullUrl = entryRequest.fullUrl;
+            if fullUrl is string && fullUrl.startsWith(URN_UUID_PREFIX) {
+                createdBy[fullUrl] = index;
+            }
+        } else if entryRequest.method == http:HTTP_PUT || entryRequest.method == http:HTTP_PATCH {
+            updates.push(index);
+        } else {
+            reads.push(index);
+        }
+    }
+    if createdBy.length() == 0 {
+        return [...deletes, ...creates, ...updates, ...reads];
+    }
+
+    int[] pendingReferences = [];
+    int[][] referencedBy = [];
+    pendingReferences.setLength(requests.length());
+    referencedBy.setLength(requests.length());
+    foreach int index in creates {
+        foreach string reference in getUuidReferences(requests[index].resourceText) {
+            int? referenced = createdBy[reference];
+            if referenced is int && referenced != index {
+                referencedBy[referenced].push(index);
+                pendingReferences[index] += 1;
+            }
+        }
+    }
+    int[] orderedCreates = [];
+    int[] ready = from int index in creates
+        where pendingReferences[index] == 0
+        select index;
+    while ready.length() > 0 {
+        int index = ready.shift();
+        orderedCreates.push(index);
+        foreach int referencing in referencedBy[index] {
+            pendingReferences[referencing] -= 1;
+            if pendingReferences[referencing] == 0 {
+                ready.push(referencing);
+            }
+        }
+    }
+    if orderedCreates.length() < creates.length() {
+        return r4:createFHIRError("Transaction Bundle entries reference each other in a cycle", r4:ERROR,
+                r4:PROCESSING, httpStatusCode = http:STATUS_BAD_REQUEST);
+    }
+    return [...deletes, ...orderedCreates, ...updates, ...reads];
+}
+
+# Replaces the `urn:uuid` references of an entry resource with the references to the resources of the transaction.
+#
+# + entryRequest - The request of the entry
+# + references - The references to the resources of the transaction, keyed by their `urn:uuid` full URL
+# + return - The request of the entry with the references replaced
+isolated function resolveBundleReferences(BundleEntryRequestContext entryRequest, map<string> references)
+        returns BundleEntryRequestContext {
+    string? resourceText = entryRequest.resourceText;
+    if resourceText is () || references.length() == 0 || !resourceText.includes(URN_UUID_PREFIX) {
+        return entryRequest;
+    }
+    string resolvedText = resourceText;
+    foreach string reference in getUuidReferences(resourceText) {
+        string? resolved = references[reference];
+        if resolved is string {
+            resolvedText = replaceText(resolvedText, string `"${reference}"`, string `"${resolved}"`);
+        }
+    }
+    return {
+        method: entryRequest.method,
+        resourceType: entryRequest.resourceType,
+        paths: entryRequest.paths,
+        queryParams: entryRequest.queryParams,
+        fullUrl: entryRequest.fullUrl,
+        resourceText: resolvedText,
+        ifMatch: entryRequest.ifMatch,
+        conditional: entryRequest.conditional
+    };
+}
+
+# Extracts the `urn:uuid` values of a resource serialized as JSON.
+#
+# + resourceText - The resource serialized as JSON
+# + return - The distinct `urn:uuid` values of the resource
+isolated function getUuidReferences(string? resourceText) returns string[] {
+    if resourceText is () {
+        return [];
+    }
+    map<()> references = {};
+    string quotedPrefix = "\"" + URN_UUID_PREFIX;
+    int? startIndex = resourceText.indexOf(quotedPrefix);
+    while startIndex is int {
+        int? endIndex = resourceText.indexOf("\"", startIndex + 1);
+        if endIndex is () {
+            break;
+        }
+        references[resourceText.substring(startIndex + 1, endIndex)] = ();
+        startIndex = resourceText.indexOf(quotedPrefix, endIndex + 1);
+    }
+    return references.keys();
+}
+
+isolated function replaceText(string text, string target, string replacement) returns string {
+    string[] parts = [];
+    int fromIndex = 0;
+    int? index = text.indexOf(target);
+    while index is int {
+        parts.push(text.substring(fromIndex, index), replacement);
+        fromIndex = index + target.length();
+        index = text.indexOf(target, fromIndex);
+    }
+    parts.push(text.substring(fromIndex));
+    return string:'concat(...parts);
+}
+
+# Extracts the request of a Bundle entry.
+#
+# + index - The index of the entry in the Bundle
+# + entry - The Bundle entry
+# + basePaths - The path segments of the Bundle request, on which relative entry URLs are resolved
+# + return - The request of the entry, or an error if the entry has no valid request
+isolated function getBundleEntryRequest(int index, json entry, string[] basePaths)
+        returns BundleEntryRequestContext|r4:FHIRError {
+    if entry !is map<json> {
+        return createBundleEntryError(string `Bundle entry ${index} is not a valid Bundle entry`);
+    }
+    json request = entry["request"];
+    json method = request is map<json> ? request["method"] : ();
+    json url = request is map<json> ? request["url"] : ();
+    if request !is map<json> || method !is string || url !is string {
+        return createBundleEntryError(string `Bundle entry ${index} has no request method and URL`);
+    }
+
+    // Absolute URLs are resolved from the root of the server
+    string entryUrl = url;
+    int? schemeIndex = entryUrl.indexOf("://");
+    if schemeIndex is int {
+        int? pathIndex = entryUrl.indexOf("/", schemeIndex + 3);
+        entryUrl = pathIndex is int ? entryUrl.substring(pathIndex) : "/";
+    }
+    int? queryIndex = entryUrl.indexOf("?");
+    string entryPath = queryIndex is int ? entryUrl.substring(0, queryIndex) : entryUrl;
+    string[] entryPaths = from string segment in re `/`.split(entryPath)
+        where segment != ""
+        select segment;
+    if entryPath.startsWith("/") {
+        if entryPaths.length() <= basePaths.length() || entryPaths.slice(0, basePaths.length()) != basePaths {
+            return createBundleEntryError(string `Bundle entry ${index} URL is not served by this server: ${url}`);
+        }
+        entryPaths = entryPaths.slice(basePaths.length());
+    }
+    if entryPaths.length() == 0 {
+        return createBundleEntryError(string `Bundle entry ${index} URL has no resource type: ${url}`);
+    }
+
+    map<string[]> queryParams = queryIndex is int ? getConditionalQueryParams(entryUrl) : {};
+    json fullUrl = entry["fullUrl"];
+    json 'resource = entry["resource"];
+    json ifMatch = request["ifMatch"];
+    return {
+        method: method.toUpperAscii(),
+        resourceType: entryPaths[0],
+        paths: [...basePaths, ...entryPaths].cloneReadOnly(),
+        queryParams: queryParams.cloneReadOnly(),
+        fullUrl: fullUrl is string ? fullUrl : (),
+        resourceText: 'resource is () ? () : 'resource.toJsonString(),
+        ifMatch: ifMatch is string ? ifMatch : (),
+        conditional: request["ifNoneExist"] is string
+            || (method.toUpperAscii() != http:HTTP_GET && queryParams.length() > 0)
+    };
+}
+
+# Executes the request of a Bundle entry through the FHIR service of the entry resource type. The entry is
+# pre-processed and post-processed like the corresponding single resource interaction, and its audit event is queued.
+#
+# + executionCtx - The details of the Bundle request
+# + entryRequest - The request of the entry
+# + return - The result of the resource method, or an error
+isolated function executeBundleEntryRequest(BundleExecutionContext executionCtx,
+        BundleEntryRequestContext entryRequest) returns any|error {
+    string resourceType = entryRequest.resourceType;
+    InProcessService? inProcessService = getInProcessService(resourceType);
+    if inProcessService is () {
+        return r4:createFHIRError(string `No FHIR service is available for resource type: ${resourceType}`,
+                r4:CODE_SEVERITY_ERROR, r4:TRANSIENT, httpStatusCode = http:STATUS_NOT_FOUND);
+    }
+    if entryRequest.conditional {
+        return r4:createFHIRError("Conditional interactions are not supported in Bundle entries",
+                r4:CODE_SEVERITY_ERROR, r4:TRANSIENT, httpStatusCode = http:STATUS_NOT_IMPLEMENTED);
+    }
+    string[] paths = entryRequest.paths;
+    handle? resourceMethod = inProcessService.getResourceMethod(paths, entryRequest.method);
+    if resourceMethod is () {
+        return r4:createFHIRError(string `Path not found: /${string:'join("/", ...paths)}`,
+                r4:CODE_SEVERITY_ERROR, r4:TRANSIENT, httpStatusCode = http:STATUS_NOT_FOUND);
+    }
+
+    FHIRPreprocessor preprocessor = inProcessService.getPreprocessor();
+    Service fhirService = inProcessService.getService();
+    string interaction = getInteraction(resourceMethod);
+    boolean hasPathParam = isHavingPathParam(resourceMethod);
+    // A `$` segment is an operation even if it matched a read or create route
+    boolean isOperation = interaction == ROUTE_OPERATION || isOperationPath(paths);
+    InteractionRequest request = createBundleEntryInteractionRequest(executionCtx, entryRequest.resourceText);
+
+    r4:FHIRContext fhirCtx;
+    any|error result;
+    if entryRequest.method == http:HTTP_GET && interaction == ROUTE_SEARCH {
+        fhirCtx = check preprocessor.prepareSearch(resourceType, entryRequest.queryParams, request);
+        result = executeWithNoParam(fhirCtx, fhirService, resourceMethod);
+    } else if entryRequest.method == http:HTTP_GET && interaction == ROUTE_VREAD {
+        string id = paths[paths.length() - 3];
+        string vid = paths[paths.length() - 1];
+        fhirCtx = check preprocessor.prepareVread(resourceType, id, vid, request);
+        result = executeWithIDAndVID(id, vid, fhirCtx, fhirService, resourceMethod);
+    } else if entryRequest.method == http:HTTP_GET && hasPathParam && interaction != ROUTE_INSTANCE_HISTORY
+            && !isOperation {
+        string id = paths[paths.length() - 1];
+        fhirCtx = check preprocessor.prepareRead(resourceType, id, request);
+        result = executeWithID(id, fhirCtx, fhirService, resourceMethod);
+    } else if entryRequest.method == http:HTTP_POST && interaction != ROUTE_SEARCH && !isOperation {
+        json payload = check getBundleEntryPayload(entryRequest);
+        fhirCtx = check preprocessor.prepareCreate(resourceType, payload, request);
+        result = executeWithPayload(payload, fhirCtx, fhirService, resourceMethod);
+    } else if entryRequest.method == http:HTTP_PUT && hasPathParam {
+        string id = paths[paths.length() - 1];
+        json payload = check getBundleEntryPayload(entryRequest);
+        fhirCtx = check preprocessor.prepareUpdate(resourceType, id, payload, entryRequest.ifMatch, request);
+        result = executeWithIDAndPayload(id, payload, fhirCtx, fhirService, resourceMethod);
+        preprocessor.invalidateCachedReads(resourceType, id);
+    } else if entryRequest.method == http:HTTP_PATCH {
+        string id = paths[paths.length() - 1];
+        json payload = check getBundleEntryPayload(entryRequest);
+        fhirCtx = check preprocessor.preparePatch(resourceType, id, request);
+        result = executeWithIDAndPayload(id, payload, fhirCtx, fhirService, resourceMethod);
+        preprocessor.invalidateCachedReads(resourceType, id);
+    } else if entryRequest.method == http:HTTP_DELETE && hasPathParam {
+        string id = paths[paths.length() - 1];
+        fhirCtx = check preprocessor.prepareDelete(resourceType, id, request);
+        result = executeWithID(id, fhirCtx, fhirService, resourceMethod);
+        preprocessor.invalidateCachedReads(resourceType, id);
+    } else if entryRequest.method == http:HTTP_PUT || entryRequest.method == http:HTTP_DELETE {
+        return createBundleEntryError(string `Resource ID is required for ${entryRequest.method} operation`);
+    } else {
+        return r4:createFHIRError(string `Interaction is not supported in Bundle entries: ${entryRequest.method} ${interaction}`,
+                r4:CODE_SEVERITY_ERROR, r4:TRANSIENT, httpStatusCode = http:STATUS_NOT_IMPLEMENTED);
+    }
+    return postProcessBundleEntry(inProcessService.getResponseInterceptor(), fhirCtx, result);
+}
+
+# Runs the response post-processors of the service on an executed Bundle entry and queues its audit event, like the
+# response interceptor does for the interactions received over HTTP.
+#
+# + responseInterceptor - The response interceptor of the service of the entry
+# + fhirCtx - The FHIR context of the entry
+# + result - The result of the resource method
+# + return - The result of the resource method, or the error of a failed post-processor
+isolated function postProcessBundleEntry(FHIRResponseInterceptor responseInterceptor, r4:FHIRContext fhirCtx,
+        any|error result) returns any|error {
+    any|error entryResult = result;
+    if entryResult is error {
+        fhirCtx.setInErrorState(true);
+        fhirCtx.setErrorCode(r4:getErrorCode(entryResult));
+    }
+    r4:FHIRError? postProcessResult = responseInterceptor.postProcess(fhirCtx);
+    if postProcessResult is r4:FHIRError {
+        fhirCtx.setInErrorState(true);
+        fhirCtx.setErrorCode(r4:getErrorCode(postProcessResult));
+        entryResult = postProcessResult;
+    }
+    responseInterceptor.publishAuditEvent(fhirCtx);
+    return entryResult;
+}
+
+isolated function getBundleEntryPayload(BundleEntryRequestContext entryRequest) returns json|r4:FHIRError {
+    string? resourceText = entryRequest.resourceText;
+    if resourceText is () {
+        return createBundleEntryError("Bundle entry has no resource");
+    }
+    json|error payload = resourceText.fromJsonString();
+    if payload is error {
+        return r4:createFHIRError("Bundle entry resource is not valid JSON", r4:ERROR, r4:PROCESSING,
+                cause = payload, httpStatusCode = http:STATUS_BAD_REQUEST);
+    }
+    return payload;
+}
+
+# Creates the details of the request of a Bundle entry. The entry shares the headers and security details of the
+# Bundle request.
+#
+# + executionCtx - The details of the Bundle request
+# + rawPayload - The resource of the entry, serialized as JSON
+# + return - The details of the request of the entry
+isolated function createBundleEntryInteractionRequest(BundleExecutionContext executionCtx, string? rawPayload)
+        returns InteractionRequest {
+    r4:RawHTTPRequest & readonly httpRequest = rawPayload is ()
+        ? {headers: executionCtx.headers}
+        : {headers: executionCtx.headers, rawPayload: rawPayload};
+    return {acceptType: r4:JSON, fhirSecurity: executionCtx.fhirSecurity, httpRequest: httpRequest};
+}
+
+# Creates the response entry of an executed Bundle entry.
+#
+# + entryRequest - The request of the entry
+# + result - The result of the resource method
+# + return - The response entry
+isolated function createResponseEntry(BundleEntryRequestContext entryRequest, any result) returns r4:BundleEntry {
+    int statusCode = entryRequest.method == http:HTTP_POST ? http:STATUS_CREATED
+        : result is () && entryRequest.method == http:HTTP_DELETE ? http:STATUS_NO_CONTENT : http:STATUS_OK;
+    anydata resourceResult = ();
+    string? location = ();
+    if result is http:Response {
+        statusCode = result.statusCode;
+        json|http:ClientError payload = result.getJsonPayload();
+        resourceResult = payload is json ? payload : ();
+        string|http:HeaderNotFoundError locationHeader = result.getHeader(LOCATION_HEADER);
+        location = locationHeader is string ? locationHeader : ();
+    } else if result is anydata {
+        resourceResult = result;
+    } else {
+        return createErrorEntry(r4:createFHIRError("Unsupported result of the resource method", r4:ERROR,
+                r4:PROCESSING, httpStatusCode = http:STATUS_INTERNAL_SERVER_ERROR));
+    }
+
+    r4:BundleEntryResponse response = {status: statusCode.toString()};
+    if statusCode >= 400 {
+        response.outcome = resourceResult;
+        return {response: response};
+    }
+    if resourceResult is map<anydata> {
+        anydata id = resourceResult["id"];
+        anydata meta = resourceResult[META];
+        anydata versionId = meta is map<anydata> ? meta["versionId"] : ();
+        anydata lastUpdated = meta is map<anydata> ? meta[LAST_UPDATED] : ();
+        if location is () && id is string
+                && (entryRequest.method == http:HTTP_POST || entryRequest.method == http:HTTP_PUT) {
+            location = versionId is string ? string `${entryRequest.resourceType}/${id}/_history/${versionId}`
+                : string `${entryRequest.resourceType}/${id}`;
+        }
+        if versionId is string {
+            response.etag = string `W/"${versionId}"`;
+        }
+        if lastUpdated is string {
+            response.lastModified = lastUpdated;
+        }
+    }
+    if location is string {
+        response.location = location;
+    }
+    r4:BundleEntry responseEntry = {response: response};
+    if resourceResult !is () {
+        responseEntry.'resource = resourceResult;
+    }
+    return responseEntry;
+}
+
+isolated function createErrorEntry(error err) returns r4:BundleEntry {
+    return {
+        response: {
+            status: r4:getErrorCode(err).toString(),
+            outcome: r4:handleErrorResponse(err)
+        }
+    };
+}
+
+isolated function getEntryStatusCode(r4:BundleEntry responseEntry) returns int {
+    string status = responseEntry.response?.status ?: "";
+    int|error statusCode = int:fromString(status.length() > 3 ? status.substring(0, 3) : status);
+    return statusCode is int ? statusCode : http:STATUS_INTERNAL_SERVER_ERROR;
+}
+
+isolated function createBundleEntryError(string message) returns r4:FHIRError {
+    return r4:createFHIRError(message, r4:ERROR, r4:PROCESSING, httpStatusCode = http:STATUS_BAD_REQUEST);
+}
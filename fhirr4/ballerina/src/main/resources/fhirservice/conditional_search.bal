@@ -0,0 +1,129 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/lang.regexp;
+import ballerina/log;
+import ballerina/url;
+import ballerinax/health.fhir.r4;
+
+// Conditional interactions only need to tell zero, one and many matches apart.
+const CONDITIONAL_SEARCH_COUNT = 2;
+
+# Search request of a conditional interaction.
+#
+# + resourceType - The FHIR resource type to search
+# + searchParameters - The processed search parameters of the conditional interaction
+# + fhirSecurity - Security details of the conditional interaction request
+# + httpRequest - The conditional interaction HTTP request
+type ConditionalSearchContext readonly & record {|
+    string resourceType;
+    map<r4:RequestSearchParameter[]> searchParameters;
+    r4:FHIRSecurity fhirSecurity;
+    r4:RawHTTPRequest httpRequest;
+|};
+
+# Executes the search of a conditional interaction through the FHIR service of the resource type, if it is attached to
+# a listener of this module. Only the first matches are requested, which is enough for the decision of the conditional
+# interaction, and the result is used as it is returned by the service instead of being serialized and parsed.
+#
+# + resourcePath - The type level path of the resource
+# + searchContext - The search request of the conditional interaction
+# + return - The search result, or nil if the search cannot be dispatched in-process
+isolated function searchInProcess(string resourcePath, ConditionalSearchContext searchContext)
+        returns r4:Bundle|r4:FHIRError? {
+    InProcessService? searchService = getInProcessService(searchContext.resourceType);
+    if searchService is () {
+        return ();
+    }
+
+    readonly & FHIRSearchInteraction searchInteraction = {};
+    r4:FHIRRequest fhirRequest = new (searchInteraction, searchContext.resourceType, (),
+            searchContext.searchParameters, r4:JSON);
+    r4:FHIRContext fhirCtx = new (fhirRequest, searchContext.httpRequest, searchContext.fhirSecurity);
+    fhirCtx.setPaginationContext({paginationEnabled: true, page: 1, pageSize: CONDITIONAL_SEARCH_COUNT});
+
+    log:printDebug(string `Executing in-process conditional search: ${resourcePath}`);
+    any|error result = searchService.search(resourcePath, fhirCtx);
+    if result is () {
+        return ();
+    }
+    if result is error {
+        log:printError("Error executing conditional search", result);
+        return r4:createFHIRError(
+            string `Failed to execute search for conditional interaction: ${result.message()}`,
+            r4:ERROR, r4:PROCESSING,
+            httpStatusCode = http:STATUS_INTERNAL_SERVER_ERROR
+        );
+    }
+    if result is r4:Bundle {
+        return result;
+    }
+    r4:Bundle|error bundle = error("Unsupported search result");
+    if result is anydata {
+        bundle = result.cloneWithType();
+    }
+    if bundle is error {
+        log:printError("Error converting to Bundle type", bundle);
+        return r4:createFHIRError(
+            "Search response is not a FHIR Bundle",
+            r4:ERROR, r4:PROCESSING,
+            httpStatusCode = http:STATUS_INTERNAL_SERVER_ERROR
+        );
+    }
+    return bundle;
+}
+
+# Extracts the search parameters of a conditional URL, such as the value of the If-None-Exist header.
+#
+# + conditionalUrl - The conditional URL, with or without the resource path
+# + return - The search parameters keyed by name
+isolated function getConditionalQueryParams(string conditionalUrl) returns map<string[]> {
+    string query = getConditionalQuery(conditionalUrl);
+    map<string[]> queryParams = {};
+    foreach string part in regexp:split(re `&`, query) {
+        if part == "" {
+            continue;
+        }
+        int? indexOfValue = part.indexOf("=");
+        string name = indexOfValue is int ? part.substring(0, indexOfValue) : part;
+        string value = indexOfValue is int ? part.substring(indexOfValue + 1) : "";
+        string|error decodedName = url:decode(name, "UTF-8");
+        string|error decodedValue = url:decode(value, "UTF-8");
+        name = decodedName is string ? decodedName : name;
+        value = decodedValue is string ? decodedValue : value;
+        string[]? values = queryParams[name];
+        if values is string[] {
+            values.push(value);
+        } else {
+            queryParams[name] = [value];
+        }
+    }
+    return queryParams;
+}
+
+# Extracts the query of a conditional URL. The URL may be given with the resource path (e.g. `Patient?identifier=1`)
+# or as the query only (e.g. `identifier=1`), a URL without a query has no search parameters.
+#
+# + conditionalUrl - The conditional URL
+# + return - The query, without the leading `?`
+isolated function getConditionalQuery(string conditionalUrl) returns string {
+    int? indexOfSearchParams = conditionalUrl.indexOf("?");
+    if indexOfSearchParams is int {
+        return conditionalUrl.substring(indexOfSearchParams + 1);
+    }
+    return conditionalUrl.includes("=") ? conditionalUrl : "";
+}
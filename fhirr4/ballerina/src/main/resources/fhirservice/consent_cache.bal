@@ -0,0 +1,182 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/log;
+import ballerina/time;
+
+const CONSENT_CACHE_KEY_SEPARATOR = "|";
+
+// Consent lists keyed by user IDs and consent statuses, and consent validations keyed by consent ID. The caches are
+// shared by the consent enforcers of all the APIs, since they call the same OpenFGC server.
+final ConsentDecisionCache consentDetailsCache = new (consentEnforcement.cache.capacity);
+final ConsentDecisionCache consentValidationCache = new (consentEnforcement.cache.capacity);
+
+# An OpenFGC response and the time until which it is used.
+#
+# + expiry - Monotonic time in seconds at which the response expires
+# + decision - The OpenFGC response
+type CachedConsentDecision readonly & record {|
+    decimal expiry;
+    ConsentResponse|ConsentValidationResponse decision;
+|};
+
+# Cached OpenFGC response of a single cache key.
+# The lock of the entry is held while OpenFGC is called, so concurrent misses for the same key wait for the call in
+# flight and use its response instead of calling OpenFGC again. Errors are not cached.
+isolated class ConsentDecision {
+
+    private CachedConsentDecision? cached = ();
+
+    # Returns the consent list, calling OpenFGC if it is not cached or has expired.
+    #
+    # + enforcer - The consent enforcer used to call OpenFGC
+    # + userIds - Comma-separated user IDs to filter by
+    # + consentStatuses - Comma-separated consent statuses to filter by
+    # + return - The consent list, or an error if the OpenFGC call fails
+    isolated function getConsentDetails(DefaultConsentEnforcer enforcer, string userIds, string consentStatuses)
+            returns readonly & ConsentResponse|error {
+        lock {
+            CachedConsentDecision? cached = self.cached;
+            if cached != () && cached.expiry > time:monotonicNow() {
+                readonly & (ConsentResponse|ConsentValidationResponse) decision = cached.decision;
+                if decision is ConsentResponse {
+                    return decision;
+                }
+            }
+            readonly & ConsentResponse response = (check enforcer.fetchConsentDetails(userIds, consentStatuses))
+                .cloneReadOnly();
+            Consent[]? consents = response.data;
+            boolean negative = consents is () || consents.length() == 0;
+            self.cached = {expiry: getConsentDecisionExpiry(negative), decision: response};
+            return response;
+        }
+    }
+
+    # Returns the validation of a consent, calling OpenFGC if it is not cached or has expired.
+    #
+    # + enforcer - The consent enforcer used to call OpenFGC
+    # + consentId - The unique identifier of the consent to validate
+    # + return - The consent validation, or an error if the OpenFGC call fails
+    isolated function validateConsent(DefaultConsentEnforcer enforcer, string consentId)
+            returns readonly & ConsentValidationResponse|error {
+        lock {
+            CachedConsentDecision? cached = self.cached;
+            if cached != () && cached.expiry > time:monotonicNow() {
+                readonly & (ConsentResponse|ConsentValidationResponse) decision = cached.decision;
+                if decision is ConsentValidationResponse {
+                    return decision;
+                }
+            }
+            readonly & ConsentValidationResponse response = (check enforcer.fetchConsentValidation(consentId))
+                .cloneReadOnly();
+            self.cached = {expiry: getConsentDecisionExpiry(response.isValid != true), decision: response};
+            return response;
+        }
+    }
+}
+
+# Bounded map of consent decisions. Once the map is full, the oldest entry is evicted first.
+isolated class ConsentDecisionCache {
+
+    private final BoundedMap entries;
+
+    isolated function init(int capacity) {
+        self.entries = new (capacity);
+    }
+
+    # Returns the entry of the given key, creating it if the key is not cached.
+    #
+    # + key - The cache key
+    # + return - The entry of the key
+    isolated function getEntry(string key) returns ConsentDecision {
+        // The lock makes the lookup and the creation atomic, so concurrent misses share the same entry.
+        lock {
+            BoundedMapValue? entry = self.entries.get(key);
+            if entry is ConsentDecision {
+                return entry;
+            }
+            ConsentDecision newEntry = new;
+            self.entries.put(key, newEntry);
+            return newEntry;
+        }
+    }
+
+    # Removes the entry of the given key.
+    #
+    # + key - The cache key
+    isolated function invalidate(string key) {
+        self.entries.remove(key);
+    }
+
+    # Returns the cached keys.
+    #
+    # + return - The cached keys
+    isolated function getKeys() returns string[] & readonly {
+        return self.entries.keys();
+    }
+
+    # Removes all the entries.
+    isolated function clear() {
+        self.entries.removeAll();
+    }
+}
+
+# Removes the cached consent lists of a user. Call this when the consents of the user change in OpenFGC, so that the
+# change is enforced before the cached decisions expire.
+#
+# + userId - The user ID
+public isolated function invalidateUserConsents(string userId) {
+    foreach string key in consentDetailsCache.getKeys() {
+        string userIds = key.substring(0, key.lastIndexOf(CONSENT_CACHE_KEY_SEPARATOR) ?: key.length());
+        foreach string cachedUserId in re `,`.split(userIds) {
+            if cachedUserId.trim() == userId {
+                consentDetailsCache.invalidate(key);
+                break;
+            }
+        }
+    }
+    log:printDebug(string `Invalidated the cached consent lists of user: ${userId}`);
+}
+
+# Removes the cached validation of a consent. Call this when the consent is updated or revoked in OpenFGC.
+#
+# + consentId - The unique identifier of the consent
+public isolated function invalidateConsent(string consentId) {
+    consentValidationCache.invalidate(consentId);
+}
+
+# Removes all the cached consent lists and consent validations.
+public isolated function clearConsentCache() {
+    consentDetailsCache.clear();
+    consentValidationCache.clear();
+}
+
+# Returns the time until which an OpenFGC response is cached.
+#
+# + negative - Whether the response is an empty consent list or an invalid consent validation
+# + return - Monotonic time in seconds at which the response expires
+isolated function getConsentDecisionExpiry(boolean negative) returns decimal {
+    return time:monotonicNow() + (negative ? consentEnforcement.cache.negativeTtl : consentEnforcement.cache.ttl);
+}
+
+# Creates the cache key of a consent list lookup.
+#
+# + userIds - Comma-separated user IDs to filter by
+# + consentStatuses - Comma-separated consent statuses to filter by
+# + return - Cache key
+isolated function getConsentDetailsCacheKey(string userIds, string consentStatuses) returns string {
+    return string `${userIds}${CONSENT_CACHE_KEY_SEPARATOR}${consentStatuses}`;
+}
@@ -23,10 +23,20 @@ const PATIENT_QUERY_PARAM = "patient";
 const HISTORY = "_history";
 const METADATA = "metadata";
 const LOCATION_HEADER = "Location";
+const STREAMED_RESPONSE_PROP_NAME = "_OH_STREAMED_RESPONSE_";
+const SEARCH_QUERY_PROP_NAME = "_OH_SEARCH_QUERY_";
 const SUMMARY_OPERATION = "summary";
 const IPS_SECTION_CONFIG = "ipsSectionConfig";
 const IPS_META_DATA = "ipsMetaData";
 
+// Interactions of the resource routes resolved when a FHIR service is attached
+const ROUTE_VREAD = "vread";
+const ROUTE_INSTANCE_HISTORY = "history-instance";
+const ROUTE_HISTORY = "history";
+const ROUTE_SEARCH = "search";
+const ROUTE_CAPABILITIES = "capabilities";
+const ROUTE_OPERATION = "operation";
+
 // FHIR interaction records
 # FHIR Read interaction.
 #
@@ -31,9 +31,11 @@ const string DEFAULT_ORG_ID = "ORG-001";
 #
 # + enabled - if consent enforcement is enabled or not
 # + openFgcClient - Configuration for Open FGC client
+# + cache - Configuration for caching Open FGC responses
 public type ConsentEnforcementConfig readonly & record {|
     boolean enabled = false;
     OpenFgcClientConfig openFgcClient?;
+    ConsentCacheConfig cache = {};
 |};
 
 # OpenFgcClientConfig Record.
@@ -49,6 +51,20 @@ public type OpenFgcClientConfig record {|
     string orgId = DEFAULT_ORG_ID;
 |};
 
+# ConsentCacheConfig Record.
+#
+# + enabled - if Open FGC responses are cached or not. Disabled by default, since a revoked consent is still honored
+# until the cached response expires
+# + capacity - maximum number of cached consent lists, and of cached consent validations
+# + ttl - time in seconds an Open FGC response is cached
+# + negativeTtl - time in seconds an empty consent list or an invalid consent validation is cached
+public type ConsentCacheConfig record {|
+    boolean enabled = false;
+    int capacity = 10000;
+    decimal ttl = 30;
+    decimal negativeTtl = 5;
+|};
+
 configurable ConsentEnforcementConfig consentEnforcement = {};
 
 # Default implementation of the ConsentEnforcer interface.
@@ -102,12 +118,39 @@ public isolated class DefaultConsentEnforcer {
         return;
     }
 
-    # Retrieves consent information related to action
+    # Retrieves consent information related to action.
+    # Responses are cached, and concurrent lookups of the same users and statuses share a single OpenFGC call.
     #
     # + userIds - Comma-separated user IDs to filter by
     # + consentStatuses - Comma-separated consent statuses to filter by
     # + return - ConsentResponse if successful, or an error if the consent details retrieval fails
     public isolated function getConsentDetails(string userIds, string consentStatuses = ACTIVE_CONSENT_STATUS) returns ConsentResponse|error {
+        if !consentEnforcement.cache.enabled {
+            return self.fetchConsentDetails(userIds, consentStatuses);
+        }
+        ConsentDecision decision = consentDetailsCache.getEntry(getConsentDetailsCacheKey(userIds, consentStatuses));
+        return decision.getConsentDetails(self, userIds, consentStatuses);
+    }
+
+    # Validates a consent using its ID and retrieves detailed consent information.
+    # Responses are cached, and concurrent validations of the same consent share a single OpenFGC call.
+    #
+    # + consentId - The unique identifier of the consent to validate
+    # + return - ConsentValidationResponse if successful, or an error if validation fails
+    public isolated function validateConsent(string consentId) returns ConsentValidationResponse|error {
+        if !consentEnforcement.cache.enabled {
+            return self.fetchConsentValidation(consentId);
+        }
+        ConsentDecision decision = consentValidationCache.getEntry(consentId);
+        return decision.validateConsent(self, consentId);
+    }
+
+    # Retrieves consent information related to action from OpenFGC
+    #
+    # + userIds - Comma-separated user IDs to filter by
+    # + consentStatuses - Comma-separated consent statuses to filter by
+    # + return - ConsentResponse if successful, or an error if the consent details retrieval fails
+    isolated function fetchConsentDetails(string userIds, string consentStatuses) returns ConsentResponse|error {
         http:Client? openFgcClient = self.openFgcClient;
         if openFgcClient is () {
             return error("OpenFGC client is not configured");
@@ -142,11 +185,11 @@ public isolated class DefaultConsentEnforcer {
         return consentResponse;
     }
 
-    # Validates a consent using its ID and retrieves detailed consent information
+    # Validates a consent using its ID and retrieves detailed consent information from OpenFGC
     #
     # + consentId - The unique identifier of the consent to validate
     # + return - ConsentValidationResponse if successful, or an error if validation fails
-    public isolated function validateConsent(string consentId) returns ConsentValidationResponse|error {
+    isolated function fetchConsentValidation(string consentId) returns ConsentValidationResponse|error {
         http:Client? openFgcClient = self.openFgcClient;
         if openFgcClient is () {
             return error("OpenFGC client is not configured");
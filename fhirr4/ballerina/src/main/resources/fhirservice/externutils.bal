@@ -17,11 +17,6 @@
 import ballerina/jballerina.java;
 import ballerinax/health.fhir.r4;
 
-isolated function getResourceMethod(service object {} serviceObject, string[] servicePath, string[] path, string accessor)
-    returns handle? = @java:Method {
-    'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
-} external;
-
 isolated function executeWithID(string id, r4:FHIRContext fhirCtx, service object {} serviceObject, handle resourceMethod)
     returns any|error = @java:Method {
     'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
@@ -47,7 +42,27 @@ isolated function executeWithIDAndPayload(string id, anydata payload, r4:FHIRCon
     'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
 } external;
 
+isolated function startWithID(string id, r4:FHIRContext fhirCtx, service object {} serviceObject, handle resourceMethod)
+    returns future<any|error> = @java:Method {
+    'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
+} external;
+
+isolated function startWithIDAndVID(string id, string vid, r4:FHIRContext fhirCtx, service object {} serviceObject, handle resourceMethod)
+    returns future<any|error> = @java:Method {
+    'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
+} external;
+
+isolated function startWithNoParam(r4:FHIRContext fhirCtx, service object {} serviceObject, handle resourceMethod)
+    returns future<any|error> = @java:Method {
+    'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
+} external;
+
 isolated function isHavingPathParam(handle resourceMethod)
     returns boolean = @java:Method {
     'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
 } external;
+
+isolated function getInteraction(handle resourceMethod)
+    returns string = @java:Method {
+    'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
+} external;
@@ -25,6 +25,19 @@ const IDP_CLAIMS = "idp_claims";
 const X_JWT_HEADER = "x-jwt-assertion";
 const PAGE = "page";
 const COUNT = "_count";
+const CURSOR = "_cursor";
+
+# Details of a request that do not depend on how the request is received. The interactions received over HTTP and the
+# entries of batch and transaction Bundles are pre-processed with the same details.
+#
+# + acceptType - The format of the response
+# + fhirSecurity - Security details of the request
+# + httpRequest - The HTTP request details of the FHIR context
+type InteractionRequest readonly & record {|
+    r4:FHIRPayloadFormat acceptType;
+    r4:FHIRSecurity fhirSecurity;
+    r4:RawHTTPRequest httpRequest;
+|};
 
 # FHIR Pre-processor implementation.
 public isolated class FHIRPreprocessor {
@@ -32,12 +45,15 @@ public isolated class FHIRPreprocessor {
     final r4:ResourceAPIConfig apiConfig;
     final boolean paginationEnabled;
     final int pageSize;
+    final boolean cursorEnabled;
     // All the active search parameters
     private final readonly & map<r4:SearchParamConfig> searchParamConfigMap;
     // All the operations (base + API config defined)
     private final readonly & map<r4:OperationConfig> operationConfigMap;
 
     final DefaultConsentEnforcer consentEnforcer;
+    // Cache of the read and vread responses, shared by the HTTP service and the in-process dispatch of the service
+    final ReadCache? readCache;
 
     # Initialize the FHIR pre-processor
     #
@@ -46,6 +62,7 @@ public isolated class FHIRPreprocessor {
         self.apiConfig = apiConfig;
         self.paginationEnabled = apiConfig.paginationConfig.enabled;
         self.pageSize = apiConfig.paginationConfig.pageSize;
+        self.cursorEnabled = self.paginationEnabled && apiConfig.paginationConfig.cursorEnabled;
 
         map<r4:SearchParamConfig> searchParamConfigs = {};
         // process common seach parameters
@@ -60,7 +77,7 @@ public isolated class FHIRPreprocessor {
         // process resource specific seach parameters
         foreach r4:SearchParamConfig item in self.apiConfig.searchParameters {
             searchParamConfigs[item.name] = item;
-            r4:FHIRSearchParameterDefinition? searchParamDef = r4:fhirRegistry.getResourceSearchParameterByName(self.apiConfig.resourceType, item.name);
+            (readonly & r4:FHIRSearchParameterDefinition)? searchParamDef = r4:fhirRegistry.findResourceSearchParameter(self.apiConfig.resourceType, item.name);
             if searchParamDef is () {
                 r4:FHIRSearchParameterDefinition customSearchParamDef = {
                     name: item.name,
@@ -102,6 +119,19 @@ public isolated class FHIRPreprocessor {
 
         // Initialize the consent enforcer which will create the OpenFGC client
         self.consentEnforcer = new DefaultConsentEnforcer();
+
+        self.readCache = apiConfig.readCacheConfig.enabled ? new ReadCache(apiConfig.readCacheConfig.capacity) : ();
+    }
+
+    # Removes the cached reads of a resource. Called after the resource is updated, patched or deleted.
+    #
+    # + fhirResourceType - The FHIR resource type
+    # + id - The FHIR resource id
+    isolated function invalidateCachedReads(string fhirResourceType, string id) {
+        ReadCache? readCache = self.readCache;
+        if readCache is ReadCache {
+            readCache.invalidate(fhirResourceType, id);
+        }
     }
 
     # Process the FHIR Read interaction.
@@ -116,28 +146,31 @@ public isolated class FHIRPreprocessor {
         log:printDebug("Pre-processing FHIR interaction : read");
         // Validate main HTTP headers
         r4:FHIRRequestMimeHeaders clientHeaders = check validateClientRequestHeaders(httpRequest);
+        InteractionRequest request = check getInteractionRequest(httpRequest, clientHeaders, ());
+        setFHIRContext(check self.prepareRead(fhirResourceType, id, request), httpCtx);
+    }
 
+    # Creates the FHIR context of a Read interaction.
+    #
+    # + fhirResourceType - The FHIR resource type
+    # + id - The FHIR resource id
+    # + request - The details of the request
+    # + return - The FHIR context or an error
+    isolated function prepareRead(string fhirResourceType, string id, InteractionRequest request)
+            returns r4:FHIRContext|r4:FHIRError {
         // Create interaction
         readonly & FHIRReadInteraction readInteraction = {id: id};
 
         // Create FHIR request
-        r4:FHIRRequest fhirRequest = new (readInteraction, fhirResourceType, (), {}, clientHeaders.acceptType);
-
-        // Populate JWT information in FHIR context
-        readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
+        r4:FHIRRequest fhirRequest = new (readInteraction, fhirResourceType, (), {}, request.acceptType);
 
         // Handle SMART security
         if fhirResourceType == PATIENT_RESOURCE {
-            _ = check self.handleSmartSecurity(fhirSecurity, id);
+            _ = check self.handleSmartSecurity(request.fhirSecurity, id);
         }
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
-
         // Create FHIR context
-        r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
-
-        // Set FHIR context inside HTTP context
-        setFHIRContext(fCtx, httpCtx);
+        return new (fhirRequest, request.httpRequest, request.fhirSecurity);
     }
 
     # Process the FHIR Search interaction.
@@ -149,13 +182,26 @@ public isolated class FHIRPreprocessor {
     public isolated function processSearch(string fhirResourceType, http:Request httpRequest, http:RequestContext httpCtx)
                                                                                     returns r4:FHIRError? {
         log:printDebug("Pre-processing FHIR interaction : search");
-
         // Validate main HTTP headers
         r4:FHIRRequestMimeHeaders clientHeaders = check validateClientRequestHeaders(httpRequest);
+        InteractionRequest request = check getInteractionRequest(httpRequest, clientHeaders, ());
+        map<string[]> queryParams = check getSearchRequestParams(httpRequest);
+        setFHIRContext(check self.prepareSearch(fhirResourceType, queryParams, request), httpCtx);
+    }
 
+    # Creates the FHIR context of a Search interaction.
+    #
+    # + fhirResourceType - The FHIR resource type
+    # + queryParams - The search and pagination parameters of the request
+    # + request - The details of the request
+    # + return - The FHIR context or an error
+    isolated function prepareSearch(string fhirResourceType, map<string[]> queryParams, InteractionRequest request)
+            returns r4:FHIRContext|r4:FHIRError {
         // extract search parameters from request
         map<r4:RequestSearchParameter[]> requestSearchParameters =
-                                                    check self.processSearchParameters(fhirResourceType, httpRequest);
+                                                    check self.processSearchQueryParameters(fhirResourceType, queryParams);
+        // Query string of the pagination links, computed once per search
+        string searchQuery = getNormalizedSearchQuery(requestSearchParameters);
 
         // Create interaction
         readonly & FHIRSearchInteraction searchInteraction = {};
@@ -164,26 +210,21 @@ public isolated class FHIRPreprocessor {
             fhirResourceType,
             (),
             requestSearchParameters.cloneReadOnly(),
-            clientHeaders.acceptType
+            request.acceptType
         );
 
-        // Populate JWT information in FHIR context
-        readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
-
         // Handle SMART security
-        string? id = fhirResourceType == PATIENT_RESOURCE ? httpRequest.getQueryParamValue(PATIENT_ID_QUERY_PARAM) : httpRequest.getQueryParamValue(PATIENT_QUERY_PARAM);
-        _ = check self.handleSmartSecurity(fhirSecurity, id);
-
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
+        string? id = getFirstQueryParamValue(queryParams,
+                fhirResourceType == PATIENT_RESOURCE ? PATIENT_ID_QUERY_PARAM : PATIENT_QUERY_PARAM);
+        _ = check self.handleSmartSecurity(request.fhirSecurity, id);
 
         // Create FHIR context
-        r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
+        r4:FHIRContext fCtx = new (fhirRequest, request.httpRequest, request.fhirSecurity);
 
         // Create pagination context and set to FHIR context
-        fCtx.setPaginationContext(check self.processPaginationParams(httpRequest));
-
-        // Set FHIR context inside HTTP context
-        setFHIRContext(fCtx, httpCtx);
+        fCtx.setPaginationContext(check self.getPaginationContext(queryParams, searchQuery));
+        fCtx.setProperty(SEARCH_QUERY_PROP_NAME, searchQuery);
+        return fCtx;
     }
 
     # Process the FHIR Create interaction.
@@ -198,7 +239,44 @@ public isolated class FHIRPreprocessor {
         log:printDebug("Pre-processing FHIR interaction : Create");
         // Validate main HTTP headers
         r4:FHIRRequestMimeHeaders clientHeaders = check validateClientRequestHeaders(httpRequest);
+        InteractionRequest request = check getInteractionRequest(httpRequest, clientHeaders, payload);
+        r4:FHIRContext fhirCtx = check self.prepareCreate(resourceType, payload, request);
 
+        string|error isNoneExistHeader = httpRequest.getHeader("If-None-Exist");
+        if isNoneExistHeader is string {
+            // conditional create
+            // Implemented according to the https://hl7.org/fhir/R4/http.html#ccreate FHIR specification
+            log:printDebug("Conditional create interaction.");
+            log:printDebug(string `Conditional header (If-None-Exist): ${isNoneExistHeader}`);
+            string conditionalCreateAuthHeader = "";
+            string|http:HeaderNotFoundError createAuthVal = httpRequest.getHeader("Authorization");
+            if createAuthVal is string {
+                conditionalCreateAuthHeader = createAuthVal;
+            }
+            map<r4:RequestSearchParameter[]> conditionalSearchParameters = check self.processSearchQueryParameters(
+                    resourceType, getConditionalQueryParams(isNoneExistHeader), false);
+            ConditionalSearchContext searchContext = {
+                resourceType: resourceType,
+                searchParameters: conditionalSearchParameters.cloneReadOnly(),
+                fhirSecurity: request.fhirSecurity,
+                httpRequest: request.httpRequest
+            };
+            _ = check handleConditionalHeader(isNoneExistHeader, httpRequest.rawPath, conditionalCreateAuthHeader,
+                    searchContext);
+        }
+
+        // Set FHIR context inside HTTP context
+        setFHIRContext(fhirCtx, httpCtx);
+    }
+
+    # Creates the FHIR context of a Create interaction.
+    #
+    # + resourceType - The FHIR resource type
+    # + payload - The payload
+    # + request - The details of the request
+    # + return - The FHIR context or an error
+    isolated function prepareCreate(string resourceType, json|xml payload, InteractionRequest request)
+            returns r4:FHIRContext|r4:FHIRError {
         if self.apiConfig.resourceType != resourceType {
             string diagMsg = string `Request path level resource type : \" ${resourceType}\" does not match API config resource type: 
                 \"${self.apiConfig.resourceType}\"`;
@@ -213,32 +291,10 @@ public isolated class FHIRPreprocessor {
         readonly & FHIRCreateInteraction createInteraction = {};
 
         // Create FHIR request
-        r4:FHIRRequest fhirRequest = new (createInteraction, resourceType, resourceEntity, {}, clientHeaders.acceptType);
-
-        // Populate JWT information in FHIR context
-        readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
-
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, payload);
+        r4:FHIRRequest fhirRequest = new (createInteraction, resourceType, resourceEntity, {}, request.acceptType);
 
         // Create FHIR context
-        r4:FHIRContext fhirCtx = new (fhirRequest, request, fhirSecurity);
-
-        string|error isNoneExistHeader = httpRequest.getHeader("If-None-Exist");
-        if isNoneExistHeader is string {
-            // conditional create
-            // Implemented according to the https://hl7.org/fhir/R4/http.html#ccreate FHIR specification
-            log:printDebug("Conditional create interaction.");
-            log:printDebug(string `Conditional header (If-None-Exist): ${isNoneExistHeader}`);
-            string conditionalCreateAuthHeader = "";
-            string|http:HeaderNotFoundError createAuthVal = httpRequest.getHeader("Authorization");
-            if createAuthVal is string {
-                conditionalCreateAuthHeader = createAuthVal;
-            }
-            _ = check handleConditionalHeader(isNoneExistHeader, httpRequest.rawPath, conditionalCreateAuthHeader);
-        }
-
-        // Set FHIR context inside HTTP context
-        setFHIRContext(fhirCtx, httpCtx);
+        return new (fhirRequest, request.httpRequest, request.fhirSecurity);
     }
 
     # Process the FHIR Instance History interaction.
@@ -268,7 +324,7 @@ public isolated class FHIRPreprocessor {
             _ = check self.handleSmartSecurity(fhirSecurity, id);
         }
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
+        r4:RawHTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
 
         // Create FHIR context
         r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
@@ -293,28 +349,32 @@ public isolated class FHIRPreprocessor {
         log:printDebug("Pre-processing FHIR interaction : vread");
         // Validate main HTTP headers
         r4:FHIRRequestMimeHeaders clientHeaders = check validateClientRequestHeaders(httpRequest);
+        InteractionRequest request = check getInteractionRequest(httpRequest, clientHeaders, ());
+        setFHIRContext(check self.prepareVread(fhirResourceType, id, vid, request), httpCtx);
+    }
 
+    # Creates the FHIR context of a Vread interaction.
+    #
+    # + fhirResourceType - The FHIR resource type
+    # + id - The FHIR resource id
+    # + vid - Resource's version id
+    # + request - The details of the request
+    # + return - The FHIR context or an error
+    isolated function prepareVread(string fhirResourceType, string id, string vid, InteractionRequest request)
+            returns r4:FHIRContext|r4:FHIRError {
         // Create interaction
         readonly & FHIRVReadInteraction vreadInteraction = {id: id, vid: vid};
 
         // Create FHIR request
-        r4:FHIRRequest fhirRequest = new (vreadInteraction, fhirResourceType, (), {}, clientHeaders.acceptType);
-
-        // Populate JWT information in FHIR context
-        readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
+        r4:FHIRRequest fhirRequest = new (vreadInteraction, fhirResourceType, (), {}, request.acceptType);
 
         // Handle SMART security
         if fhirResourceType == PATIENT_RESOURCE {
-            _ = check self.handleSmartSecurity(fhirSecurity, id);
+            _ = check self.handleSmartSecurity(request.fhirSecurity, id);
         }
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
-
         // Create FHIR context
-        r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
-
-        // Set FHIR context inside HTTP context
-        setFHIRContext(fCtx, httpCtx);
+        return new (fhirRequest, request.httpRequest, request.fhirSecurity);
     }
 
     # Process the FHIR History interaction.
@@ -337,7 +397,7 @@ public isolated class FHIRPreprocessor {
         // Populate JWT information in FHIR context
         readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
+        r4:RawHTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
 
         // Create FHIR context
         r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
@@ -369,7 +429,39 @@ public isolated class FHIRPreprocessor {
         // Populate JWT information in FHIR context
         readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
+        r4:RawHTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
+
+        // Create FHIR context
+        r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
+
+        // Set FHIR context inside HTTP context
+        setFHIRContext(fCtx, httpCtx);
+    }
+
+    # Process the FHIR Batch and Transaction interactions. The entries of the Bundle are processed when they are
+    # executed, see `executeBundle`.
+    #
+    # + payload - The batch or transaction Bundle
+    # + httpRequest - The HTTP request
+    # + httpCtx - The HTTP request context
+    # + return - Error if occurs
+    public isolated function processBundle(json payload, http:Request httpRequest, http:RequestContext httpCtx)
+                                                                                    returns r4:FHIRError? {
+        log:printDebug("Pre-processing FHIR interaction : batch/transaction");
+        // Validate main HTTP headers
+        r4:FHIRRequestMimeHeaders clientHeaders = check validateClientRequestHeaders(httpRequest);
+
+        // Create interaction
+        readonly & r4:FHIRInteraction bundleInteraction = isTransactionBundle(payload)
+            ? <readonly & FHIRTransactionInteraction>{} : <readonly & FHIRBatchInteraction>{};
+
+        // Create FHIR request
+        r4:FHIRRequest fhirRequest = new (bundleInteraction, (), (), {}, clientHeaders.acceptType);
+
+        // Populate JWT information in FHIR context
+        readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
+
+        r4:RawHTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, payload);
 
         // Create FHIR context
         r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
@@ -391,7 +483,22 @@ public isolated class FHIRPreprocessor {
         log:printDebug("Pre-processing FHIR interaction : update");
         // Validate main HTTP headers
         r4:FHIRRequestMimeHeaders clientHeaders = check validateClientRequestHeaders(httpRequest);
+        InteractionRequest request = check getInteractionRequest(httpRequest, clientHeaders, ());
+        string|error ifMatchHeader = httpRequest.getHeader("If-Match");
+        setFHIRContext(check self.prepareUpdate(fhirResourceType, id, payload,
+                ifMatchHeader is string ? ifMatchHeader : (), request), httpCtx);
+    }
 
+    # Creates the FHIR context of an Update interaction.
+    #
+    # + fhirResourceType - The FHIR resource type
+    # + id - The FHIR resource id
+    # + payload - Request payload
+    # + ifMatch - The `If-Match` condition of the request
+    # + request - The details of the request
+    # + return - The FHIR context or an error
+    isolated function prepareUpdate(string fhirResourceType, string id, json payload, string? ifMatch,
+            InteractionRequest request) returns r4:FHIRContext|r4:FHIRError {
         // Create interaction
         readonly & FHIRUpdateInteraction updateInteraction = {id: id};
 
@@ -418,35 +525,27 @@ public isolated class FHIRPreprocessor {
         }
 
         // Create FHIR request
-        r4:FHIRRequest fhirRequest = new (updateInteraction, fhirResourceType, resourceEntity, {}, clientHeaders.acceptType);
-
-        // Populate JWT information in FHIR context
-        readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
+        r4:FHIRRequest fhirRequest = new (updateInteraction, fhirResourceType, resourceEntity, {}, request.acceptType);
 
         // Handle SMART security
         if fhirResourceType == PATIENT_RESOURCE {
-            _ = check self.handleSmartSecurity(fhirSecurity, id);
+            _ = check self.handleSmartSecurity(request.fhirSecurity, id);
         }
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
-
         // Create FHIR context
-        r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
+        r4:FHIRContext fCtx = new (fhirRequest, request.httpRequest, request.fhirSecurity);
 
         // Handle conditional update using If-Match header
         // Implemented according to https://hl7.org/fhir/R4/http.html#cond-update
-        string|error ifMatchHeader = httpRequest.getHeader("If-Match");
-        if ifMatchHeader is string {
+        if ifMatch is string {
             log:printDebug("Conditional update interaction with If-Match header.");
-            log:printDebug(string `If-Match header value: ${ifMatchHeader}`);
+            log:printDebug(string `If-Match header value: ${ifMatch}`);
             // Store the If-Match header in FHIR context for version-based conditional update
             // The actual version check should be performed by the FHIR service implementation
             fCtx.setProperty("conditionalUpdate", true);
-            fCtx.setProperty("ifMatchHeader", ifMatchHeader);
+            fCtx.setProperty("ifMatchHeader", ifMatch);
         }
-
-        // Set FHIR context inside HTTP context
-        setFHIRContext(fCtx, httpCtx);
+        return fCtx;
     }
 
     # Process the FHIR Conditional Update interaction (query-based).
@@ -529,7 +628,14 @@ public isolated class FHIRPreprocessor {
         if updateAuthVal is string {
             conditionalUpdateAuthHeader = updateAuthVal;
         }
-        r4:Bundle|r4:FHIRError searchResult = HandleSearchForConditionalInteractions(resourcePath, searchQueryString, conditionalUpdateAuthHeader);
+        ConditionalSearchContext searchContext = {
+            resourceType: fhirResourceType,
+            searchParameters: requestSearchParameters.cloneReadOnly(),
+            fhirSecurity: check getFHIRSecurity(httpRequest),
+            httpRequest: createHTTPRequestRecord(httpRequest, ())
+        };
+        r4:Bundle|r4:FHIRError searchResult = HandleSearchForConditionalInteractions(resourcePath, searchQueryString,
+                conditionalUpdateAuthHeader, searchContext);
 
         if searchResult is r4:FHIRError {
             return searchResult;
@@ -699,7 +805,7 @@ public isolated class FHIRPreprocessor {
             _ = check self.handleSmartSecurity(fhirSecurity, resourceId);
         }
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
+        r4:RawHTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
 
         // Create FHIR context
         r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
@@ -731,7 +837,18 @@ public isolated class FHIRPreprocessor {
         log:printDebug("Pre-processing FHIR interaction : patch");
         // Validate main HTTP headers
         r4:FHIRRequestMimeHeaders clientHeaders = check validateClientPatchRequestHeaders(httpRequest);
+        InteractionRequest request = check getInteractionRequest(httpRequest, clientHeaders, ());
+        setFHIRContext(check self.preparePatch(fhirResourceType, id, request), httpCtx);
+    }
 
+    # Creates the FHIR context of a Patch interaction.
+    #
+    # + fhirResourceType - The FHIR resource type
+    # + id - The FHIR resource id
+    # + request - The details of the request
+    # + return - The FHIR context or an error
+    isolated function preparePatch(string fhirResourceType, string id, InteractionRequest request)
+            returns r4:FHIRContext|r4:FHIRError {
         // Create interaction
         readonly & FHIRPatchInteraction patchInteraction = {id: id};
 
@@ -742,23 +859,15 @@ public isolated class FHIRPreprocessor {
         }
 
         // Create FHIR request
-        r4:FHIRRequest fhirRequest = new (patchInteraction, fhirResourceType, (), {}, clientHeaders.acceptType);
-
-        // Populate JWT information in FHIR context
-        readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
+        r4:FHIRRequest fhirRequest = new (patchInteraction, fhirResourceType, (), {}, request.acceptType);
 
         // Handle SMART security
         if fhirResourceType == PATIENT_RESOURCE {
-            _ = check self.handleSmartSecurity(fhirSecurity, id);
+            _ = check self.handleSmartSecurity(request.fhirSecurity, id);
         }
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
-
         // Create FHIR context
-        r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
-
-        // Set FHIR context inside HTTP context
-        setFHIRContext(fCtx, httpCtx);
+        return new (fhirRequest, request.httpRequest, request.fhirSecurity);
     }
 
     # Process the FHIR Conditional Delete interaction (query-based).
@@ -822,7 +931,14 @@ public isolated class FHIRPreprocessor {
         if deleteAuthVal is string {
             conditionalDeleteAuthHeader = deleteAuthVal;
         }
-        r4:Bundle|r4:FHIRError searchResult = HandleSearchForConditionalInteractions(resourcePath, searchQueryString, conditionalDeleteAuthHeader);
+        ConditionalSearchContext searchContext = {
+            resourceType: fhirResourceType,
+            searchParameters: requestSearchParameters.cloneReadOnly(),
+            fhirSecurity: check getFHIRSecurity(httpRequest),
+            httpRequest: createHTTPRequestRecord(httpRequest, ())
+        };
+        r4:Bundle|r4:FHIRError searchResult = HandleSearchForConditionalInteractions(resourcePath, searchQueryString,
+                conditionalDeleteAuthHeader, searchContext);
 
         if searchResult is r4:FHIRError {
             return searchResult;
@@ -898,7 +1014,7 @@ public isolated class FHIRPreprocessor {
                 _ = check self.handleSmartSecurity(fhirSecurity, matchedId);
             }
 
-            r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
+            r4:RawHTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
 
             // Create FHIR context
             r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
@@ -937,28 +1053,31 @@ public isolated class FHIRPreprocessor {
         log:printDebug("Pre-processing FHIR interaction : delete");
         // Validate main HTTP headers
         r4:FHIRRequestMimeHeaders clientHeaders = check validateClientRequestHeaders(httpRequest);
+        InteractionRequest request = check getInteractionRequest(httpRequest, clientHeaders, ());
+        setFHIRContext(check self.prepareDelete(fhirResourceType, id, request), httpCtx);
+    }
 
+    # Creates the FHIR context of a Delete interaction.
+    #
+    # + fhirResourceType - FHIR resource type
+    # + id - Resource ID
+    # + request - The details of the request
+    # + return - The FHIR context or an error
+    isolated function prepareDelete(string fhirResourceType, string id, InteractionRequest request)
+            returns r4:FHIRContext|r4:FHIRError {
         // Create interaction
         readonly & FHIRDeleteInteraction deleteInteraction = {id: id};
 
         // Create FHIR request
-        r4:FHIRRequest fhirRequest = new (deleteInteraction, fhirResourceType, (), {}, clientHeaders.acceptType);
-
-        // Populate JWT information in FHIR context
-        readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
+        r4:FHIRRequest fhirRequest = new (deleteInteraction, fhirResourceType, (), {}, request.acceptType);
 
         // Handle SMART security
         if fhirResourceType == PATIENT_RESOURCE {
-            _ = check self.handleSmartSecurity(fhirSecurity, id);
+            _ = check self.handleSmartSecurity(request.fhirSecurity, id);
         }
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, ());
-
         // Create FHIR context
-        r4:FHIRContext fCtx = new (fhirRequest, request, fhirSecurity);
-
-        // Set FHIR context inside HTTP context
-        setFHIRContext(fCtx, httpCtx);
+        return new (fhirRequest, request.httpRequest, request.fhirSecurity);
     }
 
     # Processes a FHIR operation request.
@@ -1038,7 +1157,7 @@ public isolated class FHIRPreprocessor {
         // Populate JWT information in FHIR context
         readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, payload);
+        r4:RawHTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, payload);
 
         // Create FHIR context
         r4:FHIRContext fhirCtx = new (fhirRequest, request, fhirSecurity);
@@ -1124,7 +1243,7 @@ public isolated class FHIRPreprocessor {
 
         // Generate IPS (International Patient Summary) for the patient
         log:printDebug(string `Generating IPS for Patient/${patientId}`);
-        r4:FHIRServiceInfo? patientServiceInfo = ips:fhirRegistry.getFHIRService(PATIENT_RESOURCE);
+        (readonly & r4:FHIRServiceInfo)? patientServiceInfo = ips:fhirRegistry.findFHIRService(PATIENT_RESOURCE);
         if patientServiceInfo is () {
             string diagnostic = "No FHIR service found for Patient resource. Ensure the Patient resource is properly registered.";
             return r4:createFHIRError("Patient service not found", r4:ERROR, r4:PROCESSING, diagnostic = diagnostic,
@@ -1148,7 +1267,7 @@ public isolated class FHIRPreprocessor {
                     diagnostic = ipsBundle.message(), httpStatusCode = http:STATUS_INTERNAL_SERVER_ERROR);
         }
 
-        r4:HTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, payload);
+        r4:RawHTTPRequest & readonly request = createHTTPRequestRecord(httpRequest, payload);
 
         // Create FHIR context
         r4:FHIRContext fhirCtx = new (fhirRequest, request, fhirSecurity);
@@ -1162,22 +1281,16 @@ public isolated class FHIRPreprocessor {
     isolated function processSearchParameters(string fhirResourceType, http:Request request,
                                               boolean injectDefaults = true)
                                                                 returns map<r4:RequestSearchParameter[]>|r4:FHIRError {
+        return self.processSearchQueryParameters(fhirResourceType, check getSearchRequestParams(request),
+                injectDefaults);
+    }
+
+    isolated function processSearchQueryParameters(string fhirResourceType, map<string[]> requestQueryParams,
+                                                   boolean injectDefaults = true)
+                                                                returns map<r4:RequestSearchParameter[]>|r4:FHIRError {
         map<r4:RequestSearchParameter[]> processedSearchParams = {};
         r4:SearchParamCollection searchParamDefinitions = r4:fhirRegistry.getResourceSearchParameters(fhirResourceType);
 
-        map<string[]> requestQueryParams = request.getQueryParams();
-        if request.method == http:POST && request.getContentType().equalsIgnoreCaseAscii("application/x-www-form-urlencoded") {
-            // Extract search parameters from the form data
-            map<string>|http:ClientError formData = request.getFormParams();
-            if formData is http:ClientError {
-                return r4:createFHIRError("Error occurred while extracting form data", r4:ERROR, r4:PROCESSING,
-                        httpStatusCode = http:STATUS_BAD_REQUEST);
-            }
-            foreach string paramName in formData.keys() {
-                string paramValue = formData.get(paramName);
-                requestQueryParams[paramName] = [paramValue];
-            }
-        }
         foreach string originalParamName in requestQueryParams.keys() {
 
             // Decode search parameter key and seperate name and modifier
@@ -1226,7 +1339,7 @@ public isolated class FHIRPreprocessor {
 
                 processResult = check processCommonSearchParameter(parameterDef, fhirResourceType, queryParam,
                         self.apiConfig, self.searchParamConfigMap);
-            } else if PAGE == queryParam.name {
+            } else if PAGE == queryParam.name || CURSOR == queryParam.name {
                 processResult = [];
             } else {
                 string diagnose = string `Unknown search parameter \"${queryParam.name}\" for resource type 
@@ -1273,13 +1386,19 @@ public isolated class FHIRPreprocessor {
         return processedSearchParams;
     }
 
-    isolated function processPaginationParams(http:Request request) returns r4:PaginationContext|r4:FHIRError {
+    isolated function processPaginationParams(http:Request request, string searchQuery = "")
+            returns r4:PaginationContext|r4:FHIRError {
+        return self.getPaginationContext(request.getQueryParams(), searchQuery);
+    }
+
+    isolated function getPaginationContext(map<string[]> queryParams, string searchQuery = "")
+            returns r4:PaginationContext|r4:FHIRError {
         int page = 1;
         int count = self.pageSize;
-        if request.getQueryParamValue(PAGE) is string {
+        if getFirstQueryParamValue(queryParams, PAGE) is string {
             if self.paginationEnabled {
                 // multiple page parameters are not allowed. only the first value will be taken
-                string? pageStr = request.getQueryParamValue(PAGE);
+                string? pageStr = getFirstQueryParamValue(queryParams, PAGE);
                 if pageStr is string {
                     int|error pageInt = int:fromString(pageStr);
                     if pageInt is error {
@@ -1293,9 +1412,9 @@ public isolated class FHIRPreprocessor {
                 return r4:createFHIRError("Pagination not supported", r4:ERROR, r4:PROCESSING, httpStatusCode = http:STATUS_BAD_REQUEST);
             }
         }
-        if request.getQueryParamValue(COUNT) is string {
+        if getFirstQueryParamValue(queryParams, COUNT) is string {
             if self.paginationEnabled {
-                string? countStr = request.getQueryParamValue(COUNT);
+                string? countStr = getFirstQueryParamValue(queryParams, COUNT);
                 if countStr is string {
                     int|error countInt = int:fromString(countStr);
                     if countInt is error {
@@ -1306,10 +1425,22 @@ public isolated class FHIRPreprocessor {
                 }
             }
         }
+        string? cursor = ();
+        // multiple cursor parameters are not allowed. only the first value will be taken
+        string? cursorToken = getFirstQueryParamValue(queryParams, CURSOR);
+        if cursorToken is string {
+            if !self.cursorEnabled {
+                return r4:createFHIRError("Cursor pagination not supported", r4:ERROR, r4:PROCESSING, httpStatusCode = http:STATUS_BAD_REQUEST);
+            }
+            // the token is bound to the query and page size of the search it was issued for
+            cursor = check decodePaginationCursor(cursorToken, searchQuery, count);
+        }
         return {
             paginationEnabled: self.paginationEnabled,
             page: page,
-            pageSize: count
+            pageSize: count,
+            cursorEnabled: self.cursorEnabled,
+            cursor: cursor
         };
     }
 
@@ -2039,11 +2170,15 @@ isolated function validateClientRequestHeaders(http:Request request) returns r4:
                     headers.acceptType = r4:JSON;
                     isValidMimeType = true;
                 }
+                r4:FHIR_MIME_TYPE_NDJSON => {
+                    // Only used for streamed Bundles, other responses are sent as FHIR JSON
+                    isValidMimeType = true;
+                }
             }
         }
         if !isValidMimeType {
             string message = string `Unsupported Accept header value of \"${acceptHeader}\" was provided in the request. 
-                    Only \"application/fhir+json\" is supported.`;
+                    Only \"application/fhir+json\" and \"application/fhir+ndjson\" are supported.`;
             return r4:createFHIRError(message, r4:ERROR, r4:PROCESSING, message, errorType = r4:VALIDATION_ERROR, httpStatusCode = http:STATUS_NOT_ACCEPTABLE);
         }
     }
@@ -2099,71 +2234,87 @@ isolated function validateClientPatchRequestHeaders(http:Request request) return
     return headers;
 }
 
-# Function to get jwt details from request.
+# Function to get jwt details from request. The details derived from a JWT are cached until the JWT expires.
 #
 # + httpRequest - HTTP request object
 # + return - FHIRSecurity details extracted from HTTP request object. FHIRError otherwise
 isolated function getJwtDetails(http:Request httpRequest) returns readonly & r4:FHIRSecurity|r4:FHIRError {
 
-    readonly & r4:FHIRSecurity fhirSecurity;
     string|error jwt = httpRequest.getHeader(X_JWT_HEADER);
-    if jwt is string {
-        [jwt:Header, jwt:Payload]|error headerPayload = jwt:decode(jwt);
-        if headerPayload is [jwt:Header, jwt:Payload] {
-            [jwt:Header, jwt:Payload] [header, payload] = headerPayload;
-            readonly & r4:JWT jwtInfo = {
-                header: header.cloneReadOnly(),
-                payload: payload.cloneReadOnly()
-            };
-            if payload.hasKey(IDP_CLAIMS) {
-                json idp_claims = <json>payload.get(IDP_CLAIMS);
-                map<string>|error claimList = idp_claims.fromJsonWithType();
-                if claimList is error {
-                    string message = "IDP claims are not available";
-                    return r4:createFHIRError(message, r4:ERROR, r4:PROCESSING, message,
-                            errorType = r4:PROCESSING_ERROR, httpStatusCode = http:STATUS_UNAUTHORIZED);
-                }
-                // Split the scope string
-                string[] scopeslist = regexp:split(re `${SPACE_CHARACTER}`, <string>payload.get(SCOPES));
-                json|error userName = idp_claims.username;
-                if userName is error {
-                    string message = "Username is not available";
-                    return r4:createFHIRError(message, r4:ERROR, r4:PROCESSING, message,
-                            errorType = r4:PROCESSING_ERROR, httpStatusCode = http:STATUS_UNAUTHORIZED);
-                } else {
-                    readonly & r4:FHIRUser fhirUserInfo = {
-                        userID: <string & readonly>userName.toString(),
-                        scopes: <string[] & readonly>scopeslist.cloneReadOnly(),
-                        claims: <map<string> & readonly>claimList.cloneReadOnly()
-                    };
-                    fhirSecurity = {
-                        securedAPICall: true,
-                        fhirUser: fhirUserInfo,
-                        jwt: jwtInfo
-                    };
-                    return fhirSecurity;
-                }
+    if jwt is error {
+        readonly & r4:FHIRSecurity fhirSecurity = {
+            securedAPICall: false,
+            jwt: (),
+            fhirUser: ()
+        };
+        return fhirSecurity;
+    }
+
+    string cacheKey = getJwtCacheKey(jwt);
+    (readonly & r4:FHIRSecurity)? cachedSecurity = jwtSecurityCache.get(cacheKey);
+    if cachedSecurity !is () {
+        return cachedSecurity;
+    }
+    readonly & r4:FHIRSecurity fhirSecurity = check decodeFHIRSecurity(jwt);
+    jwtSecurityCache.put(cacheKey, fhirSecurity);
+    return fhirSecurity;
+}
 
+# Function to derive the FHIR security details from a JWT.
+#
+# + jwt - JWT from the x-jwt-assertion header
+# + return - FHIRSecurity details derived from the JWT. FHIRError otherwise
+isolated function decodeFHIRSecurity(string jwt) returns readonly & r4:FHIRSecurity|r4:FHIRError {
+
+    readonly & r4:FHIRSecurity fhirSecurity;
+    [jwt:Header, jwt:Payload]|error headerPayload = jwt:decode(jwt);
+    if headerPayload is [jwt:Header, jwt:Payload] {
+        [jwt:Header, jwt:Payload] [header, payload] = headerPayload;
+        readonly & r4:JWT jwtInfo = {
+            header: header.cloneReadOnly(),
+            payload: payload.cloneReadOnly()
+        };
+        if payload.hasKey(IDP_CLAIMS) {
+            json idp_claims = <json>payload.get(IDP_CLAIMS);
+            map<string>|error claimList = idp_claims.fromJsonWithType();
+            if claimList is error {
+                string message = "IDP claims are not available";
+                return r4:createFHIRError(message, r4:ERROR, r4:PROCESSING, message,
+                        errorType = r4:PROCESSING_ERROR, httpStatusCode = http:STATUS_UNAUTHORIZED);
+            }
+            // Split the scope string
+            string[] scopeslist = regexp:split(re `${SPACE_CHARACTER}`, <string>payload.get(SCOPES));
+            json|error userName = idp_claims.username;
+            if userName is error {
+                string message = "Username is not available";
+                return r4:createFHIRError(message, r4:ERROR, r4:PROCESSING, message,
+                        errorType = r4:PROCESSING_ERROR, httpStatusCode = http:STATUS_UNAUTHORIZED);
             } else {
+                readonly & r4:FHIRUser fhirUserInfo = {
+                    userID: <string & readonly>userName.toString(),
+                    scopes: <string[] & readonly>scopeslist.cloneReadOnly(),
+                    claims: <map<string> & readonly>claimList.cloneReadOnly()
+                };
                 fhirSecurity = {
                     securedAPICall: true,
-                    jwt: jwtInfo,
-                    fhirUser: ()
+                    fhirUser: fhirUserInfo,
+                    jwt: jwtInfo
                 };
                 return fhirSecurity;
             }
+
         } else {
-            string message = "Error occured in JWT decode";
-            return r4:createFHIRError(message, r4:ERROR, r4:PROCESSING, message,
-                    errorType = r4:PROCESSING_ERROR, httpStatusCode = http:STATUS_UNAUTHORIZED);
+            fhirSecurity = {
+                securedAPICall: true,
+                jwt: jwtInfo,
+                fhirUser: ()
+            };
+            return fhirSecurity;
         }
     } else {
-        fhirSecurity = {
-            securedAPICall: false,
-            jwt: (),
-            fhirUser: ()
-        };
-        return fhirSecurity;
+        string message = "Error occured in JWT decode";
+        return r4:createFHIRError(message, r4:ERROR, r4:PROCESSING, message,
+                errorType = r4:PROCESSING_ERROR, httpStatusCode = http:STATUS_UNAUTHORIZED);
     }
 }
 
@@ -2172,21 +2323,83 @@ isolated function getFHIRSecurity(http:Request request) returns readonly & r4:FH
     return getJwtDetails(request);
 }
 
-isolated function createHTTPRequestRecord(http:Request request, json|xml? payload) returns readonly & r4:HTTPRequest {
-    map<string[]> headers = {};
+# Extracts the details of a request received over HTTP that do not depend on how the request is received.
+#
+# + httpRequest - The HTTP request
+# + clientHeaders - The validated content type and accept headers of the request
+# + payload - The parsed payload of the request
+# + return - The details of the request, or an error if the security details of the request are not valid
+isolated function getInteractionRequest(http:Request httpRequest, r4:FHIRRequestMimeHeaders clientHeaders,
+        json|xml? payload) returns InteractionRequest|r4:FHIRError {
+    // Populate JWT information in FHIR context
+    readonly & r4:FHIRSecurity fhirSecurity = check getFHIRSecurity(httpRequest);
+    return {
+        acceptType: clientHeaders.acceptType,
+        fhirSecurity: fhirSecurity,
+        httpRequest: createHTTPRequestRecord(httpRequest, payload)
+    };
+}
+
+# Extracts the search parameters of a search request, from the query and from the form data of a `_search` request.
+#
+# + request - The HTTP request
+# + return - The search parameters keyed by name, or an error if the form data cannot be read
+isolated function getSearchRequestParams(http:Request request) returns map<string[]>|r4:FHIRError {
+    map<string[]> requestQueryParams = request.getQueryParams();
+    if request.method == http:POST && request.getContentType().equalsIgnoreCaseAscii("application/x-www-form-urlencoded") {
+        // Extract search parameters from the form data
+        map<string>|http:ClientError formData = request.getFormParams();
+        if formData is http:ClientError {
+            return r4:createFHIRError("Error occurred while extracting form data", r4:ERROR, r4:PROCESSING,
+                    httpStatusCode = http:STATUS_BAD_REQUEST);
+        }
+        foreach string paramName in formData.keys() {
+            string paramValue = formData.get(paramName);
+            requestQueryParams[paramName] = [paramValue];
+        }
+    }
+    return requestQueryParams;
+}
+
+isolated function getFirstQueryParamValue(map<string[]> queryParams, string name) returns string? {
+    string[]? values = queryParams[name];
+    return values is string[] && values.length() > 0 ? values[0] : ();
+}
+
+isolated function createHTTPRequestRecord(http:Request request, json|xml? payload) returns readonly & r4:RawHTTPRequest {
+    map<string[] & readonly> headers = {};
     foreach string headerName in request.getHeaderNames() {
         string[]|http:HeaderNotFoundError headerResult = request.getHeaders(headerName);
         if headerResult is string[] {
-            headers[headerName] = headerResult;
+            headers[headerName] = headerResult.cloneReadOnly();
         }
     }
 
+    if payload is () {
+        return {headers: headers.cloneReadOnly()};
+    }
+    // The payload is parsed again only if the HTTP request of the FHIR context is accessed
     return {
         headers: headers.cloneReadOnly(),
-        payload: payload.cloneReadOnly()
+        rawPayload: getRawPayload(request, payload),
+        payloadFormat: payload is xml ? r4:XML : r4:JSON
     };
 }
 
+# Returns the payload of a request as received. Payloads read with `readJsonPayload` stay in the request as text, so
+# the text is shared instead of being serialized again.
+#
+# + request - The HTTP request
+# + payload - The parsed payload of the request
+# + return - The payload as received
+isolated function getRawPayload(http:Request request, json|xml payload) returns string {
+    string|http:ClientError rawPayload = request.getTextPayload();
+    if rawPayload is string {
+        return rawPayload;
+    }
+    return payload is xml ? payload.toString() : payload.toJsonString();
+}
+
 # Retrieves the operation parameter definition for a given parameter name.
 #
 # + paramName - The name of the operation parameter to find
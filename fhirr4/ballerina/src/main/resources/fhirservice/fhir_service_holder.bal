@@ -28,4 +28,10 @@ isolated class Holder {
     isolated function getFhirServiceFromHolder() returns Service = @java:Method {
         'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor"
     } external;
+
+    // Resolves the resource method through the route index built when the service was added to the holder.
+    isolated function getResourceMethod(string[] servicePath, string[] path, string accessor) returns handle? = @java:Method {
+        'class: "io.ballerinax.fhirr4.HTTPToFHIRAdaptor",
+        name: "getResourceMethodFromHolder"
+    } external;
 }
@@ -82,9 +82,12 @@ isolated function rotateAnalyticsDataFile() {
 
     if previousDate is time:Civil {
         string date = string `${previousDate.year}-${previousDate.month}-${previousDate.day}`;
-        string currentLogFile = string `${analytics.filePath}${file:pathSeparator}${getFileNameBasedOnConfiguration()}${LOG_FILE_EXTENSION}`;
-        string rotatedLogFile = string `${analytics.filePath}${file:pathSeparator}${getFileNameBasedOnConfiguration()}-${date}${LOG_FILE_EXTENSION}`;
+        string currentLogFile = analyticsFileSink.getFilePath();
+        string rotatedLogFile = string `${getFilePathBasedOnConfiguration()}${file:pathSeparator}${getFileNameBasedOnConfiguration()}-${date}${LOG_FILE_EXTENSION}`;
         
+        // Write the buffered analytics data of the previous day before rotating
+        analyticsWriter.flush();
+
         // Check if the current log file exists
         boolean|error fileExists = file:test(currentLogFile, file:EXISTS);
         
@@ -92,20 +95,14 @@ isolated function rotateAnalyticsDataFile() {
             log:printError(rotationErrorMessage, fileExists);
         } else {
             if fileExists {
-                // Rename the current log file with the date
-                error? renamingError = file:rename(currentLogFile, rotatedLogFile);
-                if renamingError is error {
-                    log:printError(rotationErrorMessage, err = renamingError.toBalString());
+                // Rename the current log file with the date and create a new empty log file. The analytics writer
+                // reopens the new file on its next write.
+                error? rotationError = analyticsFileSink.rotate(rotatedLogFile);
+                if rotationError is error {
+                    log:printError(rotationErrorMessage, err = rotationError.toBalString());
                     return;
                 }
                 log:printInfo(string `Log file rotated successfully to: ${rotatedLogFile}`);
-                
-                // Create a new empty analytics.log file
-                error? creationError = file:create(currentLogFile);
-                if creationError is error {
-                    log:printError(rotationErrorMessage, err = creationError.toBalString());
-                    return;
-                }
                 log:printInfo(string `New log file created: ${currentLogFile}`);
             } else {
                log:printWarn(string `No log file found to rotate at: ${currentLogFile}`);
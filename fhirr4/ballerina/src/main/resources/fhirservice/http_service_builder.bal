@@ -16,11 +16,12 @@ import ballerina/log;
 import ballerinax/health.fhir.r4;
 
 // Construct an http service for a fhir service.
-isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, string[] & readonly servicePath) returns http:Service {
+isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, string[] & readonly servicePath,
+        FHIRPreprocessor fhirPreprocessor) returns http:Service {
     http:InterceptableService httpService = isolated service object {
 
         private final Holder holder = h;
-        private final FHIRPreprocessor preprocessor = new (apiConfig);
+        private final FHIRPreprocessor preprocessor = fhirPreprocessor;
 
         public function createInterceptors() returns [AnalyticsResponseInterceptor, FHIRResponseErrorInterceptor, FHIRResponseInterceptor] {
             return [ new AnalyticsResponseInterceptor(apiConfig), new FHIRResponseErrorInterceptor(), new FHIRResponseInterceptor(apiConfig)];
@@ -31,12 +32,14 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
             string[] paths = getRequestPaths(req.rawPath);
             log:printDebug(string `Request paths:  ${paths.toString()}`);
             Service fhirService = self.holder.getFhirServiceFromHolder();
-            handle? resourceMethod = getResourceMethod(fhirService, servicePath, paths, http:HTTP_GET);
+            handle? resourceMethod = self.holder.getResourceMethod(servicePath, paths, http:HTTP_GET);
             if resourceMethod is handle {
                 boolean hasPathParam = isHavingPathParam(resourceMethod);
+                string interaction = getInteraction(resourceMethod);
                 any|error executeResourceResult = ();
                 r4:FHIRContext fhirContext;
-                if isOperationPath(paths) {
+                // A `$` segment is an operation even if it matched a read route, such as `Patient/[string id]`
+                if interaction == ROUTE_OPERATION || isOperationPath(paths) {
                     string fhirResource = apiConfig.resourceType;
                     string operation = paths[paths.length() - 1].substring(1);
                     log:printDebug(string `Processing operation: ${operation}`);
@@ -49,7 +52,8 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                             return processOperation;
                         }
                         fhirContext = check r4:getFHIRContext(ctx);
-                        executeResourceResult = executeWithID(id, fhirContext, fhirService, resourceMethod);
+                        executeResourceResult = awaitResourceExecution(
+                                startWithID(id, fhirContext, fhirService, resourceMethod), req, ctx);
                     } else { // System or Type level operation
                         r4:FHIRError? processOperation =
                                 self.preprocessor.processOperation(fhirResource, operation, operationScope, (), req, ctx);
@@ -57,12 +61,13 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                             return processOperation;
                         }
                         fhirContext = check r4:getFHIRContext(ctx);
-                        executeResourceResult = executeWithNoParam(fhirContext, fhirService, resourceMethod);
+                        executeResourceResult = awaitResourceExecution(
+                                startWithNoParam(fhirContext, fhirService, resourceMethod), req, ctx);
                     }
                 } else if hasPathParam {
                     log:printDebug("Request context has path parameter.");
                     // can be any of read, vread, instance history
-                    if (paths.length() >= 1 && paths[paths.length() - 1] == HISTORY) {
+                    if interaction == ROUTE_INSTANCE_HISTORY {
                         // instance history
                         log:printDebug("Start processing instance history interaction.");
                         string fhirResource = apiConfig.resourceType;
@@ -72,12 +77,13 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                             return processIHistory;
                         }
                         fhirContext = check r4:getFHIRContext(ctx);
-                        executeResourceResult = executeWithID(id, fhirContext, fhirService, resourceMethod);
+                        executeResourceResult = awaitResourceExecution(
+                                startWithID(id, fhirContext, fhirService, resourceMethod), req, ctx);
                         if executeResourceResult is r4:Bundle {
                             executeResourceResult = handleBundleInfo(executeResourceResult, fhirContext, req.extraPathInfo);
                         }
                         log:printDebug("End processing instance history interaction.");
-                    } else if (paths.length() >= 2 && paths[paths.length() - 2] == HISTORY) {
+                    } else if interaction == ROUTE_VREAD {
                         // vread
                         log:printDebug("Start processing vread interaction.");
                         string fhirResource = apiConfig.resourceType;
@@ -88,7 +94,23 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                             return processIHistory;
                         }
                         fhirContext = check r4:getFHIRContext(ctx);
-                        executeResourceResult = executeWithIDAndVID(id, vid, fhirContext, fhirService, resourceMethod);
+                        ReadCache? readCache = self.preprocessor.readCache;
+                        if readCache is ReadCache {
+                            string cacheKey = getReadCacheKey(fhirResource, id, vid, fhirContext, req);
+                            CachedRead? cachedRead = readCache.get(cacheKey);
+                            if cachedRead is CachedRead {
+                                log:printDebug("Serving vread interaction from the read cache.");
+                                prepareAnalyticsContext(req, ctx);
+                                return createReadResponse(cachedRead, req);
+                            }
+                            int generation = readCache.getGeneration();
+                            executeResourceResult = cacheReadResult(readCache, cacheKey, generation,
+                                    awaitResourceExecution(startWithIDAndVID(id, vid, fhirContext, fhirService,
+                                    resourceMethod), req, ctx), fhirContext, req);
+                        } else {
+                            executeResourceResult = awaitResourceExecution(
+                                    startWithIDAndVID(id, vid, fhirContext, fhirService, resourceMethod), req, ctx);
+                        }
                         log:printDebug("End processing vread interaction.");
                     } else {
                         // read
@@ -100,12 +122,28 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                             return processRead;
                         }
                         fhirContext = check r4:getFHIRContext(ctx);
-                        executeResourceResult = executeWithID(id, fhirContext, fhirService, resourceMethod);
+                        ReadCache? readCache = self.preprocessor.readCache;
+                        if readCache is ReadCache {
+                            string cacheKey = getReadCacheKey(fhirResource, id, (), fhirContext, req);
+                            CachedRead? cachedRead = readCache.get(cacheKey);
+                            if cachedRead is CachedRead {
+                                log:printDebug("Serving read interaction from the read cache.");
+                                prepareAnalyticsContext(req, ctx);
+                                return createReadResponse(cachedRead, req);
+                            }
+                            int generation = readCache.getGeneration();
+                            executeResourceResult = cacheReadResult(readCache, cacheKey, generation,
+                                    awaitResourceExecution(startWithID(id, fhirContext, fhirService, resourceMethod),
+                                    req, ctx), fhirContext, req);
+                        } else {
+                            executeResourceResult = awaitResourceExecution(
+                                    startWithID(id, fhirContext, fhirService, resourceMethod), req, ctx);
+                        }
                         log:printDebug("End processing read interaction.");
                     }
                 } else {
                     // can be any of search, type history, system history, metadata
-                    if (paths.length() >= 1 && paths[paths.length() - 1] == HISTORY) {
+                    if interaction == ROUTE_HISTORY {
                         // system history or type history
                         log:printDebug("Start processing system/type history interaction.");
                         r4:FHIRError? processHistory = self.preprocessor.processHistory(req, ctx);
@@ -113,12 +151,13 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                             return processHistory;
                         }
                         fhirContext = check r4:getFHIRContext(ctx);
-                        executeResourceResult = executeWithNoParam(fhirContext, fhirService, resourceMethod);
+                        executeResourceResult = awaitResourceExecution(
+                                startWithNoParam(fhirContext, fhirService, resourceMethod), req, ctx);
                         if executeResourceResult is r4:Bundle {
                             executeResourceResult = handleBundleInfo(executeResourceResult, fhirContext, req.extraPathInfo);
                         }
                         log:printDebug("End processing system/type history interaction.");
-                    } else if (paths.length() >= 1 && paths[paths.length() - 1] == METADATA) {
+                    } else if interaction == ROUTE_CAPABILITIES {
                         // metadata
                         log:printDebug("Start processing metadata interaction.");
                         r4:FHIRError? processCapability = self.preprocessor.processCapability(req, ctx);
@@ -126,7 +165,8 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                             return processCapability;
                         }
                         fhirContext = check r4:getFHIRContext(ctx);
-                        executeResourceResult = executeWithNoParam(fhirContext, fhirService, resourceMethod);
+                        executeResourceResult = awaitResourceExecution(
+                                startWithNoParam(fhirContext, fhirService, resourceMethod), req, ctx);
                         log:printDebug("End processing metadata interaction.");
                     } else {
                         // search
@@ -137,7 +177,8 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                             return processSearch;
                         }
                         fhirContext = check r4:getFHIRContext(ctx);
-                        executeResourceResult = executeWithNoParam(fhirContext, fhirService, resourceMethod);
+                        executeResourceResult = awaitResourceExecution(
+                                startWithNoParam(fhirContext, fhirService, resourceMethod), req, ctx);
                         if executeResourceResult is r4:Bundle {
                             executeResourceResult = handleBundleInfo(executeResourceResult, fhirContext, req.extraPathInfo);
                         }
@@ -149,6 +190,9 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                     fhirContext.setErrorCode(r4:getErrorCode(executeResourceResult));
                     return r4:handleErrorResponse(executeResourceResult);
                 }
+                if executeResourceResult is r4:BundleStream {
+                    return createBundleStreamResponse(executeResourceResult, fhirContext, req);
+                }
                 return executeResourceResult;
             } else {
                 return r4:createFHIRError(string `Path not found: ${req.extraPathInfo}`, r4:CODE_SEVERITY_ERROR, r4:TRANSIENT, httpStatusCode = http:STATUS_NOT_FOUND);
@@ -165,15 +209,16 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
             }
             string[] paths = getRequestPaths(req.rawPath);
             Service fhirService = self.holder.getFhirServiceFromHolder();
-            handle? resourceMethod = getResourceMethod(fhirService, servicePath, paths, http:HTTP_POST);
-            json|http:NoContentError|http:ClientError payload = req.getJsonPayload();
+            handle? resourceMethod = self.holder.getResourceMethod(servicePath, paths, http:HTTP_POST);
+            json|http:NoContentError|http:ClientError payload = readJsonPayload(req);
 
             any|error executeResourceResult = ();
             string fhirResource = apiConfig.resourceType;
             r4:FHIRContext fhirContext;
 
             if resourceMethod is handle {
-                if isOperationPath(paths) { // An operation
+                string interaction = getInteraction(resourceMethod);
+                if interaction == ROUTE_OPERATION || isOperationPath(paths) { // An operation
                     if payload is json || payload is http:NoContentError {
                         // An operation with no parameters but affects the state is invoked using an empty body
                         json? operationPayload = payload is http:NoContentError ? () : payload;
@@ -204,7 +249,7 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                         return r4:createFHIRError(string `Invalid operation payload`, r4:CODE_SEVERITY_ERROR,
                                 r4:TRANSIENT, httpStatusCode = http:STATUS_BAD_REQUEST);
                     }
-                } else if isSearchPath(paths) { // Search
+                } else if interaction == ROUTE_SEARCH { // Search
                     r4:FHIRError? processSearch = self.preprocessor.processSearch(fhirResource, req, ctx);
                     if processSearch is r4:FHIRError {
                         return processSearch;
@@ -231,6 +276,9 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                     fhirContext.setErrorCode(r4:getErrorCode(executeResourceResult));
                     return r4:handleErrorResponse(executeResourceResult);
                 }
+                if executeResourceResult is r4:BundleStream {
+                    return createBundleStreamResponse(executeResourceResult, fhirContext, req);
+                }
                 if executeResourceResult is r4:DomainResource {
                     string? createdId = executeResourceResult.id;
                     if createdId is string {
@@ -240,6 +288,22 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                 }
                 return executeResourceResult;
             } else {
+                // batch or transaction, posted to the base of the resource paths
+                if payload is json && paths.indexOf(fhirResource) is () && isBatchOrTransactionBundle(payload) {
+                    r4:FHIRError? processBundle = self.preprocessor.processBundle(payload, req, ctx);
+                    if processBundle is r4:FHIRError {
+                        return processBundle;
+                    }
+                    fhirContext = check r4:getFHIRContext(ctx);
+                    r4:Bundle|r4:FHIRError responseBundle = executeBundle(payload, paths, fhirContext);
+                    if responseBundle is r4:FHIRError {
+                        fhirContext.setInErrorState(true);
+                        fhirContext.setErrorCode(r4:getErrorCode(responseBundle));
+                        return r4:handleErrorResponse(responseBundle);
+                    }
+                    return responseBundle;
+                }
+
                 // ips generation, if not implemented, handle by the middleware
                 // This is a special case where the operation is not defined in the FHIR service,
                 if isOperationPath(paths) && (payload is json || payload is http:NoContentError) {    
@@ -291,7 +355,7 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
             // update or conditional update
             string[] paths = getRequestPaths(req.rawPath);
             Service fhirService = self.holder.getFhirServiceFromHolder();
-            json|http:ClientError payload = req.getJsonPayload();
+            json|http:ClientError payload = readJsonPayload(req);
             
             if payload is json {
                 string fhirResource = apiConfig.resourceType;
@@ -309,11 +373,11 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                     // Query-based conditional update: PUT [base]/[type]?[search parameters]
                     // Add a placeholder ID to paths to find the correct resource method
                     string[] pathsWithId = [...paths, "_conditional"];
-                    handle? methodResult = getResourceMethod(fhirService, servicePath, pathsWithId, http:HTTP_PUT);
+                    handle? methodResult = self.holder.getResourceMethod(servicePath, pathsWithId, http:HTTP_PUT);
                     
                     if methodResult is () {
                         // Fallback: try without the placeholder (in case service has a type-level PUT)
-                        methodResult = getResourceMethod(fhirService, servicePath, paths, http:HTTP_PUT);
+                        methodResult = self.holder.getResourceMethod(servicePath, paths, http:HTTP_PUT);
                     }
                     
                     if methodResult is handle {
@@ -346,6 +410,9 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                                 httpStatusCode = http:STATUS_BAD_REQUEST
                             );
                         }
+                        if id != "" {
+                            self.preprocessor.invalidateCachedReads(fhirResource, id);
+                        }
                         if (executeResourceResult is error) {
                             fhirContext.setInErrorState(true);
                             fhirContext.setErrorCode(r4:getErrorCode(executeResourceResult));
@@ -358,7 +425,7 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                     }
                 } else {
                     // Standard update with resource ID in path: PUT [base]/[type]/[id]
-                    handle? updateMethodResult = getResourceMethod(fhirService, servicePath, paths, http:HTTP_PUT);
+                    handle? updateMethodResult = self.holder.getResourceMethod(servicePath, paths, http:HTTP_PUT);
                     if updateMethodResult is () {
                         return r4:createFHIRError(string `Path not found: ${req.extraPathInfo}`, r4:CODE_SEVERITY_ERROR, r4:TRANSIENT, httpStatusCode = http:STATUS_NOT_FOUND);
                     }
@@ -379,6 +446,7 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                     
                     r4:FHIRContext fhirContext = check r4:getFHIRContext(ctx);
                     any|error executeResourceResult = executeWithIDAndPayload(id, payload, fhirContext, fhirService, resourceMethod);
+                    self.preprocessor.invalidateCachedReads(fhirResource, id);
                     if (executeResourceResult is error) {
                         fhirContext.setInErrorState(true);
                         fhirContext.setErrorCode(r4:getErrorCode(executeResourceResult));
@@ -394,8 +462,8 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
             // patch
             string[] paths = getRequestPaths(req.rawPath);
             Service fhirService = self.holder.getFhirServiceFromHolder();
-            handle? resourceMethod = getResourceMethod(fhirService, servicePath, paths, http:HTTP_PATCH);
-            json|http:ClientError payload = req.getJsonPayload();
+            handle? resourceMethod = self.holder.getResourceMethod(servicePath, paths, http:HTTP_PATCH);
+            json|http:ClientError payload = readJsonPayload(req);
             if payload is json {
                 if resourceMethod is handle {
                     string fhirResource = apiConfig.resourceType;
@@ -406,6 +474,7 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                     }
                     r4:FHIRContext fhirContext = check r4:getFHIRContext(ctx);
                     any|error executeResourceResult = executeWithIDAndPayload(id, payload, fhirContext, fhirService, resourceMethod);
+                    self.preprocessor.invalidateCachedReads(fhirResource, id);
                     if (executeResourceResult is error) {
                         fhirContext.setInErrorState(true);
                         fhirContext.setErrorCode(r4:getErrorCode(executeResourceResult));
@@ -437,11 +506,11 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                 // Query-based conditional delete: DELETE [base]/[type]?[search parameters]
                 // Add a placeholder ID to paths to find the correct resource method
                 string[] pathsWithId = [...paths, "_conditional"];
-                handle? methodResult = getResourceMethod(fhirService, servicePath, pathsWithId, http:HTTP_DELETE);
+                handle? methodResult = self.holder.getResourceMethod(servicePath, pathsWithId, http:HTTP_DELETE);
                 
                 if methodResult is () {
                     // Fallback: try without the placeholder (in case service has a type-level DELETE)
-                    methodResult = getResourceMethod(fhirService, servicePath, paths, http:HTTP_DELETE);
+                    methodResult = self.holder.getResourceMethod(servicePath, paths, http:HTTP_DELETE);
                 }
                 
                 if methodResult is handle {
@@ -467,6 +536,7 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                     } else {
                         executeResourceResult = executeWithNoParam(fhirContext, fhirService, resourceMethod);
                     }
+                    self.preprocessor.invalidateCachedReads(fhirResource, id);
                     if (executeResourceResult is error) {
                         fhirContext.setInErrorState(true);
                         fhirContext.setErrorCode(r4:getErrorCode(executeResourceResult));
@@ -479,7 +549,7 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
                 }
             } else {
                 // Standard delete with resource ID in path: DELETE [base]/[type]/[id]
-                handle? deleteMethodResult = getResourceMethod(fhirService, servicePath, paths, http:HTTP_DELETE);
+                handle? deleteMethodResult = self.holder.getResourceMethod(servicePath, paths, http:HTTP_DELETE);
                 if deleteMethodResult is () {
                     return r4:createFHIRError(string `Path not found: ${req.extraPathInfo}`, r4:CODE_SEVERITY_ERROR, r4:TRANSIENT, httpStatusCode = http:STATUS_NOT_FOUND);
                 }
@@ -500,6 +570,7 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
 
                 r4:FHIRContext fhirContext = check r4:getFHIRContext(ctx);
                 any|error executeResourceResult = executeWithID(id, fhirContext, fhirService, resourceMethod);
+                self.preprocessor.invalidateCachedReads(fhirResource, id);
                 if (executeResourceResult is error) {
                     fhirContext.setInErrorState(true);
                     fhirContext.setErrorCode(r4:getErrorCode(executeResourceResult));
@@ -512,6 +583,74 @@ isolated function getHttpService(Holder h, r4:ResourceAPIConfig apiConfig, strin
     return httpService;
 }
 
+# Waits for a resource function started with one of the `startWith*` functions. The request analytics are prepared
+# while the resource function runs, so that the response interceptors do not have to do it on the response path.
+#
+# + execution - Resource function execution
+# + req - The HTTP request
+# + ctx - The HTTP request context
+# + return - The result of the resource function
+isolated function awaitResourceExecution(future<any|error> execution, http:Request req, http:RequestContext ctx)
+        returns any|error {
+    prepareAnalyticsContext(req, ctx);
+    return wait execution;
+}
+
+# Creates the response of a Bundle streamed by a resource function. The Bundle is written as a chunked body, in NDJSON
+# when the client accepts `application/fhir+ndjson` and in FHIR JSON otherwise. A Bundle can only be streamed as JSON,
+# so for clients that ask for XML the whole Bundle is read and returned like a Bundle that is not streamed.
+#
+# + bundleStream - The streamed Bundle
+# + fhirContext - The FHIR context of the request
+# + req - The HTTP request
+# + return - The HTTP response, the whole Bundle for XML clients, or an OperationOutcome if reading the Bundle fails
+isolated function createBundleStreamResponse(r4:BundleStream bundleStream, r4:FHIRContext fhirContext,
+        http:Request req) returns http:Response|r4:Bundle|r4:OperationOutcome {
+    bundleStream.setEnvelope(handleBundleInfo(bundleStream.getEnvelope(), fhirContext, req.extraPathInfo));
+    if fhirContext.getClientAcceptFormat() == r4:XML {
+        r4:Bundle|r4:FHIRError bundle = bundleStream.toBundle();
+        if bundle is r4:FHIRError {
+            fhirContext.setInErrorState(true);
+            fhirContext.setErrorCode(r4:getErrorCode(bundle));
+            return r4:handleErrorResponse(bundle);
+        }
+        return bundle;
+    }
+    http:Response response = new;
+    string|http:HeaderNotFoundError acceptHeader = req.getHeader("Accept");
+    if acceptHeader is string && acceptHeader.toLowerAscii().includes(r4:FHIR_MIME_TYPE_NDJSON) {
+        response.setByteStream(bundleStream.toNdjsonStream(), r4:FHIR_MIME_TYPE_NDJSON);
+    } else {
+        response.setByteStream(bundleStream.toJsonStream(), r4:FHIR_MIME_TYPE_JSON);
+    }
+    // The response interceptors must not read the payload, since that would consume the stream.
+    fhirContext.setProperty(STREAMED_RESPONSE_PROP_NAME, true);
+    return response;
+}
+
+# Checks whether the response of a request is a streamed Bundle.
+#
+# + fhirContext - The FHIR context of the request
+# + return - `true` if the response body is streamed
+isolated function isStreamedResponse(r4:FHIRContext fhirContext) returns boolean {
+    return fhirContext.getProperty(STREAMED_RESPONSE_PROP_NAME) == true;
+}
+
+# Reads the JSON payload of a request. The payload is read as text, which stays in the request as its body, so the
+# FHIR context keeps the payload as received instead of a readonly copy of the parsed payload.
+#
+# + req - The HTTP request
+# + return - The parsed payload, or an error if the request has no payload or the payload is not valid JSON
+isolated function readJsonPayload(http:Request req) returns json|http:ClientError {
+    string rawPayload = check req.getTextPayload();
+    json|error payload = rawPayload.fromJsonString();
+    if payload is error {
+        return error http:GenericClientError("Error occurred while retrieving the json payload from the request",
+                payload);
+    }
+    return payload;
+}
+
 # Process an API request raw path to obtain clean path segments.
 #
 # + path - The raw URL path from an API request, potentially including query parameters
@@ -533,13 +672,6 @@ isolated function getRequestPaths(string path) returns string[] {
 isolated function isOperationPath(string[] paths) returns boolean
     => paths.length() > 0 && paths[paths.length() - 1].startsWith("$");
 
-# Checks if paths represents a search path.
-#
-# + paths - An paths to check
-# + return - A boolean indicating whether the paths represent a search path
-isolated function isSearchPath(string[] paths) returns boolean
-    => paths.length() > 0 && paths[paths.length() - 1] == "_search";
-
 # Determines the scope of a FHIR operation request.
 #
 # + operation - The FHIR operation
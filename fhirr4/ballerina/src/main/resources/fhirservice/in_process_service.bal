@@ -0,0 +1,92 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerinax/health.fhir.r4;
+
+// FHIR services attached to the listeners of this module, keyed by resource type.
+isolated map<InProcessService> inProcessServices = {};
+
+# A FHIR service attached to a listener of this module, through which the searches of conditional interactions and
+# the entries of batch and transaction Bundles are dispatched to the resource methods of the service, without sending
+# the requests back to the server over HTTP.
+isolated class InProcessService {
+
+    private final Holder holder;
+    private final string[] & readonly servicePath;
+    private final FHIRPreprocessor preprocessor;
+    private final FHIRResponseInterceptor responseInterceptor;
+
+    isolated function init(Holder holder, string[] & readonly servicePath, FHIRPreprocessor preprocessor,
+            FHIRResponseInterceptor responseInterceptor) {
+        self.holder = holder;
+        self.servicePath = servicePath;
+        self.preprocessor = preprocessor;
+        self.responseInterceptor = responseInterceptor;
+    }
+
+    # Executes the search resource method of the FHIR service.
+    #
+    # + resourcePath - The type level path of the resource
+    # + fhirCtx - The FHIR context of the search
+    # + return - The result of the search resource method, or nil if the service has no search resource method
+    isolated function search(string resourcePath, r4:FHIRContext fhirCtx) returns any|error {
+        handle? resourceMethod = self.getResourceMethod(getRequestPaths(resourcePath), http:HTTP_GET);
+        if resourceMethod is () || getInteraction(resourceMethod) != ROUTE_SEARCH {
+            return ();
+        }
+        return executeWithNoParam(fhirCtx, self.holder.getFhirServiceFromHolder(), resourceMethod);
+    }
+
+    # Resolves the resource method of the FHIR service serving a request.
+    #
+    # + paths - The path segments of the request
+    # + accessor - The HTTP method of the request
+    # + return - The resource method, or nil if the service has no resource method for the request
+    isolated function getResourceMethod(string[] paths, string accessor) returns handle? {
+        return self.holder.getResourceMethod(self.servicePath, paths, accessor);
+    }
+
+    isolated function getService() returns Service {
+        return self.holder.getFhirServiceFromHolder();
+    }
+
+    isolated function getPreprocessor() returns FHIRPreprocessor {
+        return self.preprocessor;
+    }
+
+    isolated function getResponseInterceptor() returns FHIRResponseInterceptor {
+        return self.responseInterceptor;
+    }
+}
+
+isolated function registerInProcessService(string resourceType, InProcessService inProcessService) {
+    lock {
+        inProcessServices[resourceType] = inProcessService;
+    }
+}
+
+isolated function removeInProcessService(string resourceType) {
+    lock {
+        _ = inProcessServices.removeIfHasKey(resourceType);
+    }
+}
+
+isolated function getInProcessService(string resourceType) returns InProcessService? {
+    lock {
+        return inProcessServices[resourceType];
+    }
+}
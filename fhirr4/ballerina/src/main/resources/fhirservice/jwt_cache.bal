@@ -0,0 +1,100 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/crypto;
+import ballerina/jwt;
+import ballerina/time;
+import ballerinax/health.fhir.r4;
+
+# Maximum number of decoded JWT assertions kept in the JWT cache. Set to 0 to disable the cache.
+configurable int jwtCacheCapacity = 10000;
+
+final JwtSecurityCache jwtSecurityCache = new (jwtCacheCapacity);
+
+# Security details derived from a JWT assertion.
+#
+# + expiry - Expiry time of the JWT, in seconds since the epoch
+# + security - Security details derived from the JWT
+type CachedFHIRSecurity readonly & record {|
+    int expiry;
+    r4:FHIRSecurity security;
+|};
+
+# Cache of the security details derived from the `x-jwt-assertion` header, keyed by a hash of the JWT.
+# Clients reuse the same token for many requests, so the token is decoded once and the derived details are shared by
+# every request until the token expires. Tokens without an expiry are not cached. Once the cache is full, the oldest
+# entry is evicted first.
+isolated class JwtSecurityCache {
+
+    private final boolean enabled;
+    private final BoundedMap entries;
+
+    isolated function init(int capacity) {
+        self.enabled = capacity > 0;
+        self.entries = new (capacity);
+    }
+
+    # Returns the cached security details of the given key.
+    #
+    # + key - Key created with `getJwtCacheKey`
+    # + return - Cached security details, or nil if the key is not cached or the JWT has expired
+    isolated function get(string key) returns (readonly & r4:FHIRSecurity)? {
+        BoundedMapValue? entry = self.entries.get(key);
+        if entry !is CachedFHIRSecurity {
+            return ();
+        }
+        if entry.expiry <= time:utcNow()[0] {
+            self.entries.remove(key);
+            return ();
+        }
+        return entry.security;
+    }
+
+    # Caches the security details derived from a JWT until the JWT expires.
+    #
+    # + key - Key created with `getJwtCacheKey`
+    # + security - Security details derived from the JWT
+    isolated function put(string key, readonly & r4:FHIRSecurity security) {
+        int? expiry = security.jwt?.payload?.exp;
+        if !self.enabled || expiry is () || expiry <= time:utcNow()[0] {
+            return;
+        }
+        CachedFHIRSecurity entry = {expiry, security};
+        self.entries.put(key, entry);
+    }
+}
+
+# Creates the JWT cache key of a JWT.
+#
+# + jwt - The JWT
+# + return - Cache key
+isolated function getJwtCacheKey(string jwt) returns string {
+    return crypto:hashSha256(jwt.toBytes()).toBase64();
+}
+
+# Returns the payload of a JWT, from the JWT cache if the JWT is already decoded.
+#
+# + jwt - The JWT
+# + return - The JWT payload or an error if the JWT cannot be decoded
+isolated function getJwtPayload(string jwt) returns jwt:Payload|error {
+    (readonly & r4:FHIRSecurity)? security = jwtSecurityCache.get(getJwtCacheKey(jwt));
+    readonly & r4:JWT? decodedJwt = security?.jwt;
+    if decodedJwt is r4:JWT {
+        return decodedJwt.payload;
+    }
+    [jwt:Header, jwt:Payload] [_, payload] = check decodeJWT(jwt);
+    return payload;
+}
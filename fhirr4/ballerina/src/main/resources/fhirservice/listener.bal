@@ -58,11 +58,15 @@ public isolated class Listener {
 
     public isolated function attach(Service fhirService, string[]|string? name = ()) returns error? {
         Holder holder = new (fhirService);
+        string[] & readonly servicePath = name is string[] ? name.cloneReadOnly() : [];
+        FHIRPreprocessor preprocessor = new (self.config);
         lock {
-            self.httpService = getHttpService(holder, self.config, name is string[] ? name.cloneReadOnly() : []);
+            self.httpService = getHttpService(holder, self.config, servicePath, preprocessor);
             check self.ls.attach(self.httpService, name.cloneReadOnly());
             check createConditionalInvokationClient(self.ls.getPort());
         }
+        registerInProcessService(self.config.resourceType,
+                new (holder, servicePath, preprocessor, new FHIRResponseInterceptor(self.config)));
     }
 
     public isolated function detach(Service fhirService) returns error? {
@@ -70,5 +74,6 @@ public isolated class Listener {
             check self.ls.detach(self.httpService);
         }
         _ = r4:fhirRegistry.removeFHIRService(self.config.resourceType);
+        removeInProcessService(self.config.resourceType);
     }
 }
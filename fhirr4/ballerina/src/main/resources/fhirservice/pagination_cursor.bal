@@ -0,0 +1,101 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/crypto;
+import ballerina/http;
+import ballerina/lang.array;
+import ballerina/uuid;
+import ballerinax/health.fhir.r4;
+
+const CURSOR_TOKEN_SEPARATOR = ".";
+
+# Key used to sign the cursors of the pagination links. When not set, a random key is generated at startup, so the
+# links of a search do not survive a restart and are not accepted by other instances of the server. Set the same key
+# on all the instances of a server.
+configurable string paginationCursorKey = "";
+
+final byte[] & readonly cursorSigningKey = paginationCursorKey == "" ? createRandomCursorKey()
+    : paginationCursorKey.toBytes().cloneReadOnly();
+
+# Encodes the cursor of a page into the opaque token of the pagination links. The token is signed together with the
+# query and page size of the search, so that a client can neither forge a cursor nor reuse it for another search.
+# The cursor is not encrypted, so it must not carry anything that the client is not allowed to see.
+#
+# + cursor - The cursor set by the search resource function
+# + searchQuery - The normalized query string of the search
+# + count - The page size of the search
+# + return - The token, or an error if the token could not be signed
+isolated function encodePaginationCursor(string cursor, string searchQuery, int count) returns string|r4:FHIRError {
+    byte[]|crypto:Error signature = signPaginationCursor(cursor, searchQuery, count);
+    if signature is crypto:Error {
+        return r4:createFHIRError("Error occurred while signing the pagination cursor", r4:ERROR, r4:PROCESSING,
+                cause = signature, httpStatusCode = http:STATUS_INTERNAL_SERVER_ERROR);
+    }
+    return string `${cursor.toBytes().toBase16()}${CURSOR_TOKEN_SEPARATOR}${signature.toBase16()}`;
+}
+
+# Decodes the token of a pagination link back into the cursor set by the search resource function.
+#
+# + cursorToken - The token of the pagination link
+# + searchQuery - The normalized query string of the search
+# + count - The page size of the search
+# + return - The cursor, or an error if the token was not issued for this search
+isolated function decodePaginationCursor(string cursorToken, string searchQuery, int count) returns string|r4:FHIRError {
+    int? separatorIndex = cursorToken.indexOf(CURSOR_TOKEN_SEPARATOR);
+    if separatorIndex is int {
+        byte[]|error cursorBytes = array:fromBase16(cursorToken.substring(0, separatorIndex));
+        if cursorBytes is byte[] {
+            string|error cursor = string:fromBytes(cursorBytes);
+            if cursor is string {
+                byte[]|crypto:Error signature = signPaginationCursor(cursor, searchQuery, count);
+                byte[]|error tokenSignature = array:fromBase16(cursorToken.substring(separatorIndex + 1));
+                if signature is byte[] && tokenSignature is byte[] && isSameSignature(signature, tokenSignature) {
+                    return cursor;
+                }
+            }
+        }
+    }
+    return r4:createFHIRError("Invalid pagination cursor", r4:ERROR, r4:INVALID_VALUE,
+            diagnostic = "The cursor is malformed, or was issued for a different search or page size",
+            httpStatusCode = http:STATUS_BAD_REQUEST);
+}
+
+isolated function signPaginationCursor(string cursor, string searchQuery, int count) returns byte[]|crypto:Error {
+    return crypto:hmacSha256(string `${count}${"\n"}${searchQuery}${"\n"}${cursor}`.toBytes(), cursorSigningKey);
+}
+
+# Compares two signatures in constant time, so that the time taken does not reveal how many leading bytes of a forged
+# signature are correct.
+#
+# + expected - The signature computed by the server
+# + actual - The signature of the token
+# + return - `true` if the signatures are equal
+isolated function isSameSignature(byte[] expected, byte[] actual) returns boolean {
+    if expected.length() != actual.length() {
+        return false;
+    }
+    int difference = 0;
+    foreach int index in 0 ..< expected.length() {
+        difference |= expected[index] ^ actual[index];
+    }
+    return difference == 0;
+}
+
+// Type 4 UUIDs are generated from a cryptographically strong random source, two of them give 244 random bits.
+isolated function createRandomCursorKey() returns byte[] & readonly {
+    string seed = uuid:createType4AsString() + uuid:createType4AsString();
+    return crypto:hashSha256(seed.toBytes()).cloneReadOnly();
+}
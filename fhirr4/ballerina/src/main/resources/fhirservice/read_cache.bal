@@ -0,0 +1,223 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/crypto;
+import ballerina/http;
+import ballerina/time;
+import ballerinax/health.fhir.r4;
+
+const READ_CACHE_KEY_SEPARATOR = "|";
+const ETAG_HEADER = "ETag";
+const LAST_MODIFIED_HEADER = "Last-Modified";
+const IF_NONE_MATCH_HEADER = "If-None-Match";
+const IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+const WEAK_ETAG_PREFIX = "W/";
+
+# A serialized read or vread response.
+#
+# + payload - The serialized resource
+# + etag - The ETag of the resource, derived from `meta.versionId`
+# + lastModified - The `meta.lastUpdated` time of the resource
+type CachedRead readonly & record {|
+    byte[] payload;
+    string etag;
+    time:Utc? lastModified;
+|};
+
+# Cache of the serialized responses of the read and vread interactions of a FHIR service, keyed by the resource type,
+# ID, version ID, accept format, query and security context of the request. The entries of a resource are removed when
+# it is updated, patched or deleted through the service. Once the cache is full, the oldest entry is evicted first.
+isolated class ReadCache {
+
+    private final BoundedMap entries;
+    // Incremented on every invalidation, so that a read which started before a write does not cache the old version
+    private int generation = 0;
+
+    isolated function init(int capacity) {
+        self.entries = new (capacity);
+    }
+
+    # Returns the cached response of the given key.
+    #
+    # + key - The cache key
+    # + return - The cached response, or nil if the key is not cached
+    isolated function get(string key) returns CachedRead? {
+        BoundedMapValue? entry = self.entries.get(key);
+        return entry is CachedRead ? entry : ();
+    }
+
+    # Returns the current generation of the cache. Take it before dispatching a read, and pass it to `put`.
+    #
+    # + return - The current generation
+    isolated function getGeneration() returns int {
+        lock {
+            return self.generation;
+        }
+    }
+
+    # Caches a response, unless the cache has been invalidated since the given generation.
+    #
+    # + key - The cache key
+    # + cachedRead - The response
+    # + generation - The generation of the cache when the read was dispatched
+    isolated function put(string key, CachedRead cachedRead, int generation) {
+        lock {
+            if generation != self.generation {
+                return;
+            }
+            self.entries.put(key, cachedRead);
+        }
+    }
+
+    # Removes the cached responses of all the versions of a resource.
+    #
+    # + resourceType - The resource type
+    # + id - The resource ID
+    isolated function invalidate(string resourceType, string id) {
+        string prefix = string `${resourceType}${READ_CACHE_KEY_SEPARATOR}${id}${READ_CACHE_KEY_SEPARATOR}`;
+        lock {
+            self.generation += 1;
+            foreach string key in self.entries.keys() {
+                if key.startsWith(prefix) {
+                    self.entries.remove(key);
+                }
+            }
+        }
+    }
+
+    # Returns the cached keys.
+    #
+    # + return - The cached keys
+    isolated function getKeys() returns string[] & readonly {
+        return self.entries.keys();
+    }
+}
+
+# Builds the read cache key of a request. The security context is part of the key, so that a response is only served
+# to requests with the same claims as the request it was read for.
+#
+# + resourceType - The resource type
+# + id - The resource ID
+# + vid - The version ID of a vread
+# + fhirContext - The FHIR context of the request
+# + req - The HTTP request
+# + return - The cache key
+isolated function getReadCacheKey(string resourceType, string id, string? vid, r4:FHIRContext fhirContext,
+        http:Request req) returns string {
+    r4:FHIRRequest? fhirRequest = fhirContext.getFHIRRequest();
+    string acceptFormat = fhirRequest is r4:FHIRRequest ? fhirRequest.getClientAcceptFormat() : r4:JSON;
+    int? queryIndex = req.rawPath.indexOf("?");
+    string query = queryIndex is int ? req.rawPath.substring(queryIndex + 1) : "";
+    string securityContext = crypto:hashSha256(fhirContext.getFHIRSecurity().toString().toBytes()).toBase64();
+    return string:'join(READ_CACHE_KEY_SEPARATOR, resourceType, id, vid ?: "", acceptFormat, query, securityContext);
+}
+
+# Caches the result of a read or vread resource function and returns it as a serialized response. Only JSON results
+# with a `meta.versionId` are cached, and results with a status or headers set by the resource function are returned
+# as they are.
+#
+# + readCache - The read cache of the service
+# + key - The cache key of the request
+# + generation - The generation of the cache when the read was dispatched
+# + result - The result of the resource function
+# + fhirContext - The FHIR context of the request
+# + req - The HTTP request
+# + return - The response, or the result of the resource function if it is not cacheable
+isolated function cacheReadResult(ReadCache readCache, string key, int generation, any|error result,
+        r4:FHIRContext fhirContext, http:Request req) returns any|error {
+    if result !is anydata || fhirContext.isInErrorState() || fhirContext.getHTTPResponse() != () {
+        return result;
+    }
+    r4:FHIRRequest? fhirRequest = fhirContext.getFHIRRequest();
+    if fhirRequest is r4:FHIRRequest && fhirRequest.getClientAcceptFormat() != r4:JSON {
+        return result;
+    }
+    json resourceJson = result.toJson();
+    json|error versionId = resourceJson.meta.versionId;
+    if versionId !is string {
+        return result;
+    }
+    time:Utc? lastModified = ();
+    json|error lastUpdated = resourceJson.meta.lastUpdated;
+    if lastUpdated is string {
+        time:Utc|time:Error lastUpdatedTime = time:utcFromString(lastUpdated);
+        if lastUpdatedTime is time:Utc {
+            lastModified = lastUpdatedTime;
+        }
+    }
+    CachedRead cachedRead = {
+        payload: resourceJson.toJsonString().toBytes().cloneReadOnly(),
+        etag: string `${WEAK_ETAG_PREFIX}"${versionId}"`,
+        lastModified: lastModified
+    };
+    readCache.put(key, cachedRead, generation);
+    return createReadResponse(cachedRead, req);
+}
+
+# Creates the response of a cached read. The response is `304 Not Modified` when the conditions of the request match
+# the cached resource.
+#
+# + cachedRead - The cached read
+# + req - The HTTP request
+# + return - The response
+isolated function createReadResponse(CachedRead cachedRead, http:Request req) returns http:Response {
+    http:Response response = new;
+    response.setHeader(ETAG_HEADER, cachedRead.etag);
+    time:Utc? lastModified = cachedRead.lastModified;
+    if lastModified is time:Utc {
+        response.setHeader(LAST_MODIFIED_HEADER, time:utcToEmailString(lastModified, "GMT"));
+    }
+    if isNotModified(cachedRead, req) {
+        response.statusCode = http:STATUS_NOT_MODIFIED;
+    } else {
+        response.setBinaryPayload(cachedRead.payload, r4:FHIR_MIME_TYPE_JSON);
+    }
+    return response;
+}
+
+# Checks the `If-None-Match` and `If-Modified-Since` conditions of a request against a cached read. `If-Modified-Since`
+# is ignored when the request has an `If-None-Match` header.
+#
+# + cachedRead - The cached read
+# + req - The HTTP request
+# + return - `true` if the client already has the cached version of the resource
+isolated function isNotModified(CachedRead cachedRead, http:Request req) returns boolean {
+    string|http:HeaderNotFoundError ifNoneMatch = req.getHeader(IF_NONE_MATCH_HEADER);
+    if ifNoneMatch is string {
+        string etag = getOpaqueTag(cachedRead.etag);
+        foreach string tag in re `,`.split(ifNoneMatch) {
+            string trimmedTag = tag.trim();
+            if trimmedTag == "*" || getOpaqueTag(trimmedTag) == etag {
+                return true;
+            }
+        }
+        return false;
+    }
+    string|http:HeaderNotFoundError ifModifiedSince = req.getHeader(IF_MODIFIED_SINCE_HEADER);
+    time:Utc? lastModified = cachedRead.lastModified;
+    if ifModifiedSince is string && lastModified is time:Utc {
+        time:Civil|time:Error sinceCivil = time:civilFromEmailString(ifModifiedSince);
+        time:Utc|time:Error since = sinceCivil is time:Civil ? time:utcFromCivil(sinceCivil) : sinceCivil;
+        // HTTP dates have a precision of seconds
+        return since is time:Utc && lastModified[0] <= since[0];
+    }
+    return false;
+}
+
+isolated function getOpaqueTag(string etag) returns string {
+    // weak comparison, as required for If-None-Match
+    return etag.startsWith(WEAK_ETAG_PREFIX) ? etag.substring(WEAK_ETAG_PREFIX.length()) : etag;
+}
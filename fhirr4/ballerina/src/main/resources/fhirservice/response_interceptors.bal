@@ -11,7 +11,6 @@
 // specific language governing permissions and limitations
 // under the License.
 import ballerina/http;
-import ballerina/io;
 import ballerina/log;
 import ballerinax/health.fhir.r4;
 
@@ -24,21 +23,16 @@ public isolated service class FHIRResponseInterceptor {
     // All the operations that are active in the API config
     private final readonly & map<r4:OperationConfig> operationConfigMap;
     final readonly & r4:AuditConfig? auditConfig;
-    final http:Client|http:ClientError? auditClient;
+    final AuditEventPublisher|http:ClientError? auditPublisher;
 
-    public function init(r4:ResourceAPIConfig apiConfig) {
+    public isolated function init(r4:ResourceAPIConfig apiConfig) {
         self.apiConfig = apiConfig;
         self.auditConfig = apiConfig.auditConfig;
-        r4:AuditConfig? auditConfig = self.auditConfig;
-        if auditConfig != () {
-            self.auditClient = new (auditConfig.auditServiceUrl, retryConfig = {
-                interval: 5,
-                count: 3,
-                backOffFactor: 2.0,
-                maxWaitInterval: 30
-            });
+        r4:AuditConfig & readonly? auditConfig = self.auditConfig;
+        if auditConfig != () && auditConfig.enabled {
+            self.auditPublisher = getAuditEventPublisher(auditConfig);
         } else {
-            self.auditClient = ();
+            self.auditPublisher = ();
         }
 
         map<r4:SearchParamConfig> searchParamConfigs = {};
@@ -63,13 +57,10 @@ public isolated service class FHIRResponseInterceptor {
     remote isolated function interceptResponse(http:RequestContext ctx, http:Response res) returns http:NextService|r4:FHIRError? {
         log:printDebug("Execute: FHIR Response Interceptor");
         final r4:FHIRContext fhirContext = check r4:getFHIRContext(ctx);
-        fhirContext.setDirection(r4:OUT);
-
-        check self.postProcessSearchParameters(fhirContext);
-        check self.postProcessOperation(fhirContext);
+        check self.postProcess(fhirContext);
 
         // set the content type to fhir+json if the response is a json payload
-        if res.getJsonPayload() is json {
+        if !isStreamedResponse(fhirContext) && res.getJsonPayload() is json {
             error? setType = res.setContentType(r4:FHIR_MIME_TYPE_JSON);
             if setType is error {
                 // ignore since the content type is set internally and not by a client
@@ -107,27 +98,32 @@ public isolated service class FHIRResponseInterceptor {
             res.statusCode = fhirContext.getErrorCode();
         }
 
-        // Worker to send the audit events asynchronously
-        worker auditWorker {
-            r4:AuditConfig? auditConfig = self.auditConfig;
-            if auditConfig != () && auditConfig.enabled {
-                http:Client|http:ClientError? auditClient = self.auditClient;
+        self.publishAuditEvent(fhirContext);
+        return getNextService(ctx);
+    }
 
-                if auditClient is () || auditClient is http:ClientError {
-                    // TODO temporary adding the println as errors are not logged by ballerina log module.
-                    io:println(self.auditClient);
-                    log:printError("[Audit Event Sender] Failed to establish a connection to audit service.", auditClient);
-                } else {
-                    // send to the audit service and retries if it fails
-                    r4:AuditEventSendingError? failed = r4:handleAuditEvent(auditClient, fhirContext);
-                    if failed != () && failed.fhirError != () {
-                        // if sending the audit event is still fails, log the error and the audit event
-                        log:printError("[Audit Event Sender] Error while sending audit event.", 'error = failed.fhirError, auditEvent = failed.auditEvent);
-                    }
-                }
-            }
+    # Runs the search parameter and operation post-processors of an interaction. Used for the responses of the
+    # service and for the entries of batch and transaction Bundles.
+    #
+    # + fhirContext - The FHIR context of the interaction
+    # + return - A `r4:FHIRError` if a post-processor fails
+    isolated function postProcess(r4:FHIRContext fhirContext) returns r4:FHIRError? {
+        fhirContext.setDirection(r4:OUT);
+        check self.postProcessSearchParameters(fhirContext);
+        check self.postProcessOperation(fhirContext);
+    }
+
+    # Queues the audit event of an interaction, it is sent to the audit service asynchronously.
+    #
+    # + fhirContext - The FHIR context of the interaction
+    isolated function publishAuditEvent(r4:FHIRContext fhirContext) {
+        AuditEventPublisher|http:ClientError? auditPublisher = self.auditPublisher;
+        if auditPublisher is http:ClientError {
+            log:printError("[Audit Event Sender] Failed to establish a connection to audit service.", auditPublisher);
+        } else if auditPublisher != () {
+            // Dropped events are counted and reported by the publisher after each flush.
+            _ = auditPublisher.enqueue(r4:createAuditEvent(fhirContext));
         }
-        return getNextService(ctx);
     }
 
     isolated function postProcessSearchParameters(r4:FHIRContext context) returns r4:FHIRError? {
@@ -140,7 +136,7 @@ public isolated service class FHIRResponseInterceptor {
                     r4:SearchParamConfig & readonly paramConfig = self.searchParamConfigMap.get(paramName);
                     r4:SearchParameterPostProcessor? postProcessor = paramConfig.postProcessor;
                     if postProcessor != () {
-                        r4:FHIRSearchParameterDefinition? definition = r4:fhirRegistry.getResourceSearchParameterByName(self.apiConfig.resourceType, paramName);
+                        (readonly & r4:FHIRSearchParameterDefinition)? definition = r4:fhirRegistry.findResourceSearchParameter(self.apiConfig.resourceType, paramName);
                         if definition != () {
                             check postProcessor(definition, searchParam, context);
                         }
@@ -169,8 +165,8 @@ public isolated service class FHIRResponseInterceptor {
                 r4:OperationConfig & readonly operationConfig = self.operationConfigMap.get(operation);
                 r4:OperationPostProcessor? postProcessor = operationConfig.postProcessor;
                 if postProcessor != () {
-                    r4:FHIROperationDefinition? operationDefinition =
-                            r4:fhirRegistry.getResourceOperationByName(self.apiConfig.resourceType, operation);
+                    (readonly & r4:FHIROperationDefinition)? operationDefinition =
+                            r4:fhirRegistry.findResourceOperation(self.apiConfig.resourceType, operation);
                     // Could be a base operation overridden in the API config
                     if operationDefinition == () && r4:BASE_RESOURCE_OPERATIONS.hasKey(operation) {
                         operationDefinition = r4:BASE_RESOURCE_OPERATIONS.get(operation);
@@ -0,0 +1,92 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/log;
+import ballerina/test;
+import ballerinax/health.fhir.r4;
+
+Listener fhirConditionalListener = check new (9298, conditionalApiConfig);
+http:Client fhirConditionalClient = check new ("http://localhost:9298/fhir/r4");
+
+@test:BeforeGroups {value: ["ConditionalSearch"]}
+function startConditionalService() returns error? {
+    check fhirConditionalListener.attach(fhirServiceWithConditionalInteractions);
+    check fhirConditionalListener.'start();
+    log:printInfo("FHIR conditional interaction test service has started");
+}
+
+@test:Config {groups: ["ConditionalSearch"]}
+function testConditionalCreateInProcess() returns error? {
+    json location = {resourceType: "Location", name: "Ward 1"};
+    int searches = getLocationSearchPageSizes().length();
+
+    http:Response response = check fhirConditionalClient->post("/Location", location,
+        {"If-None-Exist": "Location?_id=none"}, mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, http:STATUS_CREATED, msg = "No match should create the resource");
+
+    response = check fhirConditionalClient->post("/Location", location, {"If-None-Exist": "_id=1"},
+        mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, http:STATUS_OK, msg = "One match should return the existing resource");
+
+    response = check fhirConditionalClient->post("/Location", location, {"If-None-Exist": "_id=many"},
+        mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, http:STATUS_PRECONDITION_FAILED,
+            msg = "Multiple matches should fail the precondition");
+
+    // The searches are dispatched in-process, with the page size of the conditional search instead of the default
+    int[] pageSizes = getLocationSearchPageSizes().slice(searches);
+    test:assertEquals(pageSizes, [CONDITIONAL_SEARCH_COUNT, CONDITIONAL_SEARCH_COUNT, CONDITIONAL_SEARCH_COUNT]);
+}
+
+@test:Config {groups: ["ConditionalSearch"], dependsOn: [testConditionalCreateInProcess]}
+function testConditionalUpdateInProcess() returns error? {
+    int searches = getLocationSearchPageSizes().length();
+
+    http:Response response = check fhirConditionalClient->put("/Location?_id=7",
+        {resourceType: "Location", id: "7", name: "Ward 7"}, mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, http:STATUS_OK, msg = "One match should update the resource");
+    json updated = check response.getJsonPayload();
+    test:assertEquals(check updated.id, "7");
+
+    response = check fhirConditionalClient->put("/Location?_id=many",
+        {resourceType: "Location", id: "1", name: "Ward 1"}, mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, http:STATUS_PRECONDITION_FAILED,
+            msg = "Multiple matches should fail the precondition");
+
+    int[] pageSizes = getLocationSearchPageSizes().slice(searches);
+    test:assertEquals(pageSizes, [CONDITIONAL_SEARCH_COUNT, CONDITIONAL_SEARCH_COUNT]);
+}
+
+@test:Config {groups: ["ConditionalSearch"]}
+function testTransactionNotEnabled() returns error? {
+    json transaction = {
+        resourceType: "Bundle",
+        'type: "transaction",
+        entry: [
+            {'resource: {resourceType: "Location", name: "Ward 1"}, request: {method: "POST", url: "Location"}}
+        ]
+    };
+    http:Response response = check fhirConditionalClient->post("", transaction, mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, http:STATUS_NOT_IMPLEMENTED,
+            msg = "Transactions should be rejected unless the API config enables them");
+}
+
+@test:AfterGroups {value: ["ConditionalSearch"]}
+function stopConditionalService() returns error? {
+    check fhirConditionalListener.gracefulStop();
+    log:printInfo("FHIR conditional interaction test service has stopped");
+}
@@ -37,6 +37,16 @@ function testRead() returns error? {
     test:assertTrue(response is international401:Patient);
 }
 
+@test:Config { groups: ["FhirService"] }
+function testOperationPathNotRead() returns error? {
+    // `Patient/$foo` matches the read route, but is processed as an operation
+    http:Response response = check fhirClient->get("/Patient/$foo");
+    test:assertEquals(response.statusCode, 400);
+    r4:OperationOutcome operationOutcome = check (check response.getJsonPayload()).cloneWithType();
+    string? diagnostics = operationOutcome.issue[0].diagnostics;
+    test:assertTrue(diagnostics is string && diagnostics.includes("Operation \"$foo\" is not known"));
+}
+
 @test:Config { groups: ["FhirService"] }
 function testVRead() returns error? {
     international401:Patient|ServiceTestError response = check fhirClient->get("/Patient/1/_history/1");
@@ -343,6 +353,95 @@ function testMetadata() returns error? {
     test:assertTrue(response is international401:CapabilityStatement);
 }
 
+@test:Config { groups: ["FhirService"] }
+function testBatch() returns error? {
+    json batch = {
+        resourceType: "Bundle",
+        'type: "batch",
+        entry: [
+            {request: {method: "GET", url: "Patient/1"}},
+            {'resource: {resourceType: "Patient"}, request: {method: "POST", url: "Patient"}},
+            {'resource: {resourceType: "Patient", id: "1"}, request: {method: "PUT", url: "Patient/1"}},
+            {request: {method: "DELETE", url: "Patient/1"}},
+            {request: {method: "GET", url: "Observation/1"}},
+            {request: {method: "GET"}}
+        ]
+    };
+    http:Response response = check fhirClient->post("", batch, mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, 200);
+    r4:Bundle bundle = check (check response.getJsonPayload()).cloneWithType();
+    test:assertEquals(bundle.'type, r4:BUNDLE_TYPE_BATCH_RESPONSE);
+    r4:BundleEntry[] entries = bundle.entry ?: [];
+    string[] statuses = from r4:BundleEntry entry in entries
+        select entry.response?.status ?: "";
+    test:assertEquals(statuses, ["200", "201", "202", "202", "404", "400"]);
+    anydata patient = entries[0]?.'resource;
+    test:assertTrue(patient is map<anydata> && patient["id"] == "1");
+}
+
+@test:Config { groups: ["FhirService"] }
+function testTransaction() returns error? {
+    json transaction = {
+        resourceType: "Bundle",
+        'type: "transaction",
+        entry: [
+            {
+                fullUrl: "urn:uuid:61ebe359-bfdc-4613-8bf2-c5e300945f0a",
+                'resource: {resourceType: "Patient", id: "1"},
+                request: {method: "PUT", url: "Patient/1"}
+            },
+            {
+                'resource: {resourceType: "Patient", link: [{other: {reference: "urn:uuid:61ebe359-bfdc-4613-8bf2-c5e300945f0a"}, 'type: "seealso"}]},
+                request: {method: "POST", url: "Patient"}
+            }
+        ]
+    };
+    http:Response response = check fhirClient->post("", transaction, mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, 200);
+    r4:Bundle bundle = check (check response.getJsonPayload()).cloneWithType();
+    test:assertEquals(bundle.'type, r4:BUNDLE_TYPE_TRANSACTION_RESPONSE);
+    string[] statuses = from r4:BundleEntry entry in bundle.entry ?: []
+        select entry.response?.status ?: "";
+    test:assertEquals(statuses, ["202", "201"]);
+}
+
+@test:Config { groups: ["FhirService"] }
+function testTransactionFailure() returns error? {
+    json transaction = {
+        resourceType: "Bundle",
+        'type: "transaction",
+        entry: [
+            {'resource: {resourceType: "Patient"}, request: {method: "POST", url: "Patient"}},
+            {request: {method: "GET", url: "Observation/1"}}
+        ]
+    };
+    http:Response response = check fhirClient->post("", transaction, mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, 404);
+    // The created Patient is not rolled back, so the error reports it
+    r4:OperationOutcome operationOutcome = check (check response.getJsonPayload()).cloneWithType();
+    string? diagnostics = operationOutcome.issue[0].diagnostics;
+    test:assertTrue(diagnostics is string && diagnostics.includes("entry 0 (POST"),
+            msg = "The diagnostics should report the committed entry");
+}
+
+@test:Config { groups: ["FhirService"] }
+function testTransactionOrder() returns error? {
+    BundleEntryRequestContext[] requests = [
+        {method: "GET", resourceType: "Patient", paths: ["Patient", "1"], queryParams: {}, fullUrl: (),
+            resourceText: (), ifMatch: (), conditional: false},
+        {method: "POST", resourceType: "Patient", paths: ["Patient"], queryParams: {}, fullUrl: "urn:uuid:a",
+            resourceText: string `{"link":[{"other":{"reference":"urn:uuid:b"}}]}`, ifMatch: (), conditional: false},
+        {method: "POST", resourceType: "Patient", paths: ["Patient"], queryParams: {}, fullUrl: "urn:uuid:b",
+            resourceText: "{}", ifMatch: (), conditional: false},
+        {method: "DELETE", resourceType: "Patient", paths: ["Patient", "2"], queryParams: {}, fullUrl: (),
+            resourceText: (), ifMatch: (), conditional: false}
+    ];
+    test:assertEquals(check getTransactionOrder(requests), [3, 2, 1, 0]);
+
+    BundleEntryRequestContext resolved = resolveBundleReferences(requests[1], {"urn:uuid:b": "Patient/5"});
+    test:assertEquals(resolved.resourceText, string `{"link":[{"other":{"reference":"Patient/5"}}]}`);
+}
+
 @test:Config { groups: ["FhirService"] }
 function testInvalidApiConfig() returns error? {
     r4:ResourceAPIConfig invalidApiConfig = {operations: [], authzConfig: (), profiles: [], defaultProfile: (), 
@@ -259,4 +259,60 @@ function testNoPaginationWithCount() returns error? {
 function stopNoPaginationService() returns error? {
     check fhirNoPaginationListener.gracefulStop();
     log:printInfo("FHIR no pagination test service has stopped");
-}
\ No newline at end of file
+}
+
+// Testing cursor pagination
+
+Listener fhirCursorPaginationListener = check new (9296, apiConfigCursorPagination);
+http:Client fhirCursorPaginationClient = check new ("http://localhost:9296");
+
+@test:BeforeGroups { value:["CursorPagination"] }
+function startCursorPaginationService() returns error? {
+    check fhirCursorPaginationListener.attach(fhirServiceWithCursorPagination);
+    check fhirCursorPaginationListener.'start();
+    log:printInfo("FHIR cursor pagination test service has started");
+}
+
+@test:Config {groups: ["CursorPagination"]}
+function testCursorPagination() returns error? {
+    string[] patientIds = [];
+    string? nextLink = "/test1/Patient?given=John";
+    while nextLink is string {
+        http:Response response = check fhirCursorPaginationClient->get(nextLink);
+        test:assertEquals(response.statusCode, http:STATUS_OK);
+        r4:Bundle bundle = check (check parser:parse(check response.getJsonPayload())).ensureType();
+        foreach r4:BundleEntry entry in bundle.entry ?: [] {
+            json entryJson = entry.toJson();
+            patientIds.push((check entryJson.'resource.id).toString());
+        }
+        nextLink = ();
+        foreach r4:BundleLink link in bundle.link ?: [] {
+            test:assertNotEquals(link.relation, "prev");
+            if link.relation == "next" {
+                test:assertTrue(link.url.includes("given=John"));
+                test:assertTrue(link.url.includes("_cursor="));
+                test:assertFalse(link.url.includes("page="));
+                nextLink = link.url.substring(<int>link.url.indexOf("/test1/Patient"));
+            }
+        }
+    }
+    test:assertEquals(patientIds, ["1", "2", "3", "4", "5"]);
+}
+
+@test:Config {groups: ["CursorPagination"]}
+function testInvalidCursor() returns error? {
+    string token = check encodePaginationCursor("2", "given=John", 2);
+    // a token issued for a different search is rejected
+    http:Response response = check fhirCursorPaginationClient->/test1/Patient(given = "Jane", _cursor = token);
+    test:assertEquals(response.statusCode, http:STATUS_BAD_REQUEST);
+    // a tampered cursor is rejected
+    response = check fhirCursorPaginationClient->/test1/Patient(given = "John",
+        _cursor = "34" + token.substring(<int>token.indexOf(".")));
+    test:assertEquals(response.statusCode, http:STATUS_BAD_REQUEST);
+}
+
+@test:AfterGroups { value:["CursorPagination"] }
+function stopCursorPaginationService() returns error? {
+    check fhirCursorPaginationListener.gracefulStop();
+    log:printInfo("FHIR cursor pagination test service has stopped");
+}
@@ -0,0 +1,73 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/log;
+import ballerina/test;
+import ballerinax/health.fhir.r4;
+
+Listener fhirReadCacheListener = check new (9297, readCacheApiConfig);
+http:Client fhirReadCacheClient = check new ("http://localhost:9297/fhir/r4");
+
+@test:BeforeGroups {value: ["ReadCache"]}
+function startReadCacheService() returns error? {
+    check fhirReadCacheListener.attach(fhirServiceWithReadCache);
+    check fhirReadCacheListener.'start();
+    log:printInfo("FHIR read cache test service has started");
+}
+
+@test:Config {groups: ["ReadCache"]}
+function testCachedRead() returns error? {
+    http:Response response = check fhirReadCacheClient->get("/Practitioner/1");
+    test:assertEquals(response.statusCode, http:STATUS_OK);
+    test:assertEquals(check response.getHeader(ETAG_HEADER), "W/\"1\"");
+    test:assertEquals(check response.getHeader(LAST_MODIFIED_HEADER), "Thu, 01 Jan 2026 00:00:00 GMT");
+    json practitioner = check response.getJsonPayload();
+    test:assertEquals(getPractitionerReads(), 1);
+
+    // served from the cache
+    response = check fhirReadCacheClient->get("/Practitioner/1");
+    test:assertEquals(response.statusCode, http:STATUS_OK);
+    test:assertEquals(check response.getJsonPayload(), practitioner);
+    test:assertEquals(getPractitionerReads(), 1);
+
+    response = check fhirReadCacheClient->get("/Practitioner/1", {"If-None-Match": "W/\"1\""});
+    test:assertEquals(response.statusCode, http:STATUS_NOT_MODIFIED);
+    response = check fhirReadCacheClient->get("/Practitioner/1",
+        {"If-Modified-Since": "Thu, 01 Jan 2026 00:00:00 GMT"});
+    test:assertEquals(response.statusCode, http:STATUS_NOT_MODIFIED);
+    test:assertEquals(getPractitionerReads(), 1);
+}
+
+@test:Config {groups: ["ReadCache"], dependsOn: [testCachedRead]}
+function testReadCacheInvalidation() returns error? {
+    json practitioner = {resourceType: "Practitioner", id: "1"};
+    http:Response response = check fhirReadCacheClient->put("/Practitioner/1", message = practitioner,
+        mediaType = r4:FHIR_MIME_TYPE_JSON);
+    test:assertEquals(response.statusCode, http:STATUS_OK);
+
+    // the update removes the cached read, so the new version is read from the service
+    response = check fhirReadCacheClient->get("/Practitioner/1", {"If-None-Match": "W/\"1\""});
+    test:assertEquals(response.statusCode, http:STATUS_OK);
+    test:assertEquals(check response.getHeader(ETAG_HEADER), "W/\"2\"");
+    test:assertEquals(getPractitionerReads(), 2);
+}
+
+@test:AfterGroups {value: ["ReadCache"]}
+function stopReadCacheService() returns error? {
+    check fhirReadCacheListener.gracefulStop();
+    log:printInfo("FHIR read cache test service has stopped");
+}
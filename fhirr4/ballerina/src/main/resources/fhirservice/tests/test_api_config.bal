@@ -232,7 +232,8 @@ final r4:ResourceAPIConfig apiConfig = {
     operations: [
 
     ],
-    serverConfig: ()
+    serverConfig: (),
+    transactionsEnabled: true
 };
 
 final r4:ResourceAPIConfig apiConfigNoPagination = {
@@ -271,6 +272,67 @@ final r4:ResourceAPIConfig apiConfigNoPagination = {
     }
 };
 
+final r4:ResourceAPIConfig apiConfigCursorPagination = {
+    resourceType: "Patient",
+    authzConfig: (),
+    profiles: [
+        "http://hl7.org/fhir/StructureDefinition/Patient"
+    ],
+    defaultProfile: (),
+    searchParameters: [
+        {
+            name: "given",
+            active: true,
+            information: {
+                description: "[Patient](patient.html): A portion of the given name of the patient",
+                builtin: false,
+                documentation: "http://hl7.org/fhir/SearchParameter/individual-given"
+            }
+        }
+    ],
+    operations: [
+
+    ],
+    serverConfig: (),
+    paginationConfig: {
+        enabled: true,
+        pageSize: 2,
+        cursorEnabled: true
+    }
+};
+
+final r4:ResourceAPIConfig readCacheApiConfig = {
+    resourceType: "Practitioner",
+    authzConfig: (),
+    profiles: [
+        "http://hl7.org/fhir/StructureDefinition/Practitioner"
+    ],
+    defaultProfile: (),
+    searchParameters: [],
+    operations: [
+
+    ],
+    serverConfig: (),
+    readCacheConfig: {
+        enabled: true,
+        capacity: 10
+    }
+};
+
+final r4:ResourceAPIConfig conditionalApiConfig = {
+    resourceType: "Location",
+    authzConfig: (),
+    profiles: [
+        "http://hl7.org/fhir/StructureDefinition/Location"
+    ],
+    defaultProfile: (),
+    searchParameters: [],
+    operations: [
+
+    ],
+    serverConfig: ()
+};
+
 final r4:ResourceAPIConfig operationsApiConfig = {
     resourceType: "ConceptMap",
     authzConfig: (),
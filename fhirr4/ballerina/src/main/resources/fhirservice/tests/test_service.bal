@@ -261,6 +261,103 @@ Service fhirServiceWithDefaultPagination = service object {
     }
 };
 
+// This service is used to test cursor pagination. Pages continue after the id of the last patient of the previous page.
+Service fhirServiceWithCursorPagination = service object {
+    resource function get test1/Patient(r4:FHIRContext fhirContext) returns r4:Bundle|error {
+        r4:PaginationContext paginationContext = <r4:PaginationContext>fhirContext.getPaginationContext();
+        string? cursor = paginationContext.cursor;
+        int offset = cursor is string ? check int:fromString(cursor) : 0;
+        int end = int:min(offset + paginationContext.pageSize, 5);
+        r4:DomainResource[] patients = [];
+        foreach int id in offset + 1 ... end {
+            patients.push({resourceType: "Patient", id: id.toString()});
+        }
+        if end < 5 {
+            fhirContext.setNextPageCursor(end.toString());
+        }
+        return r4:createFhirBundle(r4:BUNDLE_TYPE_SEARCHSET, patients);
+    }
+};
+
+// Number of reads dispatched to the read cache test service, and the current version of its practitioner
+isolated int practitionerReads = 0;
+isolated int practitionerVersion = 1;
+
+isolated function getPractitionerReads() returns int {
+    lock {
+        return practitionerReads;
+    }
+}
+
+// This service is used to test the read cache. The version of the practitioner is incremented on every update.
+Service fhirServiceWithReadCache = service object {
+    resource function get fhir/r4/Practitioner/[string id](r4:FHIRContext fhirCtx) returns international401:Practitioner {
+        lock {
+            practitionerReads += 1;
+        }
+        string versionId;
+        lock {
+            versionId = practitionerVersion.toString();
+        }
+        return {
+            resourceType: "Practitioner",
+            id: id,
+            meta: {
+                versionId: versionId,
+                lastUpdated: "2026-01-01T00:00:00Z"
+            }
+        };
+    }
+
+    resource function put fhir/r4/Practitioner/[string id](r4:FHIRContext fhirCtx, international401:Practitioner p)
+            returns international401:Practitioner {
+        lock {
+            practitionerVersion += 1;
+        }
+        return p;
+    }
+};
+
+// Page sizes of the searches dispatched to the conditional interaction test service
+isolated int[] locationSearchPageSizes = [];
+
+isolated function getLocationSearchPageSizes() returns int[] {
+    lock {
+        return locationSearchPageSizes.clone();
+    }
+}
+
+// This service is used to test conditional interactions. The search matches no location for the ID "none", two
+// locations for the ID "many" and the location with the given ID otherwise.
+Service fhirServiceWithConditionalInteractions = service object {
+    resource function get fhir/r4/Location(r4:FHIRContext fhirCtx) returns r4:Bundle {
+        r4:PaginationContext? paginationContext = <r4:PaginationContext?>fhirCtx.getPaginationContext();
+        lock {
+            locationSearchPageSizes.push(paginationContext is r4:PaginationContext ? paginationContext.pageSize : -1);
+        }
+        r4:RequestSearchParameter[]? id = fhirCtx.getRequestSearchParameter("_id");
+        string idValue = id is r4:RequestSearchParameter[] ? id[0].value : "";
+        r4:DomainResource[] locations = [];
+        if idValue == "many" {
+            locations = [{resourceType: "Location", id: "1"}, {resourceType: "Location", id: "2"}];
+        } else if idValue != "none" {
+            locations = [{resourceType: "Location", id: idValue}];
+        }
+        return r4:createFhirBundle(r4:BUNDLE_TYPE_SEARCHSET, locations);
+    }
+
+    resource function post fhir/r4/Location(r4:FHIRContext fhirCtx, international401:Location l) returns http:Response {
+        http:Response response = new;
+        response.statusCode = http:STATUS_CREATED;
+        return response;
+    }
+
+    resource function put fhir/r4/Location/[string id](r4:FHIRContext fhirCtx, international401:Location l)
+            returns international401:Location {
+        return l;
+    }
+};
+
 // This service is used to test disabled pagination.
 Service fhirServiceNoPagination = service object {
     resource function get test1/Patient(r4:FHIRContext fhirContext) returns r4:Bundle {
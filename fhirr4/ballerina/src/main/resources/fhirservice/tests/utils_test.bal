@@ -19,6 +19,9 @@ import ballerina/http;
 import ballerina/jwt;
 import ballerina/time;
 import ballerina/file;
+import ballerina/io;
+import ballerinax/health.fhir.r4;
+import ballerinax/health.fhir.r4.international401;
 
 // Test data for JWT operations
 const string VALID_JWT = "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9.eyJzdWIiOiJpc3VydXV5IiwiaHR0cDovL3dzbzIub3JnL2NsYWltcy9hcGluYW1lIjoiUGF0aWVudCIsImh0dHA6Ly93c28yLm9yZy9jbGFpbXMvYXBwbGljYXRpb250aWVyIjoiMTBQZXJNaW4iLCJodHRwOi8vd3NvMi5vcmcvY2xhaW1zL3ZlcnNpb24iOiIxLjAuMCIsImh0dHA6Ly93c28yLm9yZy9jbGFpbXMva2V5dHlwZSI6IlBST0RVQ1RJT04iLCJpc3MiOiJ3c28yLm9yZy9wcm9kdWN0cy9hbSIsImh0dHA6Ly93c28yLm9yZy9jbGFpbXMvYXBwbGljYXRpb25BdHRyaWJ1dGVzIjp7IlRlcm1zIGFuZCBDb25kaXRpb25zIFNlY3VyZSBVUkwiOiJnb29nbGUuY29tIn0sImh0dHA6Ly93c28yLm9yZy9jbGFpbXMvYXBwbGljYXRpb25uYW1lIjoibmV3YXBwMSIsImh0dHA6Ly93c28yLm9yZy9jbGFpbXMvZW5kdXNlciI6ImlzdXJ1dXlAY2FyYm9uLnN1cGVyIiwiaHR0cDovL3dzbzIub3JnL2NsYWltcy9lbmR1c2VyVGVuYW50SWQiOiItMTIzNCIsImh0dHA6Ly93c28yLm9yZy9jbGFpbXMvcGF0aWVudElkIjoiMDAwMDAwODIwMyIsImh0dHA6Ly93c28yLm9yZy9jbGFpbXMvYXBwbGljYXRpb25VVUlkIjoiZGQ1YWRlZjUtYTczNS00YTJlLTkxODEtOTY4NDc0ZDZiMzg0IiwiY2xpZW50X2lkIjoiRkFsd21BTG0xVkFtSFNCU2Y2OGsyWGl6TUFrYSIsImh0dHA6Ly93c28yLm9yZy9jbGFpbXMvc3Vic2NyaWJlciI6ImlzdXJ1dXkiLCJhenAiOiJGQWx3bUFMbTFWQW1IU0JTZjY4azJYaXpNQWthIiwiaHR0cDovL3dzbzIub3JnL2NsYWltcy90aWVyIjoiQnJvbnplIiwic2NvcGUiOiJkZWZhdWx0IiwiZXhwIjoxNzU2MjkwMDI3LCJodHRwOi8vd3NvMi5vcmcvY2xhaW1zL2FwcGxpY2F0aW9uaWQiOiIxOTEiLCJodHRwOi8vd3NvMi5vcmcvY2xhaW1zL3VzZXJ0eXBlIjoiQXBwbGljYXRpb25fVXNlciIsImlhdCI6MTc1NjI4OTEyNywianRpIjoiNTkxZGEzODMtNjdmOS00NzcyLWI3ZDItZWNiZjcyNTI5NDQ0IiwiaHR0cDovL3dzbzIub3JnL2NsYWltcy9hcGljb250ZXh0IjoiL3I0L1BhdGllbnQvMS4wLjAiLCJmaGlyVXNlciI6InBhdGllbnQvMTAzIn0.WcYq7DclQ7kO6Pym5VrOxo8VFgXyPyXLXzirlTGjWqCuUOKz1LLh0LDoSPC9X7Qzs2ZB_3fWMVJOAuGjzF2IV879FGjk_vqfmzqEMs0tO21LjLDW0SzrBq9-imorjwK-7jjxGSwndO8igdmNhpojFwVMjX3MRZn2HBv-KD5Vs8Q2WvrIjlIl2UUDZ3Z3fj3QLcMJGnRx7IPRe9UIlsFnHKk6C-q2KmnoqKsba1Ll3GTj0gbMIrYU18GiJKmrL3fkTfwJOWhmqMuZixkVGzzauxGcAvAfKqk8T7rwnIdKir7JMnvk13zAihJOWHVtSfdyTk2DDe8OHRYqkueb2O2Q9A";
@@ -618,3 +621,296 @@ function testGetApiPathWithPartialBasePathMatch() {
     
     test:assertEquals(result, "/fhir/Patient/123", msg = "Should return original path when base path only partially matches");
 }
+
+// Test: AnalyticsWriter drops records when the buffer is full
+@test:Config {}
+function testAnalyticsWriterDropsWhenFull() {
+    AnalyticsWriter writer = new (new ("test_analytics_writer.log"), 2, 10);
+    AnalyticsDataRecord analyticsDataRecord = {
+        requestHeaders: {},
+        responseHeaders: {},
+        statusCode: 200,
+        requestPath: "/fhir/r4/Patient",
+        httpMethod: "GET"
+    };
+
+    test:assertTrue(writer.enqueue(analyticsDataRecord), msg = "First record should be buffered");
+    test:assertTrue(writer.enqueue(analyticsDataRecord), msg = "Second record should be buffered");
+    test:assertFalse(writer.enqueue(analyticsDataRecord), msg = "Record should be dropped when the buffer is full");
+    test:assertEquals(writer.takeDroppedCount(), 1, msg = "Dropped records should be counted");
+
+    test:assertEquals(writer.take().length(), 2, msg = "Buffered records should be taken as one batch");
+    test:assertTrue(writer.enqueue(analyticsDataRecord), msg = "Record should be buffered after the buffer is drained");
+    test:assertEquals(writer.takeDroppedCount(), 0, msg = "Dropped count should be reset");
+}
+
+// Test: Analytics log lines keep the time the record was created, not the time the batch is written
+@test:Config {}
+function testAnalyticsLogLineTime() returns error? {
+    AnalyticsDataRecord analyticsDataRecord = {
+        requestHeaders: {},
+        jwtPayload: {sub: "admin"},
+        responseHeaders: {},
+        statusCode: 200,
+        requestPath: "/fhir/r4/Patient",
+        httpMethod: "GET",
+        time: "2026-01-01T00:00:00Z"
+    };
+    string? logLine = createAnalyticsLogLine(analyticsDataRecord, ());
+    test:assertTrue(logLine is string, msg = "Log line should be created");
+    AnalyticsData analyticsData = check (check (<string>logLine).trim().fromJsonString()).cloneWithType();
+    test:assertEquals(analyticsData.request.time, "2026-01-01T00:00:00Z", msg = "Request time should be kept");
+    test:assertEquals(analyticsData.response?.time, "2026-01-01T00:00:00Z", msg = "Response time should be kept");
+}
+
+// Test: AnalyticsFileSink keeps appending to the log file across rotations
+@test:Config {}
+function testAnalyticsFileSinkRotate() returns error? {
+    string testFilePath = "test_analytics_sink.log";
+    string rotatedFilePath = "test_analytics_sink-rotated.log";
+    check file:create(testFilePath);
+    AnalyticsFileSink sink = new (testFilePath);
+
+    check sink.write("First line\n");
+    check sink.write("Second line\n");
+    check sink.rotate(rotatedFilePath);
+    check sink.write("Third line\n");
+
+    test:assertEquals(check io:fileReadLines(rotatedFilePath), ["First line", "Second line"],
+            msg = "Rotated file should contain the data written before the rotation");
+    test:assertEquals(check io:fileReadLines(testFilePath), ["Third line"],
+            msg = "New file should contain the data written after the rotation");
+
+    // Cleanup
+    check file:remove(testFilePath);
+    check file:remove(rotatedFilePath);
+}
+
+// Test: JwtSecurityCache keeps security details until the JWT expires
+@test:Config {}
+function testJwtSecurityCache() {
+    JwtSecurityCache cache = new (1);
+    int now = time:utcNow()[0];
+    readonly & r4:FHIRSecurity security = {
+        securedAPICall: true,
+        fhirUser: (),
+        jwt: {header: {alg: "RS256"}, payload: {sub: "user", exp: now + 60}}
+    };
+    readonly & r4:FHIRSecurity expiredSecurity = {
+        securedAPICall: true,
+        fhirUser: (),
+        jwt: {header: {alg: "RS256"}, payload: {sub: "user", exp: now - 60}}
+    };
+
+    cache.put("expired", expiredSecurity);
+    test:assertEquals(cache.get("expired"), (), msg = "Expired JWT should not be cached");
+
+    cache.put("first", security);
+    test:assertEquals(cache.get("first"), security, msg = "JWT should be cached until it expires");
+
+    cache.put("second", security);
+    test:assertEquals(cache.get("first"), (), msg = "Oldest entry should be evicted when the cache is full");
+    test:assertEquals(cache.get("second"), security, msg = "Latest entry should be cached");
+}
+
+// Test: getJwtPayload decodes JWTs that are not cached
+@test:Config {}
+function testGetJwtPayload() returns error? {
+    jwt:Payload payload = check getJwtPayload(VALID_JWT);
+    test:assertEquals(payload["fhirUser"], "patient/103", msg = "fhirUser should match");
+}
+
+// Test: getConditionalQueryParams extracts the search parameters of conditional URLs
+@test:Config {}
+function testGetConditionalQueryParams() {
+    test:assertEquals(getConditionalQueryParams("http://localhost:9292/fhir/r4/Patient?_id=1&name=John%20Smith"),
+            {"_id": ["1"], "name": ["John Smith"]}, msg = "Should extract the query of a full URL");
+    test:assertEquals(getConditionalQueryParams("identifier=a&identifier=b"), {"identifier": ["a", "b"]},
+            msg = "Should accept the query only and keep repeated parameters");
+    test:assertEquals(getConditionalQueryParams("http://localhost:9292/fhir/r4/Patient"), {},
+            msg = "URL without a query should have no search parameters");
+}
+
+// Test: AuditSpillFile replays spilled audit events in order
+@test:Config {}
+function testAuditSpillFile() returns error? {
+    string testFilePath = "test_audit_events.spill";
+    readonly & r4:InternalAuditEvent[] auditEvents = from int i in 1 ... 3
+        select {
+            typeCode: "rest",
+            subTypeCode: "read",
+            actionCode: "R",
+            outcomeCode: "0",
+            recordedTime: "2026-01-01T00:00:00Z",
+            agentType: "",
+            agentName: "Unknown",
+            agentIsRequestor: true,
+            sourceObserverName: "",
+            sourceObserverType: "3",
+            entityType: "2",
+            entityRole: "1",
+            entityWhatReference: string `Patient/${i}`
+        };
+    AuditSpillFile spillFile = new (testFilePath);
+    test:assertTrue(spillFile.isEmpty(), msg = "Spill file should be empty initially");
+
+    check spillFile.append(auditEvents.slice(0, 2));
+    check spillFile.append(auditEvents.slice(2));
+    test:assertEquals(spillFile.size(), 3, msg = "Spill file should contain all the appended events");
+    test:assertEquals(check readAuditSpillLines(spillFile), auditEvents,
+            msg = "Spilled events should be read in order from a single file");
+
+    check spillFile.markReplayed(2);
+    test:assertEquals(check readAuditSpillLines(spillFile), auditEvents.slice(2),
+            msg = "Replay should resume after the replayed events");
+    AuditSpillFile reopened = new (testFilePath);
+    test:assertEquals(reopened.size(), 1, msg = "Replay offset should be kept across restarts");
+    test:assertEquals(check readAuditSpillLines(reopened), auditEvents.slice(2),
+            msg = "Replay should resume after the replayed events after a restart");
+
+    check spillFile.clearReplayed();
+    test:assertTrue(check file:test(testFilePath, file:EXISTS), msg = "Spill file should be kept until replayed");
+    check spillFile.markReplayed(1);
+    check spillFile.clearReplayed();
+    test:assertTrue(spillFile.isEmpty(), msg = "Spill file should be empty once all events are replayed");
+    test:assertFalse(check file:test(testFilePath, file:EXISTS), msg = "Replayed spill file should be removed");
+    test:assertFalse(check file:test(testFilePath + AUDIT_SPILL_OFFSET_FILE_EXTENSION, file:EXISTS),
+            msg = "Offset file should be removed with the spill file");
+
+    r4:Bundle bundle = createAuditEventBundle(auditEvents);
+    test:assertEquals(bundle.'type, r4:BUNDLE_TYPE_BATCH, msg = "Audit events should be sent as a batch Bundle");
+    r4:BundleEntry[] entries = bundle.entry ?: [];
+    test:assertEquals(entries.length(), 3, msg = "Batch Bundle should contain all the events");
+    international401:AuditEvent auditEvent = check entries[0].'resource.ensureType();
+    test:assertEquals(auditEvent.entity, [{what: {reference: "Patient/1"}, 'type: {system: AUDIT_ENTITY_TYPE_SYSTEM,
+            code: "2"}, role: {system: AUDIT_OBJECT_ROLE_SYSTEM, code: "1"}}], msg = "Entity should be mapped");
+    test:assertEquals(entries[0].request?.url, "AuditEvent", msg = "Entries should create AuditEvent resources");
+}
+
+function readAuditSpillLines(AuditSpillFile spillFile) returns r4:InternalAuditEvent[]|error {
+    stream<string, io:Error?> lines = check spillFile.readPending();
+    return from string line in lines
+        select check line.fromJsonStringWithType();
+}
+
+// Test: BoundedMap evicts the oldest key and skips the slots of removed keys
+@test:Config {}
+function testBoundedMap() {
+    BoundedMap boundedMap = new (3);
+    boundedMap.put("first", 1);
+    boundedMap.put("second", 2);
+    boundedMap.put("third", 3);
+    boundedMap.put("first", 4);
+    test:assertEquals(boundedMap.get("first"), 4, msg = "Existing key should be replaced in place");
+
+    // "second" is re-added in the slot of "first", so its old slot is stale and must not evict it.
+    boundedMap.remove("second");
+    boundedMap.put("second", 5);
+    test:assertEquals(boundedMap.keys(), ["third", "second"], msg = "Oldest key should be evicted when full");
+    boundedMap.put("fourth", 6);
+    test:assertEquals(boundedMap.keys(), ["third", "second", "fourth"],
+            msg = "Stale slot should not evict the re-added key");
+    boundedMap.put("fifth", 7);
+    test:assertEquals(boundedMap.keys(), ["second", "fourth", "fifth"], msg = "Oldest live key should be evicted");
+
+    boundedMap.removeAll();
+    test:assertEquals(boundedMap.keys().length(), 0, msg = "Map should be empty after removing all the keys");
+}
+
+// Test: ConsentDecisionCache evicts the oldest entry and invalidates the consent lists of a user
+@test:Config {}
+function testConsentDecisionCache() {
+    ConsentDecisionCache cache = new (2);
+    ConsentDecision first = cache.getEntry("first");
+    test:assertTrue(cache.getEntry("first") === first, msg = "Same key should share the same entry");
+
+    _ = cache.getEntry("second");
+    _ = cache.getEntry("third");
+    test:assertEquals(cache.getKeys(), ["second", "third"], msg = "Oldest entry should be evicted when full");
+
+    cache.invalidate("second");
+    test:assertEquals(cache.getKeys(), ["third"], msg = "Invalidated entry should be removed");
+
+    string patientKey = getConsentDetailsCacheKey("patient-1,patient-2", ACTIVE_CONSENT_STATUS);
+    string otherPatientKey = getConsentDetailsCacheKey("patient-10", ACTIVE_CONSENT_STATUS);
+    _ = consentDetailsCache.getEntry(patientKey);
+    _ = consentDetailsCache.getEntry(otherPatientKey);
+    invalidateUserConsents("patient-2");
+    test:assertEquals(consentDetailsCache.getKeys().indexOf(patientKey), (),
+            msg = "Consent lists of the user should be invalidated");
+    test:assertTrue(consentDetailsCache.getKeys().indexOf(otherPatientKey) != (),
+            msg = "Consent lists of other users should be kept");
+    clearConsentCache();
+    test:assertEquals(consentDetailsCache.getKeys().length(), 0, msg = "Consent cache should be cleared");
+}
+
+// Test: pagination cursors are bound to the query and page size of the search they were issued for
+@test:Config {}
+function testPaginationCursor() returns error? {
+    string token = check encodePaginationCursor("2024-01-01|42", "given=John", 10);
+    test:assertEquals(decodePaginationCursor(token, "given=John", 10), "2024-01-01|42",
+            msg = "Cursor should be decoded from its token");
+    test:assertTrue(decodePaginationCursor(token, "given=Jane", 10) is r4:FHIRError,
+            msg = "Token should be rejected for another search");
+    test:assertTrue(decodePaginationCursor(token, "given=John", 20) is r4:FHIRError,
+            msg = "Token should be rejected for another page size");
+    test:assertTrue(decodePaginationCursor("not-a-token", "given=John", 10) is r4:FHIRError,
+            msg = "Malformed token should be rejected");
+    test:assertTrue(decodePaginationCursor(token.substring(0, token.length() - 2), "given=John", 10) is r4:FHIRError,
+            msg = "Token with a truncated signature should be rejected");
+}
+
+// Test: the query string of the pagination links does not depend on the order of the search parameters
+@test:Config {}
+function testNormalizedSearchQuery() {
+    map<r4:RequestSearchParameter[]> searchParameters = {
+        "given": [{name: "given", value: "John", typedValue: {modifier: ()}, 'type: r4:STRING}],
+        "_count": [{name: "_count", value: "5", typedValue: {modifier: ()}, 'type: r4:NUMBER}],
+        "birthdate": [{name: "birthdate", value: "2000-01-01", typedValue: {modifier: ()}, 'type: r4:DATE}]
+    };
+    test:assertEquals(getNormalizedSearchQuery(searchParameters), "birthdate=2000-01-01&given=John",
+            msg = "Parameters should be ordered by name, without the page size");
+}
+
+// Test: ReadCache evicts the oldest entry, invalidates all the versions of a resource and does not cache stale reads
+@test:Config {}
+function testReadCache() {
+    ReadCache cache = new (2);
+    CachedRead cachedRead = {payload: "{}".toBytes().cloneReadOnly(), etag: "W/\"1\"", lastModified: ()};
+    cache.put("Practitioner|1||JSON||", cachedRead, cache.getGeneration());
+    cache.put("Practitioner|1|1|JSON||", cachedRead, cache.getGeneration());
+    cache.put("Practitioner|2||JSON||", cachedRead, cache.getGeneration());
+    test:assertEquals(cache.getKeys(), ["Practitioner|1|1|JSON||", "Practitioner|2||JSON||"],
+            msg = "Oldest entry should be evicted when full");
+
+    int generation = cache.getGeneration();
+    cache.invalidate("Practitioner", "1");
+    test:assertEquals(cache.getKeys(), ["Practitioner|2||JSON||"],
+            msg = "All the versions of the resource should be invalidated");
+
+    cache.put("Practitioner|1||JSON||", cachedRead, generation);
+    test:assertEquals(cache.get("Practitioner|1||JSON||"), (),
+            msg = "Read dispatched before an invalidation should not be cached");
+}
+
+// Test: conditional reads are matched against the ETag and last modified time of the cached read
+@test:Config {}
+function testReadCacheConditions() {
+    CachedRead cachedRead = {
+        payload: "{}".toBytes().cloneReadOnly(),
+        etag: "W/\"2\"",
+        lastModified: [1767225600, 0.5]
+    };
+    http:Request req = new;
+    test:assertFalse(isNotModified(cachedRead, req), msg = "Unconditional read should be served");
+    req.setHeader(IF_NONE_MATCH_HEADER, "W/\"1\", \"2\"");
+    test:assertTrue(isNotModified(cachedRead, req), msg = "Matching ETag should not be modified");
+    req.setHeader(IF_NONE_MATCH_HEADER, "W/\"1\"");
+    test:assertFalse(isNotModified(cachedRead, req), msg = "Other ETag should be modified");
+
+    req = new;
+    req.setHeader(IF_MODIFIED_SINCE_HEADER, "Thu, 01 Jan 2026 00:00:00 GMT");
+    test:assertTrue(isNotModified(cachedRead, req), msg = "Resource should not be modified since its last update");
+    req.setHeader(IF_MODIFIED_SINCE_HEADER, "Wed, 31 Dec 2025 23:59:59 GMT");
+    test:assertFalse(isNotModified(cachedRead, req), msg = "Resource should be modified after the given time");
+}
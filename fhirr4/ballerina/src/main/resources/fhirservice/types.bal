@@ -14,6 +14,10 @@
 // specific language governing permissions and limitations
 // under the License.
 
+import ballerina/jwt;
+import ballerina/time;
+import ballerinax/health.fhir.r4;
+
 const X_JWT_HEADER = "x-jwt-assertion";
 final string rotationErrorMessage = "Error rotating analytics log file";
 const LOG_FILE_NAME = "fhir-analytics";
@@ -29,10 +33,40 @@ const RESOURCE_TYPE = "resourceType";
 const CLAIM_RESPONSE = "ClaimResponse";
 const META = "meta";
 const LAST_UPDATED = "lastUpdated";
+const ANALYTICS_API_ALLOWED = "analyticsApiAllowed";
+const DEFAULT_ANALYTICS_BUFFER_SIZE = 10000;
+const DEFAULT_ANALYTICS_BATCH_SIZE = 100;
+const decimal DEFAULT_ANALYTICS_FLUSH_INTERVAL = 1;
 
 # Represents a FHIR service type
 public type Service distinct service object{};
 
+# Routing metadata of a FHIR service resource function, generated by the FHIR compiler plugin.
+#
+# + accessor - Resource function accessor
+# + path - Resource path, with path parameters as `^`
+# + interaction - FHIR interaction served by the resource function
+# + hasPathParam - Whether the resource path has a path parameter
+# + isIsolated - Whether the resource function is declared as isolated
+public type ResourceRoute record {|
+    string accessor;
+    string[] path;
+    string interaction;
+    boolean hasPathParam;
+    boolean isIsolated;
+|};
+
+# Routing table of a FHIR service, generated by the FHIR compiler plugin.
+#
+# + routes - Routes of the service resource functions
+public type ResourceRouteTable record {|
+    ResourceRoute[] routes;
+|};
+
+# Routing table attached to FHIR service declarations by the FHIR compiler plugin. This is not meant to be used
+# directly; it is loaded when the service is attached to the listener.
+public annotation ResourceRouteTable __ResourceRoutes on service;
+
 # Represents the request information
 public type Request record {|
     # Request time
@@ -95,6 +129,9 @@ public type AnalyticsData record {|
 # + allowedApiResources - list of API paths to include for analytics
 # + excludedApiResources - list of API paths to exclude from analytics
 # + enrichPayload - configuration for enriching analytics payloads with additional information
+# + bufferSize - maximum number of analytics records waiting to be written, records are dropped when the buffer is full
+# + batchSize - number of buffered analytics records that triggers a write to the log file
+# + flushInterval - interval in seconds at which the buffered analytics records are written to the log file
 public type AnalyticsConfig readonly & record {|
     boolean enabled = false;
     string fhirServerContext = DEFAULT_SERVER_CONTEXT;
@@ -105,6 +142,9 @@ public type AnalyticsConfig readonly & record {|
     string[] allowedApiContexts?;
     string[] excludedApiContexts?;
     AnalyticsPayloadEnrich enrichPayload?;
+    int bufferSize = DEFAULT_ANALYTICS_BUFFER_SIZE;
+    int batchSize = DEFAULT_ANALYTICS_BATCH_SIZE;
+    decimal flushInterval = DEFAULT_ANALYTICS_FLUSH_INTERVAL;
 |};
 
 # MoreInfoConfig Record.
@@ -122,6 +162,7 @@ public type AnalyticsPayloadEnrich readonly & record {|
 
 public type AnalyticsDataRecord readonly & record {|
     map<string> requestHeaders;
+    jwt:Payload? jwtPayload = ();
     json requestPayload?;
     map<string> responseHeaders;
     json responsePayload?;
@@ -129,4 +170,24 @@ public type AnalyticsDataRecord readonly & record {|
     string requestPath;
     string httpMethod;
     json priorAuthData?;
+    # Time of the response, taken when the record is created since the records are written in batches later
+    string time = time:utcToString(time:utcNow());
 |};
+
+# FHIR Batch interaction.
+#
+# + interaction - Interaction type
+public type FHIRBatchInteraction record {
+    *r4:FHIRInteraction;
+
+    r4:BATCH interaction = r4:BATCH;
+};
+
+# FHIR Transaction interaction.
+#
+# + interaction - Interaction type
+public type FHIRTransactionInteraction record {
+    *r4:FHIRInteraction;
+
+    r4:TRANSACTION interaction = r4:TRANSACTION;
+};
@@ -13,7 +13,6 @@
 
 import ballerinax/health.fhir.r4;
 import ballerinax/health.fhir.r4.ips;
-import ballerinax/health.fhir.r4.parser;
 import ballerina/http;
 import ballerina/log;
 import ballerina/time;
@@ -31,23 +30,12 @@ isolated function createConditionalInvokationClient(int port) returns error? {
     }
 }
 
-isolated function addPagination(r4:PaginationContext paginationContext, map<r4:RequestSearchParameter[]> requestSearchParameters,
-        r4:Bundle bundle, string path) returns r4:Bundle {
-    r4:BundleLink[] allLinks = [];
-
-    // construct query string from processed search params
-    string qString = "";
-    foreach r4:RequestSearchParameter[] params in requestSearchParameters {
-        foreach r4:RequestSearchParameter param in params {
-            if param.name == COUNT {
-                continue;
-            }
-            qString = qString + string `${param.name}=${param.value}&`;
-        }
-    }
-    if qString.endsWith("&") {
-        qString = qString.substring(0, qString.length() - 1);
+isolated function addPagination(r4:PaginationContext paginationContext, string qString, r4:Bundle bundle, string path,
+        string? nextPageCursor = ()) returns r4:Bundle {
+    if paginationContext.cursorEnabled {
+        return addCursorPagination(paginationContext, qString, bundle, path, nextPageCursor);
     }
+    r4:BundleLink[] allLinks = [];
 
     int currentpage = paginationContext.page;
     int pageSize = paginationContext.pageSize;
@@ -77,6 +65,39 @@ isolated function addPagination(r4:PaginationContext paginationContext, map<r4:R
     return bundle;
 }
 
+# Adds the links of a page of a search with cursor pagination. The next link is only added when the search resource
+# function has set the cursor of the next page, and there is no previous link as the cursors only go forward.
+#
+# + paginationContext - The pagination context of the search
+# + qString - The normalized query string of the search
+# + bundle - The search result
+# + path - The path of the search
+# + nextPageCursor - The cursor of the next page set by the search resource function
+# + return - The search result with the pagination links
+isolated function addCursorPagination(r4:PaginationContext paginationContext, string qString, r4:Bundle bundle,
+        string path, string? nextPageCursor) returns r4:Bundle {
+    int pageSize = paginationContext.pageSize;
+    string? cursor = paginationContext.cursor;
+    r4:BundleLink[] allLinks = [];
+
+    // populate self link. tokens are deterministic, so this is the token the page was requested with
+    string|r4:FHIRError? selfToken = cursor is string ? encodePaginationCursor(cursor, qString, pageSize) : ();
+    allLinks.push(constructCursorUrl(qString, "self", path, pageSize, selfToken is string ? selfToken : ()));
+
+    if nextPageCursor is string {
+        // populate next link
+        string|r4:FHIRError nextToken = encodePaginationCursor(nextPageCursor, qString, pageSize);
+        if nextToken is string {
+            allLinks.push(constructCursorUrl(qString, "next", path, pageSize, nextToken));
+        } else {
+            log:printError("Error occurred while creating the next page cursor", nextToken);
+        }
+    }
+
+    bundle.link = allLinks;
+    return bundle;
+}
+
 isolated function constructUrl(string qString, string relation, string path, int count, int page) returns r4:BundleLink {
     string url = qString.length() > 0 ? string `${path}?${qString}&${PAGE}=${page}&${COUNT}=${count}` : string `${path}?${PAGE}=${page}&${COUNT}=${count}`;
     return {
@@ -85,11 +106,46 @@ isolated function constructUrl(string qString, string relation, string path, int
     };
 }
 
+isolated function constructCursorUrl(string qString, string relation, string path, int count, string? cursorToken)
+        returns r4:BundleLink {
+    string[] queryParts = qString.length() > 0 ? [qString] : [];
+    if cursorToken is string {
+        queryParts.push(string `${CURSOR}=${cursorToken}`);
+    }
+    queryParts.push(string `${COUNT}=${count}`);
+    return {
+        relation: relation,
+        url: string `${path}?${string:'join("&", ...queryParts)}`
+    };
+}
+
+# Builds the query string of the pagination links of a search from its processed search parameters. The parameters
+# are ordered by name so that the same search always gives the same query string, which the cursor tokens are bound
+# to.
+#
+# + requestSearchParameters - The processed search parameters of the search
+# + return - The query string, without the page, cursor and count parameters
+isolated function getNormalizedSearchQuery(map<r4:RequestSearchParameter[]> requestSearchParameters) returns string {
+    string[] queryParts = [];
+    foreach string name in requestSearchParameters.keys().sort() {
+        foreach r4:RequestSearchParameter param in requestSearchParameters.get(name) {
+            if param.name == COUNT {
+                continue;
+            }
+            queryParts.push(string `${param.name}=${param.value}`);
+        }
+    }
+    return string:'join("&", ...queryParts);
+}
+
 isolated function handleBundleInfo(r4:Bundle bundle, r4:FHIRContext fhirCtx, string path) returns r4:Bundle {
     r4:PaginationContext? paginationContext = <r4:PaginationContext?>fhirCtx.getPaginationContext();
     if paginationContext is r4:PaginationContext {
         if paginationContext.paginationEnabled {
-            return addPagination(paginationContext, fhirCtx.getRequestSearchParameters(), bundle, path);
+            anydata searchQuery = fhirCtx.getProperty(SEARCH_QUERY_PROP_NAME);
+            return addPagination(paginationContext, searchQuery is string ? searchQuery
+                    : getNormalizedSearchQuery(fhirCtx.getRequestSearchParameters()), bundle, path,
+                    fhirCtx.getNextPageCursor());
         } else {
             // populate bundle total
             r4:BundleEntry[]? entries = bundle.entry;
@@ -102,52 +158,71 @@ isolated function handleBundleInfo(r4:Bundle bundle, r4:FHIRContext fhirCtx, str
     return bundle;
 }
 
-isolated function handleConditionalHeader(string conditionalUrl, string resourcePath, string authHeader = "") returns r4:FHIRError? {
-    int? indexOfSearchParams = conditionalUrl.indexOf("?");
-    string searchParams = indexOfSearchParams is int ? conditionalUrl.substring(indexOfSearchParams) : "";
+# Handle the If-None-Exist header of a conditional create interaction.
+# The search is dispatched in-process to the FHIR service of the resource type when the search context is given and
+# the service is attached to a listener of this module. Otherwise it is sent to the server over HTTP.
+#
+# + conditionalUrl - The value of the If-None-Exist header
+# + resourcePath - The resource path (e.g., "/Patient")
+# + authHeader - The authorization header for authentication (optional, defaults to empty string)
+# + searchContext - The search request for the in-process search (optional)
+# + return - A FHIRError if the resource must not be created, nil otherwise
+isolated function handleConditionalHeader(string conditionalUrl, string resourcePath, string authHeader = "",
+        ConditionalSearchContext? searchContext = ()) returns r4:FHIRError? {
+    string query = getConditionalQuery(conditionalUrl);
+    string searchParams = query == "" ? "" : "?" + query;
 
     do {
         r4:Bundle bundle;
 
-        // Obtain client reference inside lock (isolated module-level var requires lock access)
-        http:Client? clientRef;
-        lock {
-            clientRef = conditionalInvokationClient;
-        }
+        r4:Bundle|r4:FHIRError? inProcessResult = searchContext is () ? () : searchInProcess(resourcePath, searchContext);
+        if inProcessResult is r4:FHIRError {
+            fail inProcessResult;
+        } else if inProcessResult is r4:Bundle {
+            bundle = inProcessResult;
+        } else {
+            // Obtain client reference inside lock (isolated module-level var requires lock access)
+            http:Client? clientRef;
+            lock {
+                clientRef = conditionalInvokationClient;
+            }
 
-        if clientRef is () {
-            return r4:createInternalFHIRError(
-                "Conditional invocation client is not initialized",
-                r4:ERROR, r4:PROCESSING
-            );
-        }
+            if clientRef is () {
+                return r4:createInternalFHIRError(
+                    "Conditional invocation client is not initialized",
+                    r4:ERROR, r4:PROCESSING
+                );
+            }
 
-        // Build headers and make HTTP call outside lock (mutable map not allowed inside lock)
-        map<string|string[]> reqHeaders = {};
-        if authHeader != "" {
-            reqHeaders["Authorization"] = authHeader;
-        }
-        http:Response response = check clientRef->get(resourcePath + searchParams, reqHeaders);
+            // Build headers and make HTTP call outside lock (mutable map not allowed inside lock)
+            map<string|string[]> reqHeaders = {};
+            if authHeader != "" {
+                reqHeaders["Authorization"] = authHeader;
+            }
+            http:Response response = check clientRef->get(resourcePath + searchParams, reqHeaders);
 
-        if response.statusCode == http:STATUS_NOT_FOUND {
-            return r4:createFHIRError(
-                "Search endpoint returned 404 Not Found during conditional operation; verify the resource server endpoint is configured correctly",
-                r4:ERROR, r4:PROCESSING,
-                httpStatusCode = http:STATUS_INTERNAL_SERVER_ERROR
-            );
-        }
+            if response.statusCode == http:STATUS_NOT_FOUND {
+                return r4:createFHIRError(
+                    "Search endpoint returned 404 Not Found during conditional operation; verify the resource server endpoint is configured correctly",
+                    r4:ERROR, r4:PROCESSING,
+                    httpStatusCode = http:STATUS_INTERNAL_SERVER_ERROR
+                );
+            }
 
-        // Extract the entity and decode to r4:Bundle
-        bundle = check parser:parse(check response.getJsonPayload()).ensureType();
+            // Only the entries are counted, so the resources of the Bundle are not parsed
+            json payload = check response.getJsonPayload();
+            bundle = check payload.cloneWithType();
+        }
 
         r4:BundleEntry[]? entries = bundle.entry;
-        if entries is r4:BundleEntry[] {
+        int? matchCount = bundle.total ?: (entries is r4:BundleEntry[] ? entries.length() : ());
+        if matchCount is int {
             // check the bundle entry count
-            if entries.length() == 0 {
+            if matchCount == 0 {
                 // allow to create a new resource if no entries are found
                 log:printDebug("No existing resource found for the given search criteria, allowing creation of a new resource");
                 return;
-            } else if entries.length() == 1 {
+            } else if matchCount == 1 {
                 // exising resource found, return 200
                 log:printDebug("Existing resource found for the given search criteria, returning 200 OK");
                 return r4:createFHIRError(
@@ -179,9 +254,18 @@ isolated function handleConditionalHeader(string conditionalUrl, string resource
 # + resourcePath - The resource path (e.g., "/Patient")
 # + searchParams - The search query string (e.g., "?identifier=12345")
 # + authHeader - The authorization header for authentication (optional, defaults to empty string)
+# + searchContext - The search request for the in-process search (optional). When given and the FHIR service of the
+# resource type is attached to a listener of this module, the search is dispatched in-process instead of over HTTP
 # + return - A Bundle with search results or FHIRError on failure
-isolated function HandleSearchForConditionalInteractions(string resourcePath, string searchParams, string authHeader = "")
-        returns r4:Bundle|r4:FHIRError {
+isolated function HandleSearchForConditionalInteractions(string resourcePath, string searchParams, string authHeader = "",
+        ConditionalSearchContext? searchContext = ()) returns r4:Bundle|r4:FHIRError {
+
+    if searchContext is ConditionalSearchContext {
+        r4:Bundle|r4:FHIRError? inProcessResult = searchInProcess(resourcePath, searchContext);
+        if inProcessResult !is () {
+            return inProcessResult;
+        }
+    }
 
     log:printDebug(string `Executing conditional search: ${resourcePath}${searchParams}`);
 
@@ -726,6 +810,13 @@ isolated function getFileNameBasedOnConfiguration() returns string {
     }
 }
 
+# Get the full path of the analytics log file based on the configuration
+#
+# + return - The full path of the analytics log file
+isolated function getAnalyticsLogFilePath() returns string {
+    return string `${getFilePathBasedOnConfiguration()}${file:pathSeparator}${getFileNameBasedOnConfiguration()}${LOG_FILE_EXTENSION}`;
+}
+
 # Check whether the configured path directory and file exists and if not handle and create them gracefully.
 # 
 # + return - An error if the directory or file creation fails, otherwise returns nothing
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4;
+
+import io.ballerina.runtime.api.concurrent.StrandMetadata;
+import io.ballerina.runtime.api.types.ServiceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per request work done by the {@code executeWith*} and {@code startWith*} adaptor functions before the
+ * resource method is called. {@code perRequestMetadata} is the strand metadata construction the adaptor functions did
+ * before {@link ResourceInvocation} cached it, and is kept as a reference. The call into the Ballerina scheduler
+ * itself needs a running runtime and is not covered here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocationBenchmark {
+
+    private ResourceRoute route;
+
+    @Setup
+    public void setup() {
+        ServiceFixtures.initModule();
+        ServiceType serviceType = ServiceFixtures.usCoreService();
+        route = ResourceRouteIndex.build(serviceType).lookup(new String[0],
+                new String[]{"fhir", "r4", "Patient", "123"}, "GET");
+    }
+
+    @Benchmark
+    public Map<String, Object> getProperties() {
+        return ModuleUtils.getProperties("executeWithID");
+    }
+
+    @Benchmark
+    public StrandMetadata perRequestMetadata() {
+        return new StrandMetadata(route.isIsolated(), ModuleUtils.getProperties("executeWithID"));
+    }
+
+    @Benchmark
+    public StrandMetadata executeWithIDMetadata() {
+        return route.getInvocation().getStrandMetadata(ResourceInvocation.EXECUTE_WITH_ID);
+    }
+
+    @Benchmark
+    public StrandMetadata startWithIDMetadata() {
+        return route.getInvocation().getStrandMetadata(ResourceInvocation.START_WITH_ID);
+    }
+}
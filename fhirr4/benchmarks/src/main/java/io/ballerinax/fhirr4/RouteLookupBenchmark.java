@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4;
+
+import io.ballerina.runtime.api.types.ResourceMethodType;
+import io.ballerina.runtime.api.types.ServiceType;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BObject;
+import io.ballerina.runtime.api.values.BString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks resolving the resource method of a request against a US Core sized FHIR service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteLookupBenchmark {
+
+    private static final String[] SERVICE_PATH = {};
+
+    @Param({"read", "vread", "search", "history-instance", "operation-type", "operation-instance", "not-found"})
+    public String request;
+
+    private ResourceMethodType[] resourceMethods;
+    private ResourceRouteIndex routeIndex;
+    private BObject service;
+    private BObject holder;
+    private String[] path;
+    private String accessor;
+    private BArray servicePathValue;
+    private BArray pathValue;
+    private BString accessorValue;
+
+    @Setup
+    public void setup() {
+        ServiceFixtures.initModule();
+        ServiceType serviceType = ServiceFixtures.usCoreService();
+        resourceMethods = serviceType.getResourceMethods();
+        routeIndex = ResourceRouteIndex.build(serviceType);
+        service = ServiceFixtures.serviceObject(serviceType);
+        holder = ServiceFixtures.holder(service);
+
+        accessor = "GET";
+        // Observation requests cover both the plain interactions and the operations of the service.
+        String resourceType = "Observation";
+        path = switch (request) {
+            case "read" -> new String[]{"fhir", "r4", resourceType, "123"};
+            case "vread" -> new String[]{"fhir", "r4", resourceType, "123", "_history", "2"};
+            case "search" -> new String[]{"fhir", "r4", resourceType};
+            case "history-instance" -> new String[]{"fhir", "r4", resourceType, "123", "_history"};
+            case "operation-type" -> new String[]{"fhir", "r4", resourceType, "$lastn"};
+            case "operation-instance" -> new String[]{"fhir", "r4", resourceType, "123", "$meta"};
+            case "not-found" -> new String[]{"fhir", "r4", "Unknown", "123", "_history", "2", "x"};
+            default -> throw new IllegalArgumentException("Unknown request: " + request);
+        };
+        servicePathValue = ServiceFixtures.stringArray(SERVICE_PATH);
+        pathValue = ServiceFixtures.stringArray(path);
+        accessorValue = StringUtils.fromString(accessor);
+    }
+
+    /**
+     * Linear scan over the resource methods, matching each one with {@link Utils#isPathsMatching}.
+     */
+    @Benchmark
+    public ResourceMethodType isPathsMatchingScan() {
+        for (ResourceMethodType resourceMethod : resourceMethods) {
+            if (accessor.equalsIgnoreCase(resourceMethod.getAccessor())
+                    && Utils.isPathsMatching(resourceMethod.getResourcePath(), SERVICE_PATH, path)) {
+                return resourceMethod;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public ResourceRoute routeIndexLookup() {
+        return routeIndex.lookup(SERVICE_PATH, path, accessor);
+    }
+
+    @Benchmark
+    public Object getResourceMethodFromHolder() {
+        return HTTPToFHIRAdaptor.getResourceMethodFromHolder(holder, servicePathValue, pathValue, accessorValue);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4;
+
+import io.ballerina.runtime.api.Module;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.ResourceMethodType;
+import io.ballerina.runtime.api.types.ServiceType;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BObject;
+import io.ballerina.runtime.api.values.BString;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Synthetic Ballerina service fixtures shaped like the FHIR services generated for implementation guides.
+ * <p>
+ * Runtime types are created as dynamic proxies, so that only the members used by the FHIR dispatch layer need to be
+ * implemented.
+ */
+final class ServiceFixtures {
+
+    static final String[] RESOURCE_TYPES = {"Patient", "Observation", "Encounter", "Condition", "Practitioner",
+            "Organization", "Location", "AllergyIntolerance", "MedicationRequest", "Procedure"};
+
+    private ServiceFixtures() {}
+
+    /**
+     * Creates the resource methods of a FHIR service for the given resource type, with the interactions of a
+     * typical IG service: read, vread, search, history, create, update, patch, delete and operations.
+     */
+    static List<ResourceMethodType> resourceMethods(String resourceType) {
+        List<ResourceMethodType> methods = new ArrayList<>();
+        methods.add(resourceMethod("get", "fhir", "r4", resourceType, "^"));
+        methods.add(resourceMethod("get", "fhir", "r4", resourceType, "^", "_history", "^"));
+        methods.add(resourceMethod("get", "fhir", "r4", resourceType, "^", "_history"));
+        methods.add(resourceMethod("get", "fhir", "r4", resourceType, "_history"));
+        methods.add(resourceMethod("get", "fhir", "r4", resourceType));
+        methods.add(resourceMethod("post", "fhir", "r4", resourceType, "_search"));
+        methods.add(resourceMethod("post", "fhir", "r4", resourceType));
+        methods.add(resourceMethod("put", "fhir", "r4", resourceType, "^"));
+        methods.add(resourceMethod("patch", "fhir", "r4", resourceType, "^"));
+        methods.add(resourceMethod("delete", "fhir", "r4", resourceType, "^"));
+        if ("Patient".equals(resourceType)) {
+            methods.add(resourceMethod("get", "fhir", "r4", resourceType, "^", "\\$everything"));
+            methods.add(resourceMethod("post", "fhir", "r4", resourceType, "\\$match"));
+        } else if ("Observation".equals(resourceType)) {
+            methods.add(resourceMethod("get", "fhir", "r4", resourceType, "\\$lastn"));
+            methods.add(resourceMethod("get", "fhir", "r4", resourceType, "\\$stats"));
+            methods.add(resourceMethod("get", "fhir", "r4", resourceType, "^", "\\$meta"));
+        }
+        return methods;
+    }
+
+    /**
+     * Creates a service type exposing the resource methods of all {@link #RESOURCE_TYPES}, similar in size to a
+     * US Core gateway service.
+     */
+    static ServiceType usCoreService() {
+        List<ResourceMethodType> methods = new ArrayList<>();
+        for (String resourceType : RESOURCE_TYPES) {
+            methods.addAll(resourceMethods(resourceType));
+        }
+        methods.add(resourceMethod("get", "fhir", "r4", "metadata"));
+        return serviceType(methods.toArray(new ResourceMethodType[0]));
+    }
+
+    static ResourceMethodType resourceMethod(String accessor, String... path) {
+        String name = "$" + accessor + "$" + String.join("$", path);
+        return proxy(ResourceMethodType.class, (method, args) -> switch (method) {
+            case "getName" -> name;
+            case "getAccessor" -> accessor;
+            case "getResourcePath" -> path;
+            default -> null;
+        });
+    }
+
+    static ServiceType serviceType(ResourceMethodType[] resourceMethods) {
+        return proxy(ServiceType.class, (method, args) -> switch (method) {
+            case "getName" -> "FHIRService";
+            case "getResourceMethods" -> resourceMethods;
+            case "isIsolated" -> true;
+            default -> null;
+        });
+    }
+
+    static BObject serviceObject(ServiceType serviceType) {
+        return proxy(BObject.class, (method, args) -> "getType".equals(method) ? serviceType : null);
+    }
+
+    static BObject holder(BObject service) {
+        Map<String, Object> nativeData = new ConcurrentHashMap<>();
+        BObject holder = proxy(BObject.class, (method, args) -> switch (method) {
+            case "addNativeData" -> nativeData.put((String) args[0], args[1]);
+            case "getNativeData" -> nativeData.get((String) args[0]);
+            default -> null;
+        });
+        HTTPToFHIRAdaptor.addFhirServiceToHolder(holder, service);
+        return holder;
+    }
+
+    static BArray stringArray(String... values) {
+        BString[] bValues = new BString[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bValues[i] = StringUtils.fromString(values[i]);
+        }
+        return ValueCreator.createArrayValue(bValues);
+    }
+
+    /**
+     * Sets the module of the FHIR service package, which is done by the module init function at runtime.
+     */
+    static void initModule() {
+        try {
+            Field module = ModuleUtils.class.getDeclaredField("module");
+            module.setAccessible(true);
+            module.set(null, new Module("ballerinax", "health.fhirr4", "3"));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to initialize the FHIR service module", e);
+        }
+    }
+
+    private interface ProxyHandler {
+        Object handle(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, ProxyHandler handler) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                };
+            }
+            Object result = handler.handle(method.getName(), args);
+            if (result == null && method.getReturnType().isPrimitive()) {
+                return defaultValue(method.getReturnType());
+            }
+            return result;
+        });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0d;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == void.class) {
+            return null;
+        }
+        return 0;
+    }
+}
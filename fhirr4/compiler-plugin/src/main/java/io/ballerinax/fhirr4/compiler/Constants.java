@@ -24,7 +24,7 @@ package io.ballerinax.fhirr4.compiler;
 public class Constants {
 
     public static final String REMOTE_KEYWORD = "remote";
-    public static final String ALLOWED_RETURN_UNION = "anydata|http:Response|http:StatusCodeResponse|error";
+    public static final String ALLOWED_RETURN_UNION = "anydata|http:Response|r4:BundleStream|http:StatusCodeResponse|error";
     public static final String SERVICE = "Service";
     public static final String FHIR_CONTEXT = "FHIRContext";
     public static final String HEALTHCARE_PKG = "health.fhir.r4";
@@ -32,4 +32,12 @@ public class Constants {
     public static final String BALLERINAX = "ballerinax";
     public static final String HTTP_RESPONSE = "Response";
     public static final String HTTP_MODULE = "http";
+    public static final String BUNDLE_STREAM = "BundleStream";
+
+    // Resource routing table generated for FHIR services
+    public static final String RESOURCE_ROUTES_ANNOTATION = "__ResourceRoutes";
+    public static final String FHIR_R4_DEFAULT_PREFIX = "fhirr4";
+    public static final String PATH_PARAM_IDENTIFIER = "^";
+    public static final String REST_PARAM_IDENTIFIER = "^^";
+    public static final String ESCAPE_CHAR = "\\";
 }
@@ -29,5 +29,6 @@ public class FHIRCompilerPlugin extends CompilerPlugin {
     @Override
     public void init(CompilerPluginContext context) {
         context.addCodeAnalyzer(new FHIRServiceAnalyzer());
+        context.addCodeModifier(new FHIRServiceModifier());
     }
 }
@@ -111,9 +111,9 @@ public class FHIRCompilerPluginUtil {
             TypeSymbol typeDescriptor = ((TypeReferenceTypeSymbol) returnTypeSymbol).typeDescriptor();
             TypeDescKind typeDescKind = retrieveEffectiveTypeDesc(typeDescriptor);
             if (typeDescKind == TypeDescKind.OBJECT) {
-                // only an object of type http:Response is allowed as a return
+                // only an object of type http:Response or r4:BundleStream is allowed as a return
                 // no other object types can be parsed to an http response
-                if (!isHttpResponse(typeDescriptor)) {
+                if (!isHttpResponse(typeDescriptor) && !isBundleStream(typeDescriptor)) {
                     reportInvalidReturnType(ctx, node, returnTypeStringValue, diagnosticCode);
                 }
             } else {
@@ -182,6 +182,24 @@ public class FHIRCompilerPluginUtil {
         FHIRCompilerPluginUtil.updateDiagnostic(ctx, node.location(), diagnosticCode, returnType);
     }
 
+    public static boolean isListenerBelongsToFHIRModule(TypeSymbol listenerType) {
+        if (listenerType.typeKind() == TypeDescKind.UNION) {
+            return ((UnionTypeSymbol) listenerType).memberTypeDescriptors().stream()
+                    .filter(typeDescriptor -> typeDescriptor instanceof TypeReferenceTypeSymbol)
+                    .map(typeReferenceTypeSymbol -> (TypeReferenceTypeSymbol) typeReferenceTypeSymbol)
+                    .anyMatch(typeReferenceTypeSymbol -> isFHIRModule(typeReferenceTypeSymbol.getModule().get()));
+        }
+
+        if (listenerType.typeKind() == TypeDescKind.TYPE_REFERENCE) {
+            return isFHIRModule(((TypeReferenceTypeSymbol) listenerType).typeDescriptor().getModule().get());
+        }
+        return false;
+    }
+
+    public static boolean isFHIRModule(ModuleSymbol moduleSymbol) {
+        return Constants.FHIR_R4.equals(moduleSymbol.getName().get()) && Constants.BALLERINAX.equals(moduleSymbol.id().orgName());
+    }
+
     private static boolean isHttpResponse(TypeSymbol typeDescriptor) {
         Optional<ModuleSymbol> module = typeDescriptor.getModule();
         if (module.isEmpty()) {
@@ -196,4 +214,13 @@ public class FHIRCompilerPluginUtil {
         }
         return Constants.HTTP_RESPONSE.equals(typeName.get());
     }
+
+    private static boolean isBundleStream(TypeSymbol typeDescriptor) {
+        Optional<ModuleSymbol> module = typeDescriptor.getModule();
+        if (module.isEmpty() || !Constants.BALLERINAX.equals(module.get().id().orgName())
+                || !Constants.HEALTHCARE_PKG.equals(module.get().getName().orElse(""))) {
+            return false;
+        }
+        return typeDescriptor.getName().filter(Constants.BUNDLE_STREAM::equals).isPresent();
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4.compiler;
+
+import io.ballerina.compiler.api.symbols.ServiceDeclarationSymbol;
+import io.ballerina.compiler.api.symbols.Symbol;
+import io.ballerina.compiler.api.symbols.TypeSymbol;
+import io.ballerina.compiler.syntax.tree.FunctionDefinitionNode;
+import io.ballerina.compiler.syntax.tree.Node;
+import io.ballerina.compiler.syntax.tree.ServiceDeclarationNode;
+import io.ballerina.compiler.syntax.tree.SyntaxKind;
+import io.ballerina.projects.DocumentId;
+import io.ballerina.projects.plugins.AnalysisTask;
+import io.ballerina.projects.plugins.SyntaxNodeAnalysisContext;
+import io.ballerina.tools.diagnostics.DiagnosticSeverity;
+import io.ballerinax.fhirr4.FHIRInteractionClassifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the resource routes of Ballerina FHIR services, so that a routing table can be generated for them.
+ */
+public class FHIRRouteCollector implements AnalysisTask<SyntaxNodeAnalysisContext> {
+
+    private final Map<DocumentId, Map<Integer, String>> routeTables;
+
+    public FHIRRouteCollector(Map<DocumentId, Map<Integer, String>> routeTables) {
+        this.routeTables = routeTables;
+    }
+
+    @Override
+    public void perform(SyntaxNodeAnalysisContext syntaxNodeAnalysisContext) {
+        boolean erroneousCompilation = syntaxNodeAnalysisContext.semanticModel().diagnostics().stream()
+                .anyMatch(d -> DiagnosticSeverity.ERROR.equals(d.diagnosticInfo().severity()));
+        if (erroneousCompilation) {
+            return;
+        }
+
+        ServiceDeclarationNode serviceDeclarationNode = (ServiceDeclarationNode) syntaxNodeAnalysisContext.node();
+        Optional<Symbol> serviceSymOptional = syntaxNodeAnalysisContext.semanticModel().symbol(serviceDeclarationNode);
+        if (serviceSymOptional.isEmpty()) {
+            return;
+        }
+        List<TypeSymbol> listenerTypes = ((ServiceDeclarationSymbol) serviceSymOptional.get()).listenerTypes();
+        if (listenerTypes.stream().noneMatch(FHIRCompilerPluginUtil::isListenerBelongsToFHIRModule)) {
+            return;
+        }
+
+        routeTables.computeIfAbsent(syntaxNodeAnalysisContext.documentId(), id -> new ConcurrentHashMap<>())
+                .put(serviceDeclarationNode.textRange().startOffset(), createRouteTable(serviceDeclarationNode));
+    }
+
+    /**
+     * Creates the routing table of a FHIR service, as the source of a {@code ResourceRouteTable} value.
+     *
+     * @param serviceDeclarationNode declaration of the FHIR service
+     * @return routing table of the service
+     */
+    static String createRouteTable(ServiceDeclarationNode serviceDeclarationNode) {
+        List<String> routes = new ArrayList<>();
+        for (Node member : serviceDeclarationNode.members()) {
+            if (member.kind() == SyntaxKind.RESOURCE_ACCESSOR_DEFINITION) {
+                routes.add(getRoute((FunctionDefinitionNode) member));
+            }
+        }
+        return "{routes: [" + String.join(", ", routes) + "]}";
+    }
+
+    private static String getRoute(FunctionDefinitionNode resourceNode) {
+        String accessor = resourceNode.functionName().text();
+        List<String> path = new ArrayList<>();
+        for (Node pathNode : resourceNode.relativeResourcePath()) {
+            switch (pathNode.kind()) {
+                case SLASH_TOKEN:
+                    break;
+                case RESOURCE_PATH_SEGMENT_PARAM:
+                    path.add(Constants.PATH_PARAM_IDENTIFIER);
+                    break;
+                case RESOURCE_PATH_REST_PARAM:
+                    path.add(Constants.REST_PARAM_IDENTIFIER);
+                    break;
+                default:
+                    path.add(getPathSegment(pathNode.toSourceCode().trim()));
+            }
+        }
+        boolean hasPathParam = path.contains(Constants.PATH_PARAM_IDENTIFIER);
+        boolean isIsolated = resourceNode.qualifierList().stream()
+                .anyMatch(token -> token.kind() == SyntaxKind.ISOLATED_KEYWORD);
+
+        StringBuilder pathValue = new StringBuilder();
+        for (String segment : path) {
+            if (!pathValue.isEmpty()) {
+                pathValue.append(", ");
+            }
+            pathValue.append(toStringLiteral(segment));
+        }
+        String interaction = FHIRInteractionClassifier.classify(accessor, path.toArray(new String[0]));
+        return "{accessor: " + toStringLiteral(accessor) + ", path: [" + pathValue + "], interaction: "
+                + toStringLiteral(interaction) + ", hasPathParam: " + hasPathParam
+                + ", isIsolated: " + isIsolated + "}";
+    }
+
+    private static String getPathSegment(String segment) {
+        if (segment.startsWith("'")) {
+            segment = segment.substring(1);
+        }
+        return segment.replace(Constants.ESCAPE_CHAR, "");
+    }
+
+    private static String toStringLiteral(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
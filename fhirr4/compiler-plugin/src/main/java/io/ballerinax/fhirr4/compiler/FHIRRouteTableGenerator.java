@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4.compiler;
+
+import io.ballerina.compiler.syntax.tree.AnnotationNode;
+import io.ballerina.compiler.syntax.tree.ImportDeclarationNode;
+import io.ballerina.compiler.syntax.tree.IdentifierToken;
+import io.ballerina.compiler.syntax.tree.MappingConstructorExpressionNode;
+import io.ballerina.compiler.syntax.tree.MetadataNode;
+import io.ballerina.compiler.syntax.tree.ModuleMemberDeclarationNode;
+import io.ballerina.compiler.syntax.tree.ModulePartNode;
+import io.ballerina.compiler.syntax.tree.Node;
+import io.ballerina.compiler.syntax.tree.NodeFactory;
+import io.ballerina.compiler.syntax.tree.NodeList;
+import io.ballerina.compiler.syntax.tree.NodeParser;
+import io.ballerina.compiler.syntax.tree.QualifiedNameReferenceNode;
+import io.ballerina.compiler.syntax.tree.ServiceDeclarationNode;
+import io.ballerina.compiler.syntax.tree.SyntaxKind;
+import io.ballerina.compiler.syntax.tree.SyntaxTree;
+import io.ballerina.projects.Document;
+import io.ballerina.projects.DocumentId;
+import io.ballerina.projects.Module;
+import io.ballerina.projects.ModuleId;
+import io.ballerina.projects.plugins.ModifierTask;
+import io.ballerina.projects.plugins.SourceModifierContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Attaches the routing table collected by {@link FHIRRouteCollector} to each FHIR service declaration as a
+ * {@code __ResourceRoutes} annotation, which the FHIR listener loads when the service is attached.
+ */
+public class FHIRRouteTableGenerator implements ModifierTask<SourceModifierContext> {
+
+    private final Map<DocumentId, Map<Integer, String>> routeTables;
+
+    public FHIRRouteTableGenerator(Map<DocumentId, Map<Integer, String>> routeTables) {
+        this.routeTables = routeTables;
+    }
+
+    @Override
+    public void modify(SourceModifierContext modifierContext) {
+        for (ModuleId moduleId : modifierContext.currentPackage().moduleIds()) {
+            Module module = modifierContext.currentPackage().module(moduleId);
+            for (DocumentId documentId : module.documentIds()) {
+                Optional<SyntaxTree> modifiedTree = addRouteTables(module.document(documentId), documentId);
+                modifiedTree.ifPresent(tree -> modifierContext.modifySourceFile(tree.textDocument(), documentId));
+            }
+            for (DocumentId documentId : module.testDocumentIds()) {
+                Optional<SyntaxTree> modifiedTree = addRouteTables(module.document(documentId), documentId);
+                modifiedTree.ifPresent(tree -> modifierContext.modifyTestSourceFile(tree.textDocument(), documentId));
+            }
+        }
+    }
+
+    private Optional<SyntaxTree> addRouteTables(Document document, DocumentId documentId) {
+        Map<Integer, String> documentRouteTables = routeTables.get(documentId);
+        if (documentRouteTables == null || documentRouteTables.isEmpty()) {
+            return Optional.empty();
+        }
+        return addRouteTables(document.syntaxTree(), documentRouteTables);
+    }
+
+    /**
+     * Attaches the routing tables of the FHIR services declared in a source file.
+     *
+     * @param syntaxTree          syntax tree of the source file
+     * @param documentRouteTables routing tables of the FHIR services, keyed by the start offset of their declaration
+     * @return the modified syntax tree, or empty if no routing table was attached
+     */
+    static Optional<SyntaxTree> addRouteTables(SyntaxTree syntaxTree, Map<Integer, String> documentRouteTables) {
+        ModulePartNode modulePartNode = syntaxTree.rootNode();
+        Optional<String> modulePrefix = getFHIRModulePrefix(modulePartNode);
+        if (modulePrefix.isEmpty()) {
+            // The FHIR module is not imported with a usable prefix in this file, either because the FHIR listener is
+            // declared in another file or because the module is imported as `_`. The annotation cannot be referenced,
+            // so the routes of the services in this file are classified at runtime.
+            return Optional.empty();
+        }
+
+        boolean modified = false;
+        List<ModuleMemberDeclarationNode> members = new ArrayList<>();
+        for (ModuleMemberDeclarationNode member : modulePartNode.members()) {
+            if (member.kind() == SyntaxKind.SERVICE_DECLARATION) {
+                ServiceDeclarationNode serviceNode = (ServiceDeclarationNode) member;
+                String routeTable = documentRouteTables.get(serviceNode.textRange().startOffset());
+                if (routeTable != null && !hasRouteTable(serviceNode)) {
+                    members.add(addRouteTable(serviceNode, modulePrefix.get(), routeTable));
+                    modified = true;
+                    continue;
+                }
+            }
+            members.add(member);
+        }
+        if (!modified) {
+            return Optional.empty();
+        }
+        ModulePartNode newModulePart = modulePartNode.modify().withMembers(NodeFactory.createNodeList(members))
+                .apply();
+        return Optional.of(syntaxTree.modifyWith(newModulePart));
+    }
+
+    private static ServiceDeclarationNode addRouteTable(ServiceDeclarationNode serviceNode, String modulePrefix,
+                                                        String routeTable) {
+        QualifiedNameReferenceNode annotationReference = NodeFactory.createQualifiedNameReferenceNode(
+                NodeFactory.createIdentifierToken(modulePrefix), NodeFactory.createToken(SyntaxKind.COLON_TOKEN),
+                NodeFactory.createIdentifierToken(Constants.RESOURCE_ROUTES_ANNOTATION));
+        MappingConstructorExpressionNode annotationValue =
+                (MappingConstructorExpressionNode) NodeParser.parseExpression(routeTable);
+        AnnotationNode annotation = NodeFactory.createAnnotationNode(NodeFactory.createToken(SyntaxKind.AT_TOKEN),
+                annotationReference, annotationValue);
+
+        MetadataNode metadata;
+        Optional<MetadataNode> existingMetadata = serviceNode.metadata();
+        if (existingMetadata.isPresent()) {
+            List<AnnotationNode> annotations = existingMetadata.get().annotations().stream()
+                    .collect(Collectors.toList());
+            annotations.add(annotation);
+            metadata = existingMetadata.get().modify().withAnnotations(NodeFactory.createNodeList(annotations))
+                    .apply();
+        } else {
+            metadata = NodeFactory.createMetadataNode(null, NodeFactory.createNodeList(annotation));
+        }
+        return serviceNode.modify().withMetadata(metadata).apply();
+    }
+
+    private static boolean hasRouteTable(ServiceDeclarationNode serviceNode) {
+        if (serviceNode.metadata().isEmpty()) {
+            return false;
+        }
+        NodeList<AnnotationNode> annotations = serviceNode.metadata().get().annotations();
+        for (AnnotationNode annotation : annotations) {
+            Node reference = annotation.annotReference();
+            if (reference.kind() == SyntaxKind.QUALIFIED_NAME_REFERENCE && Constants.RESOURCE_ROUTES_ANNOTATION
+                    .equals(((QualifiedNameReferenceNode) reference).identifier().text())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Optional<String> getFHIRModulePrefix(ModulePartNode modulePartNode) {
+        for (ImportDeclarationNode importNode : modulePartNode.imports()) {
+            if (importNode.orgName().isEmpty()
+                    || !Constants.BALLERINAX.equals(importNode.orgName().get().orgName().text())) {
+                continue;
+            }
+            String moduleName = importNode.moduleName().stream().map(IdentifierToken::text)
+                    .collect(Collectors.joining("."));
+            if (!Constants.FHIR_R4.equals(moduleName)) {
+                continue;
+            }
+            if (importNode.prefix().isEmpty()) {
+                return Optional.of(Constants.FHIR_R4_DEFAULT_PREFIX);
+            }
+            String prefix = importNode.prefix().get().prefix().text();
+            return "_".equals(prefix) ? Optional.empty() : Optional.of(prefix);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4.compiler;
+
+import io.ballerina.compiler.syntax.tree.SyntaxKind;
+import io.ballerina.projects.DocumentId;
+import io.ballerina.projects.plugins.CodeModifier;
+import io.ballerina.projects.plugins.CodeModifierContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code CodeModifier} that generates the resource routing table of Ballerina FHIR services.
+ */
+public class FHIRServiceModifier extends CodeModifier {
+    @Override
+    public void init(CodeModifierContext codeModifierContext) {
+        Map<DocumentId, Map<Integer, String>> routeTables = new ConcurrentHashMap<>();
+        codeModifierContext.addSyntaxNodeAnalysisTask(new FHIRRouteCollector(routeTables),
+                SyntaxKind.SERVICE_DECLARATION);
+        codeModifierContext.addSourceModifierTask(new FHIRRouteTableGenerator(routeTables));
+    }
+}
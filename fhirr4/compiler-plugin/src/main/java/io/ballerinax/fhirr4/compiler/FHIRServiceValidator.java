@@ -18,13 +18,9 @@
 
 package io.ballerinax.fhirr4.compiler;
 
-import io.ballerina.compiler.api.symbols.ModuleSymbol;
 import io.ballerina.compiler.api.symbols.ServiceDeclarationSymbol;
 import io.ballerina.compiler.api.symbols.Symbol;
-import io.ballerina.compiler.api.symbols.TypeDescKind;
-import io.ballerina.compiler.api.symbols.TypeReferenceTypeSymbol;
 import io.ballerina.compiler.api.symbols.TypeSymbol;
-import io.ballerina.compiler.api.symbols.UnionTypeSymbol;
 import io.ballerina.compiler.syntax.tree.FunctionDefinitionNode;
 import io.ballerina.compiler.syntax.tree.Node;
 import io.ballerina.compiler.syntax.tree.NodeList;
@@ -59,7 +55,7 @@ public class FHIRServiceValidator implements AnalysisTask<SyntaxNodeAnalysisCont
         Optional<Symbol> serviceSymOptional = syntaxNodeAnalysisContext.semanticModel().symbol(serviceDeclarationNode);
         if (serviceSymOptional.isPresent()) {
             List<TypeSymbol> listenerTypes = ((ServiceDeclarationSymbol) serviceSymOptional.get()).listenerTypes();
-            if (listenerTypes.stream().noneMatch(this::isListenerBelongsToFHIRModule)) {
+            if (listenerTypes.stream().noneMatch(FHIRCompilerPluginUtil::isListenerBelongsToFHIRModule)) {
                 return;
             }
         }
@@ -82,24 +78,6 @@ public class FHIRServiceValidator implements AnalysisTask<SyntaxNodeAnalysisCont
         }
     }
 
-    private boolean isListenerBelongsToFHIRModule(TypeSymbol listenerType) {
-        if (listenerType.typeKind() == TypeDescKind.UNION) {
-            return ((UnionTypeSymbol) listenerType).memberTypeDescriptors().stream()
-                    .filter(typeDescriptor -> typeDescriptor instanceof TypeReferenceTypeSymbol)
-                    .map(typeReferenceTypeSymbol -> (TypeReferenceTypeSymbol) typeReferenceTypeSymbol)
-                    .anyMatch(typeReferenceTypeSymbol -> isFHIRModule(typeReferenceTypeSymbol.getModule().get()));
-        }
-
-        if (listenerType.typeKind() == TypeDescKind.TYPE_REFERENCE) {
-            return isFHIRModule(((TypeReferenceTypeSymbol) listenerType).typeDescriptor().getModule().get());
-        }
-        return false;
-    }
-
-    private boolean isFHIRModule(ModuleSymbol moduleSymbol) {
-        return Constants.FHIR_R4.equals(moduleSymbol.getName().get()) && Constants.BALLERINAX.equals(moduleSymbol.id().orgName());
-    }
-
     private void reportInvalidFunctionType(SyntaxNodeAnalysisContext ctx, FunctionDefinitionNode node) {
         DiagnosticInfo diagnosticInfo = new DiagnosticInfo(FHIRDiagnosticCodes.FHIR_101.getCode(), FHIRDiagnosticCodes.FHIR_101.getMessage(),
                                                            FHIRDiagnosticCodes.FHIR_101.getSeverity());
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4.compiler;
+
+import io.ballerina.compiler.syntax.tree.AnnotationNode;
+import io.ballerina.compiler.syntax.tree.ModuleMemberDeclarationNode;
+import io.ballerina.compiler.syntax.tree.ModulePartNode;
+import io.ballerina.compiler.syntax.tree.ServiceDeclarationNode;
+import io.ballerina.compiler.syntax.tree.SyntaxKind;
+import io.ballerina.compiler.syntax.tree.SyntaxTree;
+import io.ballerina.tools.text.TextDocuments;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tests the routing tables that {@link FHIRRouteCollector} collects and {@link FHIRRouteTableGenerator} attaches to
+ * FHIR service declarations.
+ */
+public class FHIRRouteTableGeneratorTest {
+
+    private static final String MULTI_SERVICE_SOURCE = """
+            import ballerina/http;
+            import ballerinax/health.fhir.r4;
+            import ballerinax/health.fhirr4;
+
+            @http:ServiceConfig {}
+            service /fhir/r4 on new fhirr4:Listener(9090, patientApiConfig) {
+                isolated resource function get Patient/[string id](r4:FHIRContext fhirContext) returns json {
+                    return {};
+                }
+
+                resource function get Patient/\\$summary(r4:FHIRContext fhirContext) returns json {
+                    return {};
+                }
+            }
+
+            service /fhir/r4 on new fhirr4:Listener(9091, practitionerApiConfig) {
+                resource function get Practitioner(r4:FHIRContext fhirContext) returns json {
+                    return {};
+                }
+
+                resource function post Practitioner(r4:FHIRContext fhirContext, json payload) returns json {
+                    return {};
+                }
+            }
+            """;
+
+    private static final String LISTENER_IN_OTHER_FILE_SOURCE = """
+            import ballerinax/health.fhir.r4;
+
+            service /fhir/r4 on patientListener {
+                resource function get Patient/[string id](r4:FHIRContext fhirContext) returns json {
+                    return {};
+                }
+            }
+            """;
+
+    private static final String UNDERSCORE_PREFIX_SOURCE = """
+            import ballerinax/health.fhir.r4;
+            import ballerinax/health.fhirr4 as _;
+
+            service /fhir/r4 on patientListener {
+                resource function get Patient/[string id](r4:FHIRContext fhirContext) returns json {
+                    return {};
+                }
+            }
+            """;
+
+    private static final String CUSTOM_PREFIX_SOURCE = """
+            import ballerinax/health.fhir.r4;
+            import ballerinax/health.fhirr4 as fhir;
+
+            service /fhir/r4 on new fhir:Listener(9090, patientApiConfig) {
+                resource function get Patient/[string id](r4:FHIRContext fhirContext) returns json {
+                    return {};
+                }
+            }
+            """;
+
+    @Test
+    public void testMultipleServicesInFile() {
+        SyntaxTree syntaxTree = parse(MULTI_SERVICE_SOURCE);
+        Optional<SyntaxTree> modifiedTree = FHIRRouteTableGenerator.addRouteTables(syntaxTree,
+                collectRouteTables(syntaxTree));
+
+        Assert.assertTrue(modifiedTree.isPresent());
+        Assert.assertFalse(modifiedTree.get().hasDiagnostics(), "Generated source should be valid Ballerina");
+        List<ServiceDeclarationNode> services = getServices(modifiedTree.get());
+        Assert.assertEquals(services.size(), 2);
+
+        // Each service gets its own routing table, and keeps its existing annotations
+        List<String> patientAnnotations = getAnnotations(services.get(0));
+        Assert.assertEquals(patientAnnotations.size(), 2);
+        Assert.assertEquals(patientAnnotations.get(0), "@http:ServiceConfig{}");
+        String patientRoutes = patientAnnotations.get(1);
+        Assert.assertTrue(patientRoutes.startsWith("@fhirr4:__ResourceRoutes"));
+        Assert.assertTrue(patientRoutes.contains("{accessor:\"get\",path:[\"Patient\",\"^\"],interaction:\"read\","
+                + "hasPathParam:true,isIsolated:true}"));
+        Assert.assertTrue(patientRoutes.contains("path:[\"Patient\",\"$summary\"],interaction:\"operation\""));
+        Assert.assertFalse(patientRoutes.contains("Practitioner"));
+
+        List<String> practitionerAnnotations = getAnnotations(services.get(1));
+        Assert.assertEquals(practitionerAnnotations.size(), 1);
+        String practitionerRoutes = practitionerAnnotations.get(0);
+        Assert.assertTrue(practitionerRoutes.contains("{accessor:\"get\",path:[\"Practitioner\"],"
+                + "interaction:\"search\",hasPathParam:false,isIsolated:false}"));
+        Assert.assertTrue(practitionerRoutes.contains("{accessor:\"post\",path:[\"Practitioner\"],"
+                + "interaction:\"create\",hasPathParam:false,isIsolated:false}"));
+        Assert.assertFalse(practitionerRoutes.contains("Patient"));
+    }
+
+    @Test
+    public void testRouteTablesAreAddedOnce() {
+        SyntaxTree syntaxTree = parse(MULTI_SERVICE_SOURCE);
+        SyntaxTree modifiedTree = FHIRRouteTableGenerator.addRouteTables(syntaxTree,
+                collectRouteTables(syntaxTree)).orElseThrow();
+
+        Assert.assertTrue(FHIRRouteTableGenerator.addRouteTables(modifiedTree, collectRouteTables(modifiedTree))
+                .isEmpty(), "Services with a routing table should not be modified again");
+    }
+
+    @Test
+    public void testListenerImportedInAnotherFile() {
+        SyntaxTree syntaxTree = parse(LISTENER_IN_OTHER_FILE_SOURCE);
+
+        // The annotation cannot be referenced without the import, so the routes are classified at runtime
+        Assert.assertTrue(FHIRRouteTableGenerator.addRouteTables(syntaxTree, collectRouteTables(syntaxTree))
+                .isEmpty());
+    }
+
+    @Test
+    public void testUnderscoreImportPrefix() {
+        SyntaxTree syntaxTree = parse(UNDERSCORE_PREFIX_SOURCE);
+
+        Assert.assertTrue(FHIRRouteTableGenerator.addRouteTables(syntaxTree, collectRouteTables(syntaxTree))
+                .isEmpty());
+    }
+
+    @Test
+    public void testCustomImportPrefix() {
+        SyntaxTree syntaxTree = parse(CUSTOM_PREFIX_SOURCE);
+        SyntaxTree modifiedTree = FHIRRouteTableGenerator.addRouteTables(syntaxTree,
+                collectRouteTables(syntaxTree)).orElseThrow();
+
+        Assert.assertFalse(modifiedTree.hasDiagnostics());
+        List<String> annotations = getAnnotations(getServices(modifiedTree).get(0));
+        Assert.assertEquals(annotations.size(), 1);
+        Assert.assertTrue(annotations.get(0).startsWith("@fhir:__ResourceRoutes"));
+    }
+
+    private static SyntaxTree parse(String source) {
+        SyntaxTree syntaxTree = SyntaxTree.from(TextDocuments.from(source));
+        Assert.assertFalse(syntaxTree.hasDiagnostics(), "Test source should be valid Ballerina");
+        return syntaxTree;
+    }
+
+    private static Map<Integer, String> collectRouteTables(SyntaxTree syntaxTree) {
+        Map<Integer, String> routeTables = new HashMap<>();
+        for (ServiceDeclarationNode serviceNode : getServices(syntaxTree)) {
+            routeTables.put(serviceNode.textRange().startOffset(), FHIRRouteCollector.createRouteTable(serviceNode));
+        }
+        return routeTables;
+    }
+
+    private static List<ServiceDeclarationNode> getServices(SyntaxTree syntaxTree) {
+        List<ServiceDeclarationNode> services = new ArrayList<>();
+        ModulePartNode modulePartNode = syntaxTree.rootNode();
+        for (ModuleMemberDeclarationNode member : modulePartNode.members()) {
+            if (member.kind() == SyntaxKind.SERVICE_DECLARATION) {
+                services.add((ServiceDeclarationNode) member);
+            }
+        }
+        return services;
+    }
+
+    private static List<String> getAnnotations(ServiceDeclarationNode serviceNode) {
+        List<String> annotations = new ArrayList<>();
+        if (serviceNode.metadata().isPresent()) {
+            for (AnnotationNode annotation : serviceNode.metadata().get().annotations()) {
+                annotations.add(annotation.toSourceCode().replaceAll("\\s", ""));
+            }
+        }
+        return annotations;
+    }
+}
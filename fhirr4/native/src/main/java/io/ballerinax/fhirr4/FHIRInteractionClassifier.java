@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4;
+
+/**
+ * Classifies the FHIR interaction served by a resource method from its accessor and resource path.
+ * <p>
+ * Used both by the FHIR compiler plugin, to generate the routing table of service declarations, and at runtime, for
+ * services without a generated routing table. The class must not depend on the Ballerina runtime, since it is loaded
+ * by the compiler plugin.
+ */
+public final class FHIRInteractionClassifier {
+
+    public static final String READ = "read";
+    public static final String VREAD = "vread";
+    public static final String INSTANCE_HISTORY = "history-instance";
+    public static final String HISTORY = "history";
+    public static final String SEARCH = "search";
+    public static final String CAPABILITIES = "capabilities";
+    public static final String OPERATION = "operation";
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String PATCH = "patch";
+    public static final String DELETE = "delete";
+
+    private static final String PATH_PARAM_IDENTIFIER = "^";
+    private static final String ESCAPE_CHAR = "\\";
+    private static final String HISTORY_PATH = "_history";
+    private static final String SEARCH_PATH = "_search";
+    private static final String METADATA_PATH = "metadata";
+    private static final String OPERATION_PREFIX = "$";
+
+    private FHIRInteractionClassifier() {
+    }
+
+    /**
+     * Classifies the FHIR interaction served by a resource method.
+     *
+     * @param accessor     resource method accessor
+     * @param resourcePath resource method path, with path parameters as {@code ^}
+     * @return FHIR interaction kind
+     */
+    public static String classify(String accessor, String[] resourcePath) {
+        boolean hasPathParam = hasPathParam(resourcePath);
+        String last = resourcePath.length > 0 ? stripEscapeChars(resourcePath[resourcePath.length - 1]) : "";
+        if (last.startsWith(OPERATION_PREFIX)) {
+            return OPERATION;
+        }
+        switch (accessor.toLowerCase()) {
+            case "get":
+                if (HISTORY_PATH.equals(last)) {
+                    return hasPathParam ? INSTANCE_HISTORY : HISTORY;
+                }
+                if (hasPathParam) {
+                    return resourcePath.length >= 2 && HISTORY_PATH.equals(resourcePath[resourcePath.length - 2])
+                            ? VREAD : READ;
+                }
+                return METADATA_PATH.equals(last) ? CAPABILITIES : SEARCH;
+            case "post":
+                return SEARCH_PATH.equals(last) ? SEARCH : CREATE;
+            case "put":
+                return UPDATE;
+            case "patch":
+                return PATCH;
+            case "delete":
+                return DELETE;
+            default:
+                return accessor.toLowerCase();
+        }
+    }
+
+    /**
+     * Checks whether a resource path has a path parameter.
+     *
+     * @param resourcePath resource method path, with path parameters as {@code ^}
+     * @return {@code true} if the path has a path parameter
+     */
+    public static boolean hasPathParam(String[] resourcePath) {
+        for (String segment : resourcePath) {
+            if (PATH_PARAM_IDENTIFIER.equals(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String stripEscapeChars(String segment) {
+        return segment.contains(ESCAPE_CHAR) ? segment.replace(ESCAPE_CHAR, "") : segment;
+    }
+}
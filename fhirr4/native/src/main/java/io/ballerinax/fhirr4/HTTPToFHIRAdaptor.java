@@ -19,16 +19,13 @@
 package io.ballerinax.fhirr4;
 
 import io.ballerina.runtime.api.Environment;
-import io.ballerina.runtime.api.concurrent.StrandMetadata;
-import io.ballerina.runtime.api.types.ResourceMethodType;
 import io.ballerina.runtime.api.types.ServiceType;
 import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BFuture;
 import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BObject;
 import io.ballerina.runtime.api.values.BString;
 
-import static io.ballerinax.fhirr4.Utils.isPathsMatching;
-
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -38,6 +35,9 @@ import java.time.format.DateTimeFormatter;
 public class HTTPToFHIRAdaptor {
 
     private static final String MODULE_NAME = "ballerinax/health.fhirr4";
+    private static final String FHIR_SERVICE = "FHIR_SERVICE";
+    private static final String FHIR_ROUTE_INDEX = "FHIR_ROUTE_INDEX";
+    private static final boolean IS_DEBUG_ENABLED = "true".equals(System.getenv("BAL_FHIR_SERVICE_DEBUG_ENABLED"));
 
     public static final String PATH_PARAM_IDENTIFIER = "^";
     // Special escape character used to escape the special characters in the path parameter
@@ -46,82 +46,78 @@ public class HTTPToFHIRAdaptor {
     private HTTPToFHIRAdaptor(){}
 
     public static void addFhirServiceToHolder(BObject holder, BObject service) {
-        holder.addNativeData("FHIR_SERVICE", service);
+        holder.addNativeData(FHIR_SERVICE, service);
+        holder.addNativeData(FHIR_ROUTE_INDEX, ResourceRouteIndex.build((ServiceType) service.getType()));
     }
 
     public static BObject getFhirServiceFromHolder(BObject holder) {
-        return (BObject) holder.getNativeData("FHIR_SERVICE");
+        return (BObject) holder.getNativeData(FHIR_SERVICE);
+    }
+
+    public static Object getResourceMethodFromHolder(BObject holder, BArray servicePath, BArray path,
+                                                     BString accessor) {
+        ResourceRouteIndex routeIndex = (ResourceRouteIndex) holder.getNativeData(FHIR_ROUTE_INDEX);
+        String[] servicePaths = servicePath.getStringArray();
+        String[] paths = path.getStringArray();
+        if (IS_DEBUG_ENABLED) {
+            logDebug("Looking up resource method with accessor: " + accessor.getValue() +
+                    ", servicePath: " + String.join("/", servicePaths) + ", path: " + String.join("/", paths));
+        }
+        return routeIndex.lookup(servicePaths, paths, accessor.getValue());
     }
 
     public static Object executeWithID(Environment environment, BString id, BObject fhirCtx, BObject service,
-                                              ResourceMethodType resourceMethod) {
-        ServiceType serviceType = (ServiceType) service.getType();
-        return environment.getRuntime().callMethod(service, resourceMethod.getName(),
-                new StrandMetadata(serviceType.isIsolated() && serviceType.isIsolated(resourceMethod.getName()), ModuleUtils.getProperties("executeWithID")), id, fhirCtx);
+                                              ResourceRoute route) {
+        return route.getInvocation().call(environment, service, ResourceInvocation.EXECUTE_WITH_ID, id, fhirCtx);
     }
 
     public static Object executeWithIDAndVID(Environment environment, BString id, BString vid, BObject fhirCtx,
-                                             BObject service, ResourceMethodType resourceMethod) {
-        ServiceType serviceType = (ServiceType) service.getType();
-        return environment.getRuntime().callMethod(service, resourceMethod.getName(),
-                new StrandMetadata(serviceType.isIsolated() && serviceType.isIsolated(resourceMethod.getName()), ModuleUtils.getProperties("executeWithIDAndVID")), id, vid, fhirCtx);
+                                             BObject service, ResourceRoute route) {
+        return route.getInvocation().call(environment, service, ResourceInvocation.EXECUTE_WITH_ID_AND_VID, id, vid,
+                fhirCtx);
     }
 
     public static Object executeWithNoParam(Environment environment, BObject fhirCtx, BObject service,
-                                         ResourceMethodType resourceMethod) {
-        ServiceType serviceType = (ServiceType) service.getType();
-        return environment.getRuntime().callMethod(service, resourceMethod.getName(),
-                new StrandMetadata(serviceType.isIsolated() && serviceType.isIsolated(resourceMethod.getName()), ModuleUtils.getProperties("executeWithNoParam")), fhirCtx);
+                                         ResourceRoute route) {
+        return route.getInvocation().call(environment, service, ResourceInvocation.EXECUTE_WITH_NO_PARAM, fhirCtx);
     }
 
     public static Object executeWithPayload(Environment environment, BMap r4Payload, BObject fhirCtx, BObject service,
-                                       ResourceMethodType resourceMethod) {
-        ServiceType serviceType = (ServiceType) service.getType();
-        return environment.getRuntime().callMethod(service, resourceMethod.getName(),
-                new StrandMetadata(serviceType.isIsolated() && serviceType.isIsolated(resourceMethod.getName()), ModuleUtils.getProperties("executeWithPayload")), fhirCtx, r4Payload);
+                                       ResourceRoute route) {
+        return route.getInvocation().call(environment, service, ResourceInvocation.EXECUTE_WITH_PAYLOAD, fhirCtx,
+                r4Payload);
     }
 
     public static Object executeWithIDAndPayload(Environment environment, BString id, BMap patchPayload,
-                                                 BObject fhirCtx, BObject service, ResourceMethodType resourceMethod) {
-        ServiceType serviceType = (ServiceType) service.getType();
-        return environment.getRuntime().callMethod(service, resourceMethod.getName(), new StrandMetadata(
-                serviceType.isIsolated() && serviceType.isIsolated(resourceMethod.getName()), ModuleUtils.getProperties("executeWithIDAndPayload")), id, fhirCtx, patchPayload);
+                                                 BObject fhirCtx, BObject service, ResourceRoute route) {
+        return route.getInvocation().call(environment, service, ResourceInvocation.EXECUTE_WITH_ID_AND_PAYLOAD, id,
+                fhirCtx, patchPayload);
     }
 
-    public static Object getResourceMethod(BObject service, BArray servicePath, BArray path, BString accessor) {
-        ServiceType serviceType = (ServiceType) service.getType();
-        return getResourceMethod(serviceType, servicePath.getStringArray(), path.getStringArray(), accessor.getValue());
+    public static BFuture startWithID(Environment environment, BString id, BObject fhirCtx, BObject service,
+                                      ResourceRoute route) {
+        return route.getInvocation().start(environment, service, ResourceInvocation.START_WITH_ID, id, fhirCtx);
     }
 
-    public static Object isHavingPathParam(ResourceMethodType resourceMethod) { 
-        String[] paths = resourceMethod.getResourcePath();
-        for (String s : paths) {
-            if (PATH_PARAM_IDENTIFIER.equals(s)) {
-                return true;
-            }
-        }
-        return false;
+    public static BFuture startWithIDAndVID(Environment environment, BString id, BString vid, BObject fhirCtx,
+                                            BObject service, ResourceRoute route) {
+        return route.getInvocation().start(environment, service, ResourceInvocation.START_WITH_ID_AND_VID, id, vid,
+                fhirCtx);
     }
-    
-    private static ResourceMethodType getResourceMethod(ServiceType serviceType, String[] servicePath, String[] path, String accessor) {        
-        String isDebugEnabled = System.getenv("BAL_FHIR_SERVICE_DEBUG_ENABLED");
-        if (isDebugEnabled != null && isDebugEnabled.equals("true")) {
-            logDebug("Entering getResourceMethod with accessor: " + accessor +
-                 ", servicePath: " + String.join("/", servicePath) +
-                 ", path: " + String.join("/", path));
-        }
-        for (ResourceMethodType resourceMethod : serviceType.getResourceMethods()) {
-            if (isDebugEnabled != null && isDebugEnabled.equals("true")) {
-                logDebug("Resource method accessor: " + resourceMethod.getAccessor() +
-                     " with resource path: " + String.join("/", resourceMethod.getResourcePath()) + ", and request path: " + String.join("/",path));
-            }
-            if (accessor.equalsIgnoreCase(resourceMethod.getAccessor()) && isPathsMatching(resourceMethod.getResourcePath(), servicePath, path)) {
-                return resourceMethod;
-            }
-        }
-        return null;
+
+    public static BFuture startWithNoParam(Environment environment, BObject fhirCtx, BObject service,
+                                           ResourceRoute route) {
+        return route.getInvocation().start(environment, service, ResourceInvocation.START_WITH_NO_PARAM, fhirCtx);
+    }
+
+    public static Object isHavingPathParam(ResourceRoute route) {
+        return route.hasPathParam();
     }
 
+    public static BString getInteraction(ResourceRoute route) {
+        return route.getInteractionValue();
+    }
+    
     private static String getCurrentTimestamp() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
         return OffsetDateTime.now().format(formatter);
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerinax.fhirr4;
+
+import io.ballerina.runtime.api.Environment;
+import io.ballerina.runtime.api.concurrent.StrandMetadata;
+import io.ballerina.runtime.api.values.BFuture;
+import io.ballerina.runtime.api.values.BObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Invocation descriptor of a FHIR service resource method.
+ * <p>
+ * Holds everything needed to call the resource method that does not change between requests: the method name, whether
+ * it can run concurrently, and the strand metadata of each adaptor function that calls it. It is built once when the
+ * service is attached, so calling a resource method does not recompute any of these per request.
+ */
+public final class ResourceInvocation {
+
+    static final String EXECUTE_WITH_ID = "executeWithID";
+    static final String EXECUTE_WITH_ID_AND_VID = "executeWithIDAndVID";
+    static final String EXECUTE_WITH_NO_PARAM = "executeWithNoParam";
+    static final String EXECUTE_WITH_PAYLOAD = "executeWithPayload";
+    static final String EXECUTE_WITH_ID_AND_PAYLOAD = "executeWithIDAndPayload";
+    static final String START_WITH_ID = "startWithID";
+    static final String START_WITH_ID_AND_VID = "startWithIDAndVID";
+    static final String START_WITH_NO_PARAM = "startWithNoParam";
+    private static final String[] ADAPTOR_FUNCTIONS = {EXECUTE_WITH_ID, EXECUTE_WITH_ID_AND_VID,
+            EXECUTE_WITH_NO_PARAM, EXECUTE_WITH_PAYLOAD, EXECUTE_WITH_ID_AND_PAYLOAD, START_WITH_ID,
+            START_WITH_ID_AND_VID, START_WITH_NO_PARAM};
+
+    private final String methodName;
+    private final boolean isolated;
+    private final Map<String, StrandMetadata> strandMetadata;
+
+    ResourceInvocation(String methodName, boolean isolated) {
+        this.methodName = methodName;
+        this.isolated = isolated;
+        Map<String, StrandMetadata> metadata = new HashMap<>();
+        for (String adaptorFunction : ADAPTOR_FUNCTIONS) {
+            metadata.put(adaptorFunction, new StrandMetadata(isolated, ModuleUtils.getProperties(adaptorFunction)));
+        }
+        this.strandMetadata = Map.copyOf(metadata);
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public boolean isIsolated() {
+        return isolated;
+    }
+
+    public StrandMetadata getStrandMetadata(String adaptorFunction) {
+        return strandMetadata.get(adaptorFunction);
+    }
+
+    /**
+     * Calls the resource method and blocks the current strand until it returns.
+     *
+     * @param environment     environment of the calling adaptor function
+     * @param service         FHIR service object
+     * @param adaptorFunction name of the calling adaptor function
+     * @param args            resource method arguments
+     * @return result of the resource method
+     */
+    Object call(Environment environment, BObject service, String adaptorFunction, Object... args) {
+        return environment.getRuntime().callMethod(service, methodName, strandMetadata.get(adaptorFunction), args);
+    }
+
+    /**
+     * Starts the resource method on a new strand without blocking the current one.
+     *
+     * @param environment     environment of the calling adaptor function
+     * @param service         FHIR service object
+     * @param adaptorFunction name of the calling adaptor function
+     * @param args            resource method arguments
+     * @return future of the resource method result
+     */
+    BFuture start(Environment environment, BObject service, String adaptorFunction, Object... args) {
+        StrandMetadata metadata = strandMetadata.get(adaptorFunction);
+        if (isolated) {
+            return environment.getRuntime().startIsolatedWorker(service, methodName, methodName, metadata, null,
+                    args);
+        }
+        return environment.getRuntime().startNonIsolatedWorker(service, methodName, methodName, metadata, null,
+                args);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4;
+
+import io.ballerina.runtime.api.types.ResourceMethodType;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BString;
+
+/**
+ * Routing metadata of a FHIR service resource method.
+ * <p>
+ * Routes are resolved once when the service is attached, either from the routing table generated by the FHIR
+ * compiler plugin or, for services without one (e.g. service object constructors), from the resource method itself.
+ */
+public final class ResourceRoute {
+
+    private final ResourceMethodType resourceMethod;
+    private final String interaction;
+    private final BString interactionValue;
+    private final boolean hasPathParam;
+    private final ResourceInvocation invocation;
+
+    ResourceRoute(ResourceMethodType resourceMethod, String interaction, boolean hasPathParam, boolean isolated) {
+        this.resourceMethod = resourceMethod;
+        this.interaction = interaction;
+        this.interactionValue = StringUtils.fromString(interaction);
+        this.hasPathParam = hasPathParam;
+        this.invocation = new ResourceInvocation(resourceMethod.getName(), isolated);
+    }
+
+    public ResourceMethodType getResourceMethod() {
+        return resourceMethod;
+    }
+
+    public String getInteraction() {
+        return interaction;
+    }
+
+    public BString getInteractionValue() {
+        return interactionValue;
+    }
+
+    public boolean hasPathParam() {
+        return hasPathParam;
+    }
+
+    public boolean isIsolated() {
+        return invocation.isIsolated();
+    }
+
+    public ResourceInvocation getInvocation() {
+        return invocation;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.org).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerinax.fhirr4;
+
+import io.ballerina.runtime.api.Module;
+import io.ballerina.runtime.api.types.ResourceMethodType;
+import io.ballerina.runtime.api.types.ServiceType;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+
+import static io.ballerinax.fhirr4.HTTPToFHIRAdaptor.PATH_PARAM_IDENTIFIER;
+import static io.ballerinax.fhirr4.HTTPToFHIRAdaptor.SPECIAL_ESCAPE_CHAR;
+import static io.ballerinax.fhirr4.FHIRInteractionClassifier.stripEscapeChars;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per service route index used to resolve the resource method for a request.
+ * <p>
+ * The index is built once per {@link ServiceType} and keeps a segment trie per accessor. Literal segments are
+ * looked up by hash and {@code ^} path parameters are kept in a dedicated wildcard branch, so a lookup costs
+ * O(path depth) instead of a scan over every resource method. Matching semantics are the same as
+ * {@link Utils#isPathsMatching(String[], String[], String[])}: a path parameter never matches {@code _history},
+ * the default resource path ({@code .}) matches when the request path is the service path, and when more than one
+ * resource method matches, the first one declared on the service wins.
+ * <p>
+ * The interaction kind of each route is taken from the routing table the FHIR compiler plugin generates for
+ * service declarations ({@code __ResourceRoutes} annotation), so requests are not classified at runtime.
+ */
+public final class ResourceRouteIndex {
+
+    private static final String HISTORY = "_history";
+    private static final String DEFAULT_RESOURCE_PATH = ".";
+    private static final String ROUTE_TABLE_ANNOTATION = "__ResourceRoutes";
+    private static final BString ROUTES = StringUtils.fromString("routes");
+    private static final BString ACCESSOR = StringUtils.fromString("accessor");
+    private static final BString PATH = StringUtils.fromString("path");
+    private static final BString INTERACTION = StringUtils.fromString("interaction");
+    private static final BString IS_ISOLATED = StringUtils.fromString("isIsolated");
+
+    private final AccessorRoutes[] accessorRoutes;
+
+    private ResourceRouteIndex(AccessorRoutes[] accessorRoutes) {
+        this.accessorRoutes = accessorRoutes;
+    }
+
+    /**
+     * Builds the route index for the given service type.
+     *
+     * @param serviceType Ballerina service type of the FHIR service
+     * @return route index of the service
+     */
+    public static ResourceRouteIndex build(ServiceType serviceType) {
+        Map<String, BMap<BString, Object>> generatedRoutes = getGeneratedRoutes(serviceType);
+        List<AccessorRoutes> routes = new ArrayList<>();
+        ResourceMethodType[] resourceMethods = serviceType.getResourceMethods();
+        for (int order = 0; order < resourceMethods.length; order++) {
+            ResourceMethodType resourceMethod = resourceMethods[order];
+            AccessorRoutes accessorRoute = null;
+            for (AccessorRoutes route : routes) {
+                if (route.accessor.equalsIgnoreCase(resourceMethod.getAccessor())) {
+                    accessorRoute = route;
+                    break;
+                }
+            }
+            if (accessorRoute == null) {
+                accessorRoute = new AccessorRoutes(resourceMethod.getAccessor());
+                routes.add(accessorRoute);
+            }
+            accessorRoute.add(createRoute(serviceType, resourceMethod, generatedRoutes), order);
+        }
+        return new ResourceRouteIndex(routes.toArray(new AccessorRoutes[0]));
+    }
+
+    /**
+     * Finds the route of the resource method matching the given accessor and request path.
+     *
+     * @param servicePath base path the HTTP service is attached to
+     * @param path        path segments of the request
+     * @param accessor    HTTP method of the request
+     * @return route of the matching resource method, or {@code null} if there is no match
+     */
+    public ResourceRoute lookup(String[] servicePath, String[] path, String accessor) {
+        AccessorRoutes routes = null;
+        for (AccessorRoutes route : accessorRoutes) {
+            if (route.accessor.equalsIgnoreCase(accessor)) {
+                routes = route;
+                break;
+            }
+        }
+        if (routes == null) {
+            return null;
+        }
+
+        int bestOrder = Integer.MAX_VALUE;
+        ResourceRoute bestRoute = null;
+        if (routes.defaultRoute != null && servicePath.length == path.length) {
+            bestOrder = routes.defaultOrder;
+            bestRoute = routes.defaultRoute;
+        }
+        if (path.length > 0 && isServicePathMatching(servicePath, path)) {
+            Node match = find(routes.root, path, servicePath.length, bestOrder);
+            if (match != null) {
+                bestRoute = match.route;
+            }
+        }
+        return bestRoute;
+    }
+
+    private static ResourceRoute createRoute(ServiceType serviceType, ResourceMethodType resourceMethod,
+                                             Map<String, BMap<BString, Object>> generatedRoutes) {
+        String[] resourcePath = resourceMethod.getResourcePath();
+        BMap<BString, Object> generatedRoute = generatedRoutes.get(getRouteKey(resourceMethod.getAccessor(),
+                resourcePath));
+        String interaction;
+        boolean isolated;
+        if (generatedRoute != null) {
+            interaction = generatedRoute.getStringValue(INTERACTION).getValue();
+            isolated = generatedRoute.getBooleanValue(IS_ISOLATED)
+                    || serviceType.isIsolated(resourceMethod.getName());
+        } else {
+            interaction = FHIRInteractionClassifier.classify(resourceMethod.getAccessor(), resourcePath);
+            isolated = serviceType.isIsolated(resourceMethod.getName());
+        }
+        return new ResourceRoute(resourceMethod, interaction, FHIRInteractionClassifier.hasPathParam(resourcePath),
+                serviceType.isIsolated() && isolated);
+    }
+
+    // Reads the routing table generated by the FHIR compiler plugin, keyed by accessor and resource path.
+    private static Map<String, BMap<BString, Object>> getGeneratedRoutes(ServiceType serviceType) {
+        Map<String, BMap<BString, Object>> generatedRoutes = new HashMap<>();
+        Module module = ModuleUtils.getModule();
+        if (module == null) {
+            return generatedRoutes;
+        }
+        String annotationKey = module.getOrg() + "/" + module.getName() + ":" + module.getMajorVersion() + ":"
+                + ROUTE_TABLE_ANNOTATION;
+        Object annotation = serviceType.getAnnotation(StringUtils.fromString(annotationKey));
+        if (!(annotation instanceof BMap<?, ?> routeTable)) {
+            return generatedRoutes;
+        }
+        BArray routes = (BArray) routeTable.get(ROUTES);
+        for (int i = 0; i < routes.size(); i++) {
+            @SuppressWarnings("unchecked")
+            BMap<BString, Object> route = (BMap<BString, Object>) routes.get(i);
+            String[] path = ((BArray) route.get(PATH)).getStringArray();
+            generatedRoutes.put(getRouteKey(route.getStringValue(ACCESSOR).getValue(), path), route);
+        }
+        return generatedRoutes;
+    }
+
+    private static String getRouteKey(String accessor, String[] resourcePath) {
+        StringBuilder key = new StringBuilder(accessor.toLowerCase());
+        for (String segment : resourcePath) {
+            key.append('/').append(stripEscapeChars(segment));
+        }
+        return key.toString();
+    }
+
+    private static boolean isServicePathMatching(String[] servicePath, String[] path) {
+        if (servicePath.length > path.length) {
+            return false;
+        }
+        for (int i = 0; i < servicePath.length; i++) {
+            String segment = servicePath[i];
+            if (PATH_PARAM_IDENTIFIER.equals(segment)) {
+                if (HISTORY.equals(path[i])) {
+                    return false;
+                }
+            } else if (!segment.equals(path[i]) && !(segment.contains(SPECIAL_ESCAPE_CHAR)
+                    && stripEscapeChars(segment).equals(path[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns the terminal node with the lowest declaration order below the given bound, or null if none exists.
+    private static Node find(Node node, String[] path, int index, int bound) {
+        if (node.minOrder >= bound) {
+            return null;
+        }
+        if (index == path.length) {
+            return node.route != null && node.order < bound ? node : null;
+        }
+        Node best = null;
+        Node literal = node.literals.get(path[index]);
+        if (literal != null) {
+            best = find(literal, path, index + 1, bound);
+            if (best != null) {
+                bound = best.order;
+            }
+        }
+        if (node.wildcard != null && !HISTORY.equals(path[index])) {
+            Node wildcardMatch = find(node.wildcard, path, index + 1, bound);
+            if (wildcardMatch != null) {
+                best = wildcardMatch;
+            }
+        }
+        return best;
+    }
+
+    private static final class AccessorRoutes {
+
+        private final String accessor;
+        private final Node root = new Node();
+        private ResourceRoute defaultRoute;
+        private int defaultOrder = Integer.MAX_VALUE;
+
+        private AccessorRoutes(String accessor) {
+            this.accessor = accessor;
+        }
+
+        private void add(ResourceRoute route, int order) {
+            String[] resourcePath = route.getResourceMethod().getResourcePath();
+            if (resourcePath.length > 0 && DEFAULT_RESOURCE_PATH.equals(resourcePath[0]) && defaultRoute == null) {
+                defaultRoute = route;
+                defaultOrder = order;
+            }
+            Node node = root;
+            node.minOrder = Math.min(node.minOrder, order);
+            for (String segment : resourcePath) {
+                if (PATH_PARAM_IDENTIFIER.equals(segment)) {
+                    if (node.wildcard == null) {
+                        node.wildcard = new Node();
+                    }
+                    node = node.wildcard;
+                } else {
+                    node = node.literals.computeIfAbsent(stripEscapeChars(segment), key -> new Node());
+                }
+                node.minOrder = Math.min(node.minOrder, order);
+            }
+            if (node.route == null) {
+                node.route = route;
+                node.order = order;
+            }
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+        private Node wildcard;
+        private ResourceRoute route;
+        private int order = Integer.MAX_VALUE;
+        // Lowest declaration order of any resource method in this subtree, used to prune the search.
+        private int minOrder = Integer.MAX_VALUE;
+    }
+}
@@ -21,9 +21,6 @@ package io.ballerinax.fhirr4;
 import static io.ballerinax.fhirr4.HTTPToFHIRAdaptor.PATH_PARAM_IDENTIFIER;
 import static io.ballerinax.fhirr4.HTTPToFHIRAdaptor.SPECIAL_ESCAPE_CHAR;
 
-import java.util.Arrays;
-import java.util.stream.Stream;
-
 public class Utils {
 
     /**
@@ -57,13 +54,13 @@ public class Utils {
             }
         }
 
-        resourcePaths = Stream.concat(Arrays.stream(servicePath), Arrays.stream(resourcePaths)).toArray(String[]::new);
-
-        if (resourcePaths.length != requestPaths.length || requestPaths.length == 0) {
+        int pathLength = servicePath.length + resourcePaths.length;
+        if (pathLength != requestPaths.length || requestPaths.length == 0) {
             return false;
         }
-        for (int i = 0; i < resourcePaths.length; i++) {
-            String value1 = resourcePaths[i].contains(SPECIAL_ESCAPE_CHAR) ? resourcePaths[i].replace(SPECIAL_ESCAPE_CHAR, "") : resourcePaths[i];
+        for (int i = 0; i < pathLength; i++) {
+            String value1 = i < servicePath.length ? servicePath[i] : resourcePaths[i - servicePath.length];
+            value1 = value1.contains(SPECIAL_ESCAPE_CHAR) ? value1.replace(SPECIAL_ESCAPE_CHAR, "") : value1;
             String value2 = requestPaths[i];
             if ((!value1.equals(value2) && !value1.equals(PATH_PARAM_IDENTIFIER)) || (value1.equals(PATH_PARAM_IDENTIFIER) && value2.equals("_history"))) {
                 return false;
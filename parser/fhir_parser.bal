@@ -56,18 +56,7 @@ public isolated function parse(json|xml|string payload, typedesc<anydata>? targe
 returns anydata|r4:FHIRParseError {
     json|xml _payload;
     if payload is string {
-        json|error parsedJsonPayload = payload.fromJsonString();
-        if parsedJsonPayload is json {
-            _payload = parsedJsonPayload;
-        } else {
-            xml|error parsedXmlPayload = xml:fromString(payload);
-            if parsedXmlPayload is xml:Element {
-                _payload = parsedXmlPayload;
-            } else {
-                return <r4:FHIRParseError>r4:createFHIRError("Failed to parse string payload to json or xml", r4:ERROR,
-                        r4:INVALID_STRUCTURE, errorType = r4:PARSE_ERROR, httpStatusCode = http:STATUS_BAD_REQUEST);
-            }
-        }
+        _payload = check parseStringPayload(payload);
     } else {
         _payload = payload;
     }
@@ -76,11 +65,11 @@ returns anydata|r4:FHIRParseError {
     if resourceType is r4:FHIRValidationError {
         return <r4:FHIRParseError>r4:createParserErrorFrom(resourceType);
     }
-    r4:Profile resourceProfile;
+    r4:Profile & readonly resourceProfile;
     if targetProfile != () {
         (r4:Profile & readonly)? profile = r4:fhirRegistry.findProfile(targetProfile);
         if profile is (r4:Profile & readonly) {
-            resourceProfile = profile.clone();
+            resourceProfile = profile;
         } else {
             string msg = string `Failed to find FHIR profile for the resource type : ${resourceType}`;
             return <r4:FHIRParseError>r4:createFHIRError(msg, r4:ERROR, r4:INVALID_STRUCTURE, errorType = r4:PARSE_ERROR,
@@ -91,9 +80,9 @@ returns anydata|r4:FHIRParseError {
         if resourceDefinition is r4:ResourceDefinitionRecord {
             string? profile = resourceDefinition.profile;
             if profile != () {
-                map<r4:Profile & readonly> & readonly perResourceProfiles = r4:fhirRegistry.getResourceProfiles(resourceType);
-                if perResourceProfiles.hasKey(profile) {
-                    resourceProfile = perResourceProfiles.get(profile);
+                (r4:Profile & readonly)? modelProfile = r4:fhirRegistry.getResourceProfiles(resourceType)[profile];
+                if modelProfile is (r4:Profile & readonly) {
+                    resourceProfile = modelProfile;
                 } else {
                     string msg = string `Failed to find FHIR profile for the resource type : ${resourceType}`;
                     return <r4:FHIRParseError>r4:createFHIRError(msg, r4:ERROR, r4:INVALID_STRUCTURE, errorType =
@@ -111,9 +100,9 @@ returns anydata|r4:FHIRParseError {
     } else {
         string[]? payloadProfiles = extractProfiles(_payload);
         if validateAgainstProfile && payloadProfiles != () && payloadProfiles.length() > 0 {
-            (r4:Profile & readonly)? profile = r4:fhirRegistry.findProfile(payloadProfiles[0]).clone();
+            (r4:Profile & readonly)? profile = r4:fhirRegistry.findProfile(payloadProfiles[0]);
             if profile is (r4:Profile & readonly) {
-                resourceProfile = profile.clone();
+                resourceProfile = profile;
             } else {
                 string msg = "Failed to find FHIR profile for the profile URL : " + payloadProfiles[0];
                 return <r4:FHIRParseError>r4:createFHIRError(msg, r4:ERROR, r4:INVALID_STRUCTURE, errorType = r4:PARSE_ERROR,
@@ -122,7 +111,7 @@ returns anydata|r4:FHIRParseError {
         } else {
             (r4:Profile & readonly)? profile = r4:fhirRegistry.findBaseProfile(resourceType);
             if profile is (r4:Profile & readonly) {
-                resourceProfile = profile.clone();
+                resourceProfile = profile;
             } else {
                 string msg = "Failed to find FHIR profile for the resource type : " + resourceType;
                 return <r4:FHIRParseError>r4:createFHIRError(msg, r4:ERROR, r4:INVALID_STRUCTURE, errorType = r4:PARSE_ERROR,
@@ -133,6 +122,38 @@ returns anydata|r4:FHIRParseError {
     return parseFHIRResource(resourceProfile, _payload);
 }
 
+# Parses a string payload as JSON or XML, based on its first non-whitespace character.
+#
+# + payload - String payload
+# + return - JSON or XML representation of the payload if success. Otherwise, return parse error.
+isolated function parseStringPayload(string payload) returns json|xml|r4:FHIRParseError {
+    int length = payload.length();
+    int index = 0;
+    while index < length && isWhitespace(payload[index]) {
+        index += 1;
+    }
+    if index < length {
+        string:Char firstChar = payload[index];
+        if firstChar == "{" {
+            json|error parsedJsonPayload = payload.fromJsonString();
+            if parsedJsonPayload is json {
+                return parsedJsonPayload;
+            }
+        } else if firstChar == "<" {
+            xml|error parsedXmlPayload = xml:fromString(payload);
+            if parsedXmlPayload is xml:Element {
+                return parsedXmlPayload;
+            }
+        }
+    }
+    return <r4:FHIRParseError>r4:createFHIRError("Failed to parse string payload to json or xml", r4:ERROR,
+            r4:INVALID_STRUCTURE, errorType = r4:PARSE_ERROR, httpStatusCode = http:STATUS_BAD_REQUEST);
+}
+
+isolated function isWhitespace(string:Char character) returns boolean {
+    return character == " " || character == "\n" || character == "\r" || character == "\t" || character == "\u{FEFF}";
+}
+
 isolated function validateAndExtractProfile(json|xml payload, r4:ResourceAPIConfig apiConfig)
                                                                     returns (readonly & r4:Profile)|r4:FHIRValidationError {
     string resourceType = check extractResourceType(payload);
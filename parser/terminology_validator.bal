@@ -0,0 +1,476 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/log;
+import ballerina/time;
+import ballerina/url;
+import ballerinax/health.clients.fhir as fhir_client;
+
+# Checks the codes used in FHIR resources against a terminology service.
+#
+# Codes are collected in a single walk over the resource, grouped by code system and version. The codes of a group
+# that are not cached are checked with one batch request to the terminology service, and the outcomes are kept in a
+# bounded cache. Invalid codes and unknown code systems are only cached for `negativeCacheTtl` seconds, so codes and
+# code systems added to the terminology service are picked up.
+public isolated class TerminologyValidator {
+
+    private final fhir_client:FHIRConnector connector;
+    private final TerminologyCodeCache cache;
+
+    # Initializes the terminology validator.
+    #
+    # + connector - Connector of the terminology service
+    # + codeCacheCapacity - Number of lookup outcomes kept in memory, `0` disables the cache
+    # + negativeCacheTtl - Time in seconds for which invalid codes and unknown code systems are cached
+    public isolated function init(fhir_client:FHIRConnector connector,
+            int codeCacheCapacity = DEFAULT_CODE_CACHE_CAPACITY, decimal negativeCacheTtl = DEFAULT_NEGATIVE_CACHE_TTL) {
+        self.connector = connector;
+        self.cache = new (codeCacheCapacity, negativeCacheTtl);
+    }
+
+    # Validates the codes used in a FHIR resource.
+    #
+    # + data - FHIR resource or element
+    # + return - Error messages of the invalid codes, or nil if all codes are valid
+    public isolated function validate(anydata data) returns string[]? {
+        return self.checkCodes(collectTerminologyCodes(data));
+    }
+
+    # Checks codes collected with `collectTerminologyCodes`. Every code is checked, including the remaining codes of
+    # a code system that the terminology service does not know.
+    #
+    # + codes - Collected codes
+    # + return - Error messages of the invalid codes, or nil if all codes are valid
+    public isolated function checkCodes(TerminologyCodes codes) returns string[]? {
+        string[] errors = [];
+        foreach map<TerminologyCode> group in codes {
+            TerminologyCode[] uncached = [];
+            foreach TerminologyCode term in group {
+                TermStatus? status = self.getCachedStatus(term);
+                if status is () {
+                    uncached.push(term);
+                } else if status == TERM_INVALID {
+                    errors.push(getInvalidCodeMessage(term));
+                }
+            }
+            if uncached.length() == 0 {
+                continue;
+            }
+
+            TermStatus[] statuses = self.lookupCodes(uncached);
+            boolean? systemMissing = ();
+            foreach int i in 0 ..< uncached.length() {
+                TerminologyCode term = uncached[i];
+                TermStatus status = statuses[i];
+                if status == TERM_UNKNOWN_SYSTEM {
+                    // The lookup was rejected. Unless the code system itself is missing, the outcome of the code is
+                    // not known, and the code is assumed to be valid without caching it.
+                    if systemMissing is () {
+                        systemMissing = self.isCodeSystemMissing(term);
+                    }
+                    if systemMissing == true {
+                        self.cache.put(getTermCacheKey(term.system, term?.'version), TERM_UNKNOWN_SYSTEM);
+                    }
+                    log:printDebug("CodeSystem or ValueSet not found. System: '" + term.system + "', Code: '" +
+                            term.code + "'. Assuming the code is valid.");
+                    continue;
+                }
+                if status != TERM_INDETERMINATE {
+                    self.cache.put(getTermCacheKey(term.system, term?.'version, term.code), status);
+                }
+                if status == TERM_INVALID {
+                    errors.push(getInvalidCodeMessage(term));
+                }
+            }
+        }
+        return errors.length() == 0 ? () : errors;
+    }
+
+    # Removes all the cached lookup outcomes.
+    public isolated function clearCache() {
+        self.cache.clear();
+    }
+
+    isolated function getCachedStatus(TerminologyCode term) returns TermStatus? {
+        string? 'version = term?.'version;
+        if self.cache.get(getTermCacheKey(term.system, 'version)) == TERM_UNKNOWN_SYSTEM {
+            return TERM_UNKNOWN_SYSTEM;
+        }
+        return self.cache.get(getTermCacheKey(term.system, 'version, term.code));
+    }
+
+    # Looks up codes of the same code system in the terminology service. The codes are sent in a batch request, and
+    # looked up one at a time if the terminology service does not process batch requests.
+    #
+    # + terms - Codes to look up
+    # + return - Outcome of each code, in the order of `terms`
+    isolated function lookupCodes(TerminologyCode[] terms) returns TermStatus[] {
+        if terms.length() == 1 {
+            return [lookupTerm(self.connector, terms[0])];
+        }
+        int[]? validateCodeStatuses = self.sendBatch(VALUE_SET, VALIDATE_CODE, terms);
+        if validateCodeStatuses is () {
+            return from TerminologyCode term in terms select lookupTerm(self.connector, term);
+        }
+
+        // The terminology service returns 404 both for a missing ValueSet and an invalid code, so those codes are
+        // looked up in the CodeSystem.
+        TerminologyCode[] notFound = [];
+        int[] notFoundIndexes = [];
+        TermStatus[] statuses = [];
+        foreach int i in 0 ..< terms.length() {
+            int statusCode = validateCodeStatuses[i];
+            if statusCode == http:STATUS_NOT_FOUND {
+                notFound.push(terms[i]);
+                notFoundIndexes.push(i);
+                statuses.push(TERM_INDETERMINATE);
+            } else {
+                statuses.push(getValidateCodeStatus(statusCode));
+            }
+        }
+        if notFound.length() == 0 {
+            return statuses;
+        }
+        int[]? lookupStatuses = self.sendBatch(CODE_SYSTEM, LOOKUP, notFound);
+        foreach int i in 0 ..< notFound.length() {
+            statuses[notFoundIndexes[i]] = lookupStatuses is int[] ? getLookupStatus(lookupStatuses[i])
+                : lookupCodeSystemTerm(self.connector, notFound[i]);
+        }
+        return statuses;
+    }
+
+    # Sends a terminology operation for each of the given codes in a single batch request.
+    #
+    # + resourceType - Resource type of the operation
+    # + operation - Operation name
+    # + terms - Codes
+    # + return - HTTP status code of each entry, or nil if the batch request was not processed
+    isolated function sendBatch(TerminologyResources resourceType, TerminologyOperation operation,
+            TerminologyCode[] terms) returns int[]? {
+        json[] entries = [];
+        foreach TerminologyCode term in terms {
+            string|error requestUrl = getOperationUrl(resourceType, operation, term);
+            if requestUrl is error {
+                return ();
+            }
+            entries.push({request: {method: http:HTTP_GET, url: requestUrl}});
+        }
+        json batch = {resourceType: "Bundle", 'type: "batch", entry: entries};
+
+        fhir_client:FHIRResponse|fhir_client:FHIRError response = self.connector->batchRequest(batch,
+                returnMimeType = fhir_client:FHIR_JSON);
+        if response is fhir_client:FHIRError || !isDefiniteStatusCode(response.httpStatusCode) {
+            log:printDebug("Terminology service did not process the batch request, looking up codes one at a time.");
+            return ();
+        }
+        json|xml payload = response.'resource;
+        json|error responseEntries = payload is json ? payload.entry : ();
+        if responseEntries !is json[] || responseEntries.length() != terms.length() {
+            return ();
+        }
+
+        int[] statusCodes = [];
+        foreach json entry in responseEntries {
+            json|error status = entry.response.status;
+            // The status is the HTTP status code, optionally followed by the reason phrase
+            int|error statusCode = status is string && status.length() >= 3 ? int:fromString(status.substring(0, 3))
+                : error("Missing entry status");
+            if statusCode is error {
+                return ();
+            }
+            statusCodes.push(statusCode);
+        }
+        return statusCodes;
+    }
+
+    # Checks whether the terminology service has the code system of a code, by searching for it.
+    #
+    # + term - Code
+    # + return - True if the terminology service does not have the code system
+    isolated function isCodeSystemMissing(TerminologyCode term) returns boolean {
+        map<string[]> searchParameters = {"url": [term.system]};
+        string? 'version = term?.'version;
+        if 'version is string {
+            searchParameters["version"] = ['version];
+        }
+        fhir_client:FHIRResponse|fhir_client:FHIRError response = self.connector->search(CODE_SYSTEM,
+                mode = http:GET, searchParameters = searchParameters, returnMimeType = fhir_client:FHIR_JSON);
+        if response is fhir_client:FHIRError || response.httpStatusCode != http:STATUS_OK {
+            return false;
+        }
+        json|xml bundle = response.'resource;
+        if bundle !is json {
+            return false;
+        }
+        json|error total = bundle.total;
+        json|error entries = bundle.entry;
+        return total == 0 || (total !is int && (entries is () || entries is error || entries == []));
+    }
+}
+
+# Codes used in a FHIR resource, keyed by code system and version, then by code.
+public type TerminologyCodes readonly & map<map<TerminologyCode>>;
+
+# Collects the codes to be checked against the terminology service in a single walk over a FHIR resource. Codes are
+# grouped by code system and version, and each code is kept once per group.
+#
+# + data - FHIR resource or element
+# + return - Collected codes
+public isolated function collectTerminologyCodes(anydata data) returns TerminologyCodes {
+    map<map<TerminologyCode>> groups = {};
+    collectCodes(data, groups);
+    return groups.cloneReadOnly();
+}
+
+isolated function collectCodes(anydata data, map<map<TerminologyCode>> groups) {
+    if data is map<anydata> {
+        anydata valueCode = data["valueCode"];
+        anydata url = data["url"];
+        if valueCode is string && url is string {
+            addTerm(groups, {code: valueCode, system: url});
+
+            // check is there is not other properties in the map
+            if data.length() == 2 {
+                return;
+            }
+        }
+
+        foreach var [key, value] in data.entries() {
+            if key == "valueCoding" && value is map<anydata> {
+                collectCodesFromCodingElement(value, groups);
+            } else if key == "coding" && value is anydata[] {
+                foreach anydata item in value {
+                    collectCodesFromCodingElement(item, groups);
+                }
+            } else if value is map<anydata> || value is anydata[] {
+                collectCodes(value, groups);
+            }
+        }
+    } else if data is anydata[] {
+        foreach anydata item in data {
+            collectCodes(item, groups);
+        }
+    }
+}
+
+isolated function collectCodesFromCodingElement(anydata data, map<map<TerminologyCode>> groups) {
+    if data is map<anydata> {
+        anydata code = data["code"];
+        anydata system = data["system"];
+        if code is string && system is string {
+            anydata 'version = data["version"];
+            TerminologyCode term = {code: code, system: system};
+            if 'version is string {
+                term.'version = 'version;
+            }
+            addTerm(groups, term);
+        }
+        if data.hasKey("extension") {
+            collectCodes(data["extension"], groups);
+        }
+    }
+}
+
+isolated function addTerm(map<map<TerminologyCode>> groups, TerminologyCode term) {
+    string groupKey = getTermCacheKey(term.system, term?.'version);
+    map<TerminologyCode>? group = groups[groupKey];
+    if group is () {
+        groups[groupKey] = {[term.code]: term};
+    } else if !group.hasKey(term.code) {
+        group[term.code] = term;
+    }
+}
+
+isolated function getInvalidCodeMessage(TerminologyCode term) returns string {
+    return "Terminology code '" + term.code + "' with system '" + term.system + "' not found.";
+}
+
+isolated function getOperationUrl(TerminologyResources resourceType, TerminologyOperation operation,
+        TerminologyCode term) returns string|error {
+    string requestUrl = resourceType + "/$" + operation + "?system=" + check url:encode(term.system, "UTF-8") +
+        "&code=" + check url:encode(term.code, "UTF-8");
+    string? 'version = term?.'version;
+    if 'version is string {
+        requestUrl += "&version=" + check url:encode('version, "UTF-8");
+    }
+    return requestUrl;
+}
+
+isolated function lookupTerm(fhir_client:FHIRConnector connector, TerminologyCode term) returns TermStatus {
+    // Send GET request to ValueSet validate-code API
+    fhir_client:FHIRResponse|fhir_client:FHIRError valuesetResponse = connector->callOperation(
+        VALUE_SET,
+        operationName = VALIDATE_CODE,
+        mode = http:GET,
+        queryParameters = getQueryParameters(term),
+        returnMimeType = fhir_client:FHIR_JSON);
+    int responseStatusCode = getResponseStatusCode(valuesetResponse);
+
+    if responseStatusCode == http:STATUS_NOT_FOUND {
+        // ValueSet NOT_FOUND or invalid code (terminology service returns 404 for both cases), proceed to check CodeSystem
+        return lookupCodeSystemTerm(connector, term);
+    }
+    return getValidateCodeStatus(responseStatusCode);
+}
+
+isolated function lookupCodeSystemTerm(fhir_client:FHIRConnector connector, TerminologyCode term) returns TermStatus {
+    // Send GET request to CodeSystem lookup API
+    fhir_client:FHIRResponse|fhir_client:FHIRError codesystemResponse = connector->callOperation(
+        CODE_SYSTEM,
+        operationName = LOOKUP,
+        mode = http:GET,
+        queryParameters = getQueryParameters(term),
+        returnMimeType = fhir_client:FHIR_JSON);
+    return getLookupStatus(getResponseStatusCode(codesystemResponse));
+}
+
+isolated function getQueryParameters(TerminologyCode term) returns map<string[]> {
+    string? 'version = term?.'version;
+    return {
+        "system": [term.system],
+        "code": [term.code],
+        "version": 'version is string ? ['version] : []
+    };
+}
+
+isolated function getValidateCodeStatus(int statusCode) returns TermStatus {
+    if statusCode == http:STATUS_BAD_REQUEST {
+        return TERM_INVALID;
+    }
+    // ignore other response codes as they are not relevant for validation
+    return isDefiniteStatusCode(statusCode) ? TERM_VALID : TERM_INDETERMINATE;
+}
+
+isolated function getLookupStatus(int statusCode) returns TermStatus {
+    if statusCode == http:STATUS_NOT_FOUND {
+        // If the code is not found in CodeSystem, add an error message
+        return TERM_INVALID;
+    } else if statusCode == http:STATUS_BAD_REQUEST {
+        // The terminology service rejected the lookup. This is a common scenario when the CodeSystem is not added to
+        // the terminology service, which is checked before remembering it.
+        return TERM_UNKNOWN_SYSTEM;
+    }
+    return isDefiniteStatusCode(statusCode) ? TERM_VALID : TERM_INDETERMINATE;
+}
+
+isolated function getResponseStatusCode(fhir_client:FHIRResponse|fhir_client:FHIRError response) returns int {
+    if response is fhir_client:FHIRResponse {
+        return response.httpStatusCode;
+    } else if response is fhir_client:FHIRServerError {
+        fhir_client:FHIRServerErrorDetails errorDetails = response.detail();
+        return errorDetails.httpStatusCode;
+    }
+    return 0;
+}
+
+// Only successful responses are cached, so that a terminology service outage is not remembered.
+isolated function isDefiniteStatusCode(int statusCode) returns boolean {
+    return statusCode >= 200 && statusCode < 300;
+}
+
+# Bounded cache of terminology lookup outcomes, keyed by system, version and code.
+# Codes such as LOINC vital signs show up in most inbound resources, so their outcome is kept to avoid calling the
+# terminology service for every resource. Once the cache is full, the oldest entry is evicted first. Negative outcomes
+# expire after the configured time.
+isolated class TerminologyCodeCache {
+
+    private final int capacity;
+    private final decimal negativeTtl;
+    private final map<TermCacheEntry> entries = {};
+    private final string[] keys = [];
+    private int next = 0;
+
+    isolated function init(int capacity, decimal negativeTtl) {
+        self.capacity = capacity < 0 ? 0 : capacity;
+        self.negativeTtl = negativeTtl;
+    }
+
+    # Returns the cached outcome of the given key.
+    #
+    # + key - Key created with `getTermCacheKey`
+    # + return - Cached outcome, or nil if the key is not cached or has expired
+    isolated function get(string key) returns TermStatus? {
+        lock {
+            TermCacheEntry? entry = self.entries[key];
+            if entry is () {
+                return ();
+            }
+            decimal? expiresAt = entry.expiresAt;
+            // Expired entries are left in place, and replaced when the key is cached again.
+            if expiresAt is decimal && time:monotonicNow() >= expiresAt {
+                return ();
+            }
+            return entry.status;
+        }
+    }
+
+    # Caches the outcome of the given key, evicting the oldest entry if the cache is full.
+    #
+    # + key - Key created with `getTermCacheKey`
+    # + status - Outcome of the lookup
+    isolated function put(string key, TermStatus status) {
+        lock {
+            if self.capacity == 0 {
+                return;
+            }
+            TermCacheEntry entry = {
+                status,
+                expiresAt: status == TERM_VALID ? () : time:monotonicNow() + self.negativeTtl
+            };
+            if self.entries.hasKey(key) {
+                self.entries[key] = entry;
+                return;
+            }
+            if self.keys.length() < self.capacity {
+                self.keys.push(key);
+            } else {
+                _ = self.entries.removeIfHasKey(self.keys[self.next]);
+                self.keys[self.next] = key;
+                self.next = (self.next + 1) % self.capacity;
+            }
+            self.entries[key] = entry;
+        }
+    }
+
+    # Removes all the cached outcomes.
+    isolated function clear() {
+        lock {
+            self.entries.removeAll();
+            self.keys.removeAll();
+            self.next = 0;
+        }
+    }
+}
+
+# Cached outcome of a terminology lookup.
+#
+# + status - Outcome of the lookup
+# + expiresAt - Monotonic time at which the outcome expires, or nil if it does not expire
+type TermCacheEntry record {|
+    TermStatus status;
+    decimal? expiresAt;
+|};
+
+# Creates the cache key of a code, or of the code system itself when the code is not given.
+#
+# + system - Code system URL
+# + version - Code system version
+# + code - Code
+# + return - Cache key
+isolated function getTermCacheKey(string system, string? version, string? code = ()) returns string {
+    return string `${system}|${version ?: ""}|${code ?: ""}`;
+}
@@ -139,6 +139,31 @@ function parseUnsupportedStringTest() {
     }
 }
 
+@test:Config {}
+function parseFHIRJsonStringWithLeadingWhitespaceTest() returns r4:FHIRParseError? {
+    international401:Patient pat = <international401:Patient>check parse("\n\t  " + TEST_FHIR_RESOURCE_JSON_PATIENT_01_STRING);
+    test:assertEquals(pat.id, "123344", "Mismatching patient ID");
+}
+
+@test:Config {}
+function parseMalformedJsonStringTest() {
+    anydata|r4:FHIRParseError pat = parse("{\"resourceType\": \"Patient\"");
+    if pat is r4:FHIRParseError {
+        test:assertEquals(pat.message(), "Failed to parse string payload to json or xml", "Mismatching error message");
+        test:assertEquals(pat.detail().httpStatusCode, 400, "Error status code must be 400");
+    } else {
+        test:assertFail("Expect to fail since the JSON payload is malformed");
+    }
+}
+
+@test:Config {}
+function parseSameModelRepeatedlyTest() returns r4:FHIRParseError? {
+    foreach int i in 0 ..< 3 {
+        international401:Patient pat = <international401:Patient>check parse(TEST_FHIR_RESOURCE_JSON_PATIENT_01, international401:Patient);
+        test:assertEquals(pat.id, "123344", "Mismatching patient ID");
+    }
+}
+
 @test:Config {}
 function parseByGivenModelTest() returns r4:FHIRParseError? {
     international401:Patient pat = <international401:Patient>check parse(TEST_FHIR_RESOURCE_JSON_PATIENT_01, international401:Patient);
@@ -323,3 +348,66 @@ function validateTerminologyNegativeTest() {
         test:assertFail("Unexpected error during terminology validation, Cannot validate terminology codes");
     }
 }
+
+@test:Config {}
+function collectTerminologyCodesTest() {
+    json body = {
+        "resourceType": "Observation",
+        "status": "final",
+        "code": {
+            "coding": [
+                {"system": "http://loinc.org", "code": "8867-4"},
+                {"system": "http://loinc.org", "code": "8867-4"},
+                {"system": "http://snomed.info/sct", "version": "20240301", "code": "364075005"}
+            ]
+        },
+        "component": [
+            {
+                "code": {"coding": [{"system": "http://loinc.org", "code": "8480-6"}]}
+            }
+        ],
+        "extension": [
+            {"url": "http://example.org/fhir/StructureDefinition/priority", "valueCode": "high"}
+        ]
+    };
+    TerminologyCodes codes = collectTerminologyCodes(body);
+
+    test:assertEquals(codes.length(), 3);
+    test:assertEquals(codes.get(getTermCacheKey("http://loinc.org", ())).keys(), ["8867-4", "8480-6"]);
+    test:assertEquals(codes.get(getTermCacheKey("http://snomed.info/sct", "20240301")).keys(), ["364075005"]);
+    test:assertEquals(codes.get(getTermCacheKey("http://example.org/fhir/StructureDefinition/priority", ())).keys(),
+            ["high"]);
+}
+
+@test:Config {}
+function terminologyCodeCacheEvictionTest() {
+    TerminologyCodeCache cache = new (2, DEFAULT_NEGATIVE_CACHE_TTL);
+    cache.put("a", TERM_VALID);
+    cache.put("b", TERM_INVALID);
+    cache.put("a", TERM_INVALID);
+    test:assertEquals(cache.get("a"), TERM_INVALID);
+
+    cache.put("c", TERM_VALID);
+    test:assertEquals(cache.get("a"), ());
+    test:assertEquals(cache.get("b"), TERM_INVALID);
+    test:assertEquals(cache.get("c"), TERM_VALID);
+
+    cache.clear();
+    test:assertEquals(cache.get("b"), ());
+}
+
+@test:Config {}
+function terminologyCodeCacheNegativeTtlTest() {
+    TerminologyCodeCache cache = new (4, 0);
+    cache.put("valid", TERM_VALID);
+    cache.put("invalid", TERM_INVALID);
+    cache.put(getTermCacheKey("http://example.org/unknown", ()), TERM_UNKNOWN_SYSTEM);
+
+    test:assertEquals(cache.get("valid"), TERM_VALID, "Valid codes should not expire");
+    test:assertEquals(cache.get("invalid"), (), "Invalid codes should expire");
+    test:assertEquals(cache.get(getTermCacheKey("http://example.org/unknown", ())), (),
+            "Unknown code systems should expire");
+
+    cache.put("invalid", TERM_VALID);
+    test:assertEquals(cache.get("invalid"), TERM_VALID, "Expired entries should be replaced");
+}
@@ -14,11 +14,16 @@
 // specific language governing permissions and limitations
 // under the License.
 
-type Term record {
+# Code used in a FHIR resource.
+#
+# + code - Code
+# + system - Code system URL
+# + version - Code system version
+public type TerminologyCode record {|
     string code;
     string system;
     string 'version?;
-};
+|};
 
 type TerminologyConfig record {|
     boolean isTerminologyValidationEnabled = false;
@@ -26,8 +31,26 @@ type TerminologyConfig record {|
     string tokenUrl?;
     string clientId?;
     string clientSecret?;
+    int codeCacheCapacity = DEFAULT_CODE_CACHE_CAPACITY;
+    decimal negativeCacheTtl = DEFAULT_NEGATIVE_CACHE_TTL;
 |};
 
+# Default number of terminology lookup outcomes kept in memory.
+public const int DEFAULT_CODE_CACHE_CAPACITY = 4096;
+
+# Default time in seconds for which invalid codes and unknown code systems are cached.
+public const decimal DEFAULT_NEGATIVE_CACHE_TTL = 300;
+
+# Outcome of looking up a code in the terminology service.
+enum TermStatus {
+    TERM_VALID,
+    TERM_INVALID,
+    // The code system is not known to the terminology service, codes of it are assumed to be valid.
+    TERM_UNKNOWN_SYSTEM,
+    // The terminology service did not give a definite answer, the code is assumed to be valid but not cached.
+    TERM_INDETERMINATE
+}
+
 enum TerminologyResources {
     CODE_SYSTEM = "CodeSystem",
     VALUE_SET = "ValueSet"
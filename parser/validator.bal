@@ -90,6 +90,10 @@ public isolated function createValidationError(string message, r4:Severity errSe
 public isolated function validate(anydata data) returns r4:FHIRValidationError? {
 
     if data is r4:DomainResource {
+        // The codes are collected up front, so that the terminology service is called while the constraints are
+        // validated.
+        future<string[]?>? terminologyCheck = startTerminologyCheck(data);
+
         // Get the types of the FHIR resources, it can be international or any specific FHIR profiles like Uscore
         typedesc<anydata> typeDescOfData = typeof data;
 
@@ -103,8 +107,8 @@ public isolated function validate(anydata data) returns r4:FHIRValidationError?
         }
 
         // terminology validation
-        if terminologyValidationEnabled {
-            string[]? validationErrors = validateTerminologyData(validationResult);
+        if terminologyCheck is future<string[]?> {
+            string[]? validationErrors = wait terminologyCheck;
             if validationErrors is string[] {
                 return <r4:FHIRValidationError>createValidationError("FHIR resource validation failed, due to terminology validation failed", r4:ERROR, r4:INVALID, "Terminology validation failed",
                         errorType = r4:VALIDATION_ERROR, parsedErrors = validationErrors, httpStatusCode = http:STATUS_BAD_REQUEST);
@@ -118,6 +122,19 @@ public isolated function validate(anydata data) returns r4:FHIRValidationError?
     }
 }
 
+# Starts checking the codes of a FHIR resource against the terminology service, if terminology validation is enabled.
+#
+# + data - FHIR resource
+# + return - The pending check, or nil if terminology validation is disabled
+isolated function startTerminologyCheck(anydata data) returns future<string[]?>? {
+    final TerminologyValidator? validator = terminologyValidator;
+    if !terminologyValidationEnabled || validator is () {
+        return ();
+    }
+    TerminologyCodes codes = collectTerminologyCodes(data);
+    return start validator.checkCodes(codes);
+}
+
 public isolated function parseConstraintErrors(string message) returns string[] {
 
     string[] errors = [];
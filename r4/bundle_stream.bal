@@ -0,0 +1,189 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/io;
+
+// Size in characters after which a chunk of a streamed Bundle is written
+const int BUNDLE_STREAM_CHUNK_SIZE = 16384;
+
+# Entries of a streamed Bundle.
+public type BundleEntryStream stream<BundleEntry, FHIRError?>;
+
+# A Bundle whose entries are produced incrementally, e.g. from a database cursor.
+# Search, history and operation resource functions can return a `BundleStream` instead of a `Bundle` when the
+# response is too large to be held in memory. The Bundle envelope is written first, followed by each entry, so only
+# a single chunk of the response is held in memory at a time. The entries can be consumed only once.
+public class BundleStream {
+
+    private Bundle envelope;
+    private final BundleEntryStream entries;
+
+    # Initializes the streamed Bundle.
+    #
+    # + envelope - Bundle envelope (type, total, links, etc.). Entries of the envelope are ignored
+    # + entries - Stream of the Bundle entries
+    public isolated function init(Bundle envelope, BundleEntryStream entries) {
+        _ = envelope.removeIfHasKey("entry");
+        self.envelope = envelope;
+        self.entries = entries;
+    }
+
+    # Returns the Bundle envelope.
+    #
+    # + return - Bundle envelope, without entries
+    public isolated function getEnvelope() returns Bundle {
+        return self.envelope;
+    }
+
+    # Replaces the Bundle envelope, e.g. to add the paging links.
+    #
+    # + envelope - Bundle envelope. Entries of the envelope are ignored
+    public isolated function setEnvelope(Bundle envelope) {
+        _ = envelope.removeIfHasKey("entry");
+        self.envelope = envelope;
+    }
+
+    # Serializes the Bundle to FHIR JSON incrementally.
+    #
+    # + return - Stream of the UTF-8 encoded chunks of the Bundle
+    public isolated function toJsonStream() returns stream<byte[], io:Error?> {
+        return new (new BundleChunkIterator(self.envelope, self.entries, false));
+    }
+
+    # Serializes the resources of the Bundle entries to NDJSON incrementally, one resource per line as in FHIR bulk
+    # data exports. The Bundle envelope and entries without a resource are not written.
+    #
+    # + return - Stream of the UTF-8 encoded chunks of the resources
+    public isolated function toNdjsonStream() returns stream<byte[], io:Error?> {
+        return new (new BundleChunkIterator(self.envelope, self.entries, true));
+    }
+
+    # Reads all the entries into a Bundle, for responses in a format the Bundle cannot be streamed in. The whole Bundle
+    # is held in memory.
+    #
+    # + return - Bundle with the envelope and all the entries, or an error if reading the entries fails
+    public isolated function toBundle() returns Bundle|FHIRError {
+        BundleEntry[] entries = [];
+        while true {
+            record {|BundleEntry value;|}|FHIRError? next = self.entries.next();
+            if next is FHIRError {
+                error? _ = self.entries.close();
+                return next;
+            }
+            if next is () {
+                break;
+            }
+            entries.push(next.value);
+        }
+        Bundle bundle = self.envelope.clone();
+        if entries.length() > 0 {
+            bundle.entry = entries;
+        }
+        return bundle;
+    }
+}
+
+# Iterator of the serialized chunks of a streamed Bundle.
+class BundleChunkIterator {
+
+    private final Bundle envelope;
+    private final BundleEntryStream entries;
+    private final boolean ndjson;
+    private boolean started = false;
+    private boolean firstEntry = true;
+    private boolean done = false;
+
+    isolated function init(Bundle envelope, BundleEntryStream entries, boolean ndjson) {
+        self.envelope = envelope;
+        self.entries = entries;
+        self.ndjson = ndjson;
+    }
+
+    public isolated function next() returns record {|byte[] value;|}|io:Error? {
+        if self.done {
+            return ();
+        }
+        string[] parts = [];
+        int length = 0;
+        if !self.started {
+            self.started = true;
+            if !self.ndjson {
+                string|FHIRError prefix = getBundleStreamPrefix(self.envelope);
+                if prefix is FHIRError {
+                    return self.fail(prefix);
+                }
+                parts.push(prefix);
+                length += prefix.length();
+            }
+        }
+        while length < BUNDLE_STREAM_CHUNK_SIZE {
+            record {|BundleEntry value;|}|FHIRError? next = self.entries.next();
+            if next is FHIRError {
+                return self.fail(next);
+            }
+            if next is () {
+                self.done = true;
+                if !self.ndjson {
+                    parts.push("]}");
+                }
+                break;
+            }
+            string|FHIRError? serialized = self.ndjson ? serializeNdjsonEntry(next.value)
+                : serializeJsonEntry(next.value, self.firstEntry);
+            if serialized is FHIRError {
+                return self.fail(serialized);
+            }
+            if serialized is string {
+                parts.push(serialized);
+                length += serialized.length();
+                self.firstEntry = false;
+            }
+        }
+        if parts.length() == 0 {
+            return ();
+        }
+        return {value: string:'join("", ...parts).toBytes()};
+    }
+
+    private isolated function fail(FHIRError err) returns io:Error {
+        self.done = true;
+        // The stream is already failed, so the error of the entries is reported instead of a close error.
+        error? _ = self.entries.close();
+        return error io:GenericError(string `Bundle streaming failed: ${err.message()}`, err);
+    }
+}
+
+# Returns the JSON of the Bundle envelope up to the start of the entries array.
+#
+# + envelope - Bundle envelope
+# + return - Start of the Bundle JSON, or an error if the envelope cannot be serialized
+isolated function getBundleStreamPrefix(Bundle envelope) returns string|FHIRError {
+    string envelopeJson = (check bundleToWireModel(envelope, JSON)).toJson().toJsonString();
+    return envelopeJson.substring(0, envelopeJson.length() - 1) + ",\"entry\":[";
+}
+
+isolated function serializeJsonEntry(BundleEntry entry, boolean first) returns string|FHIRError {
+    string entryJson = (check bundleEntryToWireModel(entry, JSON)).toJson().toJsonString();
+    return first ? entryJson : "," + entryJson;
+}
+
+isolated function serializeNdjsonEntry(BundleEntry entry) returns string|FHIRError? {
+    if !entry.hasKey("resource") {
+        return ();
+    }
+    FHIRWireFormat resourceJson = check serializeEntryResource(<anydata|FHIRWireFormat>entry.get("resource"), JSON);
+    return resourceJson is json ? resourceJson.toJsonString() + "\n" : ();
+}
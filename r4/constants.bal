@@ -26,6 +26,9 @@ public const FHIR_MIME_TYPE_XML = "application/fhir+xml";
 # This is the FHIR MIME type FHIR+JSON
 public const FHIR_MIME_TYPE_JSON = "application/fhir+json";
 
+# This is the FHIR MIME type FHIR+NDJSON (newline delimited JSON)
+public const FHIR_MIME_TYPE_NDJSON = "application/fhir+ndjson";
+
 # This is the FHIR common search parameter for profile
 public const FHIR_SEARCH_PARAM_PROFILE = "_profile";
 
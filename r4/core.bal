@@ -353,6 +353,18 @@ public type HTTPRequest record {
     readonly & (json|xml|string)? payload;
 };
 
+# Record holding information about the HTTP request, from which the `HTTPRequest` of a FHIR context is created when it
+# is first accessed. The payload is kept as received instead of as a readonly copy of the parsed payload.
+#
+# + headers - map of incoming HTTP headers
+# + rawPayload - HTTP payload as received
+# + payloadFormat - format of the HTTP payload
+public type RawHTTPRequest record {|
+    readonly & map<string[]> headers;
+    string rawPayload?;
+    FHIRPayloadFormat payloadFormat = JSON;
+|};
+
 # Record collecting information about the HTTP response.
 #
 # + headers - map of outgoing HTTP headers
@@ -529,10 +541,14 @@ public type JWT record {
 # + paginationEnabled - Whether pagination is enabled or not  
 # + page - Page number 
 # + pageSize - Page size
+# + cursorEnabled - Whether the pages of the search are continued from a cursor instead of a page number
+# + cursor - Cursor from which the requested page continues, as set by the previous page of the search
 public type PaginationContext record {|
     readonly boolean paginationEnabled;
     readonly int page;
     readonly int pageSize;
+    readonly boolean cursorEnabled = false;
+    readonly string? cursor = ();
 |};
 
 # Record to hold consent context information.
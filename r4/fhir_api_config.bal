@@ -37,6 +37,9 @@ public type ResourceAPIConfig readonly & ResourceAPIConfigType;
 # + authzConfig - Authorization service configuration
 # + auditConfig - Audit service configuration
 # + paginationConfig - Pagination configuration
+# + readCacheConfig - Read response cache configuration
+# + transactionsEnabled - Whether transaction Bundles are executed for the resource type. The entries of a transaction
+# are not rolled back if a later entry fails, so enable only if partially applied transactions are acceptable
 public type ResourceAPIConfigType record {|
     readonly string resourceType;
     readonly string[] profiles;
@@ -49,6 +52,10 @@ public type ResourceAPIConfigType record {|
     readonly PaginationConfig paginationConfig = {
         enabled: true
     };
+    readonly ReadCacheConfig readCacheConfig = {
+        enabled: false
+    };
+    readonly boolean transactionsEnabled = false;
 |};
 
 # Search parameter configuration.
@@ -139,7 +146,20 @@ public type ApiInfo record {|
 #
 # + enabled - Whether pagination is enabled or not  
 # + pageSize - Number of records per page
+# + cursorEnabled - Whether the pages are linked with cursors set by the search resource function (keyset
+# pagination) instead of page numbers
 public type PaginationConfig record {|
     readonly boolean enabled;
     readonly int pageSize = 10;
+    readonly boolean cursorEnabled = false;
+|};
+
+# Read response cache configs. Resources that change rarely and are read often, such as Practitioner, Organization
+# and Location, can be served from the cache instead of calling the read resource function every time.
+#
+# + enabled - Whether the responses of read and vread interactions are cached or not  
+# + capacity - Maximum number of cached responses. Once the cache is full, the oldest response is evicted first
+public type ReadCacheConfig record {|
+    readonly boolean enabled;
+    readonly int capacity = 1000;
 |};
@@ -21,9 +21,21 @@ import ballerina/time;
 #
 # + enabled - enable or disable integration with audit service
 # + auditServiceUrl - url of the audit service
+# + batchSize - maximum number of audit events sent in a single request. By default, each event is posted to the
+# `/audits` endpoint of the audit service. When greater than 1, the events are posted to the base url of the audit
+# service as a FHIR batch Bundle of AuditEvent resources, so set it only if the audit service accepts such Bundles
+# + queueSize - maximum number of audit events waiting to be sent. Events are dropped when the queue is full
+# + flushInterval - interval in seconds at which the queued audit events are sent
+# + spillFilePath - file the audit events are appended to while the audit service is unreachable. The events are sent
+# in order once the audit service is reachable again. Defaults to a file in the working directory named after the
+# audit service url
 public type AuditConfig record {|
     boolean enabled = false;
     string auditServiceUrl;
+    int batchSize = 1;
+    int queueSize = 10000;
+    decimal flushInterval = 1;
+    string spillFilePath?;
 |};
 
 # Flattened version of the FHIR AuditEvent (http://hl7.org/fhir/R4/auditevent.html).
@@ -72,8 +84,23 @@ public type AuditEventSendingError record {|
 # + fhirContext - context of the request
 # + return - FHIRError if audit service call fails
 public isolated function handleAuditEvent(http:Client auditClient, FHIRContext fhirContext) returns AuditEventSendingError? {
+    InternalAuditEvent auditEvent = createAuditEvent(fhirContext);
+    json|http:ClientError auditRes = auditClient->post("/audits", auditEvent);
+    if auditRes is http:ClientError {
+        // TODO temporary adding the println as errors are not logged by ballerina log module.
+        io:println(auditRes);
+        return {auditEvent: auditEvent, fhirError: clientErrorToFhirError(auditRes)};
+    }
+    return {auditEvent: auditEvent};
+}
+
+# Creates the audit event of a request.
+#
+# + fhirContext - context of the request
+# + return - audit event of the request
+public isolated function createAuditEvent(FHIRContext fhirContext) returns InternalAuditEvent {
     FHIRUser? user = fhirContext.getFHIRUser();
-    InternalAuditEvent auditEvent = {
+    return {
         typeCode: "rest",
         subTypeCode: fhirContext.getInteraction().interaction.toString(),
         actionCode: getAction(fhirContext.getInteraction().interaction),
@@ -88,14 +115,6 @@ public isolated function handleAuditEvent(http:Client auditClient, FHIRContext f
         entityRole: "1",
         entityWhatReference: fhirContext.getRawPath()
     };
-
-    json|http:ClientError auditRes = auditClient->post("/audits", auditEvent);
-    if auditRes is http:ClientError {
-        // TODO temporary adding the println as errors are not logged by ballerina log module.
-        io:println(auditRes);
-        return {auditEvent: auditEvent, fhirError: clientErrorToFhirError(auditRes)};
-    }
-    return {auditEvent: auditEvent};
 }
 
 isolated function getAction(FHIRInteractionType interaction) returns string {
@@ -18,7 +18,8 @@ public isolated class FHIRContext {
     private MessageDirection direction = IN;
     private final FHIRRequest fhirRequest;
     private final readonly & FHIRSecurity fhirSecurity;
-    private final readonly & HTTPRequest httpRequest;
+    private final readonly & (HTTPRequest|RawHTTPRequest) httpRequestSource;
+    private (readonly & HTTPRequest)? httpRequest = ();
     private HTTPResponse? httpResponse = ();
     private FHIRResponse|FHIRContainerResponse? fhirResponse = ();
     private boolean inErrorState = false;
@@ -26,11 +27,16 @@ public isolated class FHIRContext {
     private string rawPath = "";
     private map<anydata> properties = {};
     private PaginationContext? paginationContext = ();
+    private string? nextPageCursor = ();
     private ConsentContext? consentContext = ();
 
-    public isolated function init(FHIRRequest request, readonly & HTTPRequest httpRequest, readonly & FHIRSecurity security) {
+    public isolated function init(FHIRRequest request, readonly & (HTTPRequest|RawHTTPRequest) httpRequest,
+            readonly & FHIRSecurity security) {
         self.fhirRequest = request;
-        self.httpRequest = httpRequest;
+        self.httpRequestSource = httpRequest;
+        if httpRequest is HTTPRequest {
+            self.httpRequest = httpRequest;
+        }
         self.fhirSecurity = security;
     }
 
@@ -118,10 +124,46 @@ public isolated class FHIRContext {
     }
 
     # Get incoming raw HTTP request information.
+    # The payload of the request is parsed when the request is first accessed.
     #
     # + return - Incoming HTTP request
     public isolated function getHTTPRequest() returns HTTPRequest? {
-        return self.httpRequest;
+        lock {
+            readonly & HTTPRequest? httpRequest = self.httpRequest;
+            if httpRequest != () {
+                return httpRequest;
+            }
+            readonly & (HTTPRequest|RawHTTPRequest) httpRequestSource = self.httpRequestSource;
+            if httpRequestSource is HTTPRequest {
+                return httpRequestSource;
+            }
+            readonly & HTTPRequest materializedRequest = materializeHTTPRequest(httpRequestSource);
+            self.httpRequest = materializedRequest;
+            return materializedRequest;
+        }
+    }
+
+    # Get the headers of the incoming HTTP request, without parsing the payload of the request.
+    #
+    # + return - Incoming HTTP headers
+    public isolated function getHTTPHeaders() returns readonly & map<string[]> {
+        return self.httpRequestSource.headers;
+    }
+
+    # Get the payload of the incoming HTTP request as received, e.g. to pass it through when no transformation is
+    # needed.
+    #
+    # + return - Incoming HTTP payload, or nil if the request has no payload
+    public isolated function getRawPayload() returns string? {
+        readonly & (HTTPRequest|RawHTTPRequest) httpRequestSource = self.httpRequestSource;
+        if httpRequestSource is RawHTTPRequest {
+            return httpRequestSource.rawPayload;
+        }
+        (json|xml|string)? payload = httpRequestSource.payload;
+        if payload is string? {
+            return payload;
+        }
+        return payload is xml ? payload.toString() : payload.toJsonString();
     }
 
     # Set FHIR response sent to client application.
@@ -234,6 +276,25 @@ public isolated class FHIRContext {
         }
     }
 
+    # Set the cursor from which the next page of a search continues, when cursor pagination is enabled. The cursor is
+    # typically the sort key of the last resource of the page, and is sent back in the `next` link as a signed token.
+    #
+    # + cursor - Cursor of the next page
+    public isolated function setNextPageCursor(string cursor) {
+        lock {
+            self.nextPageCursor = cursor;
+        }
+    }
+
+    # Get the cursor from which the next page of a search continues.
+    #
+    # + return - Cursor of the next page, or nil if this is the last page
+    public isolated function getNextPageCursor() returns string? {
+        lock {
+            return self.nextPageCursor;
+        }
+    }
+
     # Set consent context to fhir context.
     #
     # + consentContext - Consent context record with consented resource types
@@ -516,3 +577,29 @@ public isolated class FHIRContext {
         return ();
     }
 }
+
+# Creates the HTTP request information of a FHIR context from the request as received.
+#
+# + rawRequest - HTTP request as received
+# + return - HTTP request with the parsed payload. The payload is kept as received if it cannot be parsed
+isolated function materializeHTTPRequest(readonly & RawHTTPRequest rawRequest) returns readonly & HTTPRequest {
+    string? rawPayload = rawRequest.rawPayload;
+    readonly & (json|xml|string)? payload = rawPayload;
+    if rawPayload is string {
+        if rawRequest.payloadFormat == XML {
+            xml|error parsedPayload = xml:fromString(rawPayload);
+            if parsedPayload is xml {
+                payload = parsedPayload.cloneReadOnly();
+            }
+        } else {
+            json|error parsedPayload = rawPayload.fromJsonString();
+            if parsedPayload is json {
+                payload = parsedPayload.cloneReadOnly();
+            }
+        }
+    }
+    return {
+        headers: rawRequest.headers,
+        payload: payload
+    };
+}
@@ -21,77 +21,12 @@ public isolated class FHIRRegistry {
 
     private FHIRImplementationGuide[] implementationGuides = [];
 
-    // profile map (key: profile url)
-    private map<readonly & Profile> profileMap = {
-        "http://hl7.org/fhir/StructureDefinition/Bundle": {
-            url: "http://hl7.org/fhir/StructureDefinition/Bundle",
-            resourceType: "Bundle",
-            modelType: Bundle
-        },
-        "http://hl7.org/fhir/StructureDefinition/CodeSystem": {
-            url: "http://hl7.org/fhir/StructureDefinition/CodeSystem",
-            resourceType: "CodeSystem",
-            modelType: CodeSystem
-        },
-        "http://hl7.org/fhir/StructureDefinition/OperationOutcome": {
-            url: "http://hl7.org/fhir/StructureDefinition/OperationOutcome",
-            resourceType: "OperationOutcome",
-            modelType: OperationOutcome
-        },
-        "http://hl7.org/fhir/StructureDefinition/ValueSet": {
-            url: "http://hl7.org/fhir/StructureDefinition/ValueSet",
-            resourceType: "ValueSet",
-            modelType: ValueSet
-        },
-        "http://hl7.org/fhir/StructureDefinition/shareablecodesystem": {
-            url: "http://hl7.org/fhir/StructureDefinition/shareablecodesystem",
-            resourceType: "CodeSystem",
-            modelType: CodeSystem
-        },
-        "http://hl7.org/fhir/StructureDefinition/shareablevalueset": {
-            url: "http://hl7.org/fhir/StructureDefinition/shareablevalueset",
-            resourceType: "ValueSet",
-            modelType: ValueSet
-        }
-    };
+    // Contents of the registry. A snapshot is immutable, so lookups hold the lock only to read the current snapshot,
+    // and return the values in it without copying them. Updates build a new snapshot from the current one and
+    // publish it, so a lookup sees either all or none of an update.
+    private RegistrySnapshot snapshot = INITIAL_REGISTRY_SNAPSHOT;
 
-    // maintain resource type to profiles mapping
-    private map<map<Profile>> resourceTypeProfiles = {};
-
-    // resource type to profile of FHIR Base resources
-    private map<readonly & Profile> fhirBaseIGProfiles = {
-        "Bundle": {
-            url: "http://hl7.org/fhir/StructureDefinition/Bundle",
-            resourceType: "Bundle",
-            modelType: Bundle
-        },
-        "CodeSystem": {
-            url: "http://hl7.org/fhir/StructureDefinition/CodeSystem",
-            resourceType: "CodeSystem",
-            modelType: CodeSystem
-        },
-        "OperationOutcome": {
-            url: "http://hl7.org/fhir/StructureDefinition/OperationOutcome",
-            resourceType: "OperationOutcome",
-            modelType: OperationOutcome
-        },
-        "ValueSet": {
-            url: "http://hl7.org/fhir/StructureDefinition/ValueSet",
-            resourceType: "ValueSet",
-            modelType: ValueSet
-        }
-    };
-
-    // search parameter map (key: resource type)
-    private map<SearchParamCollection> searchParameterMap = {};
-
-    // Operations map (key: resource type)
-    private map<OperationCollection> operationsMap = {};
-
-    // FHIR services map (key: resource type)
-    private FHIRServicesCollection fhirServicesMap = {};
-
-    private map<FhirAnalyticsPublisher> analyticsPublishersMap = {};    
+    private map<FhirAnalyticsPublisher> analyticsPublishersMap = {};
 
     public function init() {
     }
@@ -100,16 +35,10 @@ public isolated class FHIRRegistry {
     #
     # + profile - The profile to be added
     public isolated function addProfileToResourceType(readonly & Profile profile) {
-        lock {
-            map<Profile> profiles;
-            if self.resourceTypeProfiles.hasKey(profile.resourceType) {
-                profiles = self.resourceTypeProfiles.get(profile.resourceType);
-            } else {
-                profiles = {};
-                self.resourceTypeProfiles[profile.resourceType] = profiles;
-            }
-            profiles[profile.url] = profile;
-        }
+        self.update(isolated function(RegistrySnapshotBuilder registry) returns boolean {
+            addResourceTypeProfile(registry, profile);
+            return true;
+        });
     }
 
     # Add an implementation guide to the registry
@@ -121,70 +50,16 @@ public isolated class FHIRRegistry {
             self.implementationGuides.push(ig);
         }
 
-        lock {
-            // add profiles to profile map
-            foreach Profile profile in ig.getProfiles() {
-                readonly & Profile profileClone = profile.cloneReadOnly();
-                self.profileMap[profileClone.url] = profileClone;
-
-                // Add to resource type bound profile mapping
-                self.addProfileToResourceType(profileClone);
-
-                // If the processed IG is FHIR base IG, we need to add it to FHIR base profile map
-                if ig.getName() == FHIR_BASE_IG {
-                    //ResourceDefinitionRecord resourceDef = check getResourceDefinition(profile.modelType);
-                    self.fhirBaseIGProfiles[profileClone.resourceType] = profileClone;
-                }
-            }
-        }
-
-        lock {
-            // Add search parameters
-            foreach map<FHIRSearchParameterDefinition[]> paramsMap in ig.getSearchParameters() {
-                foreach FHIRSearchParameterDefinition[] params in paramsMap {
-                    foreach FHIRSearchParameterDefinition param in params {
-                        foreach string resourceType in param.base {
-                            if (self.searchParameterMap.hasKey(resourceType)) {
-                                SearchParamCollection collection = self.searchParameterMap.get(resourceType);
-                                if !collection.hasKey(param.name) {
-                                    collection[param.name] = param;
-                                }
-                            } else {
-                                SearchParamCollection collection = {};
-                                collection[param.name] = param;
-                                self.searchParameterMap[resourceType] = collection;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        lock {
-            // Add operations
-            map<FHIROperationDefinition[]>? igOperationsDefinitionsMap = ig.getOperations();
-            if igOperationsDefinitionsMap != () {
-                foreach FHIROperationDefinition[] operationDefinitions in igOperationsDefinitionsMap {
-                    foreach FHIROperationDefinition operationDefinition in operationDefinitions {
-                        string[]? resources = operationDefinition.'resource;
-                        if resources is string[] {
-                            foreach string resourceType in resources {
-                                if self.operationsMap.hasKey(resourceType) {
-                                    OperationCollection collection = self.operationsMap.get(resourceType);
-                                    if !collection.hasKey(operationDefinition.name) {
-                                        collection[operationDefinition.name] = operationDefinition;
-                                    }
-                                } else {
-                                    OperationCollection collection = {};
-                                    collection[operationDefinition.name] = operationDefinition;
-                                    self.operationsMap[resourceType] = collection;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
+        final ImplementationGuideContents & readonly contents = {
+            profiles: ig.getProfiles().cloneReadOnly(),
+            searchParameters: ig.getSearchParameters().cloneReadOnly(),
+            operations: ig.getOperations().cloneReadOnly(),
+            isBaseIG: ig.getName() == FHIR_BASE_IG
+        };
+        self.update(isolated function(RegistrySnapshotBuilder registry) returns boolean {
+            addImplementationGuideContents(registry, contents);
+            return true;
+        });
 
         // Update terminology processor
         terminologyProcessor.addTerminology(ig.getTerminology());
@@ -195,25 +70,15 @@ public isolated class FHIRRegistry {
     # + resourceType - The resource type
     # + return - The profiles in the registry
     public isolated function getResourceProfiles(string resourceType) returns readonly & map<Profile & readonly> {
-        lock {
-            if !self.resourceTypeProfiles.hasKey(resourceType) {
-                return {};
-            }
-            return self.resourceTypeProfiles.get(resourceType).cloneReadOnly();
-        }
+        return self.getSnapshot().resourceTypeProfiles[resourceType] ?: {};
     }
 
     # Get the resource search parameters in the registry
     #
     # + resourceType - The resource type
-    # + return - The search parameters in the registry
+    # + return - The search parameters in the registry. The collection is read-only
     public isolated function getResourceSearchParameters(string resourceType) returns SearchParamCollection {
-        lock {
-            if self.searchParameterMap.hasKey(resourceType) {
-                return self.searchParameterMap.get(resourceType).cloneReadOnly();
-            }
-        }
-        return {};
+        return self.getSnapshot().searchParameters[resourceType] ?: {};
     }
 
     # Get the search parameters in the registry by name
@@ -222,25 +87,32 @@ public isolated class FHIRRegistry {
     # + name - The name of the search parameter
     # + return - The search parameters in the registry
     public isolated function getResourceSearchParameterByName(string resourceType, string name) returns FHIRSearchParameterDefinition? {
-        lock {
-            if self.searchParameterMap.hasKey(resourceType) && self.searchParameterMap.get(resourceType).hasKey(name) {
-                return self.searchParameterMap.get(resourceType).get(name).clone();
-            }
+        (readonly & FHIRSearchParameterDefinition)? definition = self.findResourceSearchParameter(resourceType, name);
+        if definition is () {
+            return ();
         }
-        return ();
+        // The registry shares its definitions, so callers get a mutable copy
+        FHIRSearchParameterDefinition|error definitionCopy = definition.cloneWithType();
+        return definitionCopy is error ? () : definitionCopy;
+    }
+
+    # Find a search parameter in the registry by name, without copying it.
+    #
+    # + resourceType - The resource type
+    # + name - The name of the search parameter
+    # + return - The read-only search parameter definition if found in the registry, otherwise ()
+    public isolated function findResourceSearchParameter(string resourceType, string name)
+            returns (readonly & FHIRSearchParameterDefinition)? {
+        SearchParamCollection? collection = self.getSnapshot().searchParameters[resourceType];
+        return collection is () ? () : collection[name];
     }
 
     # Get the resource operations in the registry.
     #
     # + resourceType - The resource type
-    # + return - The operations in the registry
+    # + return - The operations in the registry. The collection is read-only
     public isolated function getResourceOperations(string resourceType) returns OperationCollection {
-        lock {
-            if self.operationsMap.hasKey(resourceType) {
-                return self.operationsMap.get(resourceType).cloneReadOnly();
-            }
-        }
-        return {};
+        return self.getSnapshot().operations[resourceType] ?: {};
     }
 
     # Register a resource operation in the registry.
@@ -248,87 +120,23 @@ public isolated class FHIRRegistry {
     # + opConfig - The operation configuration to be registered
     # + return - An error if the operation is invalid or an error occurred while registering the operation
     public isolated function registerResourceOperation(string resourceType, OperationConfig opConfig) returns FHIRError? {
-        lock {
-            OperationCollection resourceOperations = {};
-            if self.operationsMap.hasKey(resourceType) {
-                resourceOperations = self.operationsMap.get(resourceType);
-            } else {
-                self.operationsMap[resourceType] = resourceOperations;
-            }
-            if !resourceOperations.hasKey(opConfig.name) {
-                // If the operation is not defined in resourceOperationDefinitions, it should be defined using the operationConfigMap
-                if opConfig.parameters is OperationParamConfig[] {
-                    log:printDebug(string `Processing operation parameters for ${opConfig.name}`);
-                    FHIROperationParameterDefinition[] operationParams = [];
-                    // Process operation parameters
-                    // Note: This is a placeholder for any specific processing logic for operation parameters
-                    foreach var item in <OperationParamConfig[]>opConfig.parameters {
-                        //create FHIROperationParameterDefinition for the operation
-                        FHIROperationParameterDefinition operationParam = {
-                            name: item.name,
-                            use: "in",
-                            min: item?.min != () ? <int>item.min : 0,
-                            max: item?.max != () ? <string>item.max : "*"
-                        };
-                        operationParams.push(operationParam);
-                    }
+        // If the operation is not defined in resourceOperationDefinitions, it should be defined using the operationConfigMap
+        (readonly & FHIROperationDefinition)? operationDefinition = ();
+        if opConfig.parameters is OperationParamConfig[]
+                && self.findResourceOperation(resourceType, opConfig.name) is () {
+            operationDefinition = createOperationDefinition(resourceType, opConfig).cloneReadOnly();
+        }
+        final (readonly & FHIROperationDefinition)? definition = operationDefinition;
 
-                    FHIROperationDefinition operationDefinition = {
-                        name: opConfig.name,
-                        'parameter: operationParams,
-                        'resource: [resourceType],
-                        typeLevel: false,
-                        systemLevel: false,
-                        instanceLevel: false
-                    };
-                    json additionalProps = opConfig?.additionalProperties;
-                    //access the operation level information
-                    json|error metaInfo = additionalProps.meta;
-                    if metaInfo is map<json> {
-                        json|error operationLevels = metaInfo.operationLevels;
-                        if operationLevels is json[] {
-                            foreach json levelEntry in operationLevels {
-                                if levelEntry is map<json> {
-                                    json|error resourceList = levelEntry.'resource;
-                                    boolean resourceMatches;
-                                    if resourceList is json[] {
-                                        // A 'resource' filter is specified: apply this entry only when
-                                        // the current resource type is listed.
-                                        resourceMatches = resourceList.indexOf(resourceType) != ();
-                                    } else if resourceList is error {
-                                        // No 'resource' field: the entry applies to all resources.
-                                        resourceMatches = true;
-                                    } else {
-                                        // 'resource' field is present but not a JSON array: this is a
-                                        // misconfiguration. Skip the entry instead of silently applying
-                                        // it to every resource, so the error is not masked.
-                                        log:printWarn("Skipping operation level entry: 'resource' must be a JSON array",
-                                                operation = opConfig.name);
-                                        resourceMatches = false;
-                                    }
-                                    if resourceMatches {
-                                        json|error typeLevel = levelEntry.typeLevel;
-                                        json|error systemLevel = levelEntry.systemLevel;
-                                        json|error instanceLevel = levelEntry.instanceLevel;
-                                        if typeLevel is boolean {
-                                            operationDefinition.typeLevel = typeLevel;
-                                        }
-                                        if systemLevel is boolean {
-                                            operationDefinition.systemLevel = systemLevel;
-                                        }
-                                        if instanceLevel is boolean {
-                                            operationDefinition.instanceLevel = instanceLevel;
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                    // Add the operation definition to the resourceOperations
-                    resourceOperations[opConfig.name] = operationDefinition;
-                }
+        self.update(isolated function(RegistrySnapshotBuilder registry) returns boolean {
+            if !registry.operations.hasKey(resourceType) {
+                registry.operations[resourceType] = {};
             }
-        }
+            if definition != () {
+                addOperationDefinition(registry, resourceType, definition);
+            }
+            return true;
+        });
     }
 
     # Get a resource operation in the registry by name.
@@ -338,12 +146,24 @@ public isolated class FHIRRegistry {
     # + return - The operation if found in the registry, otherwise ()
     public isolated function getResourceOperationByName(string resourceType,
             string operation) returns FHIROperationDefinition? {
-        lock {
-            if self.operationsMap.hasKey(resourceType) && self.operationsMap.get(resourceType).hasKey(operation) {
-                return self.operationsMap.get(resourceType).get(operation).clone();
-            }
+        (readonly & FHIROperationDefinition)? definition = self.findResourceOperation(resourceType, operation);
+        if definition is () {
+            return ();
         }
-        return ();
+        // The registry shares its definitions, so callers get a mutable copy
+        FHIROperationDefinition|error definitionCopy = definition.cloneWithType();
+        return definitionCopy is error ? () : definitionCopy;
+    }
+
+    # Find a resource operation in the registry by name, without copying it.
+    #
+    # + resourceType - The resource type
+    # + operation - The name of the operation
+    # + return - The read-only operation definition if found in the registry, otherwise ()
+    public isolated function findResourceOperation(string resourceType, string operation)
+            returns (readonly & FHIROperationDefinition)? {
+        OperationCollection? collection = self.getSnapshot().operations[resourceType];
+        return collection is () ? () : collection[operation];
     }
 
     # Get the profiles in the registry
@@ -351,12 +171,7 @@ public isolated class FHIRRegistry {
     # + url - The url of the profile
     # + return - The profiles in the registry
     public isolated function findProfile(string url) returns (readonly & Profile)? {
-        lock {
-            if self.profileMap.hasKey(url) {
-                return self.profileMap.get(url);
-            }
-        }
-        return ();
+        return self.getSnapshot().profiles[url];
     }
 
     # Get the base profiles in the registry
@@ -364,12 +179,7 @@ public isolated class FHIRRegistry {
     # + resourceType - The resource type
     # + return - The base profile in the registry
     public isolated function findBaseProfile(string resourceType) returns (readonly & Profile)? {
-        lock {
-            if self.fhirBaseIGProfiles.hasKey(resourceType) {
-                return self.fhirBaseIGProfiles.get(resourceType);
-            }
-        }
-        return ();
+        return self.getSnapshot().baseProfiles[resourceType];
     }
 
     # Check the resource type is supported by the registry
@@ -377,9 +187,7 @@ public isolated class FHIRRegistry {
     # + resourceType - The resource type
     # + return - True if the resource type is supported
     public isolated function isSupportedResource(string resourceType) returns boolean {
-        lock {
-            return self.resourceTypeProfiles.hasKey(resourceType);
-        }
+        return self.getSnapshot().resourceTypeProfiles.hasKey(resourceType);
     }
 
     # Add a custom search parameter to the registry
@@ -387,14 +195,10 @@ public isolated class FHIRRegistry {
     # + resourceType - The resource type
     # + searchParameter - The search parameter to be added
     public isolated function addSearchParameter(string resourceType, FHIRSearchParameterDefinition searchParameter) {
-        lock {
-            if self.searchParameterMap.hasKey(resourceType) {
-                SearchParamCollection collection = self.searchParameterMap.get(resourceType);
-                if !collection.hasKey(searchParameter.name) {
-                    collection[searchParameter.name] = searchParameter.clone();
-                }
-            }
-        }
+        final readonly & FHIRSearchParameterDefinition param = searchParameter.cloneReadOnly();
+        self.update(isolated function(RegistrySnapshotBuilder registry) returns boolean {
+            return addSearchParameterDefinition(registry, resourceType, param);
+        });
     }
 
     # Add a FHIR service to the registry
@@ -402,11 +206,14 @@ public isolated class FHIRRegistry {
     # + resourceType - The resource type
     # + serviceInfo - The FHIR service information
     public isolated function registerFHIRService(string resourceType, FHIRServiceInfo serviceInfo) {
-        lock {
-            if !self.fhirServicesMap.hasKey(resourceType) {
-                self.fhirServicesMap[resourceType] = serviceInfo.clone();
+        final readonly & FHIRServiceInfo info = serviceInfo.cloneReadOnly();
+        self.update(isolated function(RegistrySnapshotBuilder registry) returns boolean {
+            if registry.fhirServices.hasKey(resourceType) {
+                return false;
             }
-        }
+            registry.fhirServices[resourceType] = info;
+            return true;
+        });
     }
 
     # Get a FHIR service from the registry by resource type
@@ -414,20 +221,27 @@ public isolated class FHIRRegistry {
     # + resourceType - The resource type
     # + return - The FHIR service information if found, otherwise ()
     public isolated function getFHIRService(string resourceType) returns FHIRServiceInfo? {
-        lock {
-            if self.fhirServicesMap.hasKey(resourceType) {
-                return self.fhirServicesMap.get(resourceType).clone();
-            }
+        (readonly & FHIRServiceInfo)? serviceInfo = self.findFHIRService(resourceType);
+        if serviceInfo is () {
+            return ();
         }
-        return ();
+        // The registry shares its service information, so callers get a mutable copy
+        FHIRServiceInfo|error serviceInfoCopy = serviceInfo.cloneWithType();
+        return serviceInfoCopy is error ? () : serviceInfoCopy;
+    }
+
+    # Find a FHIR service in the registry by resource type, without copying it.
+    #
+    # + resourceType - The resource type
+    # + return - The read-only FHIR service information if found, otherwise ()
+    public isolated function findFHIRService(string resourceType) returns (readonly & FHIRServiceInfo)? {
+        return self.getSnapshot().fhirServices[resourceType];
     }
 
     # Get all FHIR services in the registry
     # + return - A map of FHIR services where the key is the resource type
     public isolated function getAllRegisteredFHIRServices() returns FHIRServicesCollection {
-        lock {
-            return self.fhirServicesMap.cloneReadOnly();
-        }
+        return self.getSnapshot().fhirServices;
     }
 
     # Remove a FHIR service from the registry
@@ -435,13 +249,13 @@ public isolated class FHIRRegistry {
     # + resourceType - The resource type
     # + return - True if the service was removed, false if not found
     public isolated function removeFHIRService(string resourceType) returns boolean {
-        lock {
-            if self.fhirServicesMap.hasKey(resourceType) {
-                _ = self.fhirServicesMap.remove(resourceType);
-                return true;
-            }
+        if !self.getSnapshot().fhirServices.hasKey(resourceType) {
+            return false;
         }
-        return false;
+        self.update(isolated function(RegistrySnapshotBuilder registry) returns boolean {
+            return registry.fhirServices.removeIfHasKey(resourceType) != ();
+        });
+        return true;
     }
 
     # Add an analytics publisher to the registry
@@ -468,8 +282,338 @@ public isolated class FHIRRegistry {
         }
         return ();
     }
+
+    # Get the current snapshot of the registry contents.
+    #
+    # + return - The current snapshot
+    private isolated function getSnapshot() returns RegistrySnapshot {
+        lock {
+            return self.snapshot;
+        }
+    }
+
+    # Apply an update to the registry contents and publish the updated snapshot.
+    # The update is applied to a copy of the current snapshot outside the lock. If another update was published
+    # meanwhile, the update is applied again to the newly published snapshot.
+    #
+    # + updater - Updates the copy of the snapshot, and returns false if it left the copy unchanged
+    private isolated function update(isolated function (RegistrySnapshotBuilder registry) returns boolean updater) {
+        while true {
+            RegistrySnapshot current = self.getSnapshot();
+            RegistrySnapshotBuilder registry = toSnapshotBuilder(current);
+            if !updater(registry) {
+                return;
+            }
+            RegistrySnapshot updated = registry.cloneReadOnly();
+            lock {
+                if self.snapshot === current {
+                    self.snapshot = updated;
+                    return;
+                }
+            }
+        }
+    }
 }
 
+# Immutable contents of the FHIR registry.
+#
+# + profiles - Profiles (key: profile url)
+# + resourceTypeProfiles - Profiles of each resource type (key: resource type, then profile url)
+# + baseProfiles - Profiles of FHIR Base resources (key: resource type)
+# + searchParameters - Search parameters (key: resource type)
+# + operations - Operations (key: resource type)
+# + fhirServices - FHIR services (key: resource type)
+type RegistrySnapshot readonly & record {|
+    map<Profile> profiles;
+    map<map<Profile>> resourceTypeProfiles;
+    map<Profile> baseProfiles;
+    map<SearchParamCollection> searchParameters;
+    map<OperationCollection> operations;
+    FHIRServicesCollection fhirServices;
+|};
+
+# Copy of the top level maps of a registry snapshot, updated to build the next snapshot. The nested values are
+# shared with the snapshot, so they are replaced instead of being updated.
+type RegistrySnapshotBuilder record {|
+    map<readonly & Profile> profiles;
+    map<readonly & map<Profile & readonly>> resourceTypeProfiles;
+    map<readonly & Profile> baseProfiles;
+    map<readonly & SearchParamCollection> searchParameters;
+    map<readonly & OperationCollection> operations;
+    map<readonly & FHIRServiceInfo> fhirServices;
+|};
+
+isolated function toSnapshotBuilder(RegistrySnapshot snapshot) returns RegistrySnapshotBuilder {
+    return {
+        profiles: {...snapshot.profiles},
+        resourceTypeProfiles: {...snapshot.resourceTypeProfiles},
+        baseProfiles: {...snapshot.baseProfiles},
+        searchParameters: {...snapshot.searchParameters},
+        operations: {...snapshot.operations},
+        fhirServices: {...snapshot.fhirServices}
+    };
+}
+
+# Contents of an implementation guide added to the registry.
+#
+# + profiles - Profiles (key: profile url)
+# + searchParameters - Search parameters
+# + operations - Operations
+# + isBaseIG - Whether the implementation guide is the FHIR base IG
+type ImplementationGuideContents record {|
+    map<Profile> profiles;
+    map<FHIRSearchParameterDefinition[]>[] searchParameters;
+    map<FHIROperationDefinition[]>? operations;
+    boolean isBaseIG;
+|};
+
+# Add the contents of an implementation guide to the registry contents being updated.
+# The profiles, search parameters and operations of a resource type are collected in a single map, which is made
+# read-only once per implementation guide instead of once per added definition.
+#
+# + registry - The registry contents being updated
+# + ig - The contents of the implementation guide
+isolated function addImplementationGuideContents(RegistrySnapshotBuilder registry,
+        ImplementationGuideContents & readonly ig) {
+    // add profiles to profile map
+    map<map<Profile & readonly>> resourceTypeProfiles = {};
+    foreach readonly & Profile profile in ig.profiles {
+        registry.profiles[profile.url] = profile;
+
+        // Add to resource type bound profile mapping
+        map<Profile & readonly> profiles = resourceTypeProfiles[profile.resourceType]
+            ?: {...(registry.resourceTypeProfiles[profile.resourceType] ?: {})};
+        profiles[profile.url] = profile;
+        resourceTypeProfiles[profile.resourceType] = profiles;
+
+        // If the processed IG is FHIR base IG, we need to add it to FHIR base profile map
+        if ig.isBaseIG {
+            registry.baseProfiles[profile.resourceType] = profile;
+        }
+    }
+    foreach [string, map<Profile & readonly>] [resourceType, profiles] in resourceTypeProfiles.entries() {
+        registry.resourceTypeProfiles[resourceType] = profiles.cloneReadOnly();
+    }
+
+    // Add search parameters
+    map<SearchParamCollection> searchParameters = {};
+    foreach readonly & map<FHIRSearchParameterDefinition[]> paramsMap in ig.searchParameters {
+        foreach readonly & FHIRSearchParameterDefinition[] params in paramsMap {
+            foreach readonly & FHIRSearchParameterDefinition param in params {
+                foreach string resourceType in param.base {
+                    SearchParamCollection collection = searchParameters[resourceType]
+                        ?: {...(registry.searchParameters[resourceType] ?: {})};
+                    if !collection.hasKey(param.name) {
+                        collection[param.name] = param;
+                    }
+                    searchParameters[resourceType] = collection;
+                }
+            }
+        }
+    }
+    foreach [string, SearchParamCollection] [resourceType, collection] in searchParameters.entries() {
+        registry.searchParameters[resourceType] = collection.cloneReadOnly();
+    }
+
+    // Add operations
+    map<FHIROperationDefinition[]>? igOperations = ig.operations;
+    if igOperations is () {
+        return;
+    }
+    map<OperationCollection> operations = {};
+    foreach readonly & FHIROperationDefinition[] operationDefinitions in igOperations {
+        foreach readonly & FHIROperationDefinition operationDefinition in operationDefinitions {
+            string[]? resources = operationDefinition.'resource;
+            if resources is string[] {
+                foreach string resourceType in resources {
+                    OperationCollection collection = operations[resourceType]
+                        ?: {...(registry.operations[resourceType] ?: {})};
+                    if !collection.hasKey(operationDefinition.name) {
+                        collection[operationDefinition.name] = operationDefinition;
+                    }
+                    operations[resourceType] = collection;
+                }
+            }
+        }
+    }
+    foreach [string, OperationCollection] [resourceType, collection] in operations.entries() {
+        registry.operations[resourceType] = collection.cloneReadOnly();
+    }
+}
+
+isolated function addResourceTypeProfile(RegistrySnapshotBuilder registry, readonly & Profile profile) {
+    map<Profile & readonly> profiles = {...(registry.resourceTypeProfiles[profile.resourceType] ?: {})};
+    profiles[profile.url] = profile;
+    registry.resourceTypeProfiles[profile.resourceType] = profiles.cloneReadOnly();
+}
+
+# Add a search parameter to the search parameters of a resource type, unless the resource type has no search
+# parameters or has a search parameter of the same name.
+#
+# + registry - The registry contents being updated
+# + resourceType - The resource type
+# + param - The search parameter
+# + return - True if the search parameter was added
+isolated function addSearchParameterDefinition(RegistrySnapshotBuilder registry, string resourceType,
+        readonly & FHIRSearchParameterDefinition param) returns boolean {
+    (readonly & SearchParamCollection)? existing = registry.searchParameters[resourceType];
+    if existing is () || existing.hasKey(param.name) {
+        return false;
+    }
+    SearchParamCollection collection = {...existing};
+    collection[param.name] = param;
+    registry.searchParameters[resourceType] = collection.cloneReadOnly();
+    return true;
+}
+
+isolated function addOperationDefinition(RegistrySnapshotBuilder registry, string resourceType,
+        readonly & FHIROperationDefinition operationDefinition) {
+    (readonly & OperationCollection)? existing = registry.operations[resourceType];
+    if existing != () && existing.hasKey(operationDefinition.name) {
+        return;
+    }
+    OperationCollection collection = {...(existing ?: {})};
+    collection[operationDefinition.name] = operationDefinition;
+    registry.operations[resourceType] = collection.cloneReadOnly();
+}
+
+# Create the definition of an operation configured in a resource API config.
+#
+# + resourceType - The resource type
+# + opConfig - The operation configuration, with its parameters
+# + return - The operation definition
+isolated function createOperationDefinition(string resourceType, OperationConfig opConfig)
+        returns FHIROperationDefinition {
+    log:printDebug(string `Processing operation parameters for ${opConfig.name}`);
+    FHIROperationParameterDefinition[] operationParams = [];
+    // Process operation parameters
+    // Note: This is a placeholder for any specific processing logic for operation parameters
+    foreach var item in <OperationParamConfig[]>opConfig.parameters {
+        //create FHIROperationParameterDefinition for the operation
+        FHIROperationParameterDefinition operationParam = {
+            name: item.name,
+            use: "in",
+            min: item?.min != () ? <int>item.min : 0,
+            max: item?.max != () ? <string>item.max : "*"
+        };
+        operationParams.push(operationParam);
+    }
+
+    FHIROperationDefinition operationDefinition = {
+        name: opConfig.name,
+        'parameter: operationParams,
+        'resource: [resourceType],
+        typeLevel: false,
+        systemLevel: false,
+        instanceLevel: false
+    };
+    json additionalProps = opConfig?.additionalProperties;
+    //access the operation level information
+    json|error metaInfo = additionalProps.meta;
+    if metaInfo is map<json> {
+        json|error operationLevels = metaInfo.operationLevels;
+        if operationLevels is json[] {
+            foreach json levelEntry in operationLevels {
+                if levelEntry is map<json> {
+                    json|error resourceList = levelEntry.'resource;
+                    boolean resourceMatches;
+                    if resourceList is json[] {
+                        // A 'resource' filter is specified: apply this entry only when
+                        // the current resource type is listed.
+                        resourceMatches = resourceList.indexOf(resourceType) != ();
+                    } else if resourceList is error {
+                        // No 'resource' field: the entry applies to all resources.
+                        resourceMatches = true;
+                    } else {
+                        // 'resource' field is present but not a JSON array: this is a
+                        // misconfiguration. Skip the entry instead of silently applying
+                        // it to every resource, so the error is not masked.
+                        log:printWarn("Skipping operation level entry: 'resource' must be a JSON array",
+                                operation = opConfig.name);
+                        resourceMatches = false;
+                    }
+                    if resourceMatches {
+                        json|error typeLevel = levelEntry.typeLevel;
+                        json|error systemLevel = levelEntry.systemLevel;
+                        json|error instanceLevel = levelEntry.instanceLevel;
+                        if typeLevel is boolean {
+                            operationDefinition.typeLevel = typeLevel;
+                        }
+                        if systemLevel is boolean {
+                            operationDefinition.systemLevel = systemLevel;
+                        }
+                        if instanceLevel is boolean {
+                            operationDefinition.instanceLevel = instanceLevel;
+                        }
+                    }
+                }
+            }
+        }
+    }
+    return operationDefinition;
+}
+
+final RegistrySnapshot INITIAL_REGISTRY_SNAPSHOT = {
+    profiles: {
+        "http://hl7.org/fhir/StructureDefinition/Bundle": {
+            url: "http://hl7.org/fhir/StructureDefinition/Bundle",
+            resourceType: "Bundle",
+            modelType: Bundle
+        },
+        "http://hl7.org/fhir/StructureDefinition/CodeSystem": {
+            url: "http://hl7.org/fhir/StructureDefinition/CodeSystem",
+            resourceType: "CodeSystem",
+            modelType: CodeSystem
+        },
+        "http://hl7.org/fhir/StructureDefinition/OperationOutcome": {
+            url: "http://hl7.org/fhir/StructureDefinition/OperationOutcome",
+            resourceType: "OperationOutcome",
+            modelType: OperationOutcome
+        },
+        "http://hl7.org/fhir/StructureDefinition/ValueSet": {
+            url: "http://hl7.org/fhir/StructureDefinition/ValueSet",
+            resourceType: "ValueSet",
+            modelType: ValueSet
+        },
+        "http://hl7.org/fhir/StructureDefinition/shareablecodesystem": {
+            url: "http://hl7.org/fhir/StructureDefinition/shareablecodesystem",
+            resourceType: "CodeSystem",
+            modelType: CodeSystem
+        },
+        "http://hl7.org/fhir/StructureDefinition/shareablevalueset": {
+            url: "http://hl7.org/fhir/StructureDefinition/shareablevalueset",
+            resourceType: "ValueSet",
+            modelType: ValueSet
+        }
+    },
+    resourceTypeProfiles: {},
+    baseProfiles: {
+        "Bundle": {
+            url: "http://hl7.org/fhir/StructureDefinition/Bundle",
+            resourceType: "Bundle",
+            modelType: Bundle
+        },
+        "CodeSystem": {
+            url: "http://hl7.org/fhir/StructureDefinition/CodeSystem",
+            resourceType: "CodeSystem",
+            modelType: CodeSystem
+        },
+        "OperationOutcome": {
+            url: "http://hl7.org/fhir/StructureDefinition/OperationOutcome",
+            resourceType: "OperationOutcome",
+            modelType: OperationOutcome
+        },
+        "ValueSet": {
+            url: "http://hl7.org/fhir/StructureDefinition/ValueSet",
+            resourceType: "ValueSet",
+            modelType: ValueSet
+        }
+    },
+    searchParameters: {},
+    operations: {},
+    fhirServices: {}
+};
+
 # Search parameter map (key: parameter name)
 public type SearchParamCollection map<FHIRSearchParameterDefinition>;
 
@@ -10,12 +10,11 @@
 // KIND, either express or implied.  See the License for the
 // specific language governing permissions and limitations
 // under the License.
-import ballerina/lang.regexp;
 import ballerina/log;
 
 // internal record types
 type TargetAction record {
-    string targetPath;
+    RelocationStep step;
     json obj;
 };
 
@@ -31,8 +30,8 @@ type RecordMapPair record {
 # + return - XML representation of the data
 public isolated function complexDataTypeXMLSerializer(anydata data,
         ElementAnnotationDefinition elementContextDefinition) returns (FHIRWireFormat|FHIRSerializerError)? {
-    DataTypeDefinitionRecord? dataTypeDefinition = (typeof data).@DataTypeDefinition;
-    if dataTypeDefinition != () {
+    SerializationPlan? plan = getSerializationPlan(typeof data);
+    if plan != () && !plan.isResource {
         xml:Element resultElement = xml:createElement(elementContextDefinition.name, {});
         xml childElements = resultElement.getChildren();
         map<anydata> mapObj = {};
@@ -45,19 +44,12 @@ public isolated function complexDataTypeXMLSerializer(anydata data,
                     diagnostic = diagnosticMsg, cause = e);
         }
         string[] keys = mapObj.keys();
-        map<ElementAnnotationDefinition> childElementDefMap = dataTypeDefinition.elements;
-        map<ElementAnnotationDefinition> processedElements = {};
+        map<ElementAnnotationDefinition> childElementDefMap = plan.elements;
         foreach string key in keys {
-            ElementAnnotationDefinition? childElementDef;
-            if childElementDefMap.hasKey(key) {
-                childElementDef = childElementDefMap.get(key);
-            } else {
-                // Check in parent definitions
-                childElementDef = findInheritedPropertyDefinition(dataTypeDefinition, key);
-            }
+            // Includes the elements inherited from parent definitions
+            ElementAnnotationDefinition? childElementDef = childElementDefMap[key];
 
             if childElementDef != () {
-                processedElements[key] = childElementDef;
                 if childElementDef.isArray {
                     anydata[] childDataArray = <anydata[]>mapObj.get(key);
                     foreach anydata childData in childDataArray {
@@ -126,10 +118,10 @@ public isolated function fhirResourceXMLSerializer(anydata data) returns (FHIRWi
         return <FHIRSerializerError>createInternalFHIRError(diagnosticMsg, FATAL, PROCESSING,
                 diagnostic = diagnosticMsg, cause = e);
     }
-    ResourceDefinitionRecord? resourceDefinition = (typeof transformedResource).@ResourceDefinition;
-    if resourceDefinition != () {
+    SerializationPlan? plan = getSerializationPlan(typeof transformedResource);
+    if plan != () && plan.isResource {
 
-        xml:Element resultElement = xml:createElement(resourceDefinition.resourceType, {"xmlns": FHIR_NAMESPACE});
+        xml:Element resultElement = xml:createElement(plan.name, {"xmlns": FHIR_NAMESPACE});
         xml childElements = resultElement.getChildren();
 
         map<anydata>|error mapObj = transformedResource.ensureType();
@@ -141,16 +133,11 @@ public isolated function fhirResourceXMLSerializer(anydata data) returns (FHIRWi
         }
 
         string[] keys = mapObj.keys();
-        map<ElementAnnotationDefinition> elementDefinitions = resourceDefinition.elements;
+        map<ElementAnnotationDefinition> elementDefinitions = plan.elements;
 
         foreach string key in keys {
-            ElementAnnotationDefinition? elementDef;
-            if elementDefinitions.hasKey(key) {
-                elementDef = elementDefinitions.get(key);
-            } else {
-                // Check in parent definitions
-                elementDef = findInheritedPropertyDefinition(resourceDefinition, key);
-            }
+            // Includes the elements inherited from parent definitions
+            ElementAnnotationDefinition? elementDef = elementDefinitions[key];
             if elementDef != () {
                 if elementDef.isArray {
                     anydata[] childDataArray = <anydata[]>mapObj.get(key);
@@ -185,7 +172,7 @@ public isolated function fhirResourceXMLSerializer(anydata data) returns (FHIRWi
                 }
             } else {
                 // Unable to find definition of the element
-                string diagnosticMsg = string `Unknown element with name : ${key} found under resource: ${resourceDefinition.resourceType}`;
+                string diagnosticMsg = string `Unknown element with name : ${key} found under resource: ${plan.name}`;
                 return <FHIRSerializerError>createInternalFHIRError(diagnosticMsg, FATAL, PROCESSING,
                         diagnostic = diagnosticMsg);
             }
@@ -215,26 +202,6 @@ public isolated function fhirResourceJsonSerializer(anydata data) returns (FHIRW
     }
 }
 
-isolated function findInheritedPropertyDefinition(ResourceDefinitionRecord|DataTypeDefinitionRecord definition, string propertyName) returns ElementAnnotationDefinition? {
-    typedesc? baseType = definition.baseType;
-    if baseType != () {
-        (ResourceDefinitionRecord|DataTypeDefinitionRecord)? baseTypeDef = baseType.@DataTypeDefinition;
-        if baseTypeDef is () {
-            baseTypeDef = baseType.@ResourceDefinition;
-        }
-
-        if baseTypeDef != () {
-            if baseTypeDef.elements.hasKey(propertyName) {
-                return baseTypeDef.elements.get(propertyName);
-            } else {
-                return findInheritedPropertyDefinition(baseTypeDef, propertyName);
-            }
-        }
-    }
-    return ();
-
-}
-
 # Serializes a FHIR Resource to a XML representation
 #
 # + fhirResource - FHIR Resource to be serialized
@@ -286,177 +253,142 @@ public isolated function executeResourceJsonSerializer(anydata fhirResource) ret
 
 isolated function doInternalResourceRelocation(anydata dataModel) returns anydata|FHIRProcessingError {
 
-    ProcessingMetaInfo? processingMetaInfo;
-    ResourceDefinitionRecord? resourceDefinition = (typeof dataModel).@ResourceDefinition;
-    if resourceDefinition is () {
-        DataTypeDefinitionRecord? dataTypeDefinition = (typeof dataModel).@DataTypeDefinition;
-        if dataTypeDefinition is () {
-            string diagMessage = string `Resource or Data type definition not found. Data model type found : ${(typeof dataModel).toBalString()}`;
-            return <FHIRProcessingError>createInternalFHIRError("Resource or Data type definition not found", ERROR,
-                    PROCESSING_NOT_FOUND, diagnostic = diagMessage);
-        }
-        processingMetaInfo = dataTypeDefinition.processingMetaInfo;
-    } else {
-        processingMetaInfo = resourceDefinition.processingMetaInfo;
+    SerializationPlan? plan = getSerializationPlan(typeof dataModel);
+    if plan is () {
+        string diagMessage = string `Resource or Data type definition not found. Data model type found : ${(typeof dataModel).toBalString()}`;
+        return <FHIRProcessingError>createInternalFHIRError("Resource or Data type definition not found", ERROR,
+                PROCESSING_NOT_FOUND, diagnostic = diagMessage);
     }
 
-    if processingMetaInfo is ProcessingMetaInfo {
-
-        typedesc? targetModel = processingMetaInfo.targetModel;
-        Mapping[]? mappings = processingMetaInfo.relocations;
-
-        if targetModel != () && mappings != () {
-
-            ResourceDefinitionRecord? targetResourceDef = targetModel.@ResourceDefinition;
-            if targetResourceDef is () {
-                string diagMessage = string `Resource definition of target model not found. Data model type found : ${(typeof dataModel).toBalString()}`;
-                return <FHIRProcessingError>createInternalFHIRError("Resource definition of target model not found", ERROR,
-                        PROCESSING_NOT_FOUND, diagnostic = diagMessage);
-            }
+    RelocationPlan|FHIRProcessingError? relocation = plan.relocation;
+    if relocation is FHIRProcessingError {
+        return relocation;
+    }
+    if relocation is () {
+        // nothing to process
+        return dataModel;
+    }
 
-            map<json> dataMap = <map<json>>dataModel.toJson();
-            TargetAction[] targetActions = [];
-            // Remove entries that need relocation
-            foreach Mapping mapping in mappings {
-                log:printDebug(string `Relocating: ${mapping.toString()}`);
-                RecordMapPair? removedEntry = detachEntry({jsonModel: dataMap, recordModel: dataModel}, mapping.sourcePath);
-                if removedEntry != () {
-                    log:printDebug(string `Entry detached : ${removedEntry.jsonModel.toString()}`);
-                    TargetAction targetAction;
-
-                    if removedEntry.jsonModel is json[] {
-                        // if the detached entry is an json array
-                        json[] jModel = <json[]>removedEntry.jsonModel;
-                        anydata[] recordModel = <anydata[]>removedEntry.recordModel;
-                        json[] relocatedJsonArray = [];
-                        foreach int i in 0 ... (jModel.length() - 1) {
-                            if jModel[i] is boolean|int|float|decimal|string {
-                                relocatedJsonArray.push(jModel[i]);
-                            } else {
-                                relocatedJsonArray.push(check doRelocateChildEntry({recordModel: recordModel[i], jsonModel: jModel[i]}));
-                            }
-                        }
-                        targetAction = {
-                            obj: relocatedJsonArray,
-                            targetPath: mapping.targetPath
-                        };
+    map<json> dataMap = <map<json>>dataModel.toJson();
+    TargetAction[] targetActions = [];
+    // Remove entries that need relocation
+    foreach RelocationStep step in relocation.steps {
+        log:printDebug(string `Relocating: ${step.mapping.toString()}`);
+        RecordMapPair? removedEntry = detachEntry({jsonModel: dataMap, recordModel: dataModel}, step);
+        if removedEntry != () {
+            log:printDebug(string `Entry detached : ${removedEntry.jsonModel.toString()}`);
+            TargetAction targetAction;
+
+            if removedEntry.jsonModel is json[] {
+                // if the detached entry is an json array
+                json[] jModel = <json[]>removedEntry.jsonModel;
+                anydata[] recordModel = <anydata[]>removedEntry.recordModel;
+                json[] relocatedJsonArray = [];
+                foreach int i in 0 ..< jModel.length() {
+                    if jModel[i] is boolean|int|float|decimal|string {
+                        relocatedJsonArray.push(jModel[i]);
                     } else {
-                        if removedEntry.jsonModel is boolean|int|float|decimal|string {
-                            targetAction = {
-                                obj: removedEntry.jsonModel,
-                                targetPath: mapping.targetPath
-                            };
-                        } else {
-                            json relocatedJsonModel = check doRelocateChildEntry(removedEntry);
-                            targetAction = {
-                                obj: relocatedJsonModel,
-                                targetPath: mapping.targetPath
-                            };
-                        }
+                        relocatedJsonArray.push(check doRelocateChildEntry({recordModel: recordModel[i], jsonModel: jModel[i]}));
                     }
-                    targetActions.push(targetAction);
+                }
+                targetAction = {
+                    obj: relocatedJsonArray,
+                    step: step
+                };
+            } else {
+                if removedEntry.jsonModel is boolean|int|float|decimal|string {
+                    targetAction = {
+                        obj: removedEntry.jsonModel,
+                        step: step
+                    };
+                } else {
+                    json relocatedJsonModel = check doRelocateChildEntry(removedEntry);
+                    targetAction = {
+                        obj: relocatedJsonModel,
+                        step: step
+                    };
                 }
             }
-
-            // perform relocation
-            foreach TargetAction targetAction in targetActions {
-                check relocateEntry(dataMap, targetAction, targetResourceDef);
-            }
-
-            // type cast
-            do {
-                anydata castedRecord = check dataMap.cloneWithType(<typedesc<anydata>>targetModel);
-                return castedRecord;
-            } on fail var e {
-                string diagMessage = string `Error occured while casting relocated data model : ${dataMap.toBalString()} 
-                                                    to type: ${targetModel.toBalString()}`;
-                return <FHIRProcessingError>createInternalFHIRError("Error occured while casting relocated data model.", ERROR,
-                        PROCESSING_NOT_FOUND, diagnostic = diagMessage, cause = e);
-            }
-
-        } else {
-            // internal model mapping processing information not available, so nothing to process
-            return dataModel;
+            targetActions.push(targetAction);
         }
-    } else {
-        // nothing to process
-        return dataModel;
     }
 
+    // perform relocation
+    foreach TargetAction targetAction in targetActions {
+        check relocateEntry(dataMap, targetAction, relocation.targetElements);
+    }
+
+    // type cast
+    typedesc targetModel = relocation.targetModel;
+    do {
+        anydata castedRecord = check dataMap.cloneWithType(<typedesc<anydata>>targetModel);
+        return castedRecord;
+    } on fail var e {
+        string diagMessage = string `Error occured while casting relocated data model : ${dataMap.toBalString()} 
+                                            to type: ${targetModel.toBalString()}`;
+        return <FHIRProcessingError>createInternalFHIRError("Error occured while casting relocated data model.", ERROR,
+                PROCESSING_NOT_FOUND, diagnostic = diagMessage, cause = e);
+    }
 }
 
 isolated function doRelocateChildEntry(RecordMapPair childPair) returns json|FHIRProcessingError {
 
-    DataTypeDefinitionRecord? dataTypeDefinition = (typeof childPair.recordModel).@DataTypeDefinition;
-    if dataTypeDefinition is () {
+    SerializationPlan? plan = getSerializationPlan(typeof childPair.recordModel);
+    if plan is () || plan.isResource {
         string diagMessage = string `Unable to find Data type definition of : ${(childPair.recordModel).toString()}`;
         return <FHIRProcessingError>createInternalFHIRError("Unable to find Data type definition", ERROR,
                 PROCESSING, diagnostic = diagMessage);
     }
 
-    ProcessingMetaInfo? processingMetaInfo = dataTypeDefinition.processingMetaInfo;
-    if processingMetaInfo is ProcessingMetaInfo {
-
-        Mapping[]? relocations = processingMetaInfo.relocations;
-        typedesc? targetModel = processingMetaInfo.targetModel;
-        if relocations != () && targetModel != () {
-
-            DataTypeDefinitionRecord? targetTypeDef = targetModel.@DataTypeDefinition;
-            if targetTypeDef is () {
-                string diagMessage = string `Data type definition of target model: ${targetModel.toBalString()} not found`;
-                return <FHIRProcessingError>createInternalFHIRError("Data type definition of target model not found", ERROR,
-                        PROCESSING_NOT_FOUND, diagnostic = diagMessage);
-            }
-
-            map<json> dataMap = <map<json>>childPair.jsonModel;
-            foreach Mapping relocation in relocations {
-
-                log:printDebug(string `Relocating: ${relocation.toString()}`);
-                RecordMapPair? removedEntry = detachEntry({jsonModel: dataMap, recordModel: childPair.recordModel}, relocation.sourcePath);
-                if removedEntry != () {
-                    if removedEntry.jsonModel is json[] {
-                        // handle if the detached entry is an array
-                        json[] jModel = <json[]>removedEntry.jsonModel;
-                        anydata[] recordModel = <anydata[]>removedEntry.recordModel;
-                        json[] relocatedJsonArray = [];
-                        foreach int i in 0 ..< jModel.length() {
-                            if jModel[i] is boolean|int|float|decimal|string {
-                                relocatedJsonArray.push(jModel[i]);
-                            } else {
-                                // Relocate complex type child entry 
-                                relocatedJsonArray.push(check doRelocateChildEntry({recordModel: recordModel[i], jsonModel: jModel[i]}));
-                            }
-                        }
-                        check relocateEntry(dataMap, {obj: relocatedJsonArray, targetPath: relocation.targetPath}, targetTypeDef);
+    RelocationPlan|FHIRProcessingError? relocation = plan.relocation;
+    if relocation is FHIRProcessingError {
+        return relocation;
+    }
+    if relocation is () {
+        // nothing to process
+        return childPair.jsonModel;
+    }
 
+    map<json> dataMap = <map<json>>childPair.jsonModel;
+    foreach RelocationStep step in relocation.steps {
+
+        log:printDebug(string `Relocating: ${step.mapping.toString()}`);
+        RecordMapPair? removedEntry = detachEntry({jsonModel: dataMap, recordModel: childPair.recordModel}, step);
+        if removedEntry != () {
+            if removedEntry.jsonModel is json[] {
+                // handle if the detached entry is an array
+                json[] jModel = <json[]>removedEntry.jsonModel;
+                anydata[] recordModel = <anydata[]>removedEntry.recordModel;
+                json[] relocatedJsonArray = [];
+                foreach int i in 0 ..< jModel.length() {
+                    if jModel[i] is boolean|int|float|decimal|string {
+                        relocatedJsonArray.push(jModel[i]);
                     } else {
-                        json relocatedJson;
-                        if !(removedEntry.jsonModel is boolean|int|float|decimal|string) {
-                            // Relocate complex type child entry 
-                            relocatedJson = check doRelocateChildEntry(removedEntry);
-                        } else {
-                            relocatedJson = removedEntry.jsonModel;
-                        }
-                        // relocate the entry
-                        check relocateEntry(dataMap, {obj: relocatedJson, targetPath: relocation.targetPath}, targetTypeDef);
+                        // Relocate complex type child entry 
+                        relocatedJsonArray.push(check doRelocateChildEntry({recordModel: recordModel[i], jsonModel: jModel[i]}));
                     }
                 }
+                check relocateEntry(dataMap, {obj: relocatedJsonArray, step: step}, relocation.targetElements);
+
+            } else {
+                json relocatedJson;
+                if !(removedEntry.jsonModel is boolean|int|float|decimal|string) {
+                    // Relocate complex type child entry 
+                    relocatedJson = check doRelocateChildEntry(removedEntry);
+                } else {
+                    relocatedJson = removedEntry.jsonModel;
+                }
+                // relocate the entry
+                check relocateEntry(dataMap, {obj: relocatedJson, step: step}, relocation.targetElements);
             }
-            return dataMap;
-        } else {
-            // internal model mapping processing information not available, so nothing to process
-            return childPair.jsonModel;
         }
-    } else {
-        // nothing to process
-        return childPair.jsonModel;
     }
-
+    return dataMap;
 }
 
-isolated function detachEntry(RecordMapPair recordMapPair, string path) returns RecordMapPair? {
-    log:printDebug(string `Detaching entry : ${path}`);
-    string[] pathParts = regexp:split(re `\.`, path);
+isolated function detachEntry(RecordMapPair recordMapPair, RelocationStep step) returns RecordMapPair? {
+    log:printDebug(string `Detaching entry : ${step.mapping.sourcePath}`);
+    string[] pathParts = step.sourcePathParts;
     map<json> tempMap = <map<json>>recordMapPair.jsonModel;
     map<anydata> tempRecord = <map<anydata>>recordMapPair.recordModel;
     int end = pathParts.length() - 1;
@@ -490,9 +422,9 @@ isolated function detachEntry(RecordMapPair recordMapPair, string path) returns
 
 // Relocate give given target object in mapObj model map
 isolated function relocateEntry(map<json> mapObj, TargetAction targetAction,
-        ResourceDefinitionRecord|DataTypeDefinitionRecord targetResourceDef) returns FHIRProcessingError? {
+        map<ElementAnnotationDefinition> targetElements) returns FHIRProcessingError? {
 
-    string[] pathParts = regexp:split(re `\.`, targetAction.targetPath);
+    string[] pathParts = targetAction.step.targetPathParts;
     map<json> tempMapObj = mapObj;
     int end = pathParts.length() - 1;
 
@@ -522,10 +454,10 @@ isolated function relocateEntry(map<json> mapObj, TargetAction targetAction,
             }
 
         } else {
-            ElementAnnotationDefinition? elementDef = findInheritedPropertyDefinition(targetResourceDef, currentTarget);
+            ElementAnnotationDefinition? elementDef = targetElements[currentTarget];
             if elementDef is () {
                 // Definition not found
-                string diagMessage = string `Unknown target element to relocate : ${currentTarget} in target path : ${targetAction.targetPath}`;
+                string diagMessage = string `Unknown target element to relocate : ${currentTarget} in target path : ${targetAction.step.mapping.targetPath}`;
                 return <FHIRProcessingError>createInternalFHIRError("Unknown target element found to relocate", ERROR,
                         PROCESSING_NOT_FOUND, diagnostic = diagMessage);
             }
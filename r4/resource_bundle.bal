@@ -710,62 +710,7 @@ isolated function bundleToWireModel(Bundle bundle, FHIRPayloadFormat format) ret
     if entries != () {
         BundleEntryModel[] modelEntries = [];
         foreach BundleEntry entry in entries {
-            BundleEntryModel bEntryModel = {};
-
-            BundleLink[]? entryLink = entry.link;
-            if entryLink is BundleLink[] {
-                bEntryModel.link = entryLink;
-            }
-
-            uri? fullUrl = entry.fullUrl;
-            if fullUrl is uri {
-                bEntryModel.fullUrl = fullUrl;
-            }
-
-            if entry.hasKey("resource") {
-                anydata|FHIRWireFormat entryResource = <anydata|FHIRWireFormat>entry.get("resource");
-                bEntryModel.'resource = check serializeEntryResource(entryResource, format);
-            }
-
-            BundleEntrySearch? search = entry.search;
-            if search is BundleEntrySearch {
-                bEntryModel.search = search;
-            }
-
-            BundleEntryRequest? request = entry.request;
-            if request is BundleEntryRequest {
-                bEntryModel.request = request;
-            }
-
-            //transform entry response to response model
-            BundleEntryResponse? response = entry.response;
-            if response is BundleEntryResponse {
-                BundleEntryResponseModel responseModel = {
-                    status: response.status
-                };
-
-                uri? location = response.location;
-                if location is uri {
-                    responseModel.location = location;
-                }
-
-                string? etag = response.etag;
-                if etag is string {
-                    responseModel.etag = etag;
-                }
-
-                instant? lastModified = response.lastModified;
-                if lastModified is instant {
-                    responseModel.lastModified = lastModified;
-                }
-
-                if response.hasKey("outcome") {
-                    anydata|FHIRWireFormat entryResource = <anydata|FHIRWireFormat>entry.get("outcome");
-                    responseModel.outcome = check serializeEntryResource(entryResource, format);
-                }
-                bEntryModel.response = responseModel;
-            }
-            modelEntries.push(bEntryModel);
+            modelEntries.push(check bundleEntryToWireModel(entry, format));
         }
         if modelEntries.length() > 0 {
             result.entry = modelEntries;
@@ -780,6 +725,67 @@ isolated function bundleToWireModel(Bundle bundle, FHIRPayloadFormat format) ret
     return result;
 }
 
+// Function to transform a Bundle entry to BundleEntryModel
+isolated function bundleEntryToWireModel(BundleEntry entry, FHIRPayloadFormat format) returns BundleEntryModel|FHIRSerializerError {
+    BundleEntryModel bEntryModel = {};
+
+    BundleLink[]? entryLink = entry.link;
+    if entryLink is BundleLink[] {
+        bEntryModel.link = entryLink;
+    }
+
+    uri? fullUrl = entry.fullUrl;
+    if fullUrl is uri {
+        bEntryModel.fullUrl = fullUrl;
+    }
+
+    if entry.hasKey("resource") {
+        anydata|FHIRWireFormat entryResource = <anydata|FHIRWireFormat>entry.get("resource");
+        bEntryModel.'resource = check serializeEntryResource(entryResource, format);
+    }
+
+    BundleEntrySearch? search = entry.search;
+    if search is BundleEntrySearch {
+        bEntryModel.search = search;
+    }
+
+    BundleEntryRequest? request = entry.request;
+    if request is BundleEntryRequest {
+        bEntryModel.request = request;
+    }
+
+    //transform entry response to response model
+    BundleEntryResponse? response = entry.response;
+    if response is BundleEntryResponse {
+        BundleEntryResponseModel responseModel = {
+            status: response.status
+        };
+
+        uri? location = response.location;
+        if location is uri {
+            responseModel.location = location;
+        }
+
+        string? etag = response.etag;
+        if etag is string {
+            responseModel.etag = etag;
+        }
+
+        instant? lastModified = response.lastModified;
+        if lastModified is instant {
+            responseModel.lastModified = lastModified;
+        }
+
+        if response.hasKey("outcome") {
+            anydata|FHIRWireFormat entryResource = <anydata|FHIRWireFormat>response.get("outcome");
+            responseModel.outcome = check serializeEntryResource(entryResource, format);
+        }
+        bEntryModel.response = responseModel;
+    }
+
+    return bEntryModel;
+}
+
 isolated function serializeEntryResource(anydata|FHIRWireFormat entryResource, FHIRPayloadFormat format) returns FHIRWireFormat|FHIRSerializerError {
     if entryResource is FHIRWireFormat {
         FHIRWireFormat wireResource = <FHIRWireFormat>entryResource;
@@ -0,0 +1,174 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/lang.regexp;
+
+// Serialization plans keyed by the record type of the serialized value. Resource and data type definitions are
+// compile-time annotations, so the plan of a type is resolved once instead of walking the annotations of the type and
+// its base types for every serialized value. Only annotated types are cached, so the cache is bounded by the number
+// of FHIR model types in the program.
+isolated map<SerializationPlan> serializationPlans = {};
+
+# Definitions of a resource or data type resolved for serialization.
+#
+# + name - Resource type of a resource, which is the XML element name, or the name of a data type
+# + isResource - Whether the type is annotated with a resource definition
+# + elements - Element definitions of the type, including the elements inherited from its base types
+# + relocation - Relocations to the target model, or the error of resolving the target model
+type SerializationPlan readonly & record {|
+    string name;
+    boolean isResource;
+    map<ElementAnnotationDefinition> elements;
+    RelocationPlan|FHIRProcessingError? relocation;
+|};
+
+# Relocations applied to convert a model to its target model.
+#
+# + targetModel - Type of the target model
+# + steps - Relocation steps, in the order of the mappings
+# + targetElements - Element definitions of the target model, including the inherited elements
+type RelocationPlan readonly & record {|
+    typedesc targetModel;
+    RelocationStep[] steps;
+    map<ElementAnnotationDefinition> targetElements;
+|};
+
+# A relocation mapping with its paths split into elements.
+#
+# + mapping - The relocation mapping
+# + sourcePathParts - Elements of the source path
+# + targetPathParts - Elements of the target path
+type RelocationStep readonly & record {|
+    Mapping mapping;
+    string[] sourcePathParts;
+    string[] targetPathParts;
+|};
+
+# Returns the serialization plan of a type, resolving it if the type is not cached.
+#
+# + dataType - Type of the serialized value
+# + return - The serialization plan, or nil if the type is neither a resource nor a data type
+isolated function getSerializationPlan(typedesc dataType) returns SerializationPlan? {
+    string key = dataType.toString();
+    lock {
+        SerializationPlan? plan = serializationPlans[key];
+        if plan != () {
+            return plan;
+        }
+    }
+    SerializationPlan? plan = createSerializationPlan(dataType);
+    if plan != () {
+        lock {
+            serializationPlans[key] = plan;
+        }
+    }
+    return plan;
+}
+
+isolated function createSerializationPlan(typedesc dataType) returns SerializationPlan? {
+    ResourceDefinitionRecord|DataTypeDefinitionRecord? definition = dataType.@ResourceDefinition;
+    if definition is () {
+        definition = dataType.@DataTypeDefinition;
+    }
+    if definition is () {
+        return ();
+    }
+    boolean isResource = definition is ResourceDefinitionRecord;
+    return {
+        name: definition is ResourceDefinitionRecord ? definition.resourceType : definition.name,
+        isResource,
+        elements: collectElementDefinitions(definition),
+        relocation: createRelocationPlan(definition, dataType)
+    };
+}
+
+isolated function createRelocationPlan(ResourceDefinitionRecord|DataTypeDefinitionRecord definition,
+        typedesc dataType) returns RelocationPlan|FHIRProcessingError? {
+    ProcessingMetaInfo? processingMetaInfo = definition.processingMetaInfo;
+    if processingMetaInfo is () {
+        return ();
+    }
+    typedesc? targetModel = processingMetaInfo.targetModel;
+    Mapping[]? mappings = processingMetaInfo.relocations;
+    if targetModel is () || mappings is () {
+        // internal model mapping processing information not available, so nothing to process
+        return ();
+    }
+
+    ResourceDefinitionRecord|DataTypeDefinitionRecord? targetDefinition;
+    if definition is ResourceDefinitionRecord {
+        targetDefinition = targetModel.@ResourceDefinition;
+        if targetDefinition is () {
+            string diagMessage = string `Resource definition of target model not found. Data model type found : ${dataType.toBalString()}`;
+            return <FHIRProcessingError>createInternalFHIRError("Resource definition of target model not found", ERROR,
+                    PROCESSING_NOT_FOUND, diagnostic = diagMessage);
+        }
+    } else {
+        targetDefinition = targetModel.@DataTypeDefinition;
+        if targetDefinition is () {
+            string diagMessage = string `Data type definition of target model: ${targetModel.toBalString()} not found`;
+            return <FHIRProcessingError>createInternalFHIRError("Data type definition of target model not found", ERROR,
+                    PROCESSING_NOT_FOUND, diagnostic = diagMessage);
+        }
+    }
+
+    RelocationStep[] steps = [];
+    foreach Mapping mapping in mappings {
+        steps.push({
+            mapping: mapping.cloneReadOnly(),
+            sourcePathParts: regexp:split(re `\.`, mapping.sourcePath).cloneReadOnly(),
+            targetPathParts: regexp:split(re `\.`, mapping.targetPath).cloneReadOnly()
+        });
+    }
+    return {
+        targetModel,
+        steps: steps.cloneReadOnly(),
+        targetElements: collectElementDefinitions(targetDefinition)
+    };
+}
+
+# Collects the element definitions of a type and its base types. An element defined by the type takes precedence
+# over an inherited element of the same name, and an element of a base type over one of its own base types.
+#
+# + definition - Resource or data type definition
+# + return - Element definitions keyed by element name
+isolated function collectElementDefinitions(ResourceDefinitionRecord|DataTypeDefinitionRecord definition)
+        returns map<ElementAnnotationDefinition> & readonly {
+    map<ElementAnnotationDefinition & readonly> elements = {};
+    ResourceDefinitionRecord|DataTypeDefinitionRecord? current = definition;
+    while current != () {
+        foreach [string, ElementAnnotationDefinition] [name, elementDef] in current.elements.entries() {
+            if !elements.hasKey(name) {
+                elements[name] = elementDef.cloneReadOnly();
+            }
+        }
+        current = getBaseTypeDefinition(current);
+    }
+    return elements.cloneReadOnly();
+}
+
+isolated function getBaseTypeDefinition(ResourceDefinitionRecord|DataTypeDefinitionRecord definition)
+        returns ResourceDefinitionRecord|DataTypeDefinitionRecord? {
+    typedesc? baseType = definition.baseType;
+    if baseType is () {
+        return ();
+    }
+    ResourceDefinitionRecord|DataTypeDefinitionRecord? baseTypeDef = baseType.@DataTypeDefinition;
+    if baseTypeDef is () {
+        baseTypeDef = baseType.@ResourceDefinition;
+    }
+    return baseTypeDef;
+}
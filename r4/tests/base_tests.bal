@@ -116,3 +116,171 @@ public function containedResourceInclusionTest() {
         }
     }
 };
+
+@test:Config {}
+public function bundleStreamTest() returns error? {
+    json patient1 = {"resourceType": "Patient", "id": "1"};
+    json patient2 = {"resourceType": "Patient", "id": "2"};
+    BundleEntry[] entries = [
+        {fullUrl: "Patient/1", 'resource: patient1},
+        {fullUrl: "Patient/2", 'resource: patient2}
+    ];
+
+    BundleStream jsonStream = new ({'type: BUNDLE_TYPE_SEARCHSET, total: 2}, entries.toStream());
+    json bundle = check (check readBundleStream(jsonStream.toJsonStream())).fromJsonString();
+    test:assertEquals(bundle.'type, "searchset");
+    test:assertEquals(bundle.total, 2);
+    json expectedEntries = [{fullUrl: "Patient/1", 'resource: patient1}, {fullUrl: "Patient/2", 'resource: patient2}];
+    test:assertEquals(bundle.entry, expectedEntries);
+
+    BundleStream ndjsonStream = new ({'type: BUNDLE_TYPE_SEARCHSET}, entries.toStream());
+    test:assertEquals(check readBundleStream(ndjsonStream.toNdjsonStream()),
+            "{\"resourceType\":\"Patient\", \"id\":\"1\"}\n{\"resourceType\":\"Patient\", \"id\":\"2\"}\n");
+
+    // Formats that cannot be streamed read the whole Bundle
+    BundleStream bundleStream = new ({'type: BUNDLE_TYPE_SEARCHSET, total: 2}, entries.toStream());
+    Bundle fullBundle = check bundleStream.toBundle();
+    test:assertEquals(fullBundle.total, 2);
+    test:assertEquals(fullBundle.entry, entries);
+}
+
+function readBundleStream(stream<byte[], error?> chunks) returns string|error {
+    byte[] content = [];
+    check from byte[] chunk in chunks
+        do {
+            content.push(...chunk);
+        };
+    return string:fromBytes(content);
+}
+
+@test:Config {}
+public function serializationPlanTest() returns error? {
+    SerializationPlan? periodPlan = getSerializationPlan(Period);
+    test:assertTrue(periodPlan is SerializationPlan, msg = "Serialization plan of the Period data type not found.");
+    if periodPlan is SerializationPlan {
+        test:assertFalse(periodPlan.isResource);
+        // Elements inherited from Element are included
+        test:assertEquals(periodPlan.elements.keys().sort(), ["end", "extension", "id", "start"]);
+    }
+
+    OperationOutcome outcome = {
+        resourceType: "OperationOutcome",
+        id: "outcome1",
+        issue: [{severity: CODE_SEVERITY_ERROR, code: "processing", diagnostics: "Relocation failed"}]
+    };
+    xml outcomeXml = check executeResourceXMLSerializer(outcome);
+    test:assertEquals(outcomeXml, check executeResourceXMLSerializer(outcome));
+    test:assertTrue(outcomeXml is xml:Element);
+    if outcomeXml is xml:Element {
+        test:assertTrue(outcomeXml.getName().endsWith("OperationOutcome"));
+    }
+    string outcomeXmlString = outcomeXml.toString();
+    test:assertTrue(outcomeXmlString.includes("<id value=\"outcome1\""));
+    test:assertTrue(outcomeXmlString.includes("<diagnostics value=\"Relocation failed\""));
+}
+
+@test:Config {}
+public function fhirContextRawHTTPRequestTest() {
+    string rawPayload = "{\"resourceType\":\"Patient\",\"id\":\"1\"}";
+    FHIRRequest fhirRequest = new ({interaction: CREATE}, "Patient", (), {}, JSON);
+    RawHTTPRequest & readonly rawRequest = {headers: {"Content-Type": ["application/fhir+json"]}, rawPayload};
+    FHIRContext fhirContext = new (fhirRequest, rawRequest, {securedAPICall: false, fhirUser: (), jwt: ()});
+
+    test:assertEquals(fhirContext.getHTTPHeaders()["Content-Type"], ["application/fhir+json"]);
+    test:assertEquals(fhirContext.getRawPayload(), rawPayload);
+
+    HTTPRequest? httpRequest = fhirContext.getHTTPRequest();
+    test:assertTrue(httpRequest is HTTPRequest, msg = "HTTP request not found in the FHIR context.");
+    if httpRequest is HTTPRequest {
+        test:assertEquals(httpRequest.payload, {"resourceType": "Patient", "id": "1"});
+        // The payload is parsed only once
+        test:assertTrue(fhirContext.getHTTPRequest() === httpRequest);
+    }
+}
+
+@test:Config {}
+public function fhirRegistrySnapshotTest() returns error? {
+    FHIRRegistry registry = new ();
+    readonly & Profile profile = {
+        url: "http://example.org/StructureDefinition/test-outcome",
+        resourceType: "OperationOutcome",
+        modelType: OperationOutcome
+    };
+    test:assertFalse(registry.isSupportedResource("OperationOutcome"));
+    registry.addProfileToResourceType(profile);
+    test:assertTrue(registry.isSupportedResource("OperationOutcome"));
+    test:assertTrue(registry.getResourceProfiles("OperationOutcome")[profile.url] === profile);
+    test:assertEquals(registry.findBaseProfile("Bundle")?.url, "http://hl7.org/fhir/StructureDefinition/Bundle");
+
+    // Search parameters are only added to resource types with registered search parameters
+    registry.addSearchParameter("Patient", {name: "nickname", 'type: STRING, base: ["Patient"], expression: ()});
+    test:assertEquals(registry.getResourceSearchParameterByName("Patient", "nickname"), ());
+
+    check registry.registerResourceOperation("Patient", {name: "summary", active: true, parameters: []});
+    FHIROperationDefinition? operation = registry.findResourceOperation("Patient", "summary");
+    test:assertEquals(operation?.'resource, ["Patient"]);
+    // Find lookups share the published definition
+    test:assertTrue(registry.findResourceOperation("Patient", "summary") === operation);
+    test:assertTrue(operation.isReadOnly());
+    // Get lookups return a mutable copy
+    FHIROperationDefinition? operationCopy = registry.getResourceOperationByName("Patient", "summary");
+    test:assertEquals(operationCopy, operation);
+    test:assertFalse(operationCopy.isReadOnly());
+
+    registry.registerFHIRService("Patient", {name: "patient", serviceUrl: "http://localhost:9090/fhir/r4"});
+    registry.registerFHIRService("Patient", {name: "other", serviceUrl: "http://localhost:9091/fhir/r4"});
+    test:assertEquals(registry.getFHIRService("Patient")?.name, "patient");
+    test:assertTrue(registry.findFHIRService("Patient") is readonly & FHIRServiceInfo);
+    test:assertTrue(registry.removeFHIRService("Patient"));
+    test:assertFalse(registry.removeFHIRService("Patient"));
+    test:assertEquals(registry.getAllRegisteredFHIRServices().length(), 0);
+}
+
+@test:Config {}
+public function fhirRegistryImplementationGuideTest() {
+    FHIRRegistry registry = new ();
+    readonly & IGInfoRecord igRecord = {
+        title: "Test",
+        name: "test",
+        terminology: {codeSystems: [], valueSets: []},
+        profiles: {
+            "http://example.org/StructureDefinition/outcome-a": {
+                url: "http://example.org/StructureDefinition/outcome-a",
+                resourceType: "OperationOutcome",
+                modelType: OperationOutcome
+            },
+            "http://example.org/StructureDefinition/outcome-b": {
+                url: "http://example.org/StructureDefinition/outcome-b",
+                resourceType: "OperationOutcome",
+                modelType: OperationOutcome
+            }
+        },
+        searchParameters: [
+            {
+                "code": [{name: "code", 'type: TOKEN, base: ["OperationOutcome", "Bundle"], expression: ()}],
+                "severity": [{name: "severity", 'type: TOKEN, base: ["OperationOutcome"], expression: ()}]
+            },
+            {
+                "code": [{name: "code", 'type: STRING, base: ["OperationOutcome"], expression: ()}]
+            }
+        ],
+        operations: {
+            "validate": [{name: "validate", instanceLevel: true, typeLevel: true, systemLevel: false,
+                    'resource: ["OperationOutcome"]}]
+        }
+    };
+    FHIRError? result = registry.addImplementationGuide(new (igRecord));
+    test:assertEquals(result, ());
+
+    test:assertEquals(registry.getResourceProfiles("OperationOutcome").length(), 2);
+    test:assertTrue(registry.findProfile("http://example.org/StructureDefinition/outcome-b") is Profile);
+    test:assertEquals(registry.getResourceSearchParameters("OperationOutcome").keys().sort(), ["code", "severity"]);
+    // The first definition of a search parameter is kept
+    test:assertEquals(registry.getResourceSearchParameterByName("OperationOutcome", "code")?.'type, TOKEN);
+    test:assertTrue(registry.getResourceSearchParameterByName("Bundle", "code") is FHIRSearchParameterDefinition);
+    test:assertTrue(registry.getResourceOperationByName("OperationOutcome", "validate") is FHIROperationDefinition);
+
+    // Custom search parameters are added to resource types with search parameters
+    registry.addSearchParameter("Bundle", {name: "composition", 'type: REFERENCE, base: ["Bundle"], expression: ()});
+    test:assertEquals(registry.getResourceSearchParameters("Bundle").length(), 2);
+}
@@ -14,8 +14,6 @@
 // specific language governing permissions and limitations
 // under the License.
 
-import ballerinax/health.fhir.r4utils.fhirpath;
-
 import mahima_de_silva/sql_on_fhir_lib;
 
 // Column type for validation
@@ -236,110 +234,6 @@ isolated function rewriteOfType(string path) returns string {
     return result;
 }
 
-# Evaluates a FHIRPath expression with support for custom extension functions
-# + node - The FHIR resource node to evaluate against
-# + path - The FHIRPath expression
-# + extensions - Optional custom extension functions
-# + constants - FHIRPath variables accessible via %name syntax
-# + return - Array of values from the FHIRPath evaluation
-isolated function evaluateFhirPath(json node, string path, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    string rewrittenPath = rewriteOfType(path);
-    // Only pass variables whose %name is actually referenced in the path.
-    // Passing a variable named "id" to a path that is simply "id" causes the
-    // FHIRPath library to resolve the bare identifier as a variable lookup
-    // instead of a property access.
-    map<json> relevantVars = {};
-    foreach [string, json] [key, value] in constants.entries() {
-        // Use a token-aware check: %key must not be immediately followed by an
-        // identifier character, otherwise "%id" would falsely match "%id2".
-        string token = "%" + key;
-        int searchFrom = 0;
-        while true {
-            int? idx = rewrittenPath.indexOf(token, searchFrom);
-            if idx is () {
-                break;
-            }
-            int afterIdx = idx + token.length();
-            if afterIdx >= rewrittenPath.length() || !re `[a-zA-Z0-9_]`.isFullMatch(rewrittenPath.substring(afterIdx, afterIdx + 1)) {
-                relevantVars[key] = value;
-                break;
-            }
-            searchFrom = afterIdx;
-        }
-    }
-    map<json>? vars = relevantVars.length() > 0 ? relevantVars : ();
-
-    // Handle compound expressions: custom function on either side of =
-    // e.g. "getResourceKey() = link.other.getReferenceKey(Patient)"
-    if containsGetResourceKey(rewrittenPath) || containsGetReferenceKey(rewrittenPath) {
-        int? eqIdx = findTopLevelEquals(rewrittenPath);
-        if eqIdx is int {
-            string lhs = rewrittenPath.substring(0, eqIdx).trim();
-            string rhs = rewrittenPath.substring(eqIdx + 1).trim();
-            json[] lhsResult = check evaluateFhirPath(node, lhs, extensions, constants);
-            json[] rhsResult = check evaluateFhirPath(node, rhs, extensions, constants);
-            if lhsResult.length() == 0 || rhsResult.length() == 0 {
-                return [];
-            }
-            if lhsResult.length() != rhsResult.length() {
-                return [false];
-            }
-            foreach int idx in 0 ..< lhsResult.length() {
-                if lhsResult[idx] != rhsResult[idx] {
-                    return [false];
-                }
-            }
-            return [true];
-        }
-    }
-
-    // Check for getResourceKey() function call
-    if containsGetResourceKey(rewrittenPath) {
-        string basePath = extractBasePath(rewrittenPath, ".getResourceKey()");
-        string suffix = extractSuffixAfterGetResourceKey(rewrittenPath);
-        json[] nodes = basePath.length() > 0 ? check fhirpath:getValuesFromFhirPath(node, basePath, variables = vars) : [node];
-        GetResourceKeyFunction getResourceKeyFn = extensions?.getResourceKey ?: defaultGetResourceKey;
-        json[] keyResults = check getResourceKeyFn(nodes);
-        if suffix.length() == 0 {
-            return keyResults;
-        }
-        string suffixPath = suffix.startsWith(".") ? suffix.substring(1) : suffix;
-        json[] aggregated = [];
-        foreach json keyVal in keyResults {
-            json[] partial = check evaluateFhirPath(keyVal, suffixPath, extensions, constants);
-            foreach json r in partial {
-                aggregated.push(r);
-            }
-        }
-        return aggregated;
-    }
-
-    // Check for getReferenceKey() function call with optional parameter
-    if containsGetReferenceKey(rewrittenPath) {
-        string basePath = extractBasePath(rewrittenPath, ".getReferenceKey(");
-        string suffix = extractSuffixAfterGetReferenceKey(rewrittenPath);
-        json[] nodes = basePath.length() > 0 ? check fhirpath:getValuesFromFhirPath(node, basePath, variables = vars) : [node];
-        string? resourceTypeParam = extractReferenceKeyParam(rewrittenPath);
-        GetReferenceKeyFunction getReferenceKeyFn = extensions?.getReferenceKey ?: defaultGetReferenceKey;
-        json[] keyResults = check getReferenceKeyFn(nodes, resourceTypeParam);
-        if suffix.length() == 0 {
-            return keyResults;
-        }
-        string suffixPath = suffix.startsWith(".") ? suffix.substring(1) : suffix;
-        json[] aggregated = [];
-        foreach json keyVal in keyResults {
-            json[] partial = check evaluateFhirPath(keyVal, suffixPath, extensions, constants);
-            foreach json r in partial {
-                aggregated.push(r);
-            }
-        }
-        return aggregated;
-    }
-
-    // Standard FHIRPath evaluation
-    return fhirpath:getValuesFromFhirPath(node, rewrittenPath, variables = vars);
-}
-
 // Validates column definitions for duplicates and unionAll branch consistency
 isolated function validateColumnsTyped(sql_on_fhir_lib:ViewDefinitionSelect[] selects, ColumnDefinition[] C) returns ColumnDefinition[]|error {
     ColumnDefinition[] ret = C.clone();
@@ -428,15 +322,36 @@ isolated function validateColumnsTyped(sql_on_fhir_lib:ViewDefinitionSelect[] se
 
 // Function to merge two maps
 isolated function merge(json m1, json m2) returns json|error {
+    if m1 is map<json> && m2 is map<json> {
+        // Rows of a view have distinct columns, so the rows are combined without copying their values
+        map<json> result = {};
+        foreach [string, json] [key, value] in m1.entries() {
+            result[key] = value;
+        }
+        foreach [string, json] [key, value] in m2.entries() {
+            if result.hasKey(key) {
+                return m1.clone().mergeJson(m2);
+            }
+            result[key] = value;
+        }
+        return result;
+    }
     json result = check m1.clone().mergeJson(m2);
     return result;
 }
 
 // Row product function - creates cartesian product of arrays of maps
 isolated function rowProduct(json[][] parts) returns json[]|error {
+    if parts.length() == 1 {
+        // Nothing to combine with, the rows are used as they are
+        return parts[0];
+    }
     json[] result = [{}];
 
     foreach json[] partialRows in parts {
+        if partialRows.length() == 0 {
+            return [];
+        }
         json[] newResult = [];
 
         foreach json partialRow in partialRows {
@@ -472,90 +387,6 @@ isolated function getOperationType(sql_on_fhir_lib:ViewDefinitionSelect sel) ret
     return "select";
 }
 
-isolated function doEvalTyped(sql_on_fhir_lib:ViewDefinitionSelect sel, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    match getOperationType(sel) {
-        "column" => {
-            return columnOperationTyped(sel, node, extensions, constants);
-        }
-        "select" => {
-            return selectOperationTyped(sel, node, extensions, constants);
-        }
-        "forEach" => {
-            return forEachOperationTyped(sel, node, extensions, constants);
-        }
-        "forEachOrNull" => {
-            return forEachOrNullOperationTyped(sel, node, extensions, constants);
-        }
-        "unionAll" => {
-            return unionAllOperationTyped(sel, node, extensions, constants);
-        }
-        "repeat" => {
-            return repeatOperationTyped(sel, node, extensions, constants);
-        }
-        _ => {
-            return [];
-        }
-    }
-}
-
-isolated function columnOperationTyped(sql_on_fhir_lib:ViewDefinitionSelect sel, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    map<anydata> result = {};
-    foreach sql_on_fhir_lib:ViewDefinitionSelectColumn c in (sel.column ?: []) {
-        json[] vs = check evaluateFhirPath(node, c.path, extensions, constants);
-        if c.collection ?: false {
-            result[c.name] = vs;
-        } else if vs.length() === 1 {
-            result[c.name] = vs[0];
-        } else if vs.length() === 0 {
-            result[c.name] = ();
-        } else {
-            return error("Collection flag is false for path: " + c.path);
-        }
-    }
-    return [result.toJson()];
-}
-
-// Evaluates column, unionAll, then select children of a node against the given FHIR node,
-// combining results via rowProduct. Used by select, forEach, forEachOrNull, and repeat operations.
-isolated function evalSelectChildren(sql_on_fhir_lib:ViewDefinitionSelect sel, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    json[][] parts = [];
-    if sel.column != () {
-        parts.push(check columnOperationTyped(sel, node, extensions, constants));
-    }
-    if sel.unionAll != () {
-        parts.push(check unionAllOperationTyped(sel, node, extensions, constants));
-    }
-    foreach sql_on_fhir_lib:ViewDefinitionSelect childSel in (sel.'select ?: []) {
-        parts.push(check doEvalTyped(childSel, node, extensions, constants));
-    }
-    return rowProduct(parts);
-}
-
-isolated function selectOperationTyped(sql_on_fhir_lib:ViewDefinitionSelect sel, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    return evalSelectChildren(sel, node, extensions, constants);
-}
-
-isolated function forEachOperationTyped(sql_on_fhir_lib:ViewDefinitionSelect sel, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    json[] nodes = check evaluateFhirPath(node, sel.forEach ?: "", extensions, constants);
-    json[] results = [];
-    foreach json nodeItem in nodes {
-        results.push(...check evalSelectChildren(sel, nodeItem, extensions, constants));
-    }
-    return results;
-}
-
-isolated function forEachOrNullOperationTyped(sql_on_fhir_lib:ViewDefinitionSelect sel, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    json[] nodes = check evaluateFhirPath(node, sel.forEachOrNull ?: "", extensions, constants);
-    if nodes.length() == 0 {
-        nodes = [{}];
-    }
-    json[] results = [];
-    foreach json nodeItem in nodes {
-        results.push(...check evalSelectChildren(sel, nodeItem, extensions, constants));
-    }
-    return results;
-}
-
 // Helper function to check if all results have the same columns
 isolated function arraysUnique(json[] results) returns int {
     map<boolean> uniqueColumnSets = {};
@@ -568,97 +399,17 @@ isolated function arraysUnique(json[] results) returns int {
     return uniqueColumnSets.length();
 }
 
-isolated function unionAllOperationTyped(sql_on_fhir_lib:ViewDefinitionSelect sel, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    json[] result = [];
-    foreach sql_on_fhir_lib:ViewDefinitionSelect branch in (sel.unionAll ?: []) {
-        result.push(...check doEvalTyped(branch, node, extensions, constants));
-    }
-    int uniqueCount = arraysUnique(result);
-    if uniqueCount > 1 {
-        return error(string `Union columns mismatch: found ${uniqueCount} different column sets`);
-    }
-    return result;
-}
-
-// Helper function to recursively traverse FHIR nodes
-isolated function traverse(json currentNode, string[] paths, json[] result, boolean isRoot, FhirPathExtensions? extensions = (), map<json> constants = {}) returns error? {
-    // Don't add the root node to results, only its children
-    if !isRoot {
-        result.push(currentNode);
-    }
-
-    // Recursively traverse using each path expression
-    foreach string path in paths {
-        json[] childNodes = check evaluateFhirPath(currentNode, path, extensions, constants);
-        foreach json childNode in childNodes {
-            // Only traverse if it's not an array
-            if childNode !is json[] {
-                check traverse(childNode, paths, result, false, extensions, constants);
-            }
-        }
-    }
-}
-
-// Recursively traverse a FHIR node using path expressions
-isolated function recursiveTraverse(string[] paths, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    json[] result = [];
-    check traverse(node, paths, result, true, extensions, constants);
-    return result;
-}
-
-isolated function repeatOperationTyped(sql_on_fhir_lib:ViewDefinitionSelect sel, json node, FhirPathExtensions? extensions = (), map<json> constants = {}) returns json[]|error {
-    json[] nodes = check recursiveTraverse(sel.repeat ?: [], node, extensions, constants);
-    json[] results = [];
-    foreach json nodeItem in nodes {
-        results.push(...check evalSelectChildren(sel, nodeItem, extensions, constants));
-    }
-    return results;
-}
-
 # Evaluates FHIR resources against a view definition
 # + resources - Array of FHIR resources to evaluate
 # + viewDefinition - The view definition
 # + extensions - Optional custom FHIRPath extension functions (getResourceKey, getReferenceKey)
 # + return - Array of result rows or error
 public isolated function evaluate(json[] resources, sql_on_fhir_lib:ViewDefinition viewDefinition, FhirPathExtensions? extensions = ()) returns json[]|error {
-    _ = check validateColumnsTyped(viewDefinition.'select, []);
-    map<json> constants = check processConstants(viewDefinition.constant);
+    CompiledViewDefinition compiledView = check compileViewDefinition(viewDefinition, extensions);
 
     json[] results = [];
     foreach json 'resource in resources {
-        // Filter by resource type
-        if 'resource is map<json> {
-            if 'resource["resourceType"] != viewDefinition.'resource {
-                continue;
-            }
-        } else {
-            continue;
-        }
-
-        // Apply top-level where filters
-        boolean include = true;
-        foreach sql_on_fhir_lib:ViewDefinitionWhere w in (viewDefinition.'where ?: []) {
-            json[] vals = check evaluateFhirPath('resource, w.path, extensions, constants);
-            json val = vals.length() > 0 ? vals[0] : ();
-            if val !== () && val !is boolean {
-                return error("'where' expression path should return 'boolean'");
-            }
-            if val === () || val === false {
-                include = false;
-                break;
-            }
-        }
-        if !include {
-            continue;
-        }
-
-        // Evaluate each top-level select and combine via row product
-        json[][] parts = [];
-        foreach sql_on_fhir_lib:ViewDefinitionSelect sel in viewDefinition.'select {
-            parts.push(check doEvalTyped(sel, 'resource, extensions, constants));
-        }
-        results.push(...check rowProduct(parts));
+        results.push(...check compiledView.evaluateResource('resource));
     }
-
     return results;
 }
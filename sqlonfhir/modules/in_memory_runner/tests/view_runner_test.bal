@@ -0,0 +1,120 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+// 
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+// 
+// http://www.apache.org/licenses/LICENSE-2.0
+// 
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/test;
+import mahima_de_silva/sql_on_fhir_lib;
+
+sql_on_fhir_lib:ViewDefinition streamedNamesView = {
+    'resource: "Patient",
+    status: "active",
+    'select: [
+        {
+            column: [
+                {
+                    name: "id",
+                    path: "id",
+                    'type: "id"
+                }
+            ]
+        },
+        {
+            forEachOrNull: "name",
+            column: [
+                {
+                    name: "family",
+                    path: "family",
+                    'type: "string"
+                }
+            ]
+        }
+    ]
+};
+
+function getStreamedResources() returns json[] {
+    json[] resources = [];
+    foreach int i in 0 ..< 25 {
+        json[] names = [];
+        foreach int j in 0 ..< i % 3 {
+            names.push({"family": string `F${i}-${j}`});
+        }
+        resources.push({"resourceType": "Patient", "id": string `pt${i}`, "name": names});
+        resources.push({"resourceType": "Observation", "id": string `ob${i}`});
+    }
+    return resources;
+}
+
+function collectRows(stream<json, error?> rows) returns json[]|error {
+    json[] result = [];
+    check from json row in rows
+        do {
+            result.push(row);
+        };
+    return result;
+}
+
+@test:Config {}
+function testEvaluateStreamMatchesEvaluate() returns error? {
+    json[] resources = getStreamedResources();
+    json[] expected = check evaluate(resources, streamedNamesView);
+
+    json[] sequential = check collectRows(check evaluateStream(resources.toStream(), streamedNamesView));
+    test:assertEquals(sequential, expected);
+
+    json[] parallel = check collectRows(check evaluateStream(resources.toStream(), streamedNamesView,
+            config = {workers: 4, chunkSize: 3}));
+    test:assertEquals(parallel, expected);
+}
+
+@test:Config {}
+function testEvaluateStreamOfJsonStrings() returns error? {
+    json[] resources = getStreamedResources();
+    json[] expected = check evaluate(resources, streamedNamesView);
+
+    string[] lines = from json 'resource in resources
+        select 'resource.toJsonString();
+    lines.push("");
+    CompiledViewDefinition compiledView = check compileViewDefinition(streamedNamesView);
+    json[] result = check collectRows(check evaluateStream(lines.toStream(), compiledView,
+            config = {workers: 2, chunkSize: 4}));
+    test:assertEquals(result, expected);
+}
+
+@test:Config {}
+function testEvaluateStreamWithInvalidViewDefinition() {
+    sql_on_fhir_lib:ViewDefinition view = {
+        'resource: "Patient",
+        status: "active",
+        constant: [
+            {
+                name: "name_use"
+            }
+        ],
+        'select: [
+            {
+                column: [
+                    {
+                        name: "id",
+                        path: "id",
+                        'type: "id"
+                    }
+                ]
+            }
+        ]
+    };
+    json[] resources = [];
+    stream<json, error?>|error result = evaluateStream(resources.toStream(), view);
+    test:assertTrue(result is error, msg = "Expected an error for: incorrect constant definition");
+}
@@ -0,0 +1,457 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/health.fhir.r4utils.fhirpath;
+
+import mahima_de_silva/sql_on_fhir_lib;
+
+# A FHIRPath expression of a ViewDefinition, with its `ofType` calls, constants and extension function calls resolved
+# when the ViewDefinition is compiled.
+type CompiledPath FhirPathExpr|KeyComparisonExpr|ResourceKeyExpr|ReferenceKeyExpr;
+
+# A standard FHIRPath expression.
+# + path - The compiled FHIRPath expression
+# + variables - The constants referenced by the expression
+type FhirPathExpr readonly & record {|
+    fhirpath:CompiledFhirPath path;
+    map<json>? variables;
+|};
+
+# A comparison of the results of two expressions, at least one of which calls an extension function.
+# e.g. `getResourceKey() = link.other.getReferenceKey(Patient)`
+# + lhs - Left hand side of the comparison
+# + rhs - Right hand side of the comparison
+type KeyComparisonExpr readonly & record {|
+    CompiledPath lhs;
+    CompiledPath rhs;
+|};
+
+# A `getResourceKey()` call.
+# + base - Expression selecting the nodes, or nil for the current node
+# + getResourceKey - The getResourceKey implementation
+# + suffix - Expression evaluated against each key
+type ResourceKeyExpr readonly & record {|
+    FhirPathExpr? base;
+    GetResourceKeyFunction getResourceKey;
+    CompiledPath? suffix;
+|};
+
+# A `getReferenceKey()` call.
+# + base - Expression selecting the reference nodes, or nil for the current node
+# + getReferenceKey - The getReferenceKey implementation
+# + resourceType - Resource type to filter the references by
+# + suffix - Expression evaluated against each key
+type ReferenceKeyExpr readonly & record {|
+    FhirPathExpr? base;
+    GetReferenceKeyFunction getReferenceKey;
+    string? resourceType;
+    CompiledPath? suffix;
+|};
+
+# A column of a ViewDefinitionSelect node.
+# + name - Column name
+# + path - FHIRPath expression of the column, as given in the ViewDefinition
+# + expr - Compiled FHIRPath expression of the column
+# + collection - Whether the column holds a collection
+type CompiledColumn readonly & record {|
+    string name;
+    string path;
+    CompiledPath expr;
+    boolean collection;
+|};
+
+# A ViewDefinitionSelect node.
+# + operation - Evaluation type of the node (see `getOperationType`)
+# + columns - Columns of the node
+# + unionAll - unionAll branches of the node
+# + selects - Nested select nodes
+# + forEach - forEach or forEachOrNull expression of the node
+# + repeat - repeat expressions of the node
+type CompiledSelect readonly & record {|
+    string operation;
+    CompiledColumn[]? columns;
+    CompiledSelect[]? unionAll;
+    CompiledSelect[] selects;
+    CompiledPath? forEach;
+    CompiledPath[] repeat;
+|};
+
+# A ViewDefinition compiled into an executable plan. The FHIRPath expressions, constants and extension functions of
+# the ViewDefinition are resolved once, so that evaluating a resource is a walk over the plan.
+# Compiled ViewDefinitions are immutable and can be shared between strands.
+public isolated readonly class CompiledViewDefinition {
+    private final string resourceType;
+    private final CompiledPath[] whereClauses;
+    private final CompiledSelect[] selects;
+
+    isolated function init(string resourceType, CompiledPath[] & readonly whereClauses,
+            CompiledSelect[] & readonly selects) {
+        self.resourceType = resourceType;
+        self.whereClauses = whereClauses;
+        self.selects = selects;
+    }
+
+    # Returns the resource type the ViewDefinition applies to.
+    # + return - The resource type
+    public isolated function getResourceType() returns string {
+        return self.resourceType;
+    }
+
+    # Evaluates a FHIR resource against the ViewDefinition.
+    # + 'resource - The FHIR resource
+    # + return - Rows of the resource, which are empty if the resource is not of the resource type of the
+    # ViewDefinition or is filtered out by its where clauses, or an error
+    public isolated function evaluateResource(json 'resource) returns json[]|error {
+        if 'resource !is map<json> || 'resource["resourceType"] != self.resourceType {
+            return [];
+        }
+
+        // Apply top-level where filters
+        foreach CompiledPath whereClause in self.whereClauses {
+            json[] vals = check evaluatePath(whereClause, 'resource);
+            json val = vals.length() > 0 ? vals[0] : ();
+            if val !== () && val !is boolean {
+                return error("'where' expression path should return 'boolean'");
+            }
+            if val === () || val === false {
+                return [];
+            }
+        }
+
+        // Evaluate each top-level select and combine via row product
+        json[][] parts = [];
+        foreach CompiledSelect sel in self.selects {
+            parts.push(check evalSelect(sel, 'resource));
+        }
+        return rowProduct(parts);
+    }
+}
+
+# Compiles a ViewDefinition into an executable plan. The ViewDefinition is validated, and its constants, FHIRPath
+# expressions and extension function calls are resolved once instead of for every resource.
+# + viewDefinition - The view definition
+# + extensions - Optional custom FHIRPath extension functions (getResourceKey, getReferenceKey)
+# + return - The compiled ViewDefinition, or an error if the ViewDefinition is invalid
+public isolated function compileViewDefinition(sql_on_fhir_lib:ViewDefinition viewDefinition,
+        FhirPathExtensions? extensions = ()) returns CompiledViewDefinition|error {
+    _ = check validateColumnsTyped(viewDefinition.'select, []);
+    map<json> constants = check processConstants(viewDefinition.constant);
+
+    CompiledPath[] whereClauses = [];
+    foreach sql_on_fhir_lib:ViewDefinitionWhere w in (viewDefinition.'where ?: []) {
+        whereClauses.push(check compilePath(w.path, constants, extensions));
+    }
+    CompiledSelect[] selects = [];
+    foreach sql_on_fhir_lib:ViewDefinitionSelect sel in viewDefinition.'select {
+        selects.push(check compileSelect(sel, constants, extensions));
+    }
+    return new (viewDefinition.'resource, whereClauses.cloneReadOnly(), selects.cloneReadOnly());
+}
+
+isolated function compileSelect(sql_on_fhir_lib:ViewDefinitionSelect sel, map<json> constants,
+        FhirPathExtensions? extensions) returns CompiledSelect|error {
+    CompiledColumn[]? columns = ();
+    sql_on_fhir_lib:ViewDefinitionSelectColumn[]? selColumns = sel.column;
+    if selColumns != () {
+        CompiledColumn[] compiledColumns = [];
+        foreach sql_on_fhir_lib:ViewDefinitionSelectColumn c in selColumns {
+            compiledColumns.push({
+                name: c.name,
+                path: c.path,
+                expr: check compilePath(c.path, constants, extensions),
+                collection: c.collection ?: false
+            });
+        }
+        columns = compiledColumns;
+    }
+
+    CompiledSelect[]? unionAll = ();
+    sql_on_fhir_lib:ViewDefinitionSelect[]? selUnionAll = sel.unionAll;
+    if selUnionAll != () {
+        CompiledSelect[] branches = [];
+        foreach sql_on_fhir_lib:ViewDefinitionSelect branch in selUnionAll {
+            branches.push(check compileSelect(branch, constants, extensions));
+        }
+        unionAll = branches;
+    }
+
+    CompiledSelect[] selects = [];
+    foreach sql_on_fhir_lib:ViewDefinitionSelect childSel in (sel.'select ?: []) {
+        selects.push(check compileSelect(childSel, constants, extensions));
+    }
+
+    string? forEachPath = sel.forEach ?: sel.forEachOrNull;
+    CompiledPath[] repeat = [];
+    foreach string path in (sel.repeat ?: []) {
+        repeat.push(check compilePath(path, constants, extensions));
+    }
+
+    return {
+        operation: getOperationType(sel),
+        columns: columns.cloneReadOnly(),
+        unionAll: unionAll.cloneReadOnly(),
+        selects: selects.cloneReadOnly(),
+        forEach: forEachPath is string ? check compilePath(forEachPath, constants, extensions) : (),
+        repeat: repeat.cloneReadOnly()
+    };
+}
+
+# Compiles a FHIRPath expression of a ViewDefinition, resolving its `ofType` calls, the constants it references and
+# the extension functions it calls.
+# + path - The FHIRPath expression
+# + constants - FHIRPath variables accessible via %name syntax
+# + extensions - Optional custom extension functions
+# + return - The compiled expression, or an error if the expression is invalid
+isolated function compilePath(string path, map<json> constants, FhirPathExtensions? extensions)
+        returns CompiledPath|error {
+    string rewrittenPath = rewriteOfType(path);
+
+    // Handle compound expressions: custom function on either side of =
+    // e.g. "getResourceKey() = link.other.getReferenceKey(Patient)"
+    if containsGetResourceKey(rewrittenPath) || containsGetReferenceKey(rewrittenPath) {
+        int? eqIdx = findTopLevelEquals(rewrittenPath);
+        if eqIdx is int {
+            KeyComparisonExpr comparison = {
+                lhs: check compilePath(rewrittenPath.substring(0, eqIdx).trim(), constants, extensions),
+                rhs: check compilePath(rewrittenPath.substring(eqIdx + 1).trim(), constants, extensions)
+            };
+            return comparison;
+        }
+    }
+
+    map<json>? vars = getReferencedConstants(rewrittenPath, constants);
+
+    // Check for getResourceKey() function call
+    if containsGetResourceKey(rewrittenPath) {
+        string basePath = extractBasePath(rewrittenPath, ".getResourceKey()");
+        ResourceKeyExpr resourceKey = {
+            base: basePath.length() > 0 ? check compileFhirPathExpr(basePath, vars) : (),
+            getResourceKey: extensions?.getResourceKey ?: defaultGetResourceKey,
+            suffix: check compileSuffix(extractSuffixAfterGetResourceKey(rewrittenPath), constants, extensions)
+        };
+        return resourceKey;
+    }
+
+    // Check for getReferenceKey() function call with optional parameter
+    if containsGetReferenceKey(rewrittenPath) {
+        string basePath = extractBasePath(rewrittenPath, ".getReferenceKey(");
+        ReferenceKeyExpr referenceKey = {
+            base: basePath.length() > 0 ? check compileFhirPathExpr(basePath, vars) : (),
+            getReferenceKey: extensions?.getReferenceKey ?: defaultGetReferenceKey,
+            resourceType: extractReferenceKeyParam(rewrittenPath),
+            suffix: check compileSuffix(extractSuffixAfterGetReferenceKey(rewrittenPath), constants, extensions)
+        };
+        return referenceKey;
+    }
+
+    // Standard FHIRPath expression
+    return compileFhirPathExpr(rewrittenPath, vars);
+}
+
+isolated function compileFhirPathExpr(string path, map<json>? vars) returns FhirPathExpr|error {
+    return {
+        path: check fhirpath:compileFhirPath(path),
+        variables: vars.cloneReadOnly()
+    };
+}
+
+// Compiles the FHIRPath suffix that follows an extension function call, if any
+isolated function compileSuffix(string suffix, map<json> constants, FhirPathExtensions? extensions)
+        returns CompiledPath|error? {
+    if suffix.length() == 0 {
+        return ();
+    }
+    return compilePath(suffix.startsWith(".") ? suffix.substring(1) : suffix, constants, extensions);
+}
+
+# Returns the constants referenced by a FHIRPath expression.
+# Only variables whose %name is actually referenced in the path are passed. Passing a variable named "id" to a path
+# that is simply "id" causes the FHIRPath library to resolve the bare identifier as a variable lookup instead of a
+# property access.
+# + path - The FHIRPath expression
+# + constants - FHIRPath variables accessible via %name syntax
+# + return - The referenced constants, or nil if the expression references none
+isolated function getReferencedConstants(string path, map<json> constants) returns map<json>? {
+    map<json> relevantVars = {};
+    foreach [string, json] [key, value] in constants.entries() {
+        // Use a token-aware check: %key must not be immediately followed by an
+        // identifier character, otherwise "%id" would falsely match "%id2".
+        string token = "%" + key;
+        int searchFrom = 0;
+        while true {
+            int? idx = path.indexOf(token, searchFrom);
+            if idx is () {
+                break;
+            }
+            int afterIdx = idx + token.length();
+            if afterIdx >= path.length() || !re `[a-zA-Z0-9_]`.isFullMatch(path.substring(afterIdx, afterIdx + 1)) {
+                relevantVars[key] = value;
+                break;
+            }
+            searchFrom = afterIdx;
+        }
+    }
+    return relevantVars.length() > 0 ? relevantVars : ();
+}
+
+# Evaluates a compiled FHIRPath expression against a FHIR node.
+# + expr - The compiled expression
+# + node - The FHIR node to evaluate against
+# + return - Array of values from the evaluation
+isolated function evaluatePath(CompiledPath expr, json node) returns json[]|error {
+    if expr is FhirPathExpr {
+        return fhirpath:getValuesFromCompiledFhirPath(node, expr.path, variables = expr.variables);
+    }
+    if expr is KeyComparisonExpr {
+        json[] lhsResult = check evaluatePath(expr.lhs, node);
+        json[] rhsResult = check evaluatePath(expr.rhs, node);
+        if lhsResult.length() == 0 || rhsResult.length() == 0 {
+            return [];
+        }
+        if lhsResult.length() != rhsResult.length() {
+            return [false];
+        }
+        foreach int idx in 0 ..< lhsResult.length() {
+            if lhsResult[idx] != rhsResult[idx] {
+                return [false];
+            }
+        }
+        return [true];
+    }
+    FhirPathExpr? base = expr.base;
+    json[] nodes = base is () ? [node] : check evaluatePath(base, node);
+    json[] keyResults;
+    if expr is ResourceKeyExpr {
+        GetResourceKeyFunction getResourceKeyFn = expr.getResourceKey;
+        keyResults = check getResourceKeyFn(nodes);
+    } else {
+        GetReferenceKeyFunction getReferenceKeyFn = expr.getReferenceKey;
+        keyResults = check getReferenceKeyFn(nodes, expr.resourceType);
+    }
+
+    CompiledPath? suffix = expr.suffix;
+    if suffix is () {
+        return keyResults;
+    }
+    json[] aggregated = [];
+    foreach json keyVal in keyResults {
+        aggregated.push(...check evaluatePath(suffix, keyVal));
+    }
+    return aggregated;
+}
+
+isolated function evalSelect(CompiledSelect sel, json node) returns json[]|error {
+    match sel.operation {
+        "column" => {
+            return evalColumns(sel.columns ?: [], node);
+        }
+        "select" => {
+            return evalSelectChildren(sel, node);
+        }
+        "forEach" => {
+            return evalSelectChildrenOf(check evaluatePath(<CompiledPath>sel.forEach, node), sel);
+        }
+        "forEachOrNull" => {
+            json[] nodes = check evaluatePath(<CompiledPath>sel.forEach, node);
+            return evalSelectChildrenOf(nodes.length() == 0 ? [{}] : nodes, sel);
+        }
+        "unionAll" => {
+            return evalUnionAll(sel.unionAll ?: [], node);
+        }
+        "repeat" => {
+            json[] nodes = [];
+            check traverse(node, sel.repeat, nodes, true);
+            return evalSelectChildrenOf(nodes, sel);
+        }
+        _ => {
+            return [];
+        }
+    }
+}
+
+isolated function evalColumns(CompiledColumn[] columns, json node) returns json[]|error {
+    map<json> result = {};
+    foreach CompiledColumn c in columns {
+        json[] vs = check evaluatePath(c.expr, node);
+        if c.collection {
+            result[c.name] = vs;
+        } else if vs.length() === 1 {
+            result[c.name] = vs[0];
+        } else if vs.length() === 0 {
+            result[c.name] = ();
+        } else {
+            return error("Collection flag is false for path: " + c.path);
+        }
+    }
+    return [result];
+}
+
+// Evaluates column, unionAll, then select children of a node against the given FHIR node,
+// combining results via rowProduct. Used by select, forEach, forEachOrNull, and repeat operations.
+isolated function evalSelectChildren(CompiledSelect sel, json node) returns json[]|error {
+    json[][] parts = [];
+    CompiledColumn[]? columns = sel.columns;
+    if columns != () {
+        parts.push(check evalColumns(columns, node));
+    }
+    CompiledSelect[]? unionAll = sel.unionAll;
+    if unionAll != () {
+        parts.push(check evalUnionAll(unionAll, node));
+    }
+    foreach CompiledSelect childSel in sel.selects {
+        parts.push(check evalSelect(childSel, node));
+    }
+    return rowProduct(parts);
+}
+
+isolated function evalSelectChildrenOf(json[] nodes, CompiledSelect sel) returns json[]|error {
+    json[] results = [];
+    foreach json nodeItem in nodes {
+        results.push(...check evalSelectChildren(sel, nodeItem));
+    }
+    return results;
+}
+
+isolated function evalUnionAll(CompiledSelect[] branches, json node) returns json[]|error {
+    json[] result = [];
+    foreach CompiledSelect branch in branches {
+        result.push(...check evalSelect(branch, node));
+    }
+    int uniqueCount = arraysUnique(result);
+    if uniqueCount > 1 {
+        return error(string `Union columns mismatch: found ${uniqueCount} different column sets`);
+    }
+    return result;
+}
+
+// Helper function to recursively traverse FHIR nodes
+isolated function traverse(json currentNode, CompiledPath[] paths, json[] result, boolean isRoot) returns error? {
+    // Don't add the root node to results, only its children
+    if !isRoot {
+        result.push(currentNode);
+    }
+
+    // Recursively traverse using each path expression
+    foreach CompiledPath path in paths {
+        json[] childNodes = check evaluatePath(path, currentNode);
+        foreach json childNode in childNodes {
+            // Only traverse if it's not an array
+            if childNode !is json[] {
+                check traverse(childNode, paths, result, false);
+            }
+        }
+    }
+}
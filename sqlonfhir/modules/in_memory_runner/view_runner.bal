@@ -0,0 +1,163 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/io;
+
+import mahima_de_silva/sql_on_fhir_lib;
+
+# Configuration of the streaming evaluation of a ViewDefinition.
+# + workers - Number of strands evaluating resources in parallel
+# + chunkSize - Number of resources evaluated by a strand at a time
+public type ViewRunnerConfig record {|
+    int workers = 1;
+    int chunkSize = 100;
+|};
+
+# Evaluates a stream of FHIR resources against a view definition. Resources are read and rows are produced as the
+# returned stream is consumed, so only the resources of the chunks in progress are held in memory. Resources given as
+# JSON strings, such as the lines of an NDJSON file, are parsed by the strand evaluating them. The rows are produced
+# in the order of the resources.
+# With more than one worker the resources are made read-only before being passed to the workers, which copies
+# resources that are not given as strings.
+# + resources - Stream of FHIR resources, or of FHIR resources serialized as JSON
+# + viewDefinition - The view definition, or a view definition compiled with `compileViewDefinition`
+# + extensions - Optional custom FHIRPath extension functions (getResourceKey, getReferenceKey). Ignored if the view
+# definition is already compiled
+# + config - Configuration of the evaluation
+# + return - Stream of result rows, or an error if the view definition is invalid
+public isolated function evaluateStream(stream<json, error?> resources,
+        sql_on_fhir_lib:ViewDefinition|CompiledViewDefinition viewDefinition, FhirPathExtensions? extensions = (),
+        ViewRunnerConfig config = {}) returns stream<json, error?>|error {
+    CompiledViewDefinition compiledView = viewDefinition is CompiledViewDefinition ? viewDefinition
+        : check compileViewDefinition(viewDefinition, extensions);
+    return new (new ViewRowIterator(compiledView, resources, config));
+}
+
+# Evaluates the FHIR resources of an NDJSON file against a view definition, one resource per line as in FHIR bulk data
+# exports. See `evaluateStream`.
+# + filePath - Path of the NDJSON file
+# + viewDefinition - The view definition, or a view definition compiled with `compileViewDefinition`
+# + extensions - Optional custom FHIRPath extension functions (getResourceKey, getReferenceKey). Ignored if the view
+# definition is already compiled
+# + config - Configuration of the evaluation
+# + return - Stream of result rows, or an error if the file cannot be read or the view definition is invalid
+public isolated function evaluateNdjson(string filePath,
+        sql_on_fhir_lib:ViewDefinition|CompiledViewDefinition viewDefinition, FhirPathExtensions? extensions = (),
+        ViewRunnerConfig config = {}) returns stream<json, error?>|error {
+    stream<string, io:Error?> lines = check io:fileReadLinesAsStream(filePath);
+    return evaluateStream(lines, viewDefinition, extensions, config);
+}
+
+# Iterator of the rows of a stream of FHIR resources.
+class ViewRowIterator {
+
+    private final CompiledViewDefinition compiledView;
+    private final stream<json, error?> resources;
+    private final int workers;
+    private final int chunkSize;
+    private json[] rows = [];
+    private int nextRow = 0;
+    private boolean done = false;
+
+    isolated function init(CompiledViewDefinition compiledView, stream<json, error?> resources,
+            ViewRunnerConfig config) {
+        self.compiledView = compiledView;
+        self.resources = resources;
+        self.workers = config.workers < 1 ? 1 : config.workers;
+        self.chunkSize = config.chunkSize < 1 ? 1 : config.chunkSize;
+    }
+
+    public isolated function next() returns record {|json value;|}|error? {
+        while self.nextRow >= self.rows.length() {
+            if self.done {
+                return ();
+            }
+            self.rows = check self.evaluateNextChunks();
+            self.nextRow = 0;
+        }
+        json row = self.rows[self.nextRow];
+        self.nextRow += 1;
+        return {value: row};
+    }
+
+    public isolated function close() returns error? {
+        self.done = true;
+        return self.resources.close();
+    }
+
+    // Reads a chunk of resources for each worker and evaluates the chunks in parallel
+    private isolated function evaluateNextChunks() returns json[]|error {
+        if self.workers == 1 {
+            return evaluateChunk(self.compiledView, check self.readChunk());
+        }
+
+        future<json[]|error>[] executions = [];
+        while executions.length() < self.workers && !self.done {
+            json[] chunk = check self.readChunk();
+            if chunk.length() > 0 {
+                json[] & readonly readonlyChunk = chunk.cloneReadOnly();
+                executions.push(start evaluateChunk(self.compiledView, readonlyChunk));
+            }
+        }
+        json[] rows = [];
+        foreach future<json[]|error> execution in executions {
+            json[]|error chunkRows = wait execution;
+            if chunkRows is error {
+                self.done = true;
+                return chunkRows;
+            }
+            rows.push(...chunkRows);
+        }
+        return rows;
+    }
+
+    private isolated function readChunk() returns json[]|error {
+        json[] chunk = [];
+        while chunk.length() < self.chunkSize {
+            record {|json value;|}|error? next = self.resources.next();
+            if next is error {
+                self.done = true;
+                return next;
+            }
+            if next is () {
+                self.done = true;
+                break;
+            }
+            chunk.push(next.value);
+        }
+        return chunk;
+    }
+}
+
+# Evaluates a chunk of FHIR resources against a compiled view definition.
+# + compiledView - The compiled view definition
+# + resources - FHIR resources, or FHIR resources serialized as JSON
+# + return - Result rows of the resources, in the order of the resources, or an error
+isolated function evaluateChunk(CompiledViewDefinition compiledView, json[] resources) returns json[]|error {
+    json[] rows = [];
+    foreach json 'resource in resources {
+        if 'resource is string {
+            if 'resource.trim().length() == 0 {
+                // Blank line of an NDJSON file
+                continue;
+            }
+            rows.push(...check compiledView.evaluateResource(check 'resource.fromJsonString()));
+        } else {
+            rows.push(...check compiledView.evaluateResource('resource));
+        }
+    }
+    return rows;
+}
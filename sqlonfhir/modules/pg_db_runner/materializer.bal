@@ -0,0 +1,220 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied. See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/sql;
+
+// ========================================
+// INCREMENTAL VIEW MATERIALIZATION
+// ========================================
+// Writes the rows of a sql_on_fhir_lib:ViewDefinition to a table and keeps the table up
+// to date by rebuilding only the rows of resources whose `meta.lastUpdated` is later
+// than the last materialized resource. Resources are processed in batches ordered by
+// (`meta.lastUpdated`, `id`), and the last materialized key is stored in a state table
+// after each batch, so an interrupted run resumes from the last written batch.
+
+# Name of the column added to a materialized view table to hold the resource id of each row.
+public const string RESOURCE_ID_COLUMN = "_sof_resource_id";
+
+// Placeholder for a bound parameter in a generated SQL string (see `BoundQuery`)
+const string PARAMETER_MARKER = "{?}";
+
+# Configuration of the materialization of a ViewDefinition into a table.
+#
+# Table names are inserted into the SQL as is, like `TranspilerContext.tableName`, so quote them if needed.
+#
+# + viewTable - The table the rows of the view are written to. Created, and dropped on a full rebuild, by the runner
+# + batchSize - Maximum number of resources whose rows are rebuilt per batch
+# + stateTable - The table recording, per view table, the view hash and the last materialized resource
+# + fullRebuild - Rebuild the table from all the resources, e.g. after resources were deleted from the source table
+public type MaterializationConfig record {|
+    string viewTable;
+    int batchSize = 1000;
+    string stateTable = "sof_materialization_state";
+    boolean fullRebuild = false;
+|};
+
+# Result of a materialization run.
+#
+# + rebuilt - Whether the table was rebuilt from all the resources
+# + resources - Number of resources whose rows were written
+# + batches - Number of batches written
+public type MaterializationResult record {|
+    boolean rebuilt;
+    int resources;
+    int batches;
+|};
+
+# Materialization state of a view table.
+#
+# + view_hash - Content hash of the view and context the table was built from
+# + last_updated - `meta.lastUpdated` of the last materialized resource
+# + resource_id - `id` of the last materialized resource
+type MaterializationState record {|
+    string view_hash;
+    string last_updated;
+    string resource_id;
+|};
+
+# Key of a resource in the materialization order.
+#
+# + last_updated - `meta.lastUpdated` of the resource, or an empty string if it has none
+# + resource_id - `id` of the resource
+type ResourceKey record {|
+    string last_updated;
+    string resource_id;
+|};
+
+# A SQL string with bound parameters.
+#
+# Each `{?}` placeholder in the SQL string is bound to the next value, cycling through
+# the values. This binds the same key range to every occurrence of a batch subquery in a
+# generated query, which repeats the table name once per UNION ALL branch and CTE.
+class BoundQuery {
+    *sql:ParameterizedQuery;
+    public final (string[] & readonly) strings;
+    public final sql:Value[] insertions;
+
+    isolated function init(string sqlText, sql:Value[] values) {
+        string[] parts = re `\{\?\}`.split(sqlText);
+        self.strings = parts.cloneReadOnly();
+        sql:Value[] insertions = [];
+        foreach int i in 0 ..< parts.length() - 1 {
+            insertions.push(values[i % values.length()]);
+        }
+        self.insertions = insertions;
+    }
+}
+
+# Materialize a sql_on_fhir_lib:ViewDefinition into a table, incrementally.
+#
+# On the first run, or when the view or context changed since the table was built, the table
+# is dropped and rebuilt from all the resources. Otherwise only the rows of resources whose
+# (`meta.lastUpdated`, `id`) is later than the last materialized resource are deleted and
+# rewritten. `meta.lastUpdated` is compared as text, so the server must write it in a single
+# time zone, as FHIR servers normally do. Resources without `meta.lastUpdated` are only
+# materialized by a full rebuild, and rows of deleted resources are only removed by a full
+# rebuild.
+#
+# The table has the columns of the view, plus a `_sof_resource_id` column holding the
+# resource id of each row.
+#
+# + dbClient - The client of the database holding the resource table
+# + viewDef - The sql_on_fhir_lib:ViewDefinition as a JSON value
+# + ctx - The transpiler context of the resource table. `tableName` must be a table or view name
+# + config - The materialization configuration
+# + return - The result of the run, or an error. Batches written before the error are kept
+public isolated function materializeView(sql:Client dbClient, json viewDef, TranspilerContext ctx,
+        MaterializationConfig config) returns MaterializationResult|error {
+    if config.batchSize < 1 {
+        return error FhirPathPostgresTranspilerError("Materialization batch size must be positive");
+    }
+    string viewHash = getViewHash(viewDef, ctx);
+    json keyedViewDef = check addResourceIdColumn(viewDef);
+
+    string lastUpdatedExpr = string `COALESCE(${ctx.resourceColumn}->'meta'->>'lastUpdated', '')`;
+    string idExpr = string `COALESCE(${ctx.resourceColumn}->>'id', '')`;
+    string keyRange = string `(${lastUpdatedExpr}, ${idExpr}) > (${PARAMETER_MARKER}, ${PARAMETER_MARKER})`
+        + string ` AND (${lastUpdatedExpr}, ${idExpr}) <= (${PARAMETER_MARKER}, ${PARAMETER_MARKER})`;
+    TranspilerContext batchCtx = ctx.clone();
+    batchCtx.tableName = string `(SELECT * FROM ${ctx.tableName} WHERE ${keyRange})`;
+
+    string insertSql = string `INSERT INTO ${config.viewTable} ` + check generateQuery(keyedViewDef, batchCtx);
+    string deleteSql = string `DELETE FROM ${config.viewTable} WHERE ${RESOURCE_ID_COLUMN} IN `
+        + string `(SELECT ${idExpr} FROM ${ctx.tableName} WHERE ${keyRange})`;
+    string nextKeysSql = string `SELECT ${lastUpdatedExpr} AS last_updated, ${idExpr} AS resource_id `
+        + string `FROM ${ctx.tableName} WHERE (${lastUpdatedExpr}, ${idExpr}) > (${PARAMETER_MARKER}, ${PARAMETER_MARKER}) `
+        + string `ORDER BY 1, 2 LIMIT ${config.batchSize}`;
+
+    check createStateTable(dbClient, config.stateTable);
+    MaterializationState? state = check getMaterializationState(dbClient, config);
+    boolean rebuild = config.fullRebuild || state is () || state.view_hash != viewHash;
+    ResourceKey lastKey = {last_updated: "", resource_id: ""};
+    if rebuild {
+        string viewQuery = check generateQuery(keyedViewDef, ctx);
+        _ = check dbClient->execute(new BoundQuery(string `DROP TABLE IF EXISTS ${config.viewTable}`, []));
+        _ = check dbClient->execute(new BoundQuery(
+                string `CREATE TABLE ${config.viewTable} AS ${viewQuery} WITH NO DATA`, []));
+        _ = check dbClient->execute(new BoundQuery(
+                string `CREATE INDEX ON ${config.viewTable} (${RESOURCE_ID_COLUMN})`, []));
+        check saveMaterializationState(dbClient, config, viewHash, lastKey);
+    } else if state is MaterializationState {
+        lastKey = {last_updated: state.last_updated, resource_id: state.resource_id};
+    }
+
+    MaterializationResult result = {rebuilt: rebuild, resources: 0, batches: 0};
+    while true {
+        stream<ResourceKey, sql:Error?> keyStream = dbClient->query(
+                new BoundQuery(nextKeysSql, [lastKey.last_updated, lastKey.resource_id]));
+        ResourceKey[] keys = check from ResourceKey key in keyStream
+            select key;
+        if keys.length() == 0 {
+            break;
+        }
+        ResourceKey batchEnd = keys[keys.length() - 1];
+        sql:Value[] range = [lastKey.last_updated, lastKey.resource_id, batchEnd.last_updated, batchEnd.resource_id];
+        if !rebuild {
+            _ = check dbClient->execute(new BoundQuery(deleteSql, range));
+        }
+        _ = check dbClient->execute(new BoundQuery(insertSql, range));
+        check saveMaterializationState(dbClient, config, viewHash, batchEnd);
+
+        lastKey = batchEnd;
+        result.resources += keys.length();
+        result.batches += 1;
+        if keys.length() < config.batchSize {
+            break;
+        }
+    }
+    return result;
+}
+
+# Add the resource id column to the first select of a sql_on_fhir_lib:ViewDefinition.
+#
+# + viewDef - The sql_on_fhir_lib:ViewDefinition as a JSON value
+# + return - A copy of the view with the resource id column, or an error if the view has no select
+isolated function addResourceIdColumn(json viewDef) returns json|error {
+    map<json> keyedViewDef = check viewDef.cloneWithType();
+    json[] selects = check keyedViewDef["select"].cloneWithType();
+    keyedViewDef["select"] = [{"column": [{"name": RESOURCE_ID_COLUMN, "path": "id"}]}, ...selects];
+    return keyedViewDef;
+}
+
+isolated function createStateTable(sql:Client dbClient, string stateTable) returns error? {
+    _ = check dbClient->execute(new BoundQuery(string `CREATE TABLE IF NOT EXISTS ${stateTable} (`
+            + "view_table TEXT PRIMARY KEY, view_hash TEXT NOT NULL, "
+            + "last_updated TEXT NOT NULL, resource_id TEXT NOT NULL)", []));
+}
+
+isolated function getMaterializationState(sql:Client dbClient, MaterializationConfig config)
+        returns MaterializationState?|error {
+    MaterializationState|sql:Error state = dbClient->queryRow(new BoundQuery(
+            string `SELECT view_hash, last_updated, resource_id FROM ${config.stateTable} `
+            + string `WHERE view_table = ${PARAMETER_MARKER}`, [config.viewTable]));
+    if state is sql:NoRowsError {
+        return ();
+    }
+    return state;
+}
+
+isolated function saveMaterializationState(sql:Client dbClient, MaterializationConfig config, string viewHash,
+        ResourceKey lastKey) returns error? {
+    _ = check dbClient->execute(new BoundQuery(
+            string `INSERT INTO ${config.stateTable} (view_table, view_hash, last_updated, resource_id) `
+            + string `VALUES (${PARAMETER_MARKER}, ${PARAMETER_MARKER}, ${PARAMETER_MARKER}, ${PARAMETER_MARKER}) `
+            + "ON CONFLICT (view_table) DO UPDATE SET view_hash = EXCLUDED.view_hash, "
+            + "last_updated = EXCLUDED.last_updated, resource_id = EXCLUDED.resource_id",
+            [config.viewTable, viewHash, lastKey.last_updated, lastKey.resource_id]));
+}
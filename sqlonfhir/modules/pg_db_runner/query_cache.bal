@@ -0,0 +1,89 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied. See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/crypto;
+
+// ========================================
+// GENERATED QUERY CACHE
+// ========================================
+// Queries generated by generateQuery(), keyed by the content hash of the
+// sql_on_fhir_lib:ViewDefinition and the TranspilerContext. A view is usually run many
+// times against the same table, so the FHIRPath expressions of the view are scanned,
+// parsed and transpiled once instead of on every run.
+
+// Maximum number of cached queries. Once the cache is full, the oldest query is evicted first.
+const int GENERATED_QUERY_CACHE_CAPACITY = 512;
+
+# Cached queries with the insertion order of their keys. Queries are never removed one by one, so the insertion
+# order is kept in a ring of keys and the oldest query is evicted without looking at the other keys.
+#
+# + queries - The queries, keyed by the view hash
+# + order - The view hashes in insertion order
+# + next - Index in `order` of the oldest view hash once the cache is full
+type GeneratedQueryCache record {|
+    map<string> queries;
+    string[] order;
+    int next;
+|};
+
+isolated GeneratedQueryCache generatedQueries = {queries: {}, order: [], next: 0};
+
+# Compute the content hash of a ViewDefinition and the context it is transpiled with.
+#
+# + viewDef - The sql_on_fhir_lib:ViewDefinition as a JSON value
+# + ctx - The transpiler context
+# + return - The hex-encoded SHA-256 hash
+isolated function getViewHash(json viewDef, TranspilerContext ctx) returns string {
+    byte[] content = (viewDef.toJsonString() + "\n" + ctx.toJsonString()).toBytes();
+    return crypto:hashSha256(content).toBase16();
+}
+
+# Look up a generated query.
+#
+# + viewHash - The content hash of the view and context (from `getViewHash`)
+# + return - The cached query, or `()` if the query is not cached
+isolated function getCachedQuery(string viewHash) returns string? {
+    lock {
+        return generatedQueries.queries[viewHash];
+    }
+}
+
+# Cache a generated query, evicting the oldest query if the cache is full.
+#
+# + viewHash - The content hash of the view and context (from `getViewHash`)
+# + generatedQuery - The generated query
+isolated function putCachedQuery(string viewHash, string generatedQuery) {
+    lock {
+        if !generatedQueries.queries.hasKey(viewHash) {
+            if generatedQueries.order.length() < GENERATED_QUERY_CACHE_CAPACITY {
+                generatedQueries.order.push(viewHash);
+            } else {
+                int slot = generatedQueries.next;
+                _ = generatedQueries.queries.removeIfHasKey(generatedQueries.order[slot]);
+                generatedQueries.order[slot] = viewHash;
+                generatedQueries.next = (slot + 1) % GENERATED_QUERY_CACHE_CAPACITY;
+            }
+        }
+        generatedQueries.queries[viewHash] = generatedQuery;
+    }
+}
+
+# Remove all the cached queries generated by `generateQuery`.
+public isolated function clearQueryCache() {
+    lock {
+        generatedQueries = {queries: {}, order: [], next: 0};
+    }
+}
@@ -45,10 +45,29 @@ type SelectCombination record {|
 # The supplied `TranspilerContext` controls the table name, JSONB column, and
 # whether a `resource_type` filter is emitted in the WHERE clause.
 #
+# Generated queries are cached by the content hash of the view and the context,
+# so running the same view again does not re-transpile its FHIRPath expressions.
+#
 # + viewDef - The sql_on_fhir_lib:ViewDefinition as a JSON value (converted via `cloneWithType` internally)
 # + ctx - The transpiler context (must include `tableName` and `resourceColumn`)
 # + return - The generated SQL string, or an error
 public isolated function generateQuery(json viewDef, TranspilerContext ctx) returns string|error {
+    string viewHash = getViewHash(viewDef, ctx);
+    string? cached = getCachedQuery(viewHash);
+    if cached is string {
+        return cached;
+    }
+    string generatedQuery = check buildQuery(viewDef, ctx);
+    putCachedQuery(viewHash, generatedQuery);
+    return generatedQuery;
+}
+
+# Transpile a sql_on_fhir_lib:ViewDefinition to a PostgreSQL query, bypassing the query cache.
+#
+# + viewDef - The sql_on_fhir_lib:ViewDefinition as a JSON value
+# + ctx - The transpiler context
+# + return - The generated SQL string, or an error
+isolated function buildQuery(json viewDef, TranspilerContext ctx) returns string|error {
     sql_on_fhir_lib:ViewDefinition typedViewDef = check viewDef.cloneWithType(sql_on_fhir_lib:ViewDefinition);
     [string[], string[]] result = check generateAllSelectStatements(typedViewDef, ctx);
     string[] statements = result[0];
@@ -0,0 +1,153 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+// 
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+// 
+// http://www.apache.org/licenses/LICENSE-2.0
+// 
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/test;
+import ballerina/sql;
+import ballerinax/postgresql;
+
+json materializedNamesView = {
+    "resource": "Patient",
+    "status": "active",
+    "select": [
+        {
+            "column": [
+                {
+                    "name": "id",
+                    "path": "id",
+                    "type": "id"
+                }
+            ]
+        },
+        {
+            "forEach": "name",
+            "column": [
+                {
+                    "name": "family",
+                    "path": "family",
+                    "type": "string"
+                }
+            ]
+        }
+    ]
+};
+
+function insertMaterializedPatient(postgresql:Client dbClient, string id, string lastUpdated, string[] families)
+        returns error? {
+    json[] names = from string family in families
+        select {"family": family};
+    string rStr = {"resourceType": "Patient", "id": id, "meta": {"lastUpdated": lastUpdated}, "name": names}
+        .toJsonString();
+    _ = check dbClient->execute(`DELETE FROM MaterializedPatientTable WHERE resource_json->>'id' = ${id}`);
+    _ = check dbClient->execute(`INSERT INTO MaterializedPatientTable (resource_json) VALUES (${rStr}::jsonb)`);
+}
+
+function queryMaterializedRows(postgresql:Client dbClient) returns json[]|error {
+    stream<record {}, sql:Error?> resultStream = dbClient->query(`SELECT id, family FROM sof_materialized_names`);
+    json[] result = [];
+    check from record {} row in resultStream
+        do {
+            result.push(row.toJson());
+        };
+    return result;
+}
+
+@test:Config {}
+function testGenerateQueryIsCached() returns error? {
+    TranspilerContext ctx = {
+        resourceColumn: "resource_json",
+        tableName: "PatientTable"
+    };
+    clearQueryCache();
+    string viewSql = check generateQuery(materializedNamesView, ctx);
+    test:assertEquals(getCachedQuery(getViewHash(materializedNamesView, ctx)), viewSql);
+    test:assertEquals(check generateQuery(materializedNamesView, ctx), viewSql);
+
+    TranspilerContext otherCtx = {
+        resourceColumn: "resource_json",
+        tableName: "OtherPatientTable"
+    };
+    test:assertNotEquals(check generateQuery(materializedNamesView, otherCtx), viewSql);
+}
+
+@test:Config {}
+function testQueryCacheEvictsOldestQuery() {
+    clearQueryCache();
+    foreach int i in 0 ..< GENERATED_QUERY_CACHE_CAPACITY {
+        putCachedQuery(string `view${i}`, string `SELECT ${i}`);
+    }
+    putCachedQuery("view1", "SELECT 1");
+    putCachedQuery("overflow", "SELECT overflow");
+    test:assertEquals(getCachedQuery("view0"), (), msg = "Oldest query should be evicted");
+    test:assertEquals(getCachedQuery("view1"), "SELECT 1", msg = "Replacing a query should not change its age");
+    test:assertEquals(getCachedQuery("overflow"), "SELECT overflow");
+    clearQueryCache();
+}
+
+@test:Config {}
+function testIncrementalMaterialization() returns error? {
+    postgresql:Client dbClient = check new (host, username, password, database, port);
+    _ = check dbClient->execute(`CREATE TABLE IF NOT EXISTS MaterializedPatientTable (resource_json JSONB)`);
+    _ = check dbClient->execute(`DELETE FROM MaterializedPatientTable`);
+    _ = check dbClient->execute(`DROP TABLE IF EXISTS sof_materialization_state`);
+    foreach int i in 1 ... 5 {
+        check insertMaterializedPatient(dbClient, string `pt${i}`, string `2026-01-0${i}T00:00:00Z`,
+                [string `F${i}`]);
+    }
+    TranspilerContext ctx = {
+        resourceColumn: "resource_json",
+        tableName: "MaterializedPatientTable"
+    };
+    MaterializationConfig config = {viewTable: "sof_materialized_names", batchSize: 2};
+
+    MaterializationResult result = check materializeView(dbClient, materializedNamesView, ctx, config);
+    test:assertEquals(result, {rebuilt: true, resources: 5, batches: 3});
+    assertResultsMatch(check queryMaterializedRows(dbClient), [
+        {"id": "pt1", "family": "F1"},
+        {"id": "pt2", "family": "F2"},
+        {"id": "pt3", "family": "F3"},
+        {"id": "pt4", "family": "F4"},
+        {"id": "pt5", "family": "F5"}
+    ]);
+
+    // Only the updated and the new resources are rewritten
+    check insertMaterializedPatient(dbClient, "pt2", "2026-02-01T00:00:00Z", ["F2a", "F2b"]);
+    check insertMaterializedPatient(dbClient, "pt6", "2026-02-02T00:00:00Z", ["F6"]);
+    result = check materializeView(dbClient, materializedNamesView, ctx, config);
+    test:assertEquals(result, {rebuilt: false, resources: 2, batches: 1});
+    assertResultsMatch(check queryMaterializedRows(dbClient), [
+        {"id": "pt1", "family": "F1"},
+        {"id": "pt2", "family": "F2a"},
+        {"id": "pt2", "family": "F2b"},
+        {"id": "pt3", "family": "F3"},
+        {"id": "pt4", "family": "F4"},
+        {"id": "pt5", "family": "F5"},
+        {"id": "pt6", "family": "F6"}
+    ]);
+
+    result = check materializeView(dbClient, materializedNamesView, ctx, config);
+    test:assertEquals(result, {rebuilt: false, resources: 0, batches: 0});
+
+    // A full rebuild removes the rows of deleted resources
+    _ = check dbClient->execute(`DELETE FROM MaterializedPatientTable WHERE resource_json->>'id' = 'pt1'`);
+    config.fullRebuild = true;
+    result = check materializeView(dbClient, materializedNamesView, ctx, config);
+    test:assertEquals(result, {rebuilt: true, resources: 5, batches: 3});
+    test:assertEquals((check queryMaterializedRows(dbClient)).length(), 6);
+
+    _ = check dbClient->execute(`DROP TABLE IF EXISTS sof_materialized_names`);
+    _ = check dbClient->execute(`DROP TABLE IF EXISTS sof_materialization_state`);
+    check dbClient.close();
+}
@@ -0,0 +1,154 @@
+// Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+// http://www.apache.org/licenses/LICENSE-2.0
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/health.fhir.r4;
+
+# Maximum number of expanded concepts kept in the ValueSet expansion cache of the in-memory terminology.
+# Set to 0 to disable the cache.
+configurable int valueSetExpansionCacheCapacity = 100000;
+
+# Filtered expansion of a ValueSet, before it is paginated.
+#
+# + generation - Generation of the terminology snapshot the expansion was created from
+# + contains - Expanded concepts
+type CachedExpansion readonly & record {|
+    int generation;
+    r4:ValueSetExpansionContains[] contains;
+|};
+
+# Cached expansion with the sequence number of its latest use.
+#
+# + expansion - Cached expansion
+# + sequence - Sequence number of the latest use, matches the newest position of the key in the use order
+type ExpansionCacheEntry record {|
+    CachedExpansion expansion;
+    int sequence;
+|};
+
+# Position of a key in the use order of the cache.
+#
+# + key - Cache key
+# + sequence - Sequence number of the use
+type ExpansionCacheUse record {|
+    string key;
+    int sequence;
+|};
+
+# Cache of ValueSet expansions keyed by ValueSet URL, version and filter.
+# The cache is bounded by the total number of expanded concepts and the least recently used expansions are evicted
+# first. Expansions created from an older terminology snapshot are discarded when they are looked up.
+isolated class ValueSetExpansionCache {
+
+    private final int capacity;
+    private final map<ExpansionCacheEntry> entries = {};
+    // Uses of the keys, oldest first. A use is stale when the key was used again later or was removed, stale uses are
+    // skipped when evicting, so a lookup or eviction does not need to search the uses.
+    private ExpansionCacheUse[] uses = [];
+    private int head = 0;
+    private int sequence = 0;
+    private int size = 0;
+
+    isolated function init(int capacity) {
+        self.capacity = capacity < 0 ? 0 : capacity;
+    }
+
+    # Returns the cached expansion of the given key.
+    #
+    # + key - Key created with `getExpansionCacheKey`
+    # + generation - Generation of the current terminology snapshot
+    # + return - Cached expansion, or nil if it is not cached or was created from an older snapshot
+    isolated function get(string key, int generation) returns (r4:ValueSetExpansionContains[] & readonly)? {
+        lock {
+            ExpansionCacheEntry? entry = self.entries[key];
+            if entry is () {
+                return ();
+            }
+            if entry.expansion.generation != generation {
+                _ = self.entries.remove(key);
+                self.size -= entry.expansion.contains.length();
+                return ();
+            }
+            entry.sequence = self.use(key);
+            return entry.expansion.contains;
+        }
+    }
+
+    # Caches the given expansion, evicting the least recently used expansions if the cache is full.
+    #
+    # + key - Key created with `getExpansionCacheKey`
+    # + expansion - Expansion to be cached
+    isolated function put(string key, CachedExpansion expansion) {
+        lock {
+            int expansionSize = expansion.contains.length();
+            if self.capacity == 0 || expansionSize > self.capacity {
+                return;
+            }
+            ExpansionCacheEntry? existing = self.entries.removeIfHasKey(key);
+            if existing != () {
+                self.size -= existing.expansion.contains.length();
+            }
+            while self.size + expansionSize > self.capacity && self.head < self.uses.length() {
+                ExpansionCacheUse eldest = self.uses[self.head];
+                self.head += 1;
+                ExpansionCacheEntry? entry = self.entries[eldest.key];
+                if entry != () && entry.sequence == eldest.sequence {
+                    _ = self.entries.remove(eldest.key);
+                    self.size -= entry.expansion.contains.length();
+                }
+            }
+            self.entries[key] = {expansion, sequence: self.use(key)};
+            self.size += expansionSize;
+        }
+    }
+
+    // Records a use of the key and returns its sequence number. Must be called within a lock.
+    private isolated function use(string key) returns int {
+        self.sequence += 1;
+        self.uses.push({key, sequence: self.sequence});
+        // Drops the consumed and stale uses once they are the majority, so the uses stay proportional to the entries.
+        if self.uses.length() > 2 * (self.entries.length() + 1) {
+            ExpansionCacheUse[] live = [];
+            foreach int i in self.head ..< self.uses.length() {
+                ExpansionCacheUse candidate = self.uses[i];
+                ExpansionCacheEntry? entry = self.entries[candidate.key];
+                if (entry != () && entry.sequence == candidate.sequence) || candidate.sequence == self.sequence {
+                    live.push(candidate);
+                }
+            }
+            self.uses = live;
+            self.head = 0;
+        }
+        return self.sequence;
+    }
+}
+
+# Creates the expansion cache key of a ValueSet. Only ValueSets stored in the terminology are cached, since a ValueSet
+# given by the caller may have a different definition than the stored one with the same URL and version. Stored
+# ValueSets are immutable and returned without copying, so they are recognized by identity.
+#
+# + snapshot - Current terminology snapshot
+# + valueSet - ValueSet to be expanded
+# + filter - Text filter of the expansion
+# + return - Cache key, or nil if the expansion of the ValueSet should not be cached
+isolated function getExpansionCacheKey(TerminologySnapshot snapshot, r4:ValueSet valueSet, string? filter) returns string? {
+    r4:uri? url = valueSet.url;
+    string? 'version = valueSet.version;
+    if url is () || 'version is () {
+        return ();
+    }
+    string key = getKey(url, 'version);
+    if snapshot.valueSets[key] !== valueSet {
+        return ();
+    }
+    return filter is string ? string `${key}|${filter}` : key;
+}
@@ -11,16 +11,17 @@
 // specific language governing permissions and limitations
 // under the License.
 import ballerina/http;
-import ballerina/lang.regexp;
 import ballerina/log;
+import ballerina/time;
 import ballerinax/health.fhir.r4;
 
 isolated class InMemoryTerminology {
     *Terminology;
     # Global records to store Terminologies across different profiles and packages.
-    private map<r4:CodeSystem> codeSystemMap = {};
-    private map<r4:ValueSet> valueSetMap = {};
-    private map<r4:ConceptMap> conceptMapsMap = {};
+    # The terminologies are kept in an immutable snapshot, which is replaced as a whole when a terminology is added.
+    # Readers only hold the lock to take the current snapshot, so lookups do not wait for each other.
+    private TerminologySnapshot snapshot = EMPTY_SNAPSHOT;
+    private final ValueSetExpansionCache expansionCache = new (valueSetExpansionCacheCapacity);
 
     function init() {
 
@@ -59,11 +60,14 @@ isolated class InMemoryTerminology {
             log:printError(fhirError.toBalString());
         }
 
+        // Call the populateCodeSystemMap function
+        map<r4:CodeSystem> codeSystemMap = self.populateCodeSystemMap(internalFhirCodeSystems, externalFhirCodeSystems, {});
+        map<r4:ValueSet> valueSetMap = self.populateValueSetMap(internalFhirValueSets, externalFhirValueSets, {});
+        map<r4:ConceptMap> conceptMapsMap = self.populateConceptMapsMap(internalFhirConceptMaps, {});
+        TerminologySnapshot snapshot = createSnapshot(codeSystemMap.cloneReadOnly(), valueSetMap.cloneReadOnly(),
+                conceptMapsMap.cloneReadOnly());
         lock {
-            // Call the populateCodeSystemMap function
-            self.codeSystemMap = self.populateCodeSystemMap(internalFhirCodeSystems, externalFhirCodeSystems, self.codeSystemMap).clone();
-            self.valueSetMap = self.populateValueSetMap(internalFhirValueSets, externalFhirValueSets, self.valueSetMap).clone();
-            self.conceptMapsMap = self.populateConceptMapsMap(internalFhirConceptMaps, self.conceptMapsMap).clone();
+            self.snapshot = snapshot;
         }
 
         // Initialiase terminology processor
@@ -162,91 +166,113 @@ isolated class InMemoryTerminology {
     }
 
     public isolated function addCodeSystem(r4:CodeSystem codeSystem) returns r4:FHIRError? {
-        string key = getKey(<string>codeSystem.url, <string>codeSystem.version);
+        return self.addCodeSystems([codeSystem]);
+    }
+
+    # Adds CodeSystems in a single update of the snapshot. The CodeSystems need to have a URL and a version.
+    #
+    # + codeSystems - CodeSystems to be added
+    # + return - Always nil
+    isolated function addCodeSystems(r4:CodeSystem[] codeSystems) returns r4:FHIRError? {
+        final (r4:CodeSystem & readonly)[] & readonly values = from r4:CodeSystem codeSystem in codeSystems
+            select codeSystem.cloneReadOnly();
+        final ConceptIndex[] & readonly conceptIndexes = from r4:CodeSystem & readonly codeSystem in values
+            select createConceptIndex(codeSystem);
         lock {
-            self.codeSystemMap[key] = codeSystem.clone();
+            self.snapshot = withCodeSystems(self.snapshot, values, conceptIndexes);
         }
         return ();
     }
 
     public isolated function addValueSet(r4:ValueSet valueSet) returns r4:FHIRError? {
+        return self.addValueSets([valueSet]);
+    }
+
+    # Adds ValueSets in a single update of the snapshot. The ValueSets need to have a URL and a version.
+    #
+    # + valueSets - ValueSets to be added
+    # + return - Always nil
+    isolated function addValueSets(r4:ValueSet[] valueSets) returns r4:FHIRError? {
+        final (r4:ValueSet & readonly)[] & readonly values = from r4:ValueSet valueSet in valueSets
+            select valueSet.cloneReadOnly();
         lock {
-            self.valueSetMap[getKey(<string>valueSet.url, <string>valueSet.version)] = valueSet.clone();
+            self.snapshot = withValueSets(self.snapshot, values);
         }
         return ();
     }
 
     public isolated function isConceptMapExist(r4:uri system, string 'version) returns boolean {
-
-        string key = getKey(system, version);
-        lock {
-            return self.conceptMapsMap.hasKey(key);
-        }
+        return self.getSnapshot().conceptMaps.hasKey(getKey(system, version));
     }
 
     public isolated function addConceptMap(r4:ConceptMap conceptMap) returns r4:FHIRError? {
+        r4:FHIRError[]? errors = self.addConceptMaps([conceptMap]);
+        return errors is r4:FHIRError[] ? errors[0] : ();
+    }
+
+    # Adds ConceptMaps in a single update of the snapshot. The ConceptMaps need to have a URL and a version.
+    # ConceptMaps with the URL and version of a ConceptMap that is already there are not added.
+    #
+    # + conceptMaps - ConceptMaps to be added
+    # + return - Errors of the ConceptMaps that were not added
+    isolated function addConceptMaps(r4:ConceptMap[] conceptMaps) returns r4:FHIRError[]? {
+        final (r4:ConceptMap & readonly)[] & readonly values = from r4:ConceptMap conceptMap in conceptMaps
+            select conceptMap.cloneReadOnly();
+        string[] & readonly duplicateKeys;
         lock {
-            string key = getKey(<string>conceptMap.url, <string>conceptMap.version);
-            if !self.conceptMapsMap.hasKey(key) {
-                self.conceptMapsMap['key] = conceptMap.clone();
-            } else {
-                return r4:createFHIRError(
-                        "Duplicate entry",
-                        r4:ERROR,
-                        r4:PROCESSING_DUPLICATE,
-                        diagnostic = string `Already there is a ConceptMap exists in the registry with the URL: ${'key}`,
-                        errorType = r4:VALIDATION_ERROR,
-                        httpStatusCode = http:STATUS_BAD_REQUEST);
+            TerminologySnapshot snapshot = self.snapshot;
+            (r4:ConceptMap & readonly)[] added = [];
+            map<boolean> addedKeys = {};
+            string[] duplicates = [];
+            foreach r4:ConceptMap & readonly conceptMap in values {
+                string key = getKey(<string>conceptMap.url, <string>conceptMap.version);
+                if snapshot.conceptMaps.hasKey(key) || addedKeys.hasKey(key) {
+                    duplicates.push(key);
+                } else {
+                    addedKeys[key] = true;
+                    added.push(conceptMap);
+                }
             }
-
+            if added.length() > 0 {
+                self.snapshot = withConceptMaps(snapshot, added);
+            }
+            duplicateKeys = duplicates.cloneReadOnly();
+        }
+        if duplicateKeys.length() == 0 {
+            return ();
         }
+        return from string key in duplicateKeys
+            select r4:createFHIRError(
+                    "Duplicate entry",
+                    r4:ERROR,
+                    r4:PROCESSING_DUPLICATE,
+                    diagnostic = string `Already there is a ConceptMap exists in the registry with the URL: ${'key}`,
+                    errorType = r4:VALIDATION_ERROR,
+                    httpStatusCode = http:STATUS_BAD_REQUEST);
     }
 
     public isolated function getConceptMap(r4:uri? conceptMapUrl, string? version) returns r4:ConceptMap|r4:FHIRError {
-
-        map<r4:ConceptMap> conceptMaps = {};
-        lock {
-            conceptMaps = self.conceptMapsMap.clone();
-        }
-        
-        boolean isIdExistInRegistry = false;
-        if 'version is string && conceptMapUrl != "" {
-            foreach var item in conceptMaps.keys() {
-                if regexp:isFullMatch(re `${conceptMapUrl}\|${'version}$`, item) && conceptMaps[item] is r4:ConceptMap {
-                    return <r4:ConceptMap>conceptMaps[item].clone();
-                } else if regexp:isFullMatch(re `${conceptMapUrl}\|.*`, item) {
-                    isIdExistInRegistry = true;
+        TerminologySnapshot snapshot = self.getSnapshot();
+        if conceptMapUrl is r4:uri && conceptMapUrl != "" {
+            if 'version is string {
+                r4:ConceptMap? conceptMap = snapshot.conceptMaps[getKey(conceptMapUrl, 'version)];
+                if conceptMap is r4:ConceptMap {
+                    return toMutableConceptMap(conceptMap);
                 }
-            }
-
-            if isIdExistInRegistry {
-                return r4:createFHIRError(
-                            string `Unknown version: '${'version}',`,
-                            r4:ERROR,
-                            r4:PROCESSING_NOT_FOUND,
-                            diagnostic = string `: there is a concept map in the registry with Url: '${conceptMapUrl.toString()}' but cannot find version: '${'version}' of it.`,
-                            httpStatusCode = http:STATUS_NOT_FOUND
-                        );
-            }
-        } else if conceptMapUrl != "" {
-            r4:ConceptMap conceptMap = {status: "unknown"};
-            foreach var item in conceptMaps.keys() {
-                if conceptMapUrl == item
-                && conceptMaps[item] is r4:ConceptMap {
-                    conceptMap = <r4:ConceptMap>conceptMaps[item];
-                    isIdExistInRegistry = true;
+                if snapshot.conceptMapVersions.hasKey(conceptMapUrl) {
+                    return r4:createFHIRError(
+                                string `Unknown version: '${'version}',`,
+                                r4:ERROR,
+                                r4:PROCESSING_NOT_FOUND,
+                                diagnostic = string `: there is a concept map in the registry with Url: '${conceptMapUrl.toString()}' but cannot find version: '${'version}' of it.`,
+                                httpStatusCode = http:STATUS_NOT_FOUND
+                            );
                 }
-            }
-
-            if isIdExistInRegistry {
-                return conceptMap.clone();
             } else {
-                return r4:createFHIRError(
-                            string `Unknown concept map: ${conceptMapUrl.toBalString()}`,
-                        r4:ERROR,
-                        r4:PROCESSING_NOT_FOUND,
-                        httpStatusCode = http:STATUS_NOT_FOUND
-                        );
+                string? latestVersion = getLatestVersion(snapshot.conceptMapVersions, conceptMapUrl);
+                if latestVersion is string {
+                    return toMutableConceptMap(snapshot.conceptMaps.get(getKey(conceptMapUrl, latestVersion)));
+                }
             }
         }
         return r4:createFHIRError(
@@ -259,23 +285,20 @@ isolated class InMemoryTerminology {
 
     public isolated function findConceptMaps(r4:uri sourceValueSetUri, r4:uri? targetValueSetUri) returns r4:ConceptMap[]|r4:FHIRError {
 
-        r4:ConceptMap[] conceptMapsArray = [];
         r4:ConceptMap[] matchingConceptMaps = [];
-        lock {
-            conceptMapsArray = self.conceptMapsMap.clone().toArray();
-        }
+        map<r4:ConceptMap> & readonly conceptMaps = self.getSnapshot().conceptMaps;
 
         if targetValueSetUri == () {
-            foreach var conceptMap in conceptMapsArray {
+            foreach var conceptMap in conceptMaps {
                 if conceptMap.sourceCanonical == sourceValueSetUri || conceptMap.sourceUri == sourceValueSetUri {
-                    matchingConceptMaps.push(conceptMap.clone());
+                    matchingConceptMaps.push(toMutableConceptMap(conceptMap));
                 }
             }
         } else {
-            foreach var conceptMap in conceptMapsArray {
+            foreach var conceptMap in conceptMaps {
                 if (conceptMap.sourceCanonical == sourceValueSetUri && conceptMap.targetCanonical == targetValueSetUri)
                         || (conceptMap.sourceUri == sourceValueSetUri && conceptMap.targetUri == targetValueSetUri) {
-                    matchingConceptMaps.push(conceptMap.clone());
+                    matchingConceptMaps.push(toMutableConceptMap(conceptMap));
                 }
             }
         }
@@ -294,10 +317,7 @@ isolated class InMemoryTerminology {
 
     public isolated function searchConceptMap(map<r4:RequestSearchParameter[]> params, int? offset, int? count) returns r4:ConceptMap[]|r4:FHIRError {
 
-        r4:ConceptMap[] conceptMapsArray = [];
-        lock {
-            conceptMapsArray = self.conceptMapsMap.clone().toArray();
-        }
+        r4:ConceptMap[] conceptMapsArray = self.getSnapshot().conceptMaps.toArray();
         foreach var searchParam in params.cloneReadOnly().keys() {
             r4:RequestSearchParameter[] searchParamValues = params.cloneReadOnly()[searchParam] ?: [];
             r4:ConceptMap[] filteredList = [];
@@ -308,7 +328,7 @@ isolated class InMemoryTerminology {
                         select entry;
                     filteredList.push(...result);
                 }
-                conceptMapsArray = filteredList.cloneReadOnly();
+                conceptMapsArray = filteredList;
             }
         }
 
@@ -316,104 +336,22 @@ isolated class InMemoryTerminology {
         int validatedCount = count ?: TERMINOLOGY_SEARCH_DEFAULT_COUNT;
 
         if total >= offset + validatedCount {
-            return conceptMapsArray.slice(offset ?: 0, (offset ?: 0) + validatedCount).clone();
+            conceptMapsArray = conceptMapsArray.slice(offset ?: 0, (offset ?: 0) + validatedCount);
         } else if total >= offset {
-            return conceptMapsArray.slice(offset ?: 0).clone();
+            conceptMapsArray = conceptMapsArray.slice(offset ?: 0);
         } else {
             return [];
         }
+        return from r4:ConceptMap conceptMap in conceptMapsArray
+            select toMutableConceptMap(conceptMap);
     }
 
     public isolated function findCodeSystem(r4:uri? system, string? id, string? version) returns r4:CodeSystem|r4:FHIRError {
-        map<r4:CodeSystem> codeSystems = {};
-        lock {
-            codeSystems = self.codeSystemMap.clone();
-        }
-        if id != () {
-            codeSystems = map from r4:CodeSystem entry in codeSystems
-                where entry.id == id
-                select [getKey(<string>entry.url, <string>entry.version), entry];
-            if codeSystems.length() < 1 {
-                return r4:createFHIRError(
-                        string `Unknown CodeSystem Id: '${id}'`,
-                        r4:ERROR,
-                        r4:PROCESSING_NOT_FOUND,
-                        httpStatusCode = http:STATUS_NOT_FOUND
-                    );
-            }
-            if 'version != () {
-                codeSystems = map from r4:CodeSystem entry in codeSystems
-                    where entry.version == 'version
-                    select [getKey(<string>entry.url, <string>entry.version), entry];
-
-                if codeSystems.length() < 1 {
-                    return r4:createFHIRError(
-                            string `Unknown version: '${'version.toString()}',`,
-                            r4:ERROR,
-                            r4:PROCESSING_NOT_FOUND,
-                            diagnostic = string `: there is a CodeSystem in the registry with Id: '${id.toString()}' but cannot find version: '${'version.toString()}' of it.`,
-                            httpStatusCode = http:STATUS_NOT_FOUND
-                        );
-                }
-
-            } else {
-                // find an available version. since the id is valid there will be at least one valid code system.
-                codeSystems = map from r4:CodeSystem entry in codeSystems
-                    where entry.version > DEFAULT_VERSION
-                    select [getKey(<string>entry.url, <string>entry.version), entry];
-            }
-            return codeSystems.toArray()[0].clone();
+        r4:CodeSystem|r4:FHIRError codeSystem = self.lookupCodeSystem(system, id, version);
+        if codeSystem is r4:FHIRError {
+            return codeSystem;
         }
-
-        boolean isIdExistInRegistry = false;
-        if 'version is string && system != () {
-            foreach var item in codeSystems.keys() {
-                if regexp:isFullMatch(re `${system}\|${'version}$`, item) && codeSystems[item] is r4:CodeSystem {
-                    return <r4:CodeSystem>codeSystems[item].clone();
-                } else if regexp:isFullMatch(re `${system}\|.*`, item) {
-                    isIdExistInRegistry = true;
-                }
-            }
-
-            if isIdExistInRegistry {
-                return r4:createFHIRError(
-                            string `Unknown version: '${'version}',`,
-                            r4:ERROR,
-                            r4:PROCESSING_NOT_FOUND,
-                            diagnostic = string `: there is a CodeSystem in the registry with Id: '${system.toString()}' but cannot find version: '${'version}' of it.`,
-                            httpStatusCode = http:STATUS_NOT_FOUND
-                        );
-            }
-        } else if system != () {
-            r4:CodeSystem codeSystem = {content: "example", status: "unknown"};
-            string latestVersion = DEFAULT_VERSION;
-            foreach var item in codeSystems.keys() {
-                if regexp:isFullMatch(re `${system}\|.*`, item)
-                && codeSystems[item] is r4:CodeSystem
-                && (<r4:CodeSystem>codeSystems[item]).version > latestVersion {
-                    codeSystem = <r4:CodeSystem>codeSystems[item];
-                    latestVersion = codeSystem.version ?: DEFAULT_VERSION;
-                    isIdExistInRegistry = true;
-                }
-            }
-
-            if isIdExistInRegistry {
-                return codeSystem.clone();
-            } else {
-                return r4:createFHIRError(
-                            string `Unknown CodeSystem: '${system.toBalString()}'`,
-                            r4:ERROR,
-                            r4:PROCESSING_NOT_FOUND,
-                            httpStatusCode = http:STATUS_NOT_FOUND
-                        );
-            }
-        }
-        return r4:createFHIRError(
-                string `Unknown CodeSystem: '${system.toBalString()}'`,
-                r4:ERROR,
-                r4:PROCESSING_NOT_FOUND,
-                httpStatusCode = http:STATUS_NOT_FOUND
-            );
+        return toMutableCodeSystem(codeSystem);
     }
 
     public isolated function findConcept(r4:uri system, r4:code code, string? 'version = ()) returns CodeConceptDetails|r4:FHIRError {
@@ -423,9 +361,10 @@ isolated class InMemoryTerminology {
         }
 
         CodeConceptDetails|r4:FHIRError? conceptDetails = ();
-        r4:CodeSystem|r4:FHIRError findCodeSystemResult = self.findCodeSystem(system, (), version);
-        if findCodeSystemResult is r4:CodeSystem {
-            conceptDetails = findConceptInCodeSystem(findCodeSystemResult, code);
+        TerminologySnapshot snapshot = self.getSnapshot();
+        string|r4:FHIRError codeSystemKey = resolveCodeSystemKey(snapshot, system, version);
+        if codeSystemKey is string {
+            conceptDetails = findIndexedConcept(snapshot, codeSystemKey, code);
             if conceptDetails is CodeConceptDetails {
                 return conceptDetails;
             }
@@ -454,98 +393,50 @@ isolated class InMemoryTerminology {
         );
     }
 
+    # Checks whether one code subsumes the other, using the concept hierarchy indexed when the CodeSystem was added.
+    #
+    # + system - URL of the CodeSystem
+    # + version - Version of the CodeSystem, the latest version is used if not given
+    # + codeA - First code
+    # + codeB - Second code
+    # + return - Subsumption outcome, or nil if the codes cannot be resolved from the indexed CodeSystem
+    isolated function findSubsumption(r4:uri system, string? version, r4:code codeA, r4:code codeB)
+            returns CodeSystemSubsumption? {
+        TerminologySnapshot snapshot = self.getSnapshot();
+        // Concepts are resolved from a ValueSet with the same URL before the CodeSystem, leave that to findConcept.
+        if resolveValueSetKey(snapshot, system, version) is string {
+            return ();
+        }
+        string|r4:FHIRError codeSystemKey = resolveCodeSystemKey(snapshot, system, version);
+        if codeSystemKey is r4:FHIRError {
+            return ();
+        }
+        ConceptIndex conceptIndex = snapshot.conceptIndexes.get(codeSystemKey);
+        IndexedConcept? conceptA = conceptIndex[codeA];
+        IndexedConcept? conceptB = conceptIndex[codeB];
+        if conceptA is () || conceptB is () {
+            return ();
+        }
+        if codeA == codeB {
+            return EQUIVALENT;
+        } else if conceptB.ancestors.hasKey(codeA) {
+            return SUBSUMED;
+        } else if conceptA.ancestors.hasKey(codeB) {
+            return SUBSUMED_BY;
+        }
+        return NOT_SUBSUMED;
+    }
+
     public isolated function findValueSet(r4:uri? system, string? id, string? version) returns r4:ValueSet|r4:FHIRError {
-        map<r4:ValueSet> valueSets = {};
-        lock {
-            valueSets = self.valueSetMap.clone();
-        }
-        if id != () {
-            valueSets = map from r4:ValueSet entry in valueSets
-                where entry.id == id
-                select [getKey(<string>entry.url, <string>entry.version), entry];
-            if valueSets.length() < 1 {
-                return r4:createFHIRError(
-                        string `Unknown ValueSet Id: '${id}'`,
-                        r4:ERROR,
-                        r4:PROCESSING_NOT_FOUND,
-                        httpStatusCode = http:STATUS_NOT_FOUND
-                    );
-            }
-            if 'version != () {
-                valueSets = map from r4:ValueSet entry in valueSets
-                    where entry.version == 'version
-                    select [getKey(<string>entry.url, <string>entry.version), entry];
-                if valueSets.length() < 1 {
-                    return r4:createFHIRError(
-                            string `Unknown version: '${'version.toString()}',`,
-                            r4:ERROR,
-                            r4:PROCESSING_NOT_FOUND,
-                            diagnostic = string `: there is a ValueSet in the registry with Id: '${id.toString()}' but cannot find version: '${'version.toString()}' of it.`,
-                            httpStatusCode = http:STATUS_NOT_FOUND
-                        );
-                }
-            } else {
-                valueSets = map from r4:ValueSet entry in valueSets
-                    where entry.version > DEFAULT_VERSION
-                    select [getKey(<string>entry.url, <string>entry.version), entry];
-            }
-            return valueSets.toArray()[0].clone();
-        }
-        boolean isIdExistInRegistry = false;
-        if 'version is string {
-            foreach var item in valueSets.keys() {
-                if regexp:isFullMatch(re `${system}\|${'version}$`, item) && valueSets[item] is r4:ValueSet {
-                    return <r4:ValueSet>valueSets[item].clone();
-                } else if regexp:isFullMatch(re `${system}\|.*`, item) {
-                    isIdExistInRegistry = true;
-                }
-            }
-            if isIdExistInRegistry {
-                return r4:createFHIRError(
-                            string `Unknown version: '${'version}',`,
-                            r4:ERROR,
-                            r4:PROCESSING_NOT_FOUND,
-                            diagnostic = string `: there is a ValueSet in the registry with Id: '${system.toString()}' but cannot find version: '${'version}' of it.`,
-                            httpStatusCode = http:STATUS_NOT_FOUND
-                        );
-            }
-        } else {
-            r4:ValueSet valueSet = {status: "unknown"};
-            string latestVersion = DEFAULT_VERSION;
-            foreach var item in valueSets.keys() {
-                if regexp:isFullMatch(re `${system}\|.*`, item)
-                        && valueSets[item] is r4:ValueSet
-                        && (<r4:ValueSet>valueSets[item]).version > latestVersion {
-
-                    valueSet = <r4:ValueSet>valueSets[item];
-                    latestVersion = valueSet.version ?: DEFAULT_VERSION;
-                    isIdExistInRegistry = true;
-                }
-            }
-            if !isIdExistInRegistry {
-                return r4:createFHIRError(
-                            string `Unknown ValueSet: '${system.toString()}'`,
-                            r4:ERROR,
-                            r4:PROCESSING_NOT_FOUND,
-                            httpStatusCode = http:STATUS_NOT_FOUND
-                        );
-            } else {
-                return valueSet.clone();
-            }
+        r4:ValueSet|r4:FHIRError valueSet = self.lookupValueSet(system, id, version);
+        if valueSet is r4:FHIRError {
+            return valueSet;
         }
-        return r4:createFHIRError(
-                    string `Unknown ValueSet: '${system.toString()}'`,
-                    r4:ERROR,
-                    r4:PROCESSING_NOT_FOUND,
-                    httpStatusCode = http:STATUS_NOT_FOUND
-                );
+        return toMutableValueSet(valueSet);
     }
 
     public isolated function searchCodeSystem(map<r4:RequestSearchParameter[]> params, int? offset, int? count) returns r4:CodeSystem[]|r4:FHIRError {
-        r4:CodeSystem[] codeSystemArray = [];
-        lock {
-            codeSystemArray = self.codeSystemMap.clone().toArray();
-        }
+        r4:CodeSystem[] codeSystemArray = self.getSnapshot().codeSystems.toArray();
         foreach var searchParam in params.cloneReadOnly().keys() {
             r4:RequestSearchParameter[] searchParamValues = params.cloneReadOnly()[searchParam] ?: [];
             r4:CodeSystem[] filteredList = [];
@@ -556,7 +447,7 @@ isolated class InMemoryTerminology {
                         select entry;
                     filteredList.push(...result);
                 }
-                codeSystemArray = filteredList.cloneReadOnly();
+                codeSystemArray = filteredList;
             }
         }
 
@@ -564,19 +455,18 @@ isolated class InMemoryTerminology {
         int validatedCount = count ?: TERMINOLOGY_SEARCH_DEFAULT_COUNT;
 
         if total >= offset + validatedCount {
-            return codeSystemArray.slice(offset ?: 0, (offset ?: 0) + validatedCount).clone();
+            codeSystemArray = codeSystemArray.slice(offset ?: 0, (offset ?: 0) + validatedCount);
         } else if total >= offset {
-            return codeSystemArray.slice(offset ?: 0).clone();
+            codeSystemArray = codeSystemArray.slice(offset ?: 0);
         } else {
             return [];
         }
+        return from r4:CodeSystem codeSystem in codeSystemArray
+            select toMutableCodeSystem(codeSystem);
     }
 
     public isolated function searchValueSet(map<r4:RequestSearchParameter[]> params, int? offset, int? count) returns r4:ValueSet[]|r4:FHIRError {
-        r4:ValueSet[] valueSetArray = [];
-        lock {
-            valueSetArray = self.valueSetMap.clone().toArray();
-        }
+        r4:ValueSet[] valueSetArray = self.getSnapshot().valueSets.toArray();
         foreach var searchParam in params.keys() {
             r4:RequestSearchParameter[] searchParamValues = params[searchParam] ?: [];
             r4:ValueSet[] filteredList = [];
@@ -593,37 +483,128 @@ isolated class InMemoryTerminology {
         int total = valueSetArray.length();
         int validatedCount = count ?: TERMINOLOGY_SEARCH_DEFAULT_COUNT;
         if total >= offset + validatedCount {
-            return valueSetArray.slice(offset ?: 0, (offset ?: 0) + validatedCount).clone();
+            valueSetArray = valueSetArray.slice(offset ?: 0, (offset ?: 0) + validatedCount);
         } else if total >= offset {
-            return valueSetArray.slice(offset ?: 0).clone();
+            valueSetArray = valueSetArray.slice(offset ?: 0);
         } else {
             return [];
         }
+        return from r4:ValueSet valueSet in valueSetArray
+            select toMutableValueSet(valueSet);
     }
 
     public isolated function isCodeSystemExist(r4:uri system, string 'version) returns boolean {
-        string key = getKey(system, version);
-        lock {
-            return self.codeSystemMap.hasKey(key);
-        }
+        return self.getSnapshot().codeSystems.hasKey(getKey(system, version));
     }
 
     public isolated function isValueSetExist(r4:uri system, string 'version) returns boolean {
-        string key = getKey(system, version);
+        return self.getSnapshot().valueSets.hasKey(getKey(system, version));
+    }
+
+    private isolated function getSnapshot() returns TerminologySnapshot {
         lock {
-            return self.valueSetMap.hasKey(key);
+            return self.snapshot;
         }
     }
 
+    // Finds a CodeSystem in the current snapshot. The returned CodeSystem is immutable.
+    private isolated function lookupCodeSystem(r4:uri? system, string? id, string? version) returns r4:CodeSystem|r4:FHIRError {
+        TerminologySnapshot snapshot = self.getSnapshot();
+        if id != () {
+            r4:CodeSystem[] codeSystems = from r4:CodeSystem entry in snapshot.codeSystems
+                where entry.id == id
+                select entry;
+            if codeSystems.length() < 1 {
+                return r4:createFHIRError(
+                        string `Unknown CodeSystem Id: '${id}'`,
+                        r4:ERROR,
+                        r4:PROCESSING_NOT_FOUND,
+                        httpStatusCode = http:STATUS_NOT_FOUND
+                    );
+            }
+            if 'version != () {
+                codeSystems = from r4:CodeSystem entry in codeSystems
+                    where entry.version == 'version
+                    select entry;
+
+                if codeSystems.length() < 1 {
+                    return r4:createFHIRError(
+                            string `Unknown version: '${'version.toString()}',`,
+                            r4:ERROR,
+                            r4:PROCESSING_NOT_FOUND,
+                            diagnostic = string `: there is a CodeSystem in the registry with Id: '${id.toString()}' but cannot find version: '${'version.toString()}' of it.`,
+                            httpStatusCode = http:STATUS_NOT_FOUND
+                        );
+                }
+
+            } else {
+                // find an available version. since the id is valid there will be at least one valid code system.
+                codeSystems = from r4:CodeSystem entry in codeSystems
+                    where entry.version > DEFAULT_VERSION
+                    select entry;
+            }
+            return codeSystems[0];
+        }
+
+        string|r4:FHIRError key = resolveCodeSystemKey(snapshot, system, version);
+        if key is r4:FHIRError {
+            return key;
+        }
+        return snapshot.codeSystems.get(key);
+    }
+
+    // Finds a ValueSet in the current snapshot. The returned ValueSet is immutable.
+    private isolated function lookupValueSet(r4:uri? system, string? id, string? version) returns r4:ValueSet|r4:FHIRError {
+        TerminologySnapshot snapshot = self.getSnapshot();
+        if id != () {
+            r4:ValueSet[] valueSets = from r4:ValueSet entry in snapshot.valueSets
+                where entry.id == id
+                select entry;
+            if valueSets.length() < 1 {
+                return r4:createFHIRError(
+                        string `Unknown ValueSet Id: '${id}'`,
+                        r4:ERROR,
+                        r4:PROCESSING_NOT_FOUND,
+                        httpStatusCode = http:STATUS_NOT_FOUND
+                    );
+            }
+            if 'version != () {
+                valueSets = from r4:ValueSet entry in valueSets
+                    where entry.version == 'version
+                    select entry;
+                if valueSets.length() < 1 {
+                    return r4:createFHIRError(
+                            string `Unknown version: '${'version.toString()}',`,
+                            r4:ERROR,
+                            r4:PROCESSING_NOT_FOUND,
+                            diagnostic = string `: there is a ValueSet in the registry with Id: '${id.toString()}' but cannot find version: '${'version.toString()}' of it.`,
+                            httpStatusCode = http:STATUS_NOT_FOUND
+                        );
+                }
+            } else {
+                valueSets = from r4:ValueSet entry in valueSets
+                    where entry.version > DEFAULT_VERSION
+                    select entry;
+            }
+            return valueSets[0];
+        }
+
+        string|r4:FHIRError key = resolveValueSetKey(snapshot, system, version);
+        if key is r4:FHIRError {
+            return key;
+        }
+        return snapshot.valueSets.get(key);
+    }
+
     private isolated function findConceptInValueSet(r4:uri system, r4:code code, string? version) returns CodeConceptDetails|r4:FHIRError? {
         CodeConceptDetails|r4:FHIRError? result = ();
-        r4:ValueSet|r4:FHIRError findValueSetResult = self.findValueSet(system, (), version);
+        r4:ValueSet|r4:FHIRError findValueSetResult = self.lookupValueSet(system, (), version);
         if findValueSetResult is r4:ValueSet {
             CodeConceptDetails[]|r4:canonical[]|r4:FHIRError|CodeSystemMetadata[] conceptResults = findConceptInValueSetOrReturnValueSetURIs(findValueSetResult, code);
             if conceptResults is r4:canonical[] {
                 r4:FHIRError? lastError = ();
                 foreach r4:canonical refValueSetUrl in conceptResults {
-                    r4:ValueSet|r4:FHIRError refValueSet = self.findValueSet(refValueSetUrl, (), ());
+                    r4:ValueSet|r4:FHIRError refValueSet = self.lookupValueSet(refValueSetUrl, (), ());
                     if refValueSet is r4:ValueSet {
                         CodeConceptDetails[]|r4:canonical[]|CodeSystemMetadata[]|r4:FHIRError? concept = findConceptInValueSetOrReturnValueSetURIs(refValueSet, code);
                         if concept is CodeConceptDetails[] {
@@ -669,68 +650,370 @@ isolated class InMemoryTerminology {
     }
 
     public isolated function expandValueSet(map<r4:RequestSearchParameter[]> searchParameters, r4:ValueSet valueSet, int offset, int count) returns r4:ValueSet|r4:FHIRError {
+        string? filter = searchParameters.hasKey(FILTER) ? searchParameters.get(FILTER)[0].value : ();
+        r4:ValueSetExpansionContains[]? contains = self.getExpansionContains(valueSet, filter);
+        if contains is () {
+            return valueSet.clone();
+        }
+
+        int totalCount = contains.length();
+        r4:ValueSetExpansionContains[] slice;
+        if totalCount > offset + count {
+            slice = contains.slice(offset, offset + count);
+        } else if totalCount >= offset {
+            slice = contains.slice(offset);
+        } else {
+            slice = [];
+        }
+        // The cached expansion is immutable, only the concepts of the page are copied for the caller.
+        r4:ValueSetExpansionContains[] page = from r4:ValueSetExpansionContains concept in slice
+            select {...concept};
+        // The given ValueSet may be a stored, immutable one, so the expansion is set on a shallow copy.
+        r4:ValueSet expandedValueSet = {...valueSet};
+        expandedValueSet.expansion = {
+            timestamp: time:utcToString(time:utcNow()),
+            contains: page,
+            offset: offset,
+            total: totalCount
+        };
+        return expandedValueSet;
+    }
+
+    // Returns the filtered expansion of the ValueSet before it is paginated. Expansions of the stored ValueSets are
+    // cached, so paging through a large ValueSet does not expand it again for every page.
+    private isolated function getExpansionContains(r4:ValueSet valueSet, string? filter)
+            returns r4:ValueSetExpansionContains[]? {
+        TerminologySnapshot snapshot = self.getSnapshot();
+        string? cacheKey = getExpansionCacheKey(snapshot, valueSet, filter);
+        if cacheKey != () {
+            (r4:ValueSetExpansionContains[] & readonly)? cached = self.expansionCache.get(cacheKey, snapshot.generation);
+            if cached != () {
+                return cached;
+            }
+        }
+
         ValueSetExpansionDetails? details = getAllConceptInValueSet(valueSet);
+        if details is () {
+            return ();
+        }
+        r4:ValueSetExpansionContains[] & readonly contains =
+            createExpansionContains(filterExpansionConcepts(details.concepts, filter)).cloneReadOnly();
+        if cacheKey != () {
+            self.expansionCache.put(cacheKey, {generation: snapshot.generation, contains});
+        }
+        return contains;
+    }
+}
 
-        if details is ValueSetExpansionDetails {
-            r4:CodeSystemConcept[]|r4:ValueSetComposeIncludeConcept[] concepts = details.concepts;
+isolated function getKey(string url, string 'version) returns string {
+    return string `${url}|${'version}`;
+}
 
-            if concepts is r4:ValueSetComposeIncludeConcept[] {
-                if searchParameters.hasKey(FILTER) {
-                    string filter = searchParameters.get(FILTER)[0].value;
-                    r4:ValueSetComposeIncludeConcept[] result = from r4:ValueSetComposeIncludeConcept entry in concepts
-                        where entry[DISPLAY] is string && regexp:isFullMatch(re `.*${filter.toUpperAscii()}.*`,
-                                (<string>entry[DISPLAY]).toUpperAscii())
-                        select entry;
-                    concepts = result;
-                }
+# Immutable view of the terminologies held by `InMemoryTerminology`.
+#
+# + codeSystems - CodeSystems keyed by URL and version
+# + codeSystemVersions - Versions of the CodeSystems, keyed by URL
+# + conceptIndexes - Concept index of each CodeSystem, keyed by URL and version
+# + valueSets - ValueSets keyed by URL and version
+# + valueSetVersions - Versions of the ValueSets, keyed by URL
+# + conceptMaps - ConceptMaps keyed by URL and version
+# + conceptMapVersions - Versions of the ConceptMaps, keyed by URL
+# + generation - Incremented each time a terminology is added, used to invalidate cached ValueSet expansions
+type TerminologySnapshot readonly & record {|
+    map<r4:CodeSystem> codeSystems;
+    map<string[]> codeSystemVersions;
+    map<ConceptIndex> conceptIndexes;
+    map<r4:ValueSet> valueSets;
+    map<string[]> valueSetVersions;
+    map<r4:ConceptMap> conceptMaps;
+    map<string[]> conceptMapVersions;
+    int generation;
+|};
+
+# Concepts of a CodeSystem keyed by code.
+type ConceptIndex readonly & map<IndexedConcept>;
+
+# Concept of a CodeSystem along with the codes of the concepts it is nested under.
+#
+# + concept - First occurrence of the concept in the CodeSystem
+# + ancestors - Codes of the concepts this concept is nested under, directly or transitively
+type IndexedConcept readonly & record {|
+    r4:CodeSystemConcept concept;
+    map<boolean> ancestors;
+|};
+
+final TerminologySnapshot EMPTY_SNAPSHOT = {
+    codeSystems: {},
+    codeSystemVersions: {},
+    conceptIndexes: {},
+    valueSets: {},
+    valueSetVersions: {},
+    conceptMaps: {},
+    conceptMapVersions: {},
+    generation: 0
+};
+
+isolated function createSnapshot(map<r4:CodeSystem> & readonly codeSystems, map<r4:ValueSet> & readonly valueSets,
+        map<r4:ConceptMap> & readonly conceptMaps) returns TerminologySnapshot {
+    map<string[]> codeSystemVersions = {};
+    map<ConceptIndex> conceptIndexes = {};
+    foreach var [key, codeSystem] in codeSystems.entries() {
+        addVersion(codeSystemVersions, <string>codeSystem.url, <string>codeSystem.version);
+        conceptIndexes[key] = createConceptIndex(codeSystem);
+    }
+    map<string[]> valueSetVersions = {};
+    foreach r4:ValueSet valueSet in valueSets {
+        addVersion(valueSetVersions, <string>valueSet.url, <string>valueSet.version);
+    }
+    map<string[]> conceptMapVersions = {};
+    foreach r4:ConceptMap conceptMap in conceptMaps {
+        addVersion(conceptMapVersions, <string>conceptMap.url, <string>conceptMap.version);
+    }
+    return {
+        codeSystems,
+        codeSystemVersions: codeSystemVersions.cloneReadOnly(),
+        conceptIndexes: conceptIndexes.cloneReadOnly(),
+        valueSets,
+        valueSetVersions: valueSetVersions.cloneReadOnly(),
+        conceptMaps,
+        conceptMapVersions: conceptMapVersions.cloneReadOnly(),
+        generation: 0
+    };
+}
 
-                int totalCount = concepts.length();
+// The top level maps of the snapshot are copied once per update, so terminologies that are added together should be
+// added in a single update.
+isolated function withCodeSystems(TerminologySnapshot snapshot, (r4:CodeSystem & readonly)[] codeSystems,
+        ConceptIndex[] conceptIndexes) returns TerminologySnapshot {
+    map<r4:CodeSystem> codeSystemMap = {...snapshot.codeSystems};
+    map<string[]> codeSystemVersions = {...snapshot.codeSystemVersions};
+    map<ConceptIndex> conceptIndexMap = {...snapshot.conceptIndexes};
+    foreach int i in 0 ..< codeSystems.length() {
+        r4:CodeSystem & readonly codeSystem = codeSystems[i];
+        string url = <string>codeSystem.url;
+        string 'version = <string>codeSystem.version;
+        string key = getKey(url, 'version);
+        codeSystemMap[key] = codeSystem;
+        addVersion(codeSystemVersions, url, 'version);
+        conceptIndexMap[key] = conceptIndexes[i];
+    }
+    return {
+        codeSystems: codeSystemMap.cloneReadOnly(),
+        codeSystemVersions: codeSystemVersions.cloneReadOnly(),
+        conceptIndexes: conceptIndexMap.cloneReadOnly(),
+        valueSets: snapshot.valueSets,
+        valueSetVersions: snapshot.valueSetVersions,
+        conceptMaps: snapshot.conceptMaps,
+        conceptMapVersions: snapshot.conceptMapVersions,
+        generation: snapshot.generation + 1
+    };
+}
 
-                if totalCount > offset + count {
-                    concepts = concepts.slice(offset, offset + count);
-                } else if totalCount >= offset {
-                    concepts = concepts.slice(offset);
-                } else {
-                    r4:CodeSystemConcept[] temp = [];
-                    concepts = temp;
-                }
+isolated function withValueSets(TerminologySnapshot snapshot, (r4:ValueSet & readonly)[] valueSets)
+        returns TerminologySnapshot {
+    map<r4:ValueSet> valueSetMap = {...snapshot.valueSets};
+    map<string[]> valueSetVersions = {...snapshot.valueSetVersions};
+    foreach r4:ValueSet & readonly valueSet in valueSets {
+        string url = <string>valueSet.url;
+        string 'version = <string>valueSet.version;
+        valueSetMap[getKey(url, 'version)] = valueSet;
+        addVersion(valueSetVersions, url, 'version);
+    }
+    return {
+        codeSystems: snapshot.codeSystems,
+        codeSystemVersions: snapshot.codeSystemVersions,
+        conceptIndexes: snapshot.conceptIndexes,
+        valueSets: valueSetMap.cloneReadOnly(),
+        valueSetVersions: valueSetVersions.cloneReadOnly(),
+        conceptMaps: snapshot.conceptMaps,
+        conceptMapVersions: snapshot.conceptMapVersions,
+        generation: snapshot.generation + 1
+    };
+}
 
-                r4:ValueSetExpansion expansion = createExpandedValueSet(valueSet, concepts);
-                expansion.offset = offset;
-                expansion.total = totalCount;
-                valueSet.expansion = expansion.clone();
+isolated function withConceptMaps(TerminologySnapshot snapshot, (r4:ConceptMap & readonly)[] conceptMaps)
+        returns TerminologySnapshot {
+    map<r4:ConceptMap> conceptMapMap = {...snapshot.conceptMaps};
+    map<string[]> conceptMapVersions = {...snapshot.conceptMapVersions};
+    foreach r4:ConceptMap & readonly conceptMap in conceptMaps {
+        string url = <string>conceptMap.url;
+        string 'version = <string>conceptMap.version;
+        conceptMapMap[getKey(url, 'version)] = conceptMap;
+        addVersion(conceptMapVersions, url, 'version);
+    }
+    return {
+        codeSystems: snapshot.codeSystems,
+        codeSystemVersions: snapshot.codeSystemVersions,
+        conceptIndexes: snapshot.conceptIndexes,
+        valueSets: snapshot.valueSets,
+        valueSetVersions: snapshot.valueSetVersions,
+        conceptMaps: conceptMapMap.cloneReadOnly(),
+        conceptMapVersions: conceptMapVersions.cloneReadOnly(),
+        generation: snapshot.generation + 1
+    };
+}
 
-            } else {
-                if searchParameters.hasKey(FILTER) {
-                    string filter = searchParameters.get(FILTER)[0].value;
-                    r4:CodeSystemConcept[] result = from r4:CodeSystemConcept entry in concepts
-                        where entry[DISPLAY] is string
-                                && regexp:isFullMatch(re `.*${filter.toUpperAscii()}.*`, (<string>entry[DISPLAY]).toUpperAscii())
-                            || entry[DEFINITION] is string
-                                && regexp:isFullMatch(re `.*${filter.toUpperAscii()}.*`, (<string>entry[DEFINITION]).toUpperAscii())
-                        select entry;
-                    concepts = result;
-                }
+isolated function addVersion(map<string[]> versions, string url, string 'version) {
+    string[] urlVersions = [...(versions[url] ?: [])];
+    if urlVersions.indexOf('version) is () {
+        urlVersions.push('version);
+    }
+    versions[url] = urlVersions;
+}
 
-                int totalCount = concepts.length();
-                if totalCount > offset + count {
-                    concepts = concepts.slice(offset, offset + count);
-                } else if totalCount >= offset {
-                    concepts = concepts.slice(offset);
-                } else {
-                    r4:CodeSystemConcept[] temp = [];
-                    concepts = temp;
-                }
-                r4:ValueSetExpansion expansion = createExpandedValueSet(valueSet, concepts);
-                expansion.offset = offset;
-                expansion.total = totalCount;
-                valueSet.expansion = expansion.clone();
+# Indexes the concepts of a CodeSystem by code, along with the codes of the concepts each one is nested under.
+# Like `findConceptRecursively`, the first occurrence of a code in a depth first walk is the one that is indexed,
+# and only the children of that occurrence are considered to be nested under it.
+#
+# + codeSystem - CodeSystem to be indexed
+# + return - Concept index of the CodeSystem
+isolated function createConceptIndex(r4:CodeSystem codeSystem) returns ConceptIndex {
+    map<r4:CodeSystemConcept & readonly> concepts = {};
+    map<map<boolean>> ancestors = {};
+    r4:CodeSystemConcept[]? rootConcepts = codeSystem.concept;
+    if rootConcepts != () {
+        indexConcepts(rootConcepts.cloneReadOnly(), [], concepts, ancestors);
+    }
+    map<IndexedConcept> conceptIndex = {};
+    foreach [string, r4:CodeSystemConcept & readonly] [code, concept] in concepts.entries() {
+        conceptIndex[code] = {concept, ancestors: ancestors.get(code).cloneReadOnly()};
+    }
+    return conceptIndex.cloneReadOnly();
+}
+
+isolated function indexConcepts(r4:CodeSystemConcept[] & readonly concepts, string[] path,
+        map<r4:CodeSystemConcept & readonly> indexedConcepts, map<map<boolean>> ancestors) {
+    foreach r4:CodeSystemConcept & readonly concept in concepts {
+        string code = concept.code;
+        boolean firstOccurrence = !indexedConcepts.hasKey(code);
+        if firstOccurrence {
+            indexedConcepts[code] = concept;
+            ancestors[code] = {};
+        }
+        map<boolean> conceptAncestors = ancestors.get(code);
+        foreach string ancestor in path {
+            conceptAncestors[ancestor] = true;
+        }
+
+        r4:CodeSystemConcept[]? childConcepts = concept.concept;
+        if childConcepts != () {
+            if firstOccurrence {
+                path.push(code);
+            }
+            indexConcepts(childConcepts.cloneReadOnly(), path, indexedConcepts, ancestors);
+            if firstOccurrence {
+                _ = path.pop();
             }
         }
-        return valueSet.clone();
     }
 }
 
-isolated function getKey(string url, string 'version) returns string {
-    return string `${url}|${'version}`;
+isolated function findIndexedConcept(TerminologySnapshot snapshot, string codeSystemKey, r4:code code)
+        returns CodeConceptDetails|r4:FHIRError {
+    r4:CodeSystem codeSystem = snapshot.codeSystems.get(codeSystemKey);
+    r4:uri? url = codeSystem.url;
+    IndexedConcept? indexedConcept = snapshot.conceptIndexes.get(codeSystemKey)[code];
+    if indexedConcept != () && url != () {
+        return {
+            url: url,
+            concept: indexedConcept.concept
+        };
+    }
+
+    return r4:createFHIRError(
+        string `Code: ${code.toString()} was not found in the CodeSystem: ${codeSystem.url.toString()}`,
+        r4:ERROR,
+        r4:PROCESSING_NOT_FOUND,
+        errorType = r4:PROCESSING_ERROR,
+        httpStatusCode = http:STATUS_NOT_FOUND
+    );
+}
+
+isolated function resolveCodeSystemKey(TerminologySnapshot snapshot, r4:uri? system, string? version)
+        returns string|r4:FHIRError {
+    if 'version is string && system != () {
+        string key = getKey(system, 'version);
+        if snapshot.codeSystems.hasKey(key) {
+            return key;
+        }
+        if snapshot.codeSystemVersions.hasKey(system) {
+            return r4:createFHIRError(
+                        string `Unknown version: '${'version}',`,
+                        r4:ERROR,
+                        r4:PROCESSING_NOT_FOUND,
+                        diagnostic = string `: there is a CodeSystem in the registry with Id: '${system.toString()}' but cannot find version: '${'version}' of it.`,
+                        httpStatusCode = http:STATUS_NOT_FOUND
+                    );
+        }
+    } else if system != () {
+        string? latestVersion = getLatestVersion(snapshot.codeSystemVersions, system);
+        if latestVersion != () {
+            return getKey(system, latestVersion);
+        }
+    }
+    return r4:createFHIRError(
+            string `Unknown CodeSystem: '${system.toBalString()}'`,
+            r4:ERROR,
+            r4:PROCESSING_NOT_FOUND,
+            httpStatusCode = http:STATUS_NOT_FOUND
+        );
+}
+
+isolated function resolveValueSetKey(TerminologySnapshot snapshot, r4:uri? system, string? version)
+        returns string|r4:FHIRError {
+    if 'version is string {
+        if system != () {
+            string key = getKey(system, 'version);
+            if snapshot.valueSets.hasKey(key) {
+                return key;
+            }
+            if snapshot.valueSetVersions.hasKey(system) {
+                return r4:createFHIRError(
+                            string `Unknown version: '${'version}',`,
+                            r4:ERROR,
+                            r4:PROCESSING_NOT_FOUND,
+                            diagnostic = string `: there is a ValueSet in the registry with Id: '${system.toString()}' but cannot find version: '${'version}' of it.`,
+                            httpStatusCode = http:STATUS_NOT_FOUND
+                        );
+            }
+        }
+    } else if system != () {
+        string? latestVersion = getLatestVersion(snapshot.valueSetVersions, system);
+        if latestVersion != () {
+            return getKey(system, latestVersion);
+        }
+    }
+    return r4:createFHIRError(
+                string `Unknown ValueSet: '${system.toString()}'`,
+                r4:ERROR,
+                r4:PROCESSING_NOT_FOUND,
+                httpStatusCode = http:STATUS_NOT_FOUND
+            );
+}
+
+// Latest version of the given URL, compared the same way as the versions of the stored resources.
+isolated function getLatestVersion(map<string[]> & readonly versions, string url) returns string? {
+    string? latestVersion = ();
+    foreach string 'version in versions[url] ?: [] {
+        if 'version > (latestVersion ?: DEFAULT_VERSION) {
+            latestVersion = 'version;
+        }
+    }
+    return latestVersion;
+}
+
+// The stored resources are immutable and shared by all the readers, so the public API returns copies of them.
+isolated function toMutableCodeSystem(r4:CodeSystem codeSystem) returns r4:CodeSystem {
+    r4:CodeSystem|error copy = codeSystem.cloneWithType();
+    return copy is r4:CodeSystem ? copy : codeSystem;
+}
+
+isolated function toMutableValueSet(r4:ValueSet valueSet) returns r4:ValueSet {
+    r4:ValueSet|error copy = valueSet.cloneWithType();
+    return copy is r4:ValueSet ? copy : valueSet;
+}
+
+isolated function toMutableConceptMap(r4:ConceptMap conceptMap) returns r4:ConceptMap {
+    r4:ConceptMap|error copy = conceptMap.cloneWithType();
+    return copy is r4:ConceptMap ? copy : conceptMap;
 }
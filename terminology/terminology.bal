@@ -314,9 +314,9 @@ public isolated function valueSetExpansion(map<r4:RequestSearchParameter[]>? sea
     // Create and initialize a ValueSet record with the mandatory fields
     r4:ValueSet valueSet = {status: "unknown"};
 
-    r4:ValueSet|error ensured = vs.clone().ensureType();
-    if ensured is r4:ValueSet {
-        valueSet = ensured;
+    // The ValueSet is not copied, the expansion does not modify it.
+    if vs is r4:ValueSet {
+        valueSet = vs;
     } else if system is string {
         map<r4:RequestSearchParameter[]> clone = searchParameters.clone();
         if clone.hasKey(FILTER) {
@@ -387,6 +387,19 @@ public isolated function valueSetExpansion(map<r4:RequestSearchParameter[]>? sea
 # + return - Return Values either equivalent or not-subsumed if processing is successful, FHIRError processing fails
 public isolated function subsumes(r4:code|r4:Coding conceptA, r4:code|r4:Coding conceptB, r4:CodeSystem? cs = (),
         r4:uri? system = (), string? version = (), Terminology? terminology = inMemoryTerminology) returns r4:Parameters|r4:FHIRError {
+    if cs is () && system != () && terminology is InMemoryTerminology {
+        // The in-memory terminology keeps the concept hierarchy of each CodeSystem indexed, so the CodeSystem does
+        // not need to be read and walked.
+        r4:code? codeA = conceptA is r4:Coding ? conceptA.code : conceptA;
+        r4:code? codeB = conceptB is r4:Coding ? conceptB.code : conceptB;
+        if codeA != () && codeB != () {
+            CodeSystemSubsumption? outcome = terminology.findSubsumption(system, version, codeA, codeB);
+            if outcome != () {
+                return {'parameter: [{name: OUTCOME, valueCode: outcome}]};
+            }
+        }
+    }
+
     // Create and initialize a CodeSystem record with the mandatory fields
     r4:CodeSystem codeSystem = {content: "example", status: "unknown"};
     r4:CodeSystem?|error tmp = ();
@@ -576,6 +589,27 @@ public isolated function createCoding(r4:uri system, r4:code code, string? versi
 # + return - Return List of FHIRErrors if any
 public isolated function addCodeSystems(r4:CodeSystem[] codeSystems, Terminology? terminology = inMemoryTerminology) returns r4:FHIRError[]? {
     r4:FHIRError[] errors = [];
+    if terminology is InMemoryTerminology {
+        // The in-memory terminology is updated once for the whole list.
+        r4:CodeSystem[] validCodeSystems = [];
+        map<boolean> keys = {};
+        foreach r4:CodeSystem codeSystem in codeSystems {
+            r4:FHIRError? result = checkCodeSystem(codeSystem, terminology);
+            if result is () {
+                string key = getKey(<string>codeSystem.url, <string>codeSystem.version);
+                if keys.hasKey(key) {
+                    result = duplicateCodeSystemError(<string>codeSystem.url);
+                } else {
+                    keys[key] = true;
+                    validCodeSystems.push(codeSystem);
+                }
+            }
+            _ = result is r4:FHIRError ? errors.push(result) : "";
+        }
+        r4:FHIRError? result = terminology.addCodeSystems(validCodeSystems);
+        _ = result is r4:FHIRError ? errors.push(result) : "";
+        return errors.length() > 0 ? errors : ();
+    }
     foreach r4:CodeSystem codeSystem in codeSystems {
         r4:FHIRError? result = addCodeSystem(codeSystem, terminology);
         _ = result is r4:FHIRError ? errors.push(result) : "";
@@ -630,6 +664,27 @@ public isolated function addCodeSystemsAsJson(json[] codeSystemJsonArray, Termin
 # + return - Return List of FHIRErrors if any
 public isolated function addValueSets(r4:ValueSet[] valueSets, Terminology? terminology = inMemoryTerminology) returns r4:FHIRError[]? {
     r4:FHIRError[] errors = [];
+    if terminology is InMemoryTerminology {
+        // The in-memory terminology is updated once for the whole list.
+        r4:ValueSet[] validValueSets = [];
+        map<boolean> keys = {};
+        foreach r4:ValueSet valueSet in valueSets {
+            r4:FHIRError? result = checkValueSet(valueSet, terminology);
+            if result is () {
+                string key = getKey(<string>valueSet.url, <string>valueSet.version);
+                if keys.hasKey(key) {
+                    result = duplicateValueSetError(<string>valueSet.url);
+                } else {
+                    keys[key] = true;
+                    validValueSets.push(valueSet);
+                }
+            }
+            _ = result is r4:FHIRError ? errors.push(result) : "";
+        }
+        r4:FHIRError? result = terminology.addValueSets(validValueSets);
+        _ = result is r4:FHIRError ? errors.push(result) : "";
+        return errors;
+    }
     foreach r4:ValueSet valueSet in valueSets {
         r4:FHIRError? result = addValueSet(valueSet, terminology);
         _ = result is r4:FHIRError ? errors.push(result) : "";
@@ -682,6 +737,15 @@ public isolated function addValueSetsAsJson(json[] valueSetJsonArray, Terminolog
 # + terminology - Terminology - optional parameter allowing you to pass a custom implementation of the Terminology and by default we use InMemoryTerminology.
 # + return - Return FHIRError
 public isolated function addCodeSystem(r4:CodeSystem codeSystem, Terminology? terminology = inMemoryTerminology) returns r4:FHIRError? {
+    check checkCodeSystem(codeSystem, <Terminology>terminology);
+    r4:FHIRError? result = (<Terminology>terminology).addCodeSystem(codeSystem.clone());
+    if result is r4:FHIRError {
+        return result;
+    }
+}
+
+// Checks whether a CodeSystem can be added to the terminology.
+isolated function checkCodeSystem(r4:CodeSystem codeSystem, Terminology terminology) returns r4:FHIRError? {
     if codeSystem.url == () {
         return r4:createFHIRError(
                     string `Cannot find the URL of the CodeSystem with name: ${codeSystem.name.toString()}`,
@@ -721,20 +785,21 @@ public isolated function addCodeSystem(r4:CodeSystem codeSystem, Terminology? te
                 );
     }
 
-    if (<Terminology>terminology).isCodeSystemExist(url, version) {
-        return r4:createFHIRError(
-                    "Duplicate entry",
-                    r4:ERROR,
-                    r4:PROCESSING_DUPLICATE,
-                    diagnostic = string `There is an already existing CodeSystem in the registry with the URL: ${url}`,
-                    errorType = r4:PROCESSING_ERROR,
-                    httpStatusCode = http:STATUS_BAD_REQUEST
-                );
-    }
-    r4:FHIRError? result = (<Terminology>terminology).addCodeSystem(codeSystem.clone());
-    if result is r4:FHIRError {
-        return result;
+    if terminology.isCodeSystemExist(url, version) {
+        return duplicateCodeSystemError(url);
     }
+    return ();
+}
+
+isolated function duplicateCodeSystemError(string url) returns r4:FHIRError {
+    return r4:createFHIRError(
+                "Duplicate entry",
+                r4:ERROR,
+                r4:PROCESSING_DUPLICATE,
+                diagnostic = string `There is an already existing CodeSystem in the registry with the URL: ${url}`,
+                errorType = r4:PROCESSING_ERROR,
+                httpStatusCode = http:STATUS_BAD_REQUEST
+            );
 }
 
 # Add a new ValueSet.
@@ -743,6 +808,15 @@ public isolated function addCodeSystem(r4:CodeSystem codeSystem, Terminology? te
 # + terminology - Terminology - optional parameter allowing you to pass a custom implementation of the Terminology and by default we use InMemoryTerminology.
 # + return - Return FHIRError
 public isolated function addValueSet(r4:ValueSet valueSet, Terminology? terminology = inMemoryTerminology) returns r4:FHIRError? {
+    check checkValueSet(valueSet, <Terminology>terminology);
+    r4:FHIRError? result = (<Terminology>terminology).addValueSet(valueSet.clone());
+    if result is r4:FHIRError {
+        return result;
+    }
+}
+
+// Checks whether a ValueSet can be added to the terminology.
+isolated function checkValueSet(r4:ValueSet valueSet, Terminology terminology) returns r4:FHIRError? {
     if valueSet.url == () {
         return r4:createFHIRError(
                     string `Cannot find the URL of the ValueSet with name: ${valueSet.name.toString()}`,
@@ -778,22 +852,63 @@ public isolated function addValueSet(r4:ValueSet valueSet, Terminology? terminol
                     httpStatusCode = http:STATUS_BAD_REQUEST
                 );
     }
-    if (<Terminology>terminology).isValueSetExist(url, rVersion) {
-        return r4:createFHIRError(
-                    "Duplicate entry",
-                    r4:ERROR,
-                    r4:PROCESSING_DUPLICATE,
-                    diagnostic = string `Already there is a ValueSet exists in the registry with the URL: ${url}`,
-                    errorType = r4:VALIDATION_ERROR,
-                    httpStatusCode = http:STATUS_BAD_REQUEST);
+    if terminology.isValueSetExist(url, rVersion) {
+        return duplicateValueSetError(url);
     }
-    r4:FHIRError? result = (<Terminology>terminology).addValueSet(valueSet.clone());
+    return ();
+}
+
+isolated function duplicateValueSetError(string url) returns r4:FHIRError {
+    return r4:createFHIRError(
+                "Duplicate entry",
+                r4:ERROR,
+                r4:PROCESSING_DUPLICATE,
+                diagnostic = string `Already there is a ValueSet exists in the registry with the URL: ${url}`,
+                errorType = r4:VALIDATION_ERROR,
+                httpStatusCode = http:STATUS_BAD_REQUEST);
+}
+
+# Add a list of new ConceptMaps.
+#
+# + conceptMaps - List ConceptMaps in the Ballerina record format
+# + terminology - Terminology - optional parameter allowing you to pass a custom implementation of the Terminology and by default we use InMemoryTerminology.
+# + return - Return List of FHIRErrors if any
+public isolated function addConceptMaps(r4:ConceptMap[] conceptMaps, Terminology? terminology = inMemoryTerminology) returns r4:FHIRError[]? {
+    r4:FHIRError[] errors = [];
+    if terminology is InMemoryTerminology {
+        // The in-memory terminology is updated once for the whole list, duplicates are reported by the terminology.
+        r4:ConceptMap[] validConceptMaps = [];
+        foreach r4:ConceptMap conceptMap in conceptMaps {
+            r4:FHIRError? result = checkConceptMap(conceptMap, terminology);
+            if result is r4:FHIRError {
+                errors.push(result);
+            } else {
+                validConceptMaps.push(conceptMap);
+            }
+        }
+        r4:FHIRError[]? result = terminology.addConceptMaps(validConceptMaps);
+        if result is r4:FHIRError[] {
+            errors.push(...result);
+        }
+        return errors.length() > 0 ? errors : ();
+    }
+    foreach r4:ConceptMap conceptMap in conceptMaps {
+        r4:FHIRError? result = addConceptMap(conceptMap, terminology);
+        _ = result is r4:FHIRError ? errors.push(result) : "";
+    }
+    return errors.length() > 0 ? errors : ();
+}
+
+public isolated function addConceptMap(r4:ConceptMap conceptMap, Terminology? terminology = inMemoryTerminology) returns r4:FHIRError? {
+    check checkConceptMap(conceptMap, <Terminology>terminology);
+    r4:FHIRError? result = (<Terminology>terminology).addConceptMap(conceptMap.clone());
     if result is r4:FHIRError {
         return result;
     }
 }
 
-public isolated function addConceptMap(r4:ConceptMap conceptMap, Terminology? terminology = inMemoryTerminology) returns r4:FHIRError? {
+// Checks whether a ConceptMap can be added to the terminology.
+isolated function checkConceptMap(r4:ConceptMap conceptMap, Terminology terminology) returns r4:FHIRError? {
     if conceptMap.url == () {
         return r4:createFHIRError(
                     string `Cannot find the URL of the ConceptMap with name: ${conceptMap.name.toString()}`,
@@ -829,7 +944,7 @@ public isolated function addConceptMap(r4:ConceptMap conceptMap, Terminology? te
                     httpStatusCode = http:STATUS_BAD_REQUEST
                 );
     }
-    if (<Terminology>terminology).isConceptMapExist(url, rVersion) {
+    if terminology.isConceptMapExist(url, rVersion) {
         return r4:createFHIRError(
                     "Duplicate entry",
                     r4:ERROR,
@@ -838,10 +953,7 @@ public isolated function addConceptMap(r4:ConceptMap conceptMap, Terminology? te
                     errorType = r4:VALIDATION_ERROR,
                     httpStatusCode = http:STATUS_BAD_REQUEST);
     }
-    r4:FHIRError? result = (<Terminology>terminology).addConceptMap(conceptMap.clone());
-    if result is r4:FHIRError {
-        return result;
-    }
+    return ();
 }
 
 public isolated function searchConceptMaps(map<r4:RequestSearchParameter[]> params, Terminology? terminology = inMemoryTerminology) returns r4:FHIRError|r4:ConceptMap[] {
@@ -1938,3 +1938,212 @@ function translateTestForUnmappedOtherMapLevel2() {
     r4:Parameters|r4:OperationOutcome result = translate(valueSet1Url, valueSet2Url, codeableConcept, customTerminology);
     test:assertEquals(result, readJsonData("translate_responses/response_for_other_maps_level_two"));
 }
+
+@test:Config {
+    groups: ["codesystem", "codesystem_subsume", "indexed_codesystem"]
+}
+function codesystemSubsumeIndexedTest() returns error? {
+    InMemoryTerminology terminology = new ();
+    r4:CodeSystem codeSystem = {
+        url: "http://example.org/indexed-codesystem",
+        version: "1.0.0",
+        status: "active",
+        content: "complete",
+        concept: [
+            {
+                code: "A",
+                concept: [
+                    {code: "A1", concept: [{code: "A1a"}]},
+                    {code: "A2"}
+                ]
+            },
+            {code: "B", concept: [{code: "A1"}]}
+        ]
+    };
+    check terminology.addCodeSystem(codeSystem);
+
+    [r4:code, r4:code, string][] cases = [
+        ["A", "A1a", SUBSUMED],
+        ["A1a", "A", SUBSUMED_BY],
+        ["A1", "A2", NOT_SUBSUMED],
+        ["A2", "A2", EQUIVALENT],
+        // Only the first occurrence of "A1" has children, as with findConcept.
+        ["B", "A1a", NOT_SUBSUMED]
+    ];
+    foreach [r4:code, r4:code, string] [codeA, codeB, expected] in cases {
+        r4:Parameters result = check subsumes(codeA, codeB, system = "http://example.org/indexed-codesystem",
+                terminology = terminology);
+        test:assertEquals((<r4:ParametersParameter[]>result.'parameter)[0].valueCode, expected,
+                string `Unexpected outcome for ${codeA} and ${codeB}`);
+    }
+
+    r4:Parameters|r4:FHIRError unknownCode = subsumes("A", "C", system = "http://example.org/indexed-codesystem",
+            terminology = terminology);
+    test:assertTrue(unknownCode is r4:FHIRError, "Expected an error");
+}
+
+@test:Config {
+    groups: ["codesystem", "indexed_codesystem"]
+}
+function readAddedCodeSystemVersionsTest() returns error? {
+    InMemoryTerminology terminology = new ();
+    r4:CodeSystem codeSystem = {
+        url: "http://example.org/versioned-codesystem",
+        version: "1.0.0",
+        status: "active",
+        content: "complete",
+        concept: [{code: "X", display: "Version 1"}]
+    };
+    check terminology.addCodeSystem(codeSystem);
+    codeSystem.version = "2.0.0";
+    codeSystem.concept = [{code: "X", display: "Version 2"}];
+    check terminology.addCodeSystem(codeSystem);
+
+    r4:CodeSystem latest = check readCodeSystemByUrl("http://example.org/versioned-codesystem", terminology = terminology);
+    test:assertEquals(latest.version, "2.0.0");
+    // Returned resources can be modified by the caller without affecting the stored ones.
+    latest.title = "Modified";
+    r4:CodeSystem first = check readCodeSystemByUrl("http://example.org/versioned-codesystem", "1.0.0", terminology);
+    test:assertEquals(first.version, "1.0.0");
+    r4:CodeSystem reread = check readCodeSystemByUrl("http://example.org/versioned-codesystem", terminology = terminology);
+    test:assertEquals(reread.title, ());
+
+    r4:CodeSystemConcept|r4:CodeSystemConcept[]|r4:FHIRError concept = codeSystemLookUp("X",
+            system = "http://example.org/versioned-codesystem", version = "1.0.0", terminology = terminology);
+    test:assertTrue(concept is r4:CodeSystemConcept);
+    if concept is r4:CodeSystemConcept {
+        test:assertEquals(concept.display, "Version 1");
+    }
+
+    r4:CodeSystem|r4:FHIRError unknownVersion = readCodeSystemByUrl("http://example.org/versioned-codesystem", "3.0.0",
+            terminology);
+    test:assertTrue(unknownVersion is r4:FHIRError);
+}
+
+@test:Config {
+    groups: ["conceptmap"]
+}
+function addConceptMapsTest() returns error? {
+    InMemoryTerminology terminology = new ();
+    r4:ConceptMap[] conceptMaps = [
+        {url: "http://example.org/fhir/ConceptMap/versioned", 'version: "1.0.0", status: "draft"},
+        {url: "http://example.org/fhir/ConceptMap/versioned", 'version: "2.0.0", status: "active"},
+        {url: "http://example.org/fhir/ConceptMap/versioned", 'version: "2.0.0", status: "retired"}
+    ];
+    r4:FHIRError[]? errors = addConceptMaps(conceptMaps, terminology);
+    test:assertTrue(errors is r4:FHIRError[]);
+    test:assertEquals((<r4:FHIRError[]>errors).length(), 1);
+
+    r4:ConceptMap latest = check readConceptMap("http://example.org/fhir/ConceptMap/versioned", (), terminology);
+    test:assertEquals(latest.'version, "2.0.0");
+    test:assertEquals(latest.status, "active");
+    r4:ConceptMap first = check readConceptMap("http://example.org/fhir/ConceptMap/versioned", "1.0.0", terminology);
+    test:assertEquals(first.status, "draft");
+    first.status = "retired";
+    test:assertEquals((check readConceptMap("http://example.org/fhir/ConceptMap/versioned", "1.0.0", terminology)).status,
+            "draft");
+
+    r4:ConceptMap|r4:FHIRError unknownVersion = readConceptMap("http://example.org/fhir/ConceptMap/versioned", "3.0.0",
+            terminology);
+    test:assertTrue(unknownVersion is r4:FHIRError);
+}
+
+@test:Config {
+    groups: ["valueset", "valueset_expansion", "successful_scenario"]
+}
+function valueSetExpansionPagingTest() returns error? {
+    InMemoryTerminology terminology = new ();
+    r4:ValueSetComposeIncludeConcept[] concepts = from int i in 0 ..< 25
+        select {code: string `C${i}`, display: string `Concept ${i}`};
+    r4:ValueSet valueSet = {
+        url: "http://example.org/paged-valueset",
+        version: "1.0.0",
+        status: "active",
+        compose: {include: [{system: "http://example.org/paged-codesystem", concept: concepts}]}
+    };
+    check terminology.addValueSet(valueSet);
+
+    foreach int offset in [0, 10, 20] {
+        map<r4:RequestSearchParameter[]> searchParameters = {
+            "_count": [{name: "_count", value: "10", typedValue: {modifier: r4:MODIFIER_EXACT}, 'type: r4:NUMBER}],
+            "_offset": [{name: "_offset", value: offset.toString(), typedValue: {modifier: r4:MODIFIER_EXACT}, 'type: r4:NUMBER}]
+        };
+        r4:ValueSet expanded = check valueSetExpansion(searchParameters, valueSet, terminology = terminology);
+        r4:ValueSetExpansion expansion = <r4:ValueSetExpansion>expanded.expansion;
+        r4:ValueSetExpansionContains[] contains = <r4:ValueSetExpansionContains[]>expansion.contains;
+        test:assertEquals(expansion.total, 25);
+        test:assertEquals(contains.length(), offset == 20 ? 5 : 10);
+        test:assertEquals(contains[0].code, string `C${offset}`);
+        // Concepts of a page can be modified by the caller without affecting the cached expansion.
+        contains[0].display = "Modified";
+    }
+
+    r4:ValueSet firstPage = check valueSetExpansion({}, valueSet, terminology = terminology);
+    test:assertEquals((<r4:ValueSetExpansionContains[]>(<r4:ValueSetExpansion>firstPage.expansion).contains)[0].display,
+            "Concept 0");
+
+    // Re-adding the ValueSet invalidates its cached expansion.
+    valueSet.compose = {include: [{system: "http://example.org/paged-codesystem", concept: concepts.slice(0, 3)}]};
+    check terminology.addValueSet(valueSet);
+    r4:ValueSet updated = check valueSetExpansion({}, valueSet, terminology = terminology);
+    test:assertEquals((<r4:ValueSetExpansion>updated.expansion).total, 3);
+}
+
+@test:Config {
+    groups: ["valueset", "valueset_expansion", "successful_scenario"]
+}
+function largeValueSetExpansionPagingTest() returns error? {
+    InMemoryTerminology terminology = new ();
+    int conceptCount = 20000;
+    r4:ValueSetComposeIncludeConcept[] concepts = from int i in 0 ..< conceptCount
+        select {code: string `L${i}`, display: string `Large concept ${i}`};
+    check terminology.addValueSet({
+        url: "http://example.org/large-valueset",
+        version: "1.0.0",
+        status: "active",
+        compose: {include: [{system: "http://example.org/large-codesystem", concept: concepts}]}
+    });
+
+    int offset = 0;
+    while offset < conceptCount {
+        map<r4:RequestSearchParameter[]> searchParameters = {
+            "_count": [{name: "_count", value: "300", typedValue: {modifier: r4:MODIFIER_EXACT}, 'type: r4:NUMBER}],
+            "_offset": [{name: "_offset", value: offset.toString(), typedValue: {modifier: r4:MODIFIER_EXACT}, 'type: r4:NUMBER}]
+        };
+        r4:ValueSet expanded = check valueSetExpansion(searchParameters, system = "http://example.org/large-valueset",
+                terminology = terminology);
+        r4:ValueSetExpansion expansion = <r4:ValueSetExpansion>expanded.expansion;
+        r4:ValueSetExpansionContains[] contains = <r4:ValueSetExpansionContains[]>expansion.contains;
+        test:assertEquals(expansion.total, conceptCount);
+        test:assertEquals(contains.length(), int:min(300, conceptCount - offset));
+        test:assertEquals(contains[0].code, string `L${offset}`);
+        offset += 300;
+    }
+}
+
+@test:Config {
+    groups: ["valueset", "valueset_expansion"]
+}
+function valueSetExpansionCacheEvictionTest() {
+    ValueSetExpansionCache cache = new (10);
+    r4:ValueSetExpansionContains[] & readonly fourConcepts = [{code: "A"}, {code: "B"}, {code: "C"}, {code: "D"}];
+    cache.put("first", {generation: 1, contains: fourConcepts});
+    cache.put("second", {generation: 1, contains: fourConcepts});
+    // Using the first expansion makes the second one the least recently used.
+    test:assertTrue(cache.get("first", 1) is r4:ValueSetExpansionContains[]);
+    cache.put("third", {generation: 1, contains: fourConcepts});
+    test:assertTrue(cache.get("first", 1) is r4:ValueSetExpansionContains[]);
+    test:assertTrue(cache.get("second", 1) is ());
+    test:assertTrue(cache.get("third", 1) is r4:ValueSetExpansionContains[]);
+    // Expansions of an older snapshot are discarded.
+    test:assertTrue(cache.get("third", 2) is ());
+
+    // Repeated uses of the same keys do not grow the cache beyond its capacity.
+    foreach int i in 0 ..< 10000 {
+        cache.put(string `key${i % 5}`, {generation: 1, contains: [{code: "A"}, {code: "B"}]});
+        _ = cache.get(string `key${(i + 1) % 5}`, 1);
+    }
+    foreach int i in 0 ..< 5 {
+        test:assertTrue(cache.get(string `key${i}`, 1) is r4:ValueSetExpansionContains[]);
+    }
+}
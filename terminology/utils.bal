@@ -13,6 +13,7 @@
 
 import ballerina/http;
 import ballerina/lang.'int as langint;
+import ballerina/lang.regexp;
 import ballerina/log;
 import ballerina/time;
 import ballerinax/health.fhir.r4;
@@ -294,6 +295,12 @@ isolated function retrieveCodeSystemConcept(r4:uri url, string? version, r4:code
 
 isolated function createExpandedValueSet(r4:ValueSet vs, r4:CodeSystemConcept[]|r4:ValueSetComposeIncludeConcept[] concepts)
                                                                                                     returns r4:ValueSetExpansion {
+    r4:ValueSetExpansion expansion = {timestamp: time:utcToString(time:utcNow()), contains: createExpansionContains(concepts)};
+    return expansion;
+}
+
+isolated function createExpansionContains(r4:CodeSystemConcept[]|r4:ValueSetComposeIncludeConcept[] concepts)
+                                                                                                    returns r4:ValueSetExpansionContains[] {
     r4:ValueSetExpansionContains[] contains = [];
     if concepts is r4:ValueSetComposeIncludeConcept[] {
         foreach r4:ValueSetComposeIncludeConcept concept in concepts {
@@ -306,8 +313,29 @@ isolated function createExpandedValueSet(r4:ValueSet vs, r4:CodeSystemConcept[]|
             contains.push(c);
         }
     }
-    r4:ValueSetExpansion expansion = {timestamp: time:utcToString(time:utcNow()), contains: contains};
-    return expansion;
+    return contains;
+}
+
+// Function to filter the concepts of a ValueSet expansion by display, or by definition for CodeSystem concepts.
+isolated function filterExpansionConcepts(r4:CodeSystemConcept[]|r4:ValueSetComposeIncludeConcept[] concepts, string? filter)
+                                                            returns r4:CodeSystemConcept[]|r4:ValueSetComposeIncludeConcept[] {
+    if filter is () {
+        return concepts;
+    }
+    if concepts is r4:ValueSetComposeIncludeConcept[] {
+        r4:ValueSetComposeIncludeConcept[] result = from r4:ValueSetComposeIncludeConcept entry in concepts
+            where entry[DISPLAY] is string && regexp:isFullMatch(re `.*${filter.toUpperAscii()}.*`,
+                    (<string>entry[DISPLAY]).toUpperAscii())
+            select entry;
+        return result;
+    }
+    r4:CodeSystemConcept[] result = from r4:CodeSystemConcept entry in concepts
+        where entry[DISPLAY] is string
+                && regexp:isFullMatch(re `.*${filter.toUpperAscii()}.*`, (<string>entry[DISPLAY]).toUpperAscii())
+            || entry[DEFINITION] is string
+                && regexp:isFullMatch(re `.*${filter.toUpperAscii()}.*`, (<string>entry[DEFINITION]).toUpperAscii())
+        select entry;
+    return result;
 }
 
 // Function to get all concepts in a CodeSystem.
@@ -0,0 +1,550 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+// ========================================
+// CLOSURE COMPILER FOR FHIRPATH EXPRESSIONS
+// ========================================
+// Optional compilation stage that turns a parsed expression into a tree of isolated closures. Everything that only
+// depends on the expression (member names, operators, function dispatch, type names, constants) is resolved once,
+// so evaluating a compiled expression does not dispatch on the expression kind for every node. The closures follow
+// the semantics of the tree-walking interpreter exactly; functions without a specialised closure are delegated to it.
+
+// Configurable to control whether parsed FHIRPath expressions are compiled to closures before they are evaluated.
+// When disabled, compiled FHIRPath expressions are evaluated with the tree-walking interpreter.
+configurable boolean fhirPathClosureCompilation = true;
+
+# Evaluates a compiled FHIRPath expression node against a context.
+type CompiledExprFn isolated function (json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[];
+
+# Applies a binary operator to the evaluated operands.
+type BinaryOperatorFn isolated function (json[] left, json[] right) returns FHIRPathInterpreterError|json[];
+
+# Evaluates a compiled FHIRPath expression against a JSON context object.
+#
+# + evaluator - The compiled expression
+# + context - The JSON context object (typically a FHIR resource)
+# + variables - optional map of variable bindings available in the expression
+# + return - A collection of JSON results, or a FhirpathInterpreterError if evaluation fails
+isolated function evaluateCompiledExpr(CompiledExprFn evaluator, json context, map<json>? variables = ())
+        returns FHIRPathInterpreterError|json[] {
+    return evaluator(context, createFhirPathEnv(variables));
+}
+
+# Compiles a parsed FHIRPath expression to a closure.
+#
+# + expr - The parsed expression
+# + return - The compiled expression
+isolated function compileExpr(Expr & readonly expr) returns CompiledExprFn {
+    if expr is LiteralExpr {
+        return compileLiteralExpr(expr);
+    }
+    if expr is IdentifierExpr {
+        return compileIdentifierExpr(expr);
+    }
+    if expr is MemberAccessExpr {
+        return compileMemberAccessExpr(expr);
+    }
+    if expr is IndexerExpr {
+        return compileIndexerExpr(expr);
+    }
+    if expr is FunctionExpr {
+        return compileFunctionExpr(expr);
+    }
+    if expr is BinaryExpr {
+        return compileBinaryExpr(expr);
+    }
+    if expr is UnaryExpr {
+        return compileUnaryExpr(expr);
+    }
+    if expr is ExternalConstantExpr {
+        return compileExternalConstantExpr(expr);
+    }
+    return compileQuantityLiteralExpr(expr);
+}
+
+isolated function compileLiteralExpr(LiteralExpr & readonly expr) returns CompiledExprFn {
+    final json & readonly value = <json & readonly>expr.value;
+    if value is () {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] => [];
+    }
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] => [value];
+}
+
+isolated function compileIdentifierExpr(IdentifierExpr & readonly expr) returns CompiledExprFn {
+    final string name = expr.name;
+    if name == "$this" {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+            => wrapInCollection(context);
+    }
+    if name == "$index" {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+            => [env.index ?: 0];
+    }
+    if name == "$total" {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json? total = env?.total;
+            return total is () ? [] : [total];
+        };
+    }
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+        // Named variables defined by defineVariable()
+        if env.scope.hasKey(name) {
+            return wrapInCollection(env.scope.get(name));
+        }
+        if context is map<json> {
+            json resourceType = context["resourceType"];
+            if resourceType is string && resourceType == name {
+                return [context];
+            }
+            return accessMapMember(context, name);
+        }
+        return [];
+    };
+}
+
+isolated function compileMemberAccessExpr(MemberAccessExpr & readonly expr) returns CompiledExprFn {
+    final CompiledExprFn target = compileExpr(expr.target);
+    final string member = expr.member;
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+        json[] targetResults = check target(context, env);
+        if targetResults.length() == 1 {
+            // The member values can be the resource's own array, which the caller must not be able to modify
+            return [...accessMemberValue(targetResults[0], member)];
+        }
+        json[] results = [];
+        foreach json item in targetResults {
+            results.push(...accessMemberValue(item, member));
+        }
+        return results;
+    };
+}
+
+# Returns the values of a member of a JSON value, flattening arrays. Same as `accessMember`.
+#
+# + item - The JSON value
+# + memberName - The member name
+# + return - The member values
+isolated function accessMemberValue(json item, string memberName) returns json[] {
+    if item is map<json> {
+        return accessMapMember(item, memberName);
+    }
+    if item is json[] {
+        json[] results = [];
+        foreach json element in item {
+            results.push(...accessMemberValue(element, memberName));
+        }
+        return results;
+    }
+    return [];
+}
+
+# Returns the values of a member of a JSON object, including FHIR polymorphic (choice type) members.
+#
+# + item - The JSON object
+# + memberName - The member name
+# + return - The member values
+isolated function accessMapMember(map<json> item, string memberName) returns json[] {
+    json fieldValue = item[memberName];
+    if fieldValue !is () {
+        return wrapInCollection(fieldValue);
+    }
+    if item.hasKey(memberName) {
+        return [];
+    }
+    // FHIR polymorphic type access: "value" matches "valueQuantity", etc.
+    return fhirPolymorphicAccess(item, memberName);
+}
+
+isolated function compileIndexerExpr(IndexerExpr & readonly expr) returns CompiledExprFn {
+    final CompiledExprFn target = compileExpr(expr.target);
+    Expr & readonly indexExpr = expr.index;
+    if indexExpr is LiteralExpr && indexExpr.value is int {
+        final int constantIndex = <int>indexExpr.value;
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] targetResults = check target(context, env);
+            if constantIndex < 0 || constantIndex >= targetResults.length() {
+                return [];
+            }
+            return wrapInCollection(targetResults[constantIndex]);
+        };
+    }
+    final CompiledExprFn index = compileExpr(indexExpr);
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+        json[] targetResults = check target(context, env);
+        json[] indexResults = check index(context, env);
+        if indexResults.length() != 1 {
+            return [];
+        }
+        json indexValue = indexResults[0];
+        int i;
+        if indexValue is int {
+            i = indexValue;
+        } else if indexValue is decimal {
+            i = <int>indexValue;
+        } else if indexValue is float {
+            if indexValue % 1.0 != 0.0 {
+                return [];
+            }
+            i = <int>indexValue;
+        } else {
+            return [];
+        }
+        if i < 0 || i >= targetResults.length() {
+            return [];
+        }
+        return wrapInCollection(targetResults[i]);
+    };
+}
+
+isolated function compileUnaryExpr(UnaryExpr & readonly expr) returns CompiledExprFn {
+    final CompiledExprFn operand = compileExpr(expr.operand);
+    final FhirPathToken & readonly operator = expr.operator;
+    if operator.tokenType != MINUS {
+        // PLUS is a no-op
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] operandResults = check operand(context, env);
+            return operandResults.length() == 0 ? [] : [operandResults[0]];
+        };
+    }
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+        json[] operandResults = check operand(context, env);
+        if operandResults.length() == 0 {
+            return [];
+        }
+        json val = operandResults[0];
+        if val is int { return [-val]; }
+        if val is decimal { return [-val]; }
+        if val is float { return [-val]; }
+        return error FHIRPathInterpreterError("Unary minus cannot be applied to a non-numeric value",
+            token = operator);
+    };
+}
+
+isolated function compileExternalConstantExpr(ExternalConstantExpr & readonly expr) returns CompiledExprFn {
+    final string name = expr.name;
+    final string? constant = getBuiltInConstant(name);
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+        if env.scope.hasKey(name) {
+            return wrapInCollection(env.scope.get(name));
+        }
+        if constant is string {
+            return [constant];
+        }
+        FhirPathToken dummyToken = {tokenType: IDENTIFIER, lexeme: "%" + name, literal: (), position: 0};
+        return error FHIRPathInterpreterError("Undefined constant: %" + name, token = dummyToken);
+    };
+}
+
+# Returns the value of a built-in FHIRPath environment constant. Same as `visitExternalConstantExpr`.
+#
+# + name - The constant name after the % prefix
+# + return - The constant value, or nil if it is not a built-in constant
+isolated function getBuiltInConstant(string name) returns string? {
+    match name {
+        "sct" => { return "http://snomed.info/sct"; }
+        "loinc" => { return "http://loinc.org"; }
+        "ucum" => { return "http://unitsofmeasure.org"; }
+    }
+    if name.startsWith("vs-") {
+        return "http://hl7.org/fhir/ValueSet/" + name.substring(3);
+    }
+    if name.startsWith("ext-") {
+        return "http://hl7.org/fhir/StructureDefinition/" + name.substring(4);
+    }
+    return ();
+}
+
+isolated function compileQuantityLiteralExpr(QuantityLiteralExpr & readonly expr) returns CompiledExprFn {
+    final decimal value = expr.value;
+    final string unit = expr.unit;
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+        => [{"value": value, "unit": unit}];
+}
+
+// ========================================
+// BINARY EXPRESSION
+// ========================================
+
+isolated function compileBinaryExpr(BinaryExpr & readonly expr) returns CompiledExprFn {
+    final FhirPathToken & readonly operator = expr.operator;
+    final CompiledExprFn left = compileExpr(expr.left);
+    TokenType operatorType = operator.tokenType;
+
+    // IS and AS: the right side is a type name, resolved at compile time
+    if operatorType == IS {
+        final string typeName = extractTypeName(expr.right);
+        final boolean isSystemSource = isSystemSourceExpr(expr.left);
+        final string? declaredType = getDeclaredFhirType(expr.left);
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] leftResults = check left(context, env);
+            if leftResults.length() == 0 { return [false]; }
+            return [matchesFhirType(leftResults[0], typeName, isSystemSource, declaredType)];
+        };
+    }
+    if operatorType == AS {
+        final string typeName = extractTypeName(expr.right);
+        final boolean isKnownType = isKnownFhirType(typeName);
+        final string? declaredType = getDeclaredFhirType(expr.left);
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] leftResults = check left(context, env);
+            if !isKnownType {
+                return error FHIRPathInterpreterError(string `as: unknown type '${typeName}'`, token = operator);
+            }
+            if leftResults.length() > 1 {
+                return error FHIRPathInterpreterError("as: cannot cast a collection with more than 1 item",
+                    token = operator);
+            }
+            json[] result = [];
+            foreach json item in leftResults {
+                if exactFhirTypeMatch(item, typeName, declaredType) {
+                    result.push(item);
+                }
+            }
+            return result;
+        };
+    }
+
+    final CompiledExprFn right = compileExpr(expr.right);
+
+    // Short-circuit evaluation for logical operators
+    if operatorType == AND {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] leftResults = check left(context, env);
+            if leftResults.length() > 0 && !isTruthy(leftResults) {
+                return [false];
+            }
+            return applyAndOperator(leftResults, check right(context, env));
+        };
+    }
+    if operatorType == OR {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] leftResults = check left(context, env);
+            if leftResults.length() > 0 && isTruthy(leftResults) {
+                return [true];
+            }
+            return applyOrOperator(leftResults, check right(context, env));
+        };
+    }
+    if operatorType == IMPLIES {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] leftResults = check left(context, env);
+            // false implies X = true; empty implies X = unknown
+            if leftResults.length() > 0 && !isTruthy(leftResults) {
+                return [true];
+            }
+            return applyImpliesOperator(leftResults, check right(context, env));
+        };
+    }
+    if operatorType == PIPE {
+        // Each side gets its own variable scope, which is only needed when a side defines variables
+        final boolean leftDefinesVariables = definesVariables(expr.left);
+        final boolean rightDefinesVariables = definesVariables(expr.right);
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] leftResults = check left(context, leftDefinesVariables ? childEnv(env) : env);
+            json[] rightResults = check right(context, rightDefinesVariables ? childEnv(env) : env);
+            return applyUnionOperator(leftResults, rightResults);
+        };
+    }
+
+    final BinaryOperatorFn? apply = resolveBinaryOperator(operatorType);
+    if apply is () {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            _ = check left(context, env);
+            _ = check right(context, env);
+            return error FHIRPathInterpreterError(string `Unknown binary operator: ${operator.lexeme}`,
+                token = operator);
+        };
+    }
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+        json[] leftResults = check left(context, env);
+        json[] rightResults = check right(context, env);
+        return apply(leftResults, rightResults);
+    };
+}
+
+# Resolves the function applying a (non short-circuit) binary operator. Same as the dispatch in `visitBinaryExpr`.
+#
+# + operatorType - The operator token type
+# + return - The operator function, or nil if the operator is unknown
+isolated function resolveBinaryOperator(TokenType operatorType) returns BinaryOperatorFn? {
+    match operatorType {
+        EQUAL => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyEqualityOperator(l, r, true); }
+        BANG_EQUAL => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyEqualityOperator(l, r, false); }
+        TILDE => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyEquivalenceOperator(l, r, true); }
+        BANG_TILDE => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyEquivalenceOperator(l, r, false); }
+        XOR => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyXorOperator(l, r); }
+        LESS_THAN => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyComparisonOperator(l, r, "<"); }
+        GREATER_THAN => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyComparisonOperator(l, r, ">"); }
+        LESS_EQUAL => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyComparisonOperator(l, r, "<="); }
+        GREATER_EQUAL => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyComparisonOperator(l, r, ">="); }
+        PLUS => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyAdditiveOperator(l, r, "+"); }
+        MINUS => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyAdditiveOperator(l, r, "-"); }
+        AMPERSAND => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyConcatenateOperator(l, r); }
+        STAR => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyMultiplicativeOperator(l, r, "*"); }
+        SLASH => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyMultiplicativeOperator(l, r, "/"); }
+        DIV => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyMultiplicativeOperator(l, r, "div"); }
+        MOD => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyMultiplicativeOperator(l, r, "mod"); }
+        IN => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyInOperator(l, r); }
+        CONTAINS => { return isolated function(json[] l, json[] r) returns FHIRPathInterpreterError|json[] => applyInOperator(r, l); }
+    }
+    return ();
+}
+
+// ========================================
+// FUNCTION CALLS
+// ========================================
+
+isolated function compileFunctionExpr(FunctionExpr & readonly expr) returns CompiledExprFn {
+    final string name = expr.name;
+    final (Expr & readonly)? targetExpr = expr.target;
+    final (Expr & readonly)[] & readonly params = expr.params;
+    final CompiledExprFn target = targetExpr is () ? compileThis() : compileExpr(targetExpr);
+
+    if params.length() == 1 && (name == "where" || name == "select" || name == "exists") {
+        return compileIteratingFunction(name, target, params[0]);
+    }
+    match name {
+        "empty" => {
+            return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+                => applyEmptyFunction(check target(context, env), params);
+        }
+        "exists" => {
+            return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+                => applyExistsFunction(check target(context, env), params, context, env);
+        }
+        "first" => {
+            return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+                => applyFirstFunction(check target(context, env), params);
+        }
+        "count" => {
+            return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+                => applyCountFunction(check target(context, env), params);
+        }
+        "not" => {
+            return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+                => applyNotFunction(check target(context, env), params);
+        }
+    }
+    // Remaining functions are applied by the interpreter, which evaluates their parameters
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+        => applyFunction(name, check target(context, env), params, targetExpr, context, env);
+}
+
+# Compiles `where`, `select` and `exists` with a criteria, which evaluate their parameter for every item of the
+# target collection. Same as `applyWhereFunction`, `applySelectFunction` and `applyExistsFunction`.
+#
+# + name - The function name
+# + target - The compiled target expression
+# + criteriaExpr - The criteria parameter
+# + return - The compiled function call
+isolated function compileIteratingFunction(string name, CompiledExprFn target, Expr & readonly criteriaExpr)
+        returns CompiledExprFn {
+    final CompiledExprFn criteria = compileExpr(criteriaExpr);
+    // Each item gets its own variable scope, which is only needed when the criteria defines variables
+    final boolean isolateScope = definesVariables(criteriaExpr);
+    if name == "where" {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] collection = check target(context, env);
+            json[] results = [];
+            foreach int i in 0 ..< collection.length() {
+                json item = collection[i];
+                FhirPathEnv itemEnv = {index: i, total: env?.total, scope: isolateScope ? env.scope.childScope() : env.scope};
+                if isTruthy(check criteria(item, itemEnv)) {
+                    results.push(item);
+                }
+            }
+            return results;
+        };
+    }
+    if name == "select" {
+        return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+            json[] collection = check target(context, env);
+            if collection.length() == 1 {
+                FhirPathEnv itemEnv = {index: 0, total: env?.total, scope: isolateScope ? env.scope.childScope() : env.scope};
+                return [...check criteria(collection[0], itemEnv)];
+            }
+            json[] results = [];
+            foreach int i in 0 ..< collection.length() {
+                FhirPathEnv itemEnv = {index: i, total: env?.total, scope: isolateScope ? env.scope.childScope() : env.scope};
+                results.push(...check criteria(collection[i], itemEnv));
+            }
+            return results;
+        };
+    }
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
+        json[] collection = check target(context, env);
+        foreach int i in 0 ..< collection.length() {
+            FhirPathEnv itemEnv = {index: i, total: env?.total, scope: isolateScope ? env.scope.childScope() : env.scope};
+            if isTruthy(check criteria(collection[i], itemEnv)) {
+                return [true];
+            }
+        }
+        return [false];
+    };
+}
+
+isolated function compileThis() returns CompiledExprFn {
+    return isolated function(json context, FhirPathEnv env) returns FHIRPathInterpreterError|json[]
+        => wrapInCollection(context);
+}
+
+// ========================================
+// UTILITY FUNCTIONS
+// ========================================
+
+# Returns an environment with a child variable scope, as used by the interpreter for sub-expressions that must not
+# leak variable definitions.
+#
+# + env - The evaluation environment
+# + return - The environment with a child scope
+isolated function childEnv(FhirPathEnv env) returns FhirPathEnv {
+    return {scope: env.scope.childScope(), index: env?.index, total: env?.total};
+}
+
+# Checks whether an expression calls `defineVariable`, i.e. whether it needs its own variable scope.
+#
+# + expr - The expression
+# + return - true if the expression or any of its sub-expressions defines a variable
+isolated function definesVariables(Expr expr) returns boolean {
+    if expr is FunctionExpr {
+        if expr.name == "defineVariable" {
+            return true;
+        }
+        Expr? target = expr.target;
+        if target is Expr && definesVariables(target) {
+            return true;
+        }
+        foreach Expr param in expr.params {
+            if definesVariables(param) {
+                return true;
+            }
+        }
+        return false;
+    }
+    if expr is MemberAccessExpr {
+        return definesVariables(expr.target);
+    }
+    if expr is IndexerExpr {
+        return definesVariables(expr.target) || definesVariables(expr.index);
+    }
+    if expr is BinaryExpr {
+        return definesVariables(expr.left) || definesVariables(expr.right);
+    }
+    if expr is UnaryExpr {
+        return definesVariables(expr.operand);
+    }
+    return false;
+}
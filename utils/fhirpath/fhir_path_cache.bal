@@ -0,0 +1,249 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/log;
+
+// Configurable to control the maximum number of compiled FHIRPath expressions kept in the expression cache.
+// Set to 0 to disable the cache.
+configurable int fhirPathCacheCapacity = 1024;
+
+final FhirPathCache fhirPathCache = new (fhirPathCacheCapacity);
+
+# A FHIRPath expression that has been scanned, parsed and compiled once and can be evaluated any number of times.
+# Compiled expressions are immutable and can be shared between strands.
+public isolated readonly class CompiledFhirPath {
+    private final string expression;
+    private final Expr & readonly ast;
+    private final CompiledExprFn? evaluator;
+
+    isolated function init(string expression, Expr & readonly ast) {
+        self.expression = expression;
+        self.ast = ast;
+        self.evaluator = fhirPathClosureCompilation ? compileExpr(ast) : ();
+    }
+
+    # Returns the FHIRPath expression this was compiled from.
+    #
+    # + return - the FHIRPath expression
+    public isolated function getExpression() returns string {
+        return self.expression;
+    }
+
+    isolated function getAst() returns Expr & readonly {
+        return self.ast;
+    }
+
+    # Evaluates the expression against a JSON context object, using the compiled closures when available.
+    #
+    # + context - The JSON context object (typically a FHIR resource)
+    # + variables - optional map of variable bindings available in the expression
+    # + return - A collection of JSON results, or a FhirpathInterpreterError if evaluation fails
+    isolated function evaluate(json context, map<json>? variables) returns FHIRPathInterpreterError|json[] {
+        CompiledExprFn? evaluator = self.evaluator;
+        if evaluator is () {
+            return interpret(self.ast, context, variables);
+        }
+        return evaluateCompiledExpr(evaluator, context, variables);
+    }
+}
+
+# Statistics of the FHIRPath expression cache.
+#
+# + hits - number of lookups served from the cache
+# + misses - number of lookups that required scanning and parsing the expression
+# + evictions - number of compiled expressions evicted to stay within the capacity
+# + size - number of compiled expressions currently in the cache
+# + capacity - maximum number of compiled expressions kept in the cache
+public type FhirPathCacheStats record {|
+    int hits;
+    int misses;
+    int evictions;
+    int size;
+    int capacity;
+|};
+
+# Compiles a FHIRPath expression so that it can be evaluated many times without being scanned and parsed again.
+# Compiled expressions are kept in a bounded LRU cache keyed by the expression text, which is also used by
+# `getValuesFromFhirPath` and `setValuesToFhirPath`.
+#
+# + fhirPathExpression - FHIRPath expression to compile
+# + return - compiled FHIRPath expression or FHIRPathError (scanner/parser errors)
+public isolated function compileFhirPath(string fhirPathExpression) returns CompiledFhirPath|FHIRPathError {
+    CompiledFhirPath? cached = fhirPathCache.get(fhirPathExpression);
+    if cached is CompiledFhirPath {
+        return cached;
+    }
+    CompiledFhirPath compiled = check parseFhirPath(fhirPathExpression);
+    fhirPathCache.put(fhirPathExpression, compiled);
+    return compiled;
+}
+
+# Returns the hit/miss statistics of the FHIRPath expression cache.
+#
+# + return - cache statistics
+public isolated function getFhirPathCacheStats() returns FhirPathCacheStats {
+    return fhirPathCache.getStats();
+}
+
+# Removes all compiled expressions from the FHIRPath expression cache and resets its statistics.
+public isolated function clearFhirPathCache() {
+    fhirPathCache.clear();
+}
+
+# Scans and parses a FHIRPath expression.
+#
+# + fhirPathExpression - FHIRPath expression to parse
+# + return - compiled FHIRPath expression or scanner/parser error
+isolated function parseFhirPath(string fhirPathExpression) returns CompiledFhirPath|FHIRPathScannerError|FHIRPathParserError {
+    FhirPathToken[] tokens = check scanTokens(fhirPathExpression);
+    Expr? expr = check parse(tokens);
+    if expr is () {
+        log:printDebug("Parsing failed", fhirPath = fhirPathExpression);
+        return error FHIRPathParserError("Failed to parse FHIRPath expression", token = tokens[tokens.length() - 1]);
+    }
+    return new (fhirPathExpression, expr.cloneReadOnly());
+}
+
+# Entry of the FHIRPath expression cache, linked in the order the entries were last used.
+#
+# + key - FHIRPath expression text
+# + value - compiled expression
+# + prev - more recently used entry
+# + next - less recently used entry
+type FhirPathCacheEntry record {|
+    string key;
+    CompiledFhirPath value;
+    FhirPathCacheEntry? prev = ();
+    FhirPathCacheEntry? next = ();
+|};
+
+# Recency list of the FHIRPath expression cache.
+#
+# + head - most recently used entry
+# + tail - least recently used entry
+type FhirPathCacheList record {|
+    FhirPathCacheEntry? head = ();
+    FhirPathCacheEntry? tail = ();
+|};
+
+# Bounded, least recently used cache of compiled FHIRPath expressions.
+isolated class FhirPathCache {
+    private final int capacity;
+    private final map<FhirPathCacheEntry> entries = {};
+    private final FhirPathCacheList recency = {};
+    private int hits = 0;
+    private int misses = 0;
+    private int evictions = 0;
+
+    isolated function init(int capacity) {
+        self.capacity = capacity < 0 ? 0 : capacity;
+    }
+
+    isolated function get(string key) returns CompiledFhirPath? {
+        lock {
+            FhirPathCacheEntry? entry = self.entries[key];
+            if entry is () {
+                self.misses += 1;
+                return ();
+            }
+            self.hits += 1;
+            if self.recency.head !== entry {
+                unlinkCacheEntry(self.recency, entry);
+                linkCacheEntryFirst(self.recency, entry);
+            }
+            return entry.value;
+        }
+    }
+
+    isolated function put(string key, CompiledFhirPath value) {
+        lock {
+            if self.capacity == 0 || self.entries.hasKey(key) {
+                return;
+            }
+            if self.entries.length() >= self.capacity {
+                FhirPathCacheEntry? eldest = self.recency.tail;
+                if eldest is FhirPathCacheEntry {
+                    unlinkCacheEntry(self.recency, eldest);
+                    _ = self.entries.remove(eldest.key);
+                    self.evictions += 1;
+                }
+            }
+            FhirPathCacheEntry entry = {key, value};
+            self.entries[key] = entry;
+            linkCacheEntryFirst(self.recency, entry);
+        }
+    }
+
+    isolated function getStats() returns FhirPathCacheStats {
+        lock {
+            return {
+                hits: self.hits,
+                misses: self.misses,
+                evictions: self.evictions,
+                size: self.entries.length(),
+                capacity: self.capacity
+            };
+        }
+    }
+
+    isolated function clear() {
+        lock {
+            self.entries.removeAll();
+            self.recency.head = ();
+            self.recency.tail = ();
+            self.hits = 0;
+            self.misses = 0;
+            self.evictions = 0;
+        }
+    }
+}
+
+# Links an entry as the most recently used entry of the cache.
+#
+# + recency - recency list of the cache
+# + entry - entry to link
+isolated function linkCacheEntryFirst(FhirPathCacheList recency, FhirPathCacheEntry entry) {
+    FhirPathCacheEntry? head = recency.head;
+    entry.prev = ();
+    entry.next = head;
+    if head is FhirPathCacheEntry {
+        head.prev = entry;
+    } else {
+        recency.tail = entry;
+    }
+    recency.head = entry;
+}
+
+# Unlinks an entry from the recency list of the cache.
+#
+# + recency - recency list of the cache
+# + entry - entry to unlink
+isolated function unlinkCacheEntry(FhirPathCacheList recency, FhirPathCacheEntry entry) {
+    FhirPathCacheEntry? prev = entry.prev;
+    FhirPathCacheEntry? next = entry.next;
+    if prev is FhirPathCacheEntry {
+        prev.next = next;
+    } else {
+        recency.head = next;
+    }
+    if next is FhirPathCacheEntry {
+        next.prev = prev;
+    } else {
+        recency.tail = prev;
+    }
+    entry.prev = ();
+    entry.next = ();
+}
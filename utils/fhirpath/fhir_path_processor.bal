@@ -14,7 +14,6 @@
 // specific language governing permissions and limitations
 // under the License.
 
-import ballerina/log;
 import ballerinax/health.fhir.r4;
 import ballerinax/health.fhir.r4.validator;
 
@@ -43,26 +42,25 @@ public isolated function getValuesFromFhirPath(json fhirResource, string fhirPat
         check validateFhirResource(fhirResource);
     }
 
-    // Scan tokens
-    FHIRPathScannerError|FhirPathToken[] scanResult = scanTokens(fhirPathExpression);
-    if scanResult is FHIRPathScannerError {
-        return scanResult;
-    }
-    FhirPathToken[] tokens = scanResult;
+    CompiledFhirPath compiledFhirPath = check compileFhirPath(fhirPathExpression);
+    return getValuesFromCompiledFhirPath(fhirResource, compiledFhirPath, false, variables);
+}
 
-    // Parse expression
-    FHIRPathParserError|Expr? parseResult = parse(tokens);
-    if parseResult is FHIRPathParserError {
-        return parseResult;
-    }
-    Expr? expr = parseResult;
-    if expr is () {
-        log:printDebug("Parsing failed", fhirPath = fhirPathExpression);
-        return error FHIRPathParserError("Failed to parse FHIRPath expression", token = tokens[tokens.length() - 1]);
+# Get values of a FHIR resource using a compiled FHIRPath expression
+#
+# + fhirResource - Input FHIR resource
+# + fhirPath - compiled fhirpath expression to get values from (see `compileFhirPath`)
+# + validateInputFHIRResource - whether to validate the input FHIR resource (default = false)
+# + variables - optional map of variable bindings available in the expression
+# + return - list of results of the fhirpath expression or FHIRPathError (interpreter/validation errors)
+public isolated function getValuesFromCompiledFhirPath(json fhirResource, CompiledFhirPath fhirPath, boolean validateInputFHIRResource = inputFHIRResourceValidation, map<json>? variables = ()) returns json[]|FHIRPathError {
+    // Validate input FHIR resource and throw error if invalid
+    if validateInputFHIRResource {
+        check validateFhirResource(fhirResource);
     }
 
     // Interpret the expression
-    FHIRPathInterpreterError|json[] evaluationResult = interpret(expr, fhirResource, variables);
+    FHIRPathInterpreterError|json[] evaluationResult = fhirPath.evaluate(fhirResource, variables);
     if evaluationResult is FHIRPathInterpreterError {
         return evaluationResult;
     }
@@ -80,9 +78,6 @@ public isolated function getValuesFromFhirPath(json fhirResource, string fhirPat
 # + return - Updated FHIR resource or FHIRPathError
 public isolated function setValuesToFhirPath(json fhirResource, string fhirPathExpression, json|ModificationFunction value,
         boolean validateInputFHIRResource = inputFHIRResourceValidation, boolean validateOutputFHIRResource = outputFHIRResourceValidation) returns json|FHIRPathError {
-    json newValue = value is json ? value : ();
-    ModificationFunction? modificationFunction = value is ModificationFunction ? value : ();
-
     // Validate input FHIR resource and throw error if invalid
     if validateInputFHIRResource {
         check validateFhirResource(fhirResource);
@@ -92,29 +87,38 @@ public isolated function setValuesToFhirPath(json fhirResource, string fhirPathE
         return error FHIRPathResourceValidationError("FHIR resource must be a JSON object", fhirPath = fhirPathExpression);
     }
 
-    // Scan tokens
-    FHIRPathScannerError|FhirPathToken[] scanResult = scanTokens(fhirPathExpression);
-    if scanResult is FHIRPathScannerError {
-        return scanResult;
-    }
-    FhirPathToken[] tokens = scanResult;
+    CompiledFhirPath compiledFhirPath = check compileFhirPath(fhirPathExpression);
+    return setValuesToCompiledFhirPath(fhirResource, compiledFhirPath, value, false, validateOutputFHIRResource);
+}
 
-    // Parse expression
-    FHIRPathParserError|Expr? parseResult = parse(tokens);
-    if parseResult is FHIRPathParserError {
-        return parseResult;
+# Updates a FHIR resource at the specified compiled FHIRPath with either a new value or by applying a ModificationFunction
+#
+# + fhirResource - Input FHIR resource
+# + fhirPath - compiled FHIRPath expression to set/modify values (see `compileFhirPath`)
+# + value - new value to replace or a function of type ModificationFunction to modify the existing value
+# + validateInputFHIRResource - whether to validate the input FHIR resource (default = false)
+# + validateOutputFHIRResource - whether to validate the output FHIR resource (default = false)
+# + return - Updated FHIR resource or FHIRPathError
+public isolated function setValuesToCompiledFhirPath(json fhirResource, CompiledFhirPath fhirPath, json|ModificationFunction value,
+        boolean validateInputFHIRResource = inputFHIRResourceValidation, boolean validateOutputFHIRResource = outputFHIRResourceValidation) returns json|FHIRPathError {
+    string fhirPathExpression = fhirPath.getExpression();
+    json newValue = value is json ? value : ();
+    ModificationFunction? modificationFunction = value is ModificationFunction ? value : ();
+
+    // Validate input FHIR resource and throw error if invalid
+    if validateInputFHIRResource {
+        check validateFhirResource(fhirResource);
     }
-    Expr? expr = parseResult;
-    if expr is () {
-        log:printDebug("Parsing failed", fhirPath = fhirPathExpression);
-        return error FHIRPathParserError("Failed to parse FHIRPath expression", token = tokens[tokens.length() - 1]);
+
+    if fhirResource !is map<json> {
+        return error FHIRPathResourceValidationError("FHIR resource must be a JSON object", fhirPath = fhirPathExpression);
     }
 
     // newValue () is to remove the path
     boolean shouldRemove = newValue is () && modificationFunction is ();
 
     // Interpret the expression for setting values (path creation is not supported)
-    FHIRPathInterpreterError|json outcome = interpretSet(expr, fhirResource, newValue, shouldRemove, modificationFunction);
+    FHIRPathInterpreterError|json outcome = interpretSet(fhirPath.getAst(), fhirResource, newValue, shouldRemove, modificationFunction);
     if outcome is FHIRPathInterpreterError {
         return outcome;
     }
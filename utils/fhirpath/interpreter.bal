@@ -89,14 +89,21 @@ type FhirPathEnv record {|
 # + variables - optional map of variable bindings available in the expression
 # + return - A collection of JSON results, or a FhirpathInterpreterError if evaluation fails
 isolated function interpret(Expr expression, json context, map<json>? variables = ()) returns FHIRPathInterpreterError|json[] {
+    return evaluate(expression, context, createFhirPathEnv(variables));
+}
+
+# Creates the root evaluation environment of an expression.
+#
+# + variables - optional map of variable bindings available in the expression
+# + return - The evaluation environment
+isolated function createFhirPathEnv(map<json>? variables) returns FhirPathEnv {
     VariableScope scope = new VariableScope();
     if variables is map<json> {
         foreach var [k, v] in variables.entries() {
             _ = scope.define(k, v);
         }
     }
-    FhirPathEnv env = {scope: scope};
-    return evaluate(expression, context, env);
+    return {scope: scope};
 }
 
 # Evaluates a FHIRPath expression node against a context.
@@ -1069,9 +1076,20 @@ isolated function visitFunctionExpr(FunctionExpr expr, json context, FhirPathEnv
         targetResults = wrapInCollection(context);
     }
 
-    string name = expr.name;
-    Expr[] params = expr.params;
+    return applyFunction(expr.name, targetResults, expr.params, targetExpr, context, env);
+}
 
+# Applies a FHIRPath function to the evaluated target collection.
+#
+# + name - The function name
+# + targetResults - The evaluated target collection (or the context, for standalone calls)
+# + params - The function argument expressions
+# + targetExpr - The target expression, or nil for standalone calls
+# + context - The current evaluation context
+# + env - The evaluation environment
+# + return - The function result, or a FhirpathInterpreterError if evaluation fails
+isolated function applyFunction(string name, json[] targetResults, Expr[] params, Expr? targetExpr, json context,
+        FhirPathEnv env) returns FHIRPathInterpreterError|json[] {
     // ---- Existence ----
     if name == "empty" { return applyEmptyFunction(targetResults, params); }
     if name == "exists" { return applyExistsFunction(targetResults, params, context, env); }
@@ -1089,7 +1107,7 @@ isolated function visitFunctionExpr(FunctionExpr expr, json context, FhirPathEnv
     if name == "first" { return applyFirstFunction(targetResults, params); }
     if name == "last" { return applyLastFunction(targetResults, params); }
     if name == "tail" {
-        Expr? te = expr.target;
+        Expr? te = targetExpr;
         if te is FunctionExpr && (te.name == "children" || te.name == "descendants") {
             return error FHIRPathInterpreterError("tail() cannot be applied to an unordered collection from children() or descendants()",
                 token = {tokenType: IDENTIFIER, lexeme: name, literal: (), position: 0});
@@ -1097,7 +1115,7 @@ isolated function visitFunctionExpr(FunctionExpr expr, json context, FhirPathEnv
         return applyTailFunction(targetResults, params);
     }
     if name == "skip" {
-        Expr? te = expr.target;
+        Expr? te = targetExpr;
         if te is FunctionExpr && (te.name == "children" || te.name == "descendants") {
             return error FHIRPathInterpreterError("skip() cannot be applied to an unordered collection from children() or descendants()",
                 token = {tokenType: IDENTIFIER, lexeme: name, literal: (), position: 0});
@@ -1105,7 +1123,7 @@ isolated function visitFunctionExpr(FunctionExpr expr, json context, FhirPathEnv
         return applySkipFunction(targetResults, params, context, env);
     }
     if name == "take" {
-        Expr? te = expr.target;
+        Expr? te = targetExpr;
         if te is FunctionExpr && (te.name == "children" || te.name == "descendants") {
             return error FHIRPathInterpreterError("take() cannot be applied to an unordered collection from children() or descendants()",
                 token = {tokenType: IDENTIFIER, lexeme: name, literal: (), position: 0});
@@ -0,0 +1,126 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/log;
+import ballerina/test;
+import ballerina/time;
+
+const THROUGHPUT_ITERATIONS = 2000;
+
+@test:Config {}
+function testCompiledEvaluatorMatchesInterpreter() returns error? {
+    // The conformance test cases are the oracle: the compiled closures must give the same result as the interpreter
+    string[] mismatches = [];
+    foreach FHIRPathTestCase tc in getAllTestCases() {
+        if tc.disabled {
+            continue;
+        }
+        json 'resource = check getResource(tc.resourceKey);
+        FhirPathToken[]|FHIRPathScannerError tokens = scanTokens(tc.expression);
+        if tokens is FHIRPathScannerError {
+            continue;
+        }
+        Expr?|FHIRPathParserError expr = parse(tokens);
+        if expr !is Expr {
+            continue;
+        }
+        Expr & readonly ast = expr.cloneReadOnly();
+        json[]|FHIRPathInterpreterError interpreted = interpret(ast, 'resource);
+        json[]|FHIRPathInterpreterError compiled = evaluateCompiledExpr(compileExpr(ast), 'resource);
+        if interpreted is FHIRPathInterpreterError || compiled is FHIRPathInterpreterError {
+            if interpreted is json[] || compiled is json[] {
+                mismatches.push(tc.name);
+            }
+        } else if interpreted != compiled {
+            mismatches.push(tc.name);
+        }
+    }
+    test:assertEquals(mismatches, [], msg = "Compiled evaluator differs from the interpreter!");
+}
+
+@test:Config {}
+function testCompiledEvaluatorWithVariables() returns error? {
+    Expr & readonly ast = check parseAst("name.where(use = %nameUse).given | name.given.defineVariable('g').select(%g)");
+    map<json> variables = {"nameUse": "official"};
+    json[] expected = check interpret(ast, samplePatient1, variables);
+    test:assertEquals(check evaluateCompiledExpr(compileExpr(ast), samplePatient1, variables), expected,
+            msg = "Failed!");
+}
+
+@test:Config {}
+function testCompiledResultDoesNotAliasResource() returns error? {
+    json patient = {
+        resourceType: "Patient",
+        name: [{use: "official", given: ["Jane", "Ann"]}]
+    };
+    json expected = patient.clone();
+    foreach string expression in ["Patient.name", "Patient.name.given", "Patient.name.select(given)"] {
+        json[] result = check getValuesFromFhirPath(patient, expression, false);
+        result.push("mutated");
+        test:assertEquals(patient, expected, msg = string `Result of ${expression} should not alias the resource`);
+    }
+
+    // A read-only resource must not make the results read-only
+    json readonlyPatient = patient.cloneReadOnly();
+    json[] given = check getValuesFromFhirPath(readonlyPatient, "Patient.name.given", false);
+    given.push("mutated");
+    test:assertEquals(given, ["Jane", "Ann", "mutated"]);
+}
+
+@test:Config {}
+function testCompiledEvaluatorThroughput() returns error? {
+    // Compares the throughput of the compiled closures with the tree-walking interpreter. Not asserted, as the
+    // numbers depend on the machine the tests run on.
+    string[] expressions = [
+        "Patient.name.given",
+        "name.where(use = 'official').family",
+        "telecom.where(system = 'phone').value.first()",
+        "address.city.exists() and gender = 'male'",
+        "name.given.count() > 1"
+    ];
+    foreach string expression in expressions {
+        Expr & readonly ast = check parseAst(expression);
+        CompiledExprFn compiled = compileExpr(ast);
+
+        decimal startTime = time:monotonicNow();
+        foreach int i in 0 ..< THROUGHPUT_ITERATIONS {
+            _ = check interpret(ast, samplePatient1);
+        }
+        decimal interpreterTime = time:monotonicNow() - startTime;
+
+        startTime = time:monotonicNow();
+        foreach int i in 0 ..< THROUGHPUT_ITERATIONS {
+            _ = check evaluateCompiledExpr(compiled, samplePatient1);
+        }
+        decimal compiledTime = time:monotonicNow() - startTime;
+
+        log:printInfo("FHIRPath evaluation throughput", expression = expression,
+                interpreterOpsPerSec = getOpsPerSecond(interpreterTime),
+                compiledOpsPerSec = getOpsPerSecond(compiledTime));
+    }
+}
+
+function parseAst(string expression) returns (Expr & readonly)|error {
+    Expr? expr = check parse(check scanTokens(expression));
+    if expr is () {
+        return error("Failed to parse " + expression);
+    }
+    return expr.cloneReadOnly();
+}
+
+function getOpsPerSecond(decimal elapsedSeconds) returns int {
+    return elapsedSeconds > 0d ? <int>(<decimal>THROUGHPUT_ITERATIONS / elapsedSeconds) : 0;
+}
@@ -0,0 +1,75 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+
+// http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/test;
+
+@test:Config {}
+function testCompiledFhirPathEvaluation() returns error? {
+    CompiledFhirPath givenNames = check compileFhirPath("Patient.name.given");
+    test:assertEquals(givenNames.getExpression(), "Patient.name.given", msg = "Failed!");
+    test:assertEquals(getValuesFromCompiledFhirPath(samplePatient1, givenNames),
+            getValuesFromFhirPath(samplePatient1, "Patient.name.given"), msg = "Failed!");
+    test:assertEquals(getValuesFromCompiledFhirPath(samplePatient2, givenNames),
+            getValuesFromFhirPath(samplePatient2, "Patient.name.given"), msg = "Failed!");
+
+    CompiledFhirPath gender = check compileFhirPath("Patient.gender");
+    json updated = check setValuesToCompiledFhirPath(samplePatient1, gender, "female");
+    test:assertEquals(getValuesFromCompiledFhirPath(updated, gender), ["female"], msg = "Failed!");
+    test:assertEquals(getValuesFromCompiledFhirPath(samplePatient1, gender), ["male"],
+            msg = "Compiled expression must not modify the input resource!");
+}
+
+@test:Config {}
+function testCompiledFhirPathErrors() {
+    test:assertTrue(compileFhirPath("Patient.name.where(") is FHIRPathError, msg = "Failed!");
+    test:assertTrue(getValuesFromFhirPath(samplePatient1, "Patient.name.where(") is FHIRPathError, msg = "Failed!");
+}
+
+@test:Config {}
+function testFhirPathCacheHitsAndMisses() returns error? {
+    FhirPathCacheStats before = getFhirPathCacheStats();
+    CompiledFhirPath first = check compileFhirPath("Patient.address.where(use = 'home').postalCode");
+    _ = check getValuesFromFhirPath(samplePatient1, "Patient.address.where(use = 'home').postalCode");
+    CompiledFhirPath second = check compileFhirPath("Patient.address.where(use = 'home').postalCode");
+    FhirPathCacheStats after = getFhirPathCacheStats();
+
+    test:assertTrue(first === second, msg = "Compiled expressions should be served from the cache!");
+    test:assertEquals(after.misses - before.misses, 1, msg = "Failed!");
+    test:assertEquals(after.hits - before.hits, 2, msg = "Failed!");
+}
+
+@test:Config {}
+function testFhirPathCacheEviction() returns error? {
+    FhirPathCache cache = new (2);
+    CompiledFhirPath id = check parseFhirPath("Patient.id");
+    CompiledFhirPath name = check parseFhirPath("Patient.name");
+    CompiledFhirPath gender = check parseFhirPath("Patient.gender");
+
+    cache.put("Patient.id", id);
+    cache.put("Patient.name", name);
+    // Use Patient.id, so that Patient.name becomes the least recently used entry
+    test:assertTrue(cache.get("Patient.id") === id, msg = "Failed!");
+    cache.put("Patient.gender", gender);
+
+    test:assertTrue(cache.get("Patient.name") is (), msg = "Least recently used entry should be evicted!");
+    test:assertTrue(cache.get("Patient.id") === id, msg = "Failed!");
+    test:assertTrue(cache.get("Patient.gender") === gender, msg = "Failed!");
+    test:assertEquals(cache.getStats(), {hits: 3, misses: 1, evictions: 1, size: 2, capacity: 2}, msg = "Failed!");
+
+    FhirPathCache disabled = new (0);
+    disabled.put("Patient.id", id);
+    test:assertTrue(disabled.get("Patient.id") is (), msg = "Failed!");
+}
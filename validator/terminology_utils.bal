@@ -17,11 +17,13 @@
 import ballerina/http;
 import ballerina/log;
 import ballerinax/health.clients.fhir as fhir_client;
+import ballerinax/health.fhir.r4.parser;
 
 configurable TerminologyConfig? terminologyConfig = ();
 
 final boolean terminologyValidationEnabled = initializeTerminologyValidation();
 final fhir_client:FHIRConnector? fhirConnector = check getFHIRConnectorConfig();
+final parser:TerminologyValidator? terminologyValidator = createTerminologyValidator();
 
 function initializeTerminologyValidation() returns boolean {
     if terminologyConfig?.isTerminologyValidationEnabled is false || terminologyConfig?.terminologyServiceApi is () {
@@ -64,6 +66,15 @@ function getFHIRConnectorConfig() returns fhir_client:FHIRConnector|error? {
     return connector;
 }
 
+function createTerminologyValidator() returns parser:TerminologyValidator? {
+    fhir_client:FHIRConnector? connector = fhirConnector;
+    if connector is () {
+        return ();
+    }
+    return new (connector, terminologyConfig?.codeCacheCapacity ?: parser:DEFAULT_CODE_CACHE_CAPACITY,
+            terminologyConfig?.negativeCacheTtl ?: parser:DEFAULT_NEGATIVE_CACHE_TTL);
+}
+
 function isTerminologyServiceAvailable() returns boolean {
     if terminologyConfig?.terminologyServiceApi is () {
         log:printDebug("Terminology service API is not configured.");
@@ -84,143 +95,24 @@ function isTerminologyServiceAvailable() returns boolean {
     return true;
 }
 
-isolated function extractTerminologyCodes(anydata data) returns Term[] {
-    Term[] result = [];
-
-    if data is map<anydata> {
-        if data.hasKey("valueCode") && data.hasKey("url") {
-            result.push({
-                code: <string>data["valueCode"],
-                system: <string>data["url"]
-            });
-
-            // check is there is not other properties in the map
-            if data.length() == 2 {
-                return result;
-            }
-        }
-
-        foreach var [key, value] in data.entries() {
-            if key == "valueCoding" && value is map<anydata> {
-                Term[] codingResult = extractCodesFromCodingElement(value);
-                foreach Term item in codingResult {
-                    result.push(item);
-                }
-            } else if key == "coding" && value is anydata[] {
-                foreach anydata item in value {
-                    Term[] codeableResult = extractCodesFromCodingElement(item);
-                    foreach Term codeableItem in codeableResult {
-                        result.push(codeableItem);
-                    }
-                }
-            } else if value is map<anydata> || value is anydata[] {
-                Term[] nestedResult = extractTerminologyCodes(value);
-                foreach Term item in nestedResult {
-                    result.push(item);
-                }
-            }
-        }
-    } else if data is anydata[] {
-        foreach anydata item in data {
-            Term[] arrayResult = extractTerminologyCodes(item);
-            foreach Term arrayItem in arrayResult {
-                result.push(arrayItem);
-            }
-        }
-    }
-
-    return result;
-}
-
-isolated function extractCodesFromCodingElement(anydata data) returns Term[] {
-    Term[] result = [];
-
-    if data is map<anydata> {
-        if data.hasKey("code") && data.hasKey("system") {
-            result.push({
-                code: <string>data["code"],
-                system: <string>data["system"],
-                'version: data.hasKey("version") ? <string>data["version"] : null
-            });
-        }
-        if data.hasKey("extension") {
-            Term[] extensionResult = extractTerminologyCodes(data["extension"]);
-            foreach Term item in extensionResult {
-                result.push(item);
-            }
-        }
-    }
-
-    return result;
-}
-
-isolated function validateTerminologyData(anydata data) returns string[]? {
-    Term[] terms = extractTerminologyCodes(data);
-
-    string[] errors = [];
-    int responseStatusCode = 0;
-
-    if fhirConnector is () {
-        log:printDebug("FHIR Connector is not available. Skipping terminology validation.");
+# Starts checking the codes of a FHIR resource against the terminology service, if terminology validation is enabled.
+#
+# + data - FHIR resource
+# + return - The pending check, or nil if terminology validation is disabled
+isolated function startTerminologyCheck(anydata data) returns future<string[]?>? {
+    final parser:TerminologyValidator? validator = terminologyValidator;
+    if !terminologyValidationEnabled || validator is () {
         return ();
     }
+    parser:TerminologyCodes codes = parser:collectTerminologyCodes(data);
+    return start validator.checkCodes(codes);
+}
 
-    foreach Term term in terms {
-        map<string[]> queryParamsMap = {
-            "system": [term.system],
-            "code": [term.code],
-            "version": term.'version is string ? ([<string>term.'version]) : []
-        };
-
-        // Send GET request to ValueSet validate-code API
-        fhir_client:FHIRResponse|fhir_client:FHIRError valuesetResponse = (<fhir_client:FHIRConnector>fhirConnector)->callOperation(
-            VALUE_SET,
-            operationName = VALIDATE_CODE,
-            mode = http:GET,
-            queryParameters = queryParamsMap,
-            returnMimeType = fhir_client:FHIR_JSON);
-
-        if valuesetResponse is fhir_client:FHIRResponse {
-            // get the HTTP status code from the response
-            responseStatusCode = valuesetResponse.httpStatusCode;
-        } else if valuesetResponse is fhir_client:FHIRServerError {
-            // if the response is an error, extract the HTTP status code
-            fhir_client:FHIRServerErrorDetails valuesetErrorDetails = valuesetResponse.detail();
-            responseStatusCode = valuesetErrorDetails.httpStatusCode;
-        }
-
-        if responseStatusCode == http:STATUS_NOT_FOUND {
-            // ValueSet NOT_FOUND or invalid code (terminology service returns 404 for both cases), proceed to check CodeSystem
-            // Send GET request to CodeSystem lookup API
-            fhir_client:FHIRResponse|fhir_client:FHIRError codesystemResponse = (<fhir_client:FHIRConnector>fhirConnector)->callOperation(
-                CODE_SYSTEM,
-                operationName = LOOKUP,
-                mode = http:GET,
-                queryParameters = queryParamsMap,
-                returnMimeType = fhir_client:FHIR_JSON);
-
-            if codesystemResponse is fhir_client:FHIRResponse {
-                responseStatusCode = codesystemResponse.httpStatusCode;
-            } else if codesystemResponse is fhir_client:FHIRServerError {
-                fhir_client:FHIRServerErrorDetails codesystemErrorDetails = codesystemResponse.detail();
-                responseStatusCode = codesystemErrorDetails.httpStatusCode;
-            }
-
-            if responseStatusCode == http:STATUS_NOT_FOUND {
-                // If the code is not found in CodeSystem, add an error message
-                errors.push("Terminology code '" + term.code + "' with system '" + term.system + "' not found.");
-            } else if responseStatusCode == http:STATUS_BAD_REQUEST {
-                // Can't find CodeSystem or ValueSet for the given system and code, but the terminology service is configured to ignore this error
-                // and assume that the code is valid.
-                // This is a common scenario when the CodeSystem is not added to the terminology service.
-                log:printDebug("CodeSystem or ValueSet not found. System: '" + term.system + "', Code: '" + term.code + "'. Assuming the code is valid.");
-            }
-            // ignore other response codes as they are not relevant for validation
-        } else if responseStatusCode == http:STATUS_BAD_REQUEST {
-            errors.push("Terminology code '" + term.code + "' with system '" + term.system + "' not found.");
-        }
-        // ignore other response codes as they are not relevant for validation
+# Clears the cached terminology lookup outcomes. Use this when the code systems or value sets of the configured
+# terminology service change.
+public isolated function clearTerminologyCache() {
+    final parser:TerminologyValidator? validator = terminologyValidator;
+    if validator is parser:TerminologyValidator {
+        validator.clearCache();
     }
-
-    return errors.length() == 0 ? () : errors;
 }
@@ -14,11 +14,7 @@
 // specific language governing permissions and limitations
 // under the License.
 
-type Term record {
-    string code;
-    string system;
-    string 'version?;
-};
+import ballerinax/health.fhir.r4.parser;
 
 type TerminologyConfig record {|
     boolean isTerminologyValidationEnabled = false;
@@ -26,14 +22,6 @@ type TerminologyConfig record {|
     string tokenUrl?;
     string clientId?;
     string clientSecret?;
+    int codeCacheCapacity = parser:DEFAULT_CODE_CACHE_CAPACITY;
+    decimal negativeCacheTtl = parser:DEFAULT_NEGATIVE_CACHE_TTL;
 |};
-
-enum TerminologyResources {
-    CODE_SYSTEM = "CodeSystem",
-    VALUE_SET = "ValueSet"
-}
-
-enum TerminologyOperation {
-    LOOKUP = "lookup",
-    VALIDATE_CODE = "validate-code"
-}
@@ -111,6 +111,10 @@ public isolated function validate(anydata data, typedesc<anydata>? targetFHIRMod
                         "Invalid FHIR resource type", errorType = r4:VALIDATION_ERROR, httpStatusCode = http:STATUS_BAD_REQUEST);
     }
 
+    // The codes are collected up front, so that the terminology service is called while the constraints are
+    // validated.
+    future<string[]?>? terminologyCheck = startTerminologyCheck(finalData);
+
     // Get the types of the FHIR resources, it can be international or any specific FHIR profiles like Uscore
     typedesc<anydata> typeDescOfData = typeof finalData;
 
@@ -124,8 +128,8 @@ public isolated function validate(anydata data, typedesc<anydata>? targetFHIRMod
     } 
     
     // terminology validation
-    if terminologyValidationEnabled {
-        string[]? validationErrors = validateTerminologyData(validationResult);
+    if terminologyCheck is future<string[]?> {
+        string[]? validationErrors = wait terminologyCheck;
 
         if validationErrors is string[] {    
             return <r4:FHIRValidationError>createValidationError("FHIR resource validation failed, due to terminology validation failed", r4:ERROR, r4:INVALID, "Terminology validation failed", 